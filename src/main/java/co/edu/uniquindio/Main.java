@@ -1,18 +1,67 @@
 package co.edu.uniquindio;
 
 import javafx.application.Application;
+import javafx.concurrent.Task;
 import javafx.stage.Stage;
 import co.edu.uniquindio.util.SceneSwitcher;
 import co.edu.uniquindio.model.AppModel;
+import co.edu.uniquindio.model.ImportadorRedVial;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class Main extends Application {
 
     @Override
     public void start(Stage stage) throws Exception {
-        AppModel.getInstance().cargarDatosPrueba();
+        Path datos = Paths.get(System.getProperty("user.home"), ".sistema-desastres");
+        AppModel.getInstance().abrirDiarioInventario(datos.resolve("diario"));
+        // la instantánea del cierre anterior evita reconstruir el modelo; la primera vez se usan los datos de prueba
+        if (!AppModel.getInstance().cargarInstantanea(datos.resolve("modelo.bin"))) {
+            AppModel.getInstance().cargarDatosPrueba();
+        }
+        // -Dsistema.importarRedVial=nodos.csv,rutas.csv agrega al grafo una red vial en CSV o GeoJSON
+        String redVial = System.getProperty("sistema.importarRedVial", "");
+        if (!redVial.isBlank()) {
+            ImportadorRedVial.Importacion importacion = AppModel.getInstance().prepararImportacionRedVial(
+                    Arrays.stream(redVial.split(",")).map(String::strip).map(Paths::get).toArray(Path[]::new));
+            // se lee en segundo plano para no retrasar la ventana de inicio de sesión; el grafo
+            // solo se modifica al terminar, en el hilo de la interfaz
+            Task<Void> lectura = new Task<>() {
+                @Override
+                protected Void call() throws Exception {
+                    importacion.leer();
+                    return null;
+                }
+            };
+            lectura.setOnSucceeded(e -> {
+                try {
+                    AppModel.getInstance().incorporarRedVial(importacion);
+                } catch (IllegalStateException ex) {
+                    System.out.println("No se pudo importar la red vial: " + ex.getMessage());
+                }
+            });
+            lectura.setOnFailed(e -> System.out.println("No se pudo importar la red vial: " + lectura.getException().getMessage()));
+            Thread hilo = new Thread(lectura, "importar-red-vial");
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+        // -Dsistema.simularPosiciones=N simula N reportes GPS por segundo de los equipos
+        int reportesSimulados = Integer.getInteger("sistema.simularPosiciones", 0);
+        if (reportesSimulados > 0) AppModel.getInstance().iniciarSimulacionPosiciones(reportesSimulados);
         SceneSwitcher.switchTo(stage, "panelDelLogin.fxml");
     }
 
+    @Override
+    public void stop() throws Exception {
+        try {
+            AppModel.getInstance().guardarInstantanea();
+        } finally {
+            AppModel.getInstance().cerrar();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -1,20 +1,30 @@
 package co.edu.uniquindio.controller;
 
-import co.edu.uniquindio.model.GestorEquipos;
 import co.edu.uniquindio.model.AppModel;
+import co.edu.uniquindio.model.DespachadorEquipos;
+import co.edu.uniquindio.model.ImportadorRedVial;
+import co.edu.uniquindio.model.PlanDistribucion;
 import co.edu.uniquindio.model.Recurso;
+import co.edu.uniquindio.model.ResultadoImportacion;
 import co.edu.uniquindio.model.Equipo;
 import co.edu.uniquindio.model.Ubicacion;
 import co.edu.uniquindio.util.SceneSwitcher;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class PanelDeAdministracionController {
@@ -30,9 +40,16 @@ public class PanelDeAdministracionController {
     @FXML private TableColumn<Equipo, String> colZonaAsignada;
 
     @FXML private ComboBox<String> comboUbicaciones;
+    @FXML private Spinner<Integer> spinnerUrgencia;
 
     @FXML private Button btnAsignarRecursos;
     @FXML private Button btnAsignarEquipo;
+    @FXML private Button btnLiberarEquipo;
+    @FXML private Button btnCambiarUrgencia;
+    @FXML private Button btnDespacharEquipos;
+    @FXML private Button btnOptimizarDistribucion;
+    @FXML private Button btnGuardarEstado;
+    @FXML private Button btnImportarRedVial;
     @FXML private Button btnVolver;
 
     @FXML
@@ -49,6 +66,12 @@ public class PanelDeAdministracionController {
                 cell.getValue().getZonaAsignada() != null ? cell.getValue().getZonaAsignada().getNombre() : "Sin asignar"
         ));
 
+        spinnerUrgencia.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 10, 1));
+        comboUbicaciones.getSelectionModel().selectedItemProperty().addListener((obs, anterior, nombre) -> {
+            Ubicacion ubicacion = buscarUbicacion(nombre);
+            if (ubicacion != null) spinnerUrgencia.getValueFactory().setValue(ubicacion.getNivelUrgencia());
+        });
+
         cargarRecursos();
         cargarEquipos();
         cargarUbicaciones();
@@ -63,7 +86,7 @@ public class PanelDeAdministracionController {
 
     private void cargarEquipos() {
         ObservableList<Equipo> lista = FXCollections.observableArrayList(
-                GestorEquipos.getListaEquipos()
+                AppModel.getInstance().getGestorEquipos().getListaEquipos()
         );
         tablaEquipos.setItems(lista);
     }
@@ -83,9 +106,25 @@ public class PanelDeAdministracionController {
             mostrarAlert("Seleccione un recurso para asignar.");
             return;
         }
-        r.disminuirCantidad(1);
+        Ubicacion destino = buscarUbicacion(comboUbicaciones.getSelectionModel().getSelectedItem());
+        if (destino == null) {
+            mostrarAlert("Seleccione una ubicación para asignar el recurso.");
+            return;
+        }
+        if (!AppModel.getInstance().getGestorRecursos().asignarRecurso(destino, r, 1)) {
+            mostrarAlert("No hay unidades disponibles de " + r.getNombre());
+            return;
+        }
         tablaRecursos.refresh();
-        mostrarAlert("Se asignó 1 unidad de " + r.getNombre());
+        mostrarAlert("Se asignó 1 unidad de " + r.getNombre() + " a " + destino.getNombre());
+    }
+
+    private Ubicacion buscarUbicacion(String nombre) {
+        if (nombre == null) return null;
+        return AppModel.getInstance().getGrafoRutas().getUbicaciones().stream()
+                .filter(u -> u.getNombre().equals(nombre))
+                .findFirst()
+                .orElse(null);
     }
 
     @FXML
@@ -102,11 +141,7 @@ public class PanelDeAdministracionController {
             return;
         }
 
-        // Buscar la ubicación por nombre
-        Ubicacion ubicacion = AppModel.getInstance().getGrafoRutas().getUbicaciones().stream()
-                .filter(u -> u.getNombre().equals(nombreUbicacion))
-                .findFirst()
-                .orElse(null);
+        Ubicacion ubicacion = buscarUbicacion(nombreUbicacion);
 
         if (ubicacion != null) {
             equipo.setZonaAsignada(ubicacion);
@@ -117,6 +152,135 @@ public class PanelDeAdministracionController {
         }
     }
 
+    @FXML
+    private void onLiberarEquipo() {
+        Equipo equipo = tablaEquipos.getSelectionModel().getSelectedItem();
+        if (equipo == null) {
+            mostrarAlert("Seleccione un equipo para liberar.");
+            return;
+        }
+        List<Equipo> cambiados = AppModel.getInstance().liberarEquipo(equipo);
+        tablaEquipos.refresh();
+        mostrarAlert("Equipo " + equipo.getNombre() + " liberado. Equipos reasignados: " + cambiados.size());
+    }
+
+    @FXML
+    private void onCambiarUrgencia() {
+        Ubicacion ubicacion = buscarUbicacion(comboUbicaciones.getSelectionModel().getSelectedItem());
+        if (ubicacion == null) {
+            mostrarAlert("Seleccione una ubicación para cambiar su urgencia.");
+            return;
+        }
+        // el gestor reordena la cola de evacuación y avisa al despachador de equipos
+        if (!AppModel.getInstance().getGestorEvacuacion().cambiarUrgencia(ubicacion, spinnerUrgencia.getValue())) {
+            mostrarAlert("La urgencia de " + ubicacion.getNombre() + " ya es " + ubicacion.getNivelUrgencia());
+            return;
+        }
+        tablaEquipos.refresh();
+        mostrarAlert("Urgencia de " + ubicacion.getNombre() + " cambiada a " + ubicacion.getNivelUrgencia());
+    }
+
+    @FXML
+    private void onDespacharEquipos() {
+        DespachadorEquipos despachador = AppModel.getInstance().getDespachadorEquipos();
+        Map<Equipo, Ubicacion> asignaciones = despachador.despachar(AppModel.getInstance().getGestorEquipos().getListaEquipos());
+        tablaEquipos.refresh();
+        mostrarAlert("Se despacharon " + asignaciones.size() + " equipos (" +
+                String.format("%.1f", despachador.getDistanciaTotal()) + " km en total). Zonas críticas sin equipo: " +
+                despachador.getZonasSinCubrir().size());
+    }
+
+    @FXML
+    private void onOptimizarDistribucion() {
+        AppModel modelo = AppModel.getInstance();
+        PlanDistribucion plan = modelo.getPlanificadorDistribucion().planificar();
+        if (plan.getEnvios().isEmpty()) {
+            mostrarAlert("No hay envíos que mejoren la distribución actual. Unidades sin cubrir: " + plan.getTotalFaltante());
+            return;
+        }
+        if (!modelo.getGestorRecursos().aplicarPlanDistribucion(plan)) {
+            mostrarAlert("El inventario cambió mientras se calculaba el plan. Intente de nuevo.");
+            return;
+        }
+        tablaRecursos.refresh();
+        mostrarAlert("Se enviaron " + plan.getTotalEnviado() + " unidades a " + plan.getZonas().size() +
+                " zonas. Unidades sin cubrir: " + plan.getTotalFaltante());
+    }
+
+    @FXML
+    private void onGuardarEstado() {
+        btnGuardarEstado.setDisable(true);
+        // solo la copia del estado ocurre aquí; la escritura sigue en segundo plano
+        CompletableFuture<Path> guardado;
+        try {
+            guardado = AppModel.getInstance().guardarInstantaneaEnSegundoPlano();
+        } catch (RuntimeException e) {
+            btnGuardarEstado.setDisable(false);
+            mostrarAlert("No se pudo guardar el estado: " + e.getMessage());
+            return;
+        }
+        guardado.whenComplete((archivo, error) -> Platform.runLater(() -> {
+            btnGuardarEstado.setDisable(false);
+            if (error != null) {
+                Throwable causa = error.getCause() != null ? error.getCause() : error;
+                mostrarAlert("No se pudo guardar el estado: " + causa.getMessage());
+            } else {
+                mostrarAlert("Estado guardado en " + archivo);
+            }
+        }));
+    }
+
+    @FXML
+    private void onImportarRedVial() {
+        FileChooser selector = new FileChooser();
+        selector.setTitle("Importar red vial");
+        selector.getExtensionFilters().add(new FileChooser.ExtensionFilter("Redes viales (CSV, GeoJSON)",
+                "*.csv", "*.geojson", "*.json", "*.geojsonl", "*.geojsons", "*.ndjson"));
+        List<File> archivos = selector.showOpenMultipleDialog(btnImportarRedVial.getScene().getWindow());
+        if (archivos == null || archivos.isEmpty()) return;
+
+        ImportadorRedVial.Importacion importacion;
+        try {
+            importacion = AppModel.getInstance().prepararImportacionRedVial(
+                    archivos.stream().map(File::toPath).toArray(Path[]::new));
+        } catch (IllegalArgumentException e) {
+            mostrarAlert("No se pudo importar la red vial: " + e.getMessage());
+            return;
+        }
+        // una red de millones de rutas tarda segundos en leerse: la lectura va en segundo plano y
+        // el grafo, que no es seguro entre hilos, solo se modifica aquí en el hilo de la interfaz
+        Task<Void> lectura = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                importacion.leer();
+                return null;
+            }
+        };
+        lectura.setOnSucceeded(e -> {
+            btnImportarRedVial.setDisable(false);
+            ResultadoImportacion resultado;
+            try {
+                resultado = AppModel.getInstance().incorporarRedVial(importacion);
+            } catch (IllegalStateException ex) {
+                mostrarAlert("No se pudo importar la red vial: " + ex.getMessage());
+                return;
+            }
+            cargarUbicaciones();
+            mostrarAlert("Se agregaron " + resultado.getUbicacionesAgregadas() + " ubicaciones y " +
+                    resultado.getRutasAgregadas() + " rutas en " + resultado.getMilisegundos() + " ms. Repetidas: " +
+                    (resultado.getUbicacionesRepetidas() + resultado.getRutasRepetidas()) + ". Registros inválidos: " +
+                    resultado.getRegistrosInvalidos());
+        });
+        lectura.setOnFailed(e -> {
+            btnImportarRedVial.setDisable(false);
+            mostrarAlert("No se pudo importar la red vial: " + lectura.getException().getMessage());
+        });
+        btnImportarRedVial.setDisable(true);
+        Thread hilo = new Thread(lectura, "importar-red-vial");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
     @FXML
     private void onVolver() {
         Stage stage = (Stage) btnVolver.getScene().getWindow();
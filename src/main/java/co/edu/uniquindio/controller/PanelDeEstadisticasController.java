@@ -9,15 +9,18 @@ import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.PieChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import co.edu.uniquindio.util.SceneSwitcher;
-import java.util.Map;
+import java.util.List;
 
 public class PanelDeEstadisticasController {
 
     @FXML private Label lblRecursos;
     @FXML private Label lblEvacuaciones;
     @FXML private Label lblEquiposActivos;
+    @FXML private Label lblTiempoEvacuacion;
+    @FXML private VBox contenedorTiemposZona;
 
     @FXML private BarChart<String, Number> graficoBarras;
     @FXML private PieChart graficoCircular;
@@ -27,12 +30,9 @@ public class PanelDeEstadisticasController {
         AppModel model = AppModel.getInstance();
 
         // Métricas principales
-        int recursos = model.getGestorRecursos().getInventarioGlobal().stream()
-                .mapToInt(Recurso::getCantidadDisponible).sum();
+        long recursos = model.getGestorRecursos().obtenerTotalGlobal();
         int evacuaciones = model.getGestorEvacuacion().getZonasPendientes();
-        int equipos = (int) model.getGestorRecursos().getInventarioGlobal().stream()
-                .filter(r -> r.getTipo() == TipoRecurso.EQUIPO_RESCATE && r.getCantidadDisponible() > 0)
-                .count();
+        int equipos = model.getGestorRecursos().contarRecursosDisponibles(TipoRecurso.EQUIPO_RESCATE);
 
         lblRecursos.setText(String.valueOf(recursos));
         lblEvacuaciones.setText(String.valueOf(evacuaciones));
@@ -43,6 +43,9 @@ public class PanelDeEstadisticasController {
 
         //Gráfico circular: Porcentaje de evacuaciones completadas
         actualizarGraficoCircular(model);
+
+        //Tiempo estimado de evacuación por zona según la capacidad de las rutas
+        actualizarTiemposEvacuacion(model);
     }
 
     private void actualizarGraficoBarras(AppModel model) {
@@ -56,10 +59,8 @@ public class PanelDeEstadisticasController {
         XYChart.Series<String, Number> serie = new XYChart.Series<>();
         serie.setName("Recursos por Zona");
 
-        Map<Ubicacion, Map<Recurso, Integer>> recursosPorZona = model.getGestorRecursos().getArbolDistribucion().obtenerResumenPorUbicacion();
         for (Ubicacion u : model.getGrafoRutas().getUbicaciones()) {
-            int total = model.getGestorRecursos().obtenerRecursosPorUbicacion(u).stream()
-                    .mapToInt(Recurso::getCantidadDisponible).sum();
+            long total = model.getGestorRecursos().obtenerTotalEnUbicacion(u);
             serie.getData().add(new XYChart.Data<>(u.getNombre(), total));
         }
 
@@ -79,6 +80,27 @@ public class PanelDeEstadisticasController {
         graficoCircular.setData(FXCollections.observableArrayList(completadas, pendientes));
     }
 
+    private void actualizarTiemposEvacuacion(AppModel model) {
+        PlanificadorCapacidadRutas planificador = model.getPlanificadorCapacidad();
+        List<Ubicacion> zonas = model.getGestorEvacuacion().obtenerZonasPendientes();
+        planificador.sincronizar(zonas);
+
+        contenedorTiemposZona.getChildren().clear();
+        double total = 0;
+        for (Ubicacion zona : zonas) {
+            double horas = planificador.getTiempoFinalizacion(zona);
+            String tiempo;
+            if (Double.isInfinite(horas)) {
+                tiempo = "sin ruta a un refugio con cupo";
+            } else {
+                tiempo = String.format("%.1f h", horas);
+                total = Math.max(total, horas);
+            }
+            contenedorTiemposZona.getChildren().add(new Label("• " + zona.getNombre() + ": " + tiempo));
+        }
+        lblTiempoEvacuacion.setText(String.format("%.1f h", total));
+    }
+
     @FXML
     public void volverAtras() {
         Stage stage = (Stage) lblRecursos.getScene().getWindow();
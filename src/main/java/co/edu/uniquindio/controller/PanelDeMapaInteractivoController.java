@@ -12,6 +12,7 @@ import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
 import javafx.stage.Stage;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class PanelDeMapaInteractivoController {
@@ -30,6 +31,10 @@ public class PanelDeMapaInteractivoController {
 
     private WebEngine webEngine;
     private AppModel appModel;
+    private Consumer<List<PosicionEquipo>> oyentePosiciones;
+
+    /** Distancia máxima (km) para considerar que una zona tiene un refugio al alcance. */
+    private static final double ALCANCE_REFUGIOS_KM = 15.0;
 
     @FXML
     public void initialize() {
@@ -43,6 +48,7 @@ public class PanelDeMapaInteractivoController {
                 Platform.runLater(() -> {
                     cargarTodoOptimizado();
                     poblarComboBoxes();
+                    seguirEquipos();
                 });
             }
         });
@@ -62,8 +68,7 @@ public class PanelDeMapaInteractivoController {
 
             String color = obtenerColorPorUrgencia(u.getNivelUrgencia());
             String recursos = u.recursosComoString();
-            String equipos = appModel.getGestorEquipos().getListaEquipos().stream()
-                    .filter(eq -> eq.getZonaAsignada() != null && eq.getZonaAsignada().equals(u))
+            String equipos = appModel.getGestorEquipos().obtenerEquiposEnZona(u).stream()
                     .map(Equipo::getNombre)
                     .collect(Collectors.joining(", "));
 
@@ -91,9 +96,50 @@ public class PanelDeMapaInteractivoController {
             }
         }
 
+        // ---------- ÁREA CON REFUGIO AL ALCANCE ----------
+        List<Ubicacion> refugios = ubicaciones.stream()
+                .filter(u -> u.getTipo().equalsIgnoreCase("Refugio"))
+                .collect(Collectors.toList());
+        // un polígono por refugio: la envolvente de todos juntos cubriría el terreno entre refugios lejanos
+        for (ResultadoAlcance alcance : appModel.getGrafoRutas().calcularAlcanceEnLote(refugios, ALCANCE_REFUGIOS_KM, true)) {
+            script.append("mostrarIsocrona(").append(alcance.poligonoComoJson()).append(", 'blue');");
+        }
+
         webEngine.executeScript(script.toString());
     }
 
+    /**
+     * Dibuja la última posición conocida de cada equipo y se suscribe al rastreador, que entrega
+     * las posiciones ya agrupadas por intervalo para no saturar el WebView.
+     */
+    private void seguirEquipos() {
+        List<PosicionEquipo> actuales = appModel.getGestorEquipos().getListaEquipos().stream()
+                .map(Equipo::getPosicion)
+                .filter(p -> p != null)
+                .collect(Collectors.toList());
+        if (!actuales.isEmpty()) webEngine.executeScript(scriptPosiciones(actuales));
+
+        oyentePosiciones = posiciones -> {
+            String js = scriptPosiciones(posiciones);
+            Platform.runLater(() -> webEngine.executeScript(js));
+        };
+        appModel.getRastreadorEquipos().agregarOyente(oyentePosiciones);
+    }
+
+    private String scriptPosiciones(List<PosicionEquipo> posiciones) {
+        StringBuilder script = new StringBuilder();
+        for (PosicionEquipo p : posiciones) {
+            String popup = p.getEquipo().getNombre() +
+                    "<br>Cerca de: " + (p.getUbicacionCercana() != null ? p.getUbicacionCercana().getNombre() : "Desconocido") +
+                    "<br>Zona asignada: " + (p.getEquipo().getZonaAsignada() != null ? p.getEquipo().getZonaAsignada().getNombre() : "Sin asignar");
+            script.append(String.format(
+                    "moverEquipo('%s',%f,%f,'%s');",
+                    p.getEquipo().getNombre(), p.getLatitud(), p.getLongitud(), popup
+            ));
+        }
+        return script.toString();
+    }
+
     private String obtenerColorPorUrgencia(int nivel) {
         if (nivel >= 7) return "red";
         else if (nivel >= 4) return "orange";
@@ -124,7 +170,7 @@ public class PanelDeMapaInteractivoController {
 
         if (origen == null || destino == null) return;
 
-        List<Ubicacion> camino = appModel.getGrafoRutas().obtenerCaminoMasCorto(origen, destino);
+        List<Ubicacion> camino = appModel.getGrafoRutas().obtenerCaminoMasCorto(origen, destino, ModoBusqueda.A_ESTRELLA);
         if (camino.isEmpty()) return;
 
         Platform.runLater(() -> webEngine.executeScript("limpiarCaminos();"));
@@ -157,6 +203,7 @@ public class PanelDeMapaInteractivoController {
 
     @FXML
     private void onVolver() {
+        if (oyentePosiciones != null) appModel.getRastreadorEquipos().quitarOyente(oyentePosiciones);
         Stage stage = (Stage) btnVolver.getScene().getWindow();
         SceneSwitcher.switchTo(stage, "panelDelEstadoGeneral.fxml");
     }
@@ -7,7 +7,9 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import co.edu.uniquindio.model.AppModel;
+import co.edu.uniquindio.model.Camino;
 import co.edu.uniquindio.model.Ruta;
+import co.edu.uniquindio.model.SimuladorRutas;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -29,6 +31,8 @@ public class PanelDeRutasController {
 
     private final AppModel model = AppModel.getInstance();
 
+    private static final int RUTAS_ALTERNATIVAS = 3;
+
     @FXML
     public void initialize() {
         cargarTabla();
@@ -85,13 +89,30 @@ public class PanelDeRutasController {
                 return;
             }
 
-            mostrar("Planificación creada para " + cantidad + " personas en ruta: " + sel);
+            mostrar("Planificación creada para " + cantidad + " personas en ruta: " + sel
+                    + describirAlternativas(sel));
 
         } catch (NumberFormatException e) {
             mostrar("Ingresa un número válido de personas.");
         }
     }
 
+    private String describirAlternativas(String seleccion) {
+        Ruta ruta = model.getGrafoRutas().getAdyacencias().values().stream()
+                .flatMap(List::stream)
+                .filter(r -> (r.getOrigen().getNombre() + " → " + r.getDestino().getNombre()).equals(seleccion))
+                .findFirst().orElse(null);
+        if (ruta == null) return "";
+
+        List<Camino> alternativas = new SimuladorRutas(model.getGrafoRutas())
+                .obtenerRutasAlternativas(ruta.getOrigen(), ruta.getDestino(), RUTAS_ALTERNATIVAS);
+        StringBuilder sb = new StringBuilder("\n\nRutas sugeridas:");
+        for (int i = 0; i < alternativas.size(); i++) {
+            sb.append("\n").append(i + 1).append(". ").append(alternativas.get(i));
+        }
+        return sb.toString();
+    }
+
     @FXML
     public void btnVolverAction() {
         Stage stage = (Stage) txtPersonas.getScene().getWindow();
@@ -1,6 +1,16 @@
 package co.edu.uniquindio.model;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 /**
  * Clase principal del modelo de la aplicación.
  * Implementa el patrón Singleton para centralizar el acceso a los gestores del sistema.
@@ -15,6 +25,14 @@ public class AppModel {
     private final GestorUsuarios gestorUsuarios;
     private final GrafoRutas grafoRutas;
     private final GestorEquipos gestorEquipos;
+    private final PlanificadorCapacidadRutas planificadorCapacidad;
+    private final PlanificadorDistribucion planificadorDistribucion;
+    private final DespachadorEquipos despachadorEquipos;
+    private final RastreadorEquipos rastreadorEquipos;
+    private SimuladorPosiciones simuladorPosiciones;
+    private DiarioInventario diarioInventario;
+    private final ExecutorService guardado;
+    private Path archivoInstantanea;
 
     /**
      * Constructor privado que inicializa todos los gestores del sistema.
@@ -26,6 +44,17 @@ public class AppModel {
         this.gestorUsuarios = new GestorUsuarios();
         this.grafoRutas = new GrafoRutas();
         this.gestorEquipos = new GestorEquipos();
+        this.planificadorCapacidad = new PlanificadorCapacidadRutas(grafoRutas);
+        this.planificadorDistribucion = new PlanificadorDistribucion(grafoRutas, gestorRecursos);
+        this.despachadorEquipos = new DespachadorEquipos(grafoRutas);
+        // una zona que se vuelve crítica, o deja de serlo, corrige el despacho sin resolverlo de nuevo
+        gestorEvacuacion.agregarOyenteUrgencia(despachadorEquipos::zonaActualizada);
+        this.rastreadorEquipos = new RastreadorEquipos(grafoRutas);
+        this.guardado = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "instantanea-modelo");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     /**
@@ -82,25 +111,238 @@ public class AppModel {
         return grafoRutas;
     }
 
+    /**
+     * Devuelve el planificador de evacuación con capacidad de rutas, que conserva sus reservas
+     * para planificar solo las zonas nuevas.
+     *
+     * @return instancia de PlanificadorCapacidadRutas
+     */
+    public PlanificadorCapacidadRutas getPlanificadorCapacidad() {
+        return planificadorCapacidad;
+    }
+
+    /**
+     * Devuelve el planificador que reparte el inventario entre todas las zonas afectadas.
+     *
+     * @return instancia de PlanificadorDistribucion
+     */
+    public PlanificadorDistribucion getPlanificadorDistribucion() {
+        return planificadorDistribucion;
+    }
+
+    /**
+     * Devuelve el despachador que asigna los equipos de rescate a las zonas críticas.
+     *
+     * @return instancia de DespachadorEquipos
+     */
+    public DespachadorEquipos getDespachadorEquipos() {
+        return despachadorEquipos;
+    }
+
+    /**
+     * Marca un equipo como libre tras terminar su tarea: su zona actual pasa a ser su base y el
+     * despachador lo reasigna, junto con los equipos afectados, sin resolver todo el despacho.
+     *
+     * @param equipo equipo que terminó su tarea
+     * @return equipos cuya zona asignada cambió
+     */
+    public List<Equipo> liberarEquipo(Equipo equipo) {
+        return despachadorEquipos.equipoLiberado(equipo);
+    }
+
+    /**
+     * Devuelve el rastreador que recibe las posiciones GPS de los equipos en campo.
+     *
+     * @return instancia de RastreadorEquipos
+     */
+    public RastreadorEquipos getRastreadorEquipos() {
+        return rastreadorEquipos;
+    }
+
+    /**
+     * Simula los reportes GPS de todos los equipos registrados, para probar el rastreo sin
+     * equipos reales.
+     *
+     * @param reportesPorSegundo reportes por segundo entre todos los equipos
+     */
+    public void iniciarSimulacionPosiciones(int reportesPorSegundo) {
+        if (simuladorPosiciones != null) simuladorPosiciones.close();
+        simuladorPosiciones = new SimuladorPosiciones(rastreadorEquipos, gestorEquipos.getListaEquipos(), reportesPorSegundo);
+        simuladorPosiciones.iniciar();
+        System.out.println("Simulación de posiciones iniciada: " + reportesPorSegundo + " reportes por segundo.");
+    }
+
+    /**
+     * Abre el diario del inventario. Debe llamarse antes de {@link #cargarDatosPrueba()}: si el
+     * diario trae historial, el inventario se restaura desde él en lugar de usar los recursos de
+     * prueba, y desde ese momento cada movimiento queda registrado.
+     *
+     * @param directorio directorio del diario
+     * @throws IOException si no se puede leer o crear el diario
+     */
+    public void abrirDiarioInventario(Path directorio) throws IOException {
+        if (diarioInventario != null) diarioInventario.close();
+        diarioInventario = new DiarioInventario(directorio);
+        System.out.println("Diario de inventario abierto con " + diarioInventario.getEntradasReproducidas() + " movimientos.");
+    }
+
+    /**
+     * Devuelve el diario del inventario.
+     *
+     * @return instancia de DiarioInventario, o null si no se abrió
+     */
+    public DiarioInventario getDiarioInventario() {
+        return diarioInventario;
+    }
+
+    /**
+     * Carga el modelo desde una instantánea binaria en lugar de los datos de prueba, y recuerda
+     * el archivo para guardar en él. Debe llamarse después de
+     * {@link #abrirDiarioInventario(Path)}: si el diario trae historial, el inventario se
+     * restaura desde él, que está más al día que la instantánea.
+     *
+     * @param archivo archivo de la instantánea
+     * @return true si se cargó; false si el archivo aún no existe
+     * @throws IOException si no se puede leer o la instantánea está dañada
+     */
+    public boolean cargarInstantanea(Path archivo) throws IOException {
+        archivoInstantanea = archivo;
+        if (!Files.exists(archivo)) return false;
+        long inicio = System.nanoTime();
+        InstantaneaModelo instantanea = InstantaneaModelo.leer(archivo);
+        boolean restaurarInventario = diarioInventario != null && diarioInventario.tieneHistorial();
+        List<Ubicacion> ubicaciones = instantanea.restaurar(grafoRutas, gestorRecursos, gestorEvacuacion,
+                gestorEquipos, !restaurarInventario);
+        cargarUsuarios();
+        if (restaurarInventario) diarioInventario.restaurar(gestorRecursos, ubicaciones);
+        else if (diarioInventario != null) gestorRecursos.usarDiario(diarioInventario);
+        System.out.printf("Instantánea cargada: %d ubicaciones y %d rutas en %d ms.%n",
+                instantanea.getUbicaciones(), instantanea.getRutas(), (System.nanoTime() - inicio) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Guarda el modelo completo en el archivo indicado en {@link #cargarInstantanea(Path)},
+     * esperando a que termine la escritura.
+     *
+     * @throws IOException si no se puede escribir
+     */
+    public void guardarInstantanea() throws IOException {
+        try {
+            guardarInstantaneaEnSegundoPlano().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Guarda el modelo completo sin bloquear al que llama más que lo necesario para copiar el
+     * estado a arreglos; la codificación y la escritura se hacen en un hilo aparte, de una en
+     * una. Debe llamarse desde el hilo que modifica el modelo.
+     *
+     * @return tarea que termina con el archivo escrito, o falla con la {@link UncheckedIOException}
+     * de la escritura
+     * @throws IllegalStateException si no se indicó el archivo con {@link #cargarInstantanea(Path)}
+     */
+    public CompletableFuture<Path> guardarInstantaneaEnSegundoPlano() {
+        Path archivo = archivoInstantanea;
+        if (archivo == null) throw new IllegalStateException("No se indicó el archivo de la instantánea.");
+        InstantaneaModelo instantanea = InstantaneaModelo.capturar(grafoRutas, gestorRecursos, gestorEvacuacion,
+                gestorEquipos);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                instantanea.escribir(archivo);
+                return archivo;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, guardado);
+    }
+
+    /**
+     * Importa una red vial (ubicaciones y rutas) desde archivos CSV o GeoJSON y la agrega al
+     * grafo de rutas.
+     *
+     * @param archivos archivos a importar
+     * @return resumen de la importación
+     * @throws IOException si no se puede leer algún archivo
+     * @see ImportadorRedVial
+     */
+    public ResultadoImportacion importarRedVial(Path... archivos) throws IOException {
+        ImportadorRedVial.Importacion importacion = prepararImportacionRedVial(archivos);
+        importacion.leer();
+        return incorporarRedVial(importacion);
+    }
+
+    /**
+     * Prepara la importación de una red vial para leerla en segundo plano con
+     * {@link ImportadorRedVial.Importacion#leer()}. Debe llamarse desde el hilo de la interfaz,
+     * igual que {@link #incorporarRedVial(ImportadorRedVial.Importacion)}.
+     *
+     * @param archivos archivos a importar
+     * @return importación lista para leer
+     */
+    public ImportadorRedVial.Importacion prepararImportacionRedVial(Path... archivos) {
+        return new ImportadorRedVial(grafoRutas).preparar(archivos);
+    }
+
+    /**
+     * Agrega al grafo de rutas una red vial ya leída.
+     *
+     * @param importacion importación preparada y leída
+     * @return resumen de la importación
+     */
+    public ResultadoImportacion incorporarRedVial(ImportadorRedVial.Importacion importacion) {
+        ResultadoImportacion resultado = importacion.incorporar();
+        System.out.println(resultado + ".");
+        for (String error : resultado.getErrores()) System.out.println("  " + error);
+        return resultado;
+    }
+
+    /**
+     * Detiene el rastreo de equipos, espera a que terminen los guardados de instantáneas en curso
+     * y cierra el diario del inventario confirmando en disco los movimientos pendientes.
+     *
+     * @throws IOException si no se puede cerrar el diario
+     */
+    public void cerrar() throws IOException {
+        if (simuladorPosiciones != null) simuladorPosiciones.close();
+        rastreadorEquipos.close();
+        guardado.shutdown();
+        try {
+            guardado.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (diarioInventario != null) diarioInventario.close();
+    }
+
+    /**
+     * Registra los usuarios del sistema. Se cargan siempre desde aquí, también al arrancar desde
+     * una instantánea, que no guarda contraseñas.
+     */
+    private void cargarUsuarios() {
+        gestorUsuarios.registrarUsuario(new Usuario("Admin Demo", "admin", "123", Rol.ADMINISTRADOR));
+        gestorUsuarios.registrarUsuario(new Usuario("Operador Demo", "oper", "123", Rol.OPERADOR));
+    }
+
     /**
      * Carga datos de prueba en el sistema para facilitar la visualización inicial en la interfaz.
      * Incluye usuarios, recursos globales, ubicaciones, rutas, zonas de evacuación y equipos.
      */
     public void cargarDatosPrueba() {
-        // usuarios
-        gestorUsuarios.registrarUsuario(new Usuario("Admin Demo", "admin", "123", Rol.ADMINISTRADOR));
-        gestorUsuarios.registrarUsuario(new Usuario("Operador Demo", "oper", "123", Rol.OPERADOR));
+        cargarUsuarios();
+
+        // recursos globales; con historial en el diario se restauran más abajo
+        boolean restaurarInventario = diarioInventario != null && diarioInventario.tieneHistorial();
+        if (diarioInventario != null && !restaurarInventario) gestorRecursos.usarDiario(diarioInventario);
 
-        // recursos globales
         Recurso agua = new Recurso("Agua", TipoRecurso.AGUA, 1000);
         Recurso alimentos = new Recurso("Alimentos", TipoRecurso.ALIMENTOS, 800);
         Recurso kits = new Recurso("Kits Médicos", TipoRecurso.MEDICINAS, 300);
         Recurso equipos = new Recurso("Equipo Rescate", TipoRecurso.EQUIPO_RESCATE, 20);
 
-        gestorRecursos.registrarRecursoGlobal(agua);
-        gestorRecursos.registrarRecursoGlobal(alimentos);
-        gestorRecursos.registrarRecursoGlobal(kits);
-        gestorRecursos.registrarRecursoGlobal(equipos);
 
         // Ubicaciones existentes
         Ubicacion ciudadA = new Ubicacion("Ciudad A", "Ciudad", 1200, 9, 4.5709, -74.2973);
@@ -112,34 +354,48 @@ public class AppModel {
         Ubicacion centroG = new Ubicacion("Centro G", "Centro de Ayuda", 150, 5, 4.6200, -74.1300);
         Ubicacion refugioH = new Ubicacion("Refugio H", "Refugio", 250, 7, 4.6000, -74.1600);
 
+        // Capacidad de alojamiento de los refugios (personas)
+        ciudadB.setCapacidadAlojamiento(900);
+        refugioD.setCapacidadAlojamiento(700);
+        refugioH.setCapacidadAlojamiento(600);
+
         // Asignar recursos
-        ciudadA.agregarRecurso(agua, 150);
-        ciudadA.agregarRecurso(kits, 50);
-        ciudadB.agregarRecurso(alimentos, 70);
-        centroC.agregarRecurso(kits, 40);
-        refugioD.agregarRecurso(agua, 60);
-        ciudadE.agregarRecurso(alimentos, 80);
-        ciudadF.agregarRecurso(alimentos, 60);
-        centroG.agregarRecurso(kits, 30);
-        refugioH.agregarRecurso(agua, 50);
+        if (restaurarInventario) {
+            diarioInventario.restaurar(gestorRecursos, Arrays.asList(ciudadA, ciudadB, centroC, refugioD, ciudadE, ciudadF, centroG, refugioH));
+        } else {
+            gestorRecursos.registrarRecursoGlobal(agua);
+            gestorRecursos.registrarRecursoGlobal(alimentos);
+            gestorRecursos.registrarRecursoGlobal(kits);
+            gestorRecursos.registrarRecursoGlobal(equipos);
+
+            ciudadA.agregarRecurso(agua, 150);
+            ciudadA.agregarRecurso(kits, 50);
+            ciudadB.agregarRecurso(alimentos, 70);
+            centroC.agregarRecurso(kits, 40);
+            refugioD.agregarRecurso(agua, 60);
+            ciudadE.agregarRecurso(alimentos, 80);
+            ciudadF.agregarRecurso(alimentos, 60);
+            centroG.agregarRecurso(kits, 30);
+            refugioH.agregarRecurso(agua, 50);
+        }
 
         // Agregar todas las ubicaciones al grafo
         for (Ubicacion u : Arrays.asList(ciudadA, ciudadB, centroC, refugioD, ciudadE, ciudadF, centroG, refugioH)) {
             grafoRutas.agregarUbicacion(u);
         }
 
-        // Agregar rutas bidireccionales
-        grafoRutas.agregarRuta(ciudadA, ciudadB, 25);
+        // Agregar rutas bidireccionales (las de salida de las ciudades con capacidad en personas por hora)
+        grafoRutas.agregarRuta(ciudadA, ciudadB, 25, 400);
         grafoRutas.agregarRuta(ciudadB, ciudadA, 25);
         grafoRutas.agregarRuta(ciudadB, centroC, 12);
         grafoRutas.agregarRuta(centroC, ciudadB, 12);
-        grafoRutas.agregarRuta(ciudadA, centroC, 30);
+        grafoRutas.agregarRuta(ciudadA, centroC, 30, 250);
         grafoRutas.agregarRuta(centroC, ciudadA, 30);
         grafoRutas.agregarRuta(centroC, refugioD, 15);
         grafoRutas.agregarRuta(refugioD, centroC, 15);
         grafoRutas.agregarRuta(ciudadE, ciudadA, 20);
-        grafoRutas.agregarRuta(ciudadA, ciudadE, 20);
-        grafoRutas.agregarRuta(ciudadF, ciudadB, 10);
+        grafoRutas.agregarRuta(ciudadA, ciudadE, 20, 300);
+        grafoRutas.agregarRuta(ciudadF, ciudadB, 10, 200);
         grafoRutas.agregarRuta(ciudadB, ciudadF, 10);
         grafoRutas.agregarRuta(centroG, centroC, 8);
         grafoRutas.agregarRuta(centroC, centroG, 8);
@@ -147,9 +403,14 @@ public class AppModel {
         grafoRutas.agregarRuta(refugioD, refugioH, 12);
         grafoRutas.agregarRuta(ciudadF, centroG, 14);
         grafoRutas.agregarRuta(centroG, ciudadF, 14);
-        grafoRutas.agregarRuta(ciudadE, refugioH, 7);
+        grafoRutas.agregarRuta(ciudadE, refugioH, 7, 350);
         grafoRutas.agregarRuta(refugioH, ciudadE, 7);
 
+        // Refugios y centros de ayuda con árbol de caminos siempre actualizado
+        for (Ubicacion centro : Arrays.asList(ciudadB, centroC, refugioD, centroG, refugioH)) {
+            grafoRutas.registrarCentro(centro);
+        }
+
         // Zonas de evacuación
         for (Ubicacion z : Arrays.asList(ciudadA, centroC, refugioD)) {
             gestorEvacuacion.agregarZonaEvacuacion(z);
@@ -0,0 +1,79 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Árbol de caminos más cortos desde un origen hacia todas las ubicaciones alcanzables,
+ * guardado en arreglos primitivos indexados por el identificador denso de cada nodo.
+ */
+public class ArbolCaminos {
+
+    protected final GrafoCompacto grafo;
+    protected final int origen;
+    protected final double[] distancias;
+    protected final int[] aristaPrevia;
+
+    /**
+     * Copia el resultado de un Dijkstra completo desde el origen.
+     *
+     * @param grafo   grafo compilado sobre el que se hizo la búsqueda
+     * @param origen  nodo raíz del árbol
+     * @param espacio espacio de búsqueda con los resultados
+     */
+    public ArbolCaminos(GrafoCompacto grafo, int origen, EspacioBusqueda espacio) {
+        int n = grafo.getNumeroNodos();
+        this.grafo = grafo;
+        this.origen = origen;
+        this.distancias = new double[n];
+        this.aristaPrevia = new int[n];
+        for (int v = 0; v < n; v++) {
+            distancias[v] = espacio.getDistancia(v);
+            aristaPrevia[v] = espacio.getAristaPrevia(v);
+        }
+    }
+
+    /** @return grafo compilado al que pertenece el árbol */
+    public GrafoCompacto getGrafo() { return grafo; }
+
+    /** @return ubicación raíz del árbol */
+    public Ubicacion getOrigen() { return grafo.getUbicacion(origen); }
+
+    /**
+     * @param destino ubicación consultada
+     * @return distancia más corta desde el origen, o infinito si no es alcanzable
+     */
+    public synchronized double getDistancia(Ubicacion destino) {
+        int d = grafo.indiceDe(destino);
+        return d < 0 ? Double.POSITIVE_INFINITY : distancias[d];
+    }
+
+    /**
+     * Reconstruye el camino desde el origen hasta el destino siguiendo el árbol.
+     *
+     * @param destino ubicación final
+     * @return lista de ubicaciones del camino, o vacía si no es alcanzable
+     */
+    public List<Ubicacion> getCamino(Ubicacion destino) {
+        int d = grafo.indiceDe(destino);
+        return d < 0 ? Collections.emptyList() : getCamino(d);
+    }
+
+    /**
+     * Reconstruye el camino desde el origen hasta el nodo indicado siguiendo el árbol.
+     *
+     * @param d identificador denso del destino
+     * @return lista de ubicaciones del camino, o vacía si no es alcanzable
+     */
+    public synchronized List<Ubicacion> getCamino(int d) {
+        if (distancias[d] == Double.POSITIVE_INFINITY) return Collections.emptyList();
+        List<Ubicacion> camino = new ArrayList<>();
+        for (int nodo = d; ; nodo = grafo.getOrigen(aristaPrevia[nodo])) {
+            camino.add(grafo.getUbicacion(nodo));
+            if (aristaPrevia[nodo] < 0) break;
+        }
+        Collections.reverse(camino);
+        return camino;
+    }
+}
@@ -0,0 +1,137 @@
+package co.edu.uniquindio.model;
+
+import java.util.Arrays;
+
+/**
+ * Árbol de caminos más cortos que se repara de forma incremental cuando una ruta cambia
+ * de distancia, se cierra o se vuelve a abrir, siguiendo el esquema de Ramalingam y Reps:
+ * <ul>
+ *     <li>si la ruta mejora, se propaga la nueva distancia desde su destino;</li>
+ *     <li>si empeora y pertenece al árbol, solo se recalcula el subárbol que colgaba de ella,
+ *     partiendo de las mejores rutas entrantes desde nodos no afectados.</li>
+ * </ul>
+ * Las rutas que empeoran fuera del árbol no requieren ningún trabajo.
+ */
+public class ArbolDinamico extends ArbolCaminos {
+
+    private final EspacioBusqueda espacio;
+    private final boolean[] afectado;
+    private int[] pendientes;
+
+    /**
+     * Construye el árbol inicial con un Dijkstra completo desde el origen.
+     *
+     * @param grafo  grafo compilado
+     * @param origen nodo raíz
+     */
+    public ArbolDinamico(GrafoCompacto grafo, int origen) {
+        super(grafo, origen, calcular(grafo, origen));
+        this.espacio = new EspacioBusqueda();
+        this.afectado = new boolean[grafo.getNumeroNodos()];
+        this.pendientes = new int[16];
+    }
+
+    private static EspacioBusqueda calcular(GrafoCompacto grafo, int origen) {
+        EspacioBusqueda espacio = new EspacioBusqueda();
+        grafo.dijkstra(origen, -1, espacio);
+        return espacio;
+    }
+
+    /**
+     * Repara el árbol tras el cambio de una ruta. El grafo compilado ya debe reflejar el nuevo estado.
+     *
+     * @param arista      índice de la ruta modificada
+     * @param pesoAnterior distancia efectiva anterior (infinito si estaba cerrada)
+     * @param pesoNuevo    distancia efectiva nueva (infinito si quedó cerrada)
+     * @return cantidad de nodos cuya distancia se volvió a asentar
+     */
+    public synchronized int actualizarArista(int arista, double pesoAnterior, double pesoNuevo) {
+        if (pesoNuevo < pesoAnterior) return mejorarArista(arista, pesoNuevo);
+        if (pesoNuevo > pesoAnterior) return empeorarArista(arista);
+        return 0;
+    }
+
+    private int mejorarArista(int arista, double peso) {
+        int u = grafo.getOrigen(arista);
+        int v = grafo.getDestino(arista);
+        double candidata = distancias[u] + peso;
+        if (!(candidata < distancias[v])) return 0;
+
+        espacio.preparar(distancias.length);
+        distancias[v] = candidata;
+        aristaPrevia[v] = arista;
+        espacio.getMonticulo().insertarODisminuir(v, candidata);
+        return propagar();
+    }
+
+    private int empeorarArista(int arista) {
+        int v = grafo.getDestino(arista);
+        if (aristaPrevia[v] != arista) return 0;
+
+        // 1. subárbol afectado: descendientes de v en el árbol actual
+        int cantidad = 0;
+        pendientes[cantidad++] = v;
+        afectado[v] = true;
+        for (int i = 0; i < cantidad; i++) {
+            int x = pendientes[i];
+            for (int e = grafo.inicioAristas(x), fin = grafo.finAristas(x); e < fin; e++) {
+                int hijo = grafo.getDestino(e);
+                if (aristaPrevia[hijo] == e && !afectado[hijo]) {
+                    afectado[hijo] = true;
+                    if (cantidad == pendientes.length) pendientes = Arrays.copyOf(pendientes, pendientes.length * 2);
+                    pendientes[cantidad++] = hijo;
+                }
+            }
+        }
+        int[] nodos = Arrays.copyOf(pendientes, cantidad);
+
+        // 2. cada nodo afectado parte de su mejor ruta entrante desde un nodo no afectado
+        espacio.preparar(distancias.length);
+        MonticuloMinimo cola = espacio.getMonticulo();
+        for (int a : nodos) {
+            distancias[a] = Double.POSITIVE_INFINITY;
+            aristaPrevia[a] = -1;
+        }
+        for (int a : nodos) {
+            for (int k = grafo.inicioEntrantes(a), fin = grafo.finEntrantes(a); k < fin; k++) {
+                int e = grafo.aristaEntrante(k);
+                int x = grafo.getOrigen(e);
+                if (afectado[x] || !grafo.estaDisponible(e)) continue;
+                double candidata = distancias[x] + grafo.getPeso(e);
+                if (candidata < distancias[a]) {
+                    distancias[a] = candidata;
+                    aristaPrevia[a] = e;
+                }
+            }
+            if (distancias[a] != Double.POSITIVE_INFINITY) cola.insertarODisminuir(a, distancias[a]);
+        }
+        for (int a : nodos) afectado[a] = false;
+
+        // 3. Dijkstra restringido: solo los nodos afectados pueden mejorar
+        return propagar();
+    }
+
+    /**
+     * Vacía la cola relajando las rutas salientes de cada nodo extraído.
+     */
+    private int propagar() {
+        MonticuloMinimo cola = espacio.getMonticulo();
+        int asentados = 0;
+        while (!cola.estaVacio()) {
+            int x = cola.extraerMinimo();
+            asentados++;
+            double base = distancias[x];
+            for (int e = grafo.inicioAristas(x), fin = grafo.finAristas(x); e < fin; e++) {
+                if (!grafo.estaDisponible(e)) continue;
+                int y = grafo.getDestino(e);
+                double candidata = base + grafo.getPeso(e);
+                if (candidata < distancias[y]) {
+                    distancias[y] = candidata;
+                    aristaPrevia[y] = e;
+                    cola.insertarODisminuir(y, candidata);
+                }
+            }
+        }
+        return asentados;
+    }
+}
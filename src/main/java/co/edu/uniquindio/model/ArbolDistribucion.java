@@ -1,22 +1,119 @@
 package co.edu.uniquindio.model;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Árbol con el historial de distribución de recursos hacia las ubicaciones.
+ * <p>
+ * Cada nodo mantiene el total de su subárbol y el árbol mantiene, por ubicación destino, las
+ * cantidades distribuidas por recurso y por tipo. Agregar o quitar un nodo cuesta lo que la
+ * profundidad del nodo (más el tamaño del subárbol si se mueve uno completo) y los resúmenes se
+ * leen sin recorrer el árbol. Los recorridos usan una pila explícita, de modo que un árbol
+ * profundo no desborda la pila de llamadas.
+ */
 public class ArbolDistribucion {
 
+    private static final TipoRecurso[] TIPOS = TipoRecurso.values();
+
     private NodoDistribucion raiz;
+    private final Map<Ubicacion, AgregadoUbicacion> agregados;
+    private final Map<Ubicacion, Map<Recurso, Integer>> resumen;
+
+    /** Cantidades distribuidas hacia una ubicación, por recurso y por tipo. */
+    private static final class AgregadoUbicacion {
+        final Map<Recurso, Integer> porRecurso = new ConcurrentHashMap<>();
+        final Map<Recurso, Integer> vista = Collections.unmodifiableMap(porRecurso);
+        final long[] porTipo = new long[TIPOS.length];
+        long total;
+        int nodos;
+    }
 
     public ArbolDistribucion() {
         this.raiz = null;
+        this.agregados = new ConcurrentHashMap<>();
+        this.resumen = new ConcurrentHashMap<>();
     }
 
     public NodoDistribucion getRaiz() {
         return raiz;
     }
 
+    /**
+     * Reemplaza la raíz del árbol; los agregados pasan a reflejar el subárbol de la nueva raíz.
+     *
+     * @param raiz nueva raíz, o null para vaciar el árbol
+     * @throws IllegalArgumentException si el nodo ya pertenece a un árbol
+     */
     public void setRaiz(NodoDistribucion raiz) {
+        if (raiz == this.raiz) return;
+        if (raiz != null && (raiz.getPadre() != null || raiz.getArbol() != null))
+            throw new IllegalArgumentException("El nodo ya pertenece a un árbol de distribución.");
+        if (this.raiz != null) subarbolQuitado(this.raiz);
         this.raiz = raiz;
+        if (raiz != null) subarbolAgregado(raiz);
+    }
+
+    /**
+     * Agrega un nodo al árbol: pasa a ser la raíz si el árbol está vacío o un hijo de la raíz
+     * en caso contrario.
+     *
+     * @param nodo nodo a agregar
+     */
+    public void agregar(NodoDistribucion nodo) {
+        if (raiz == null) setRaiz(nodo);
+        else raiz.agregarHijo(nodo);
+    }
+
+    /**
+     * Quita un nodo del árbol junto con todo su subárbol.
+     *
+     * @param nodo nodo a quitar
+     * @return true si el nodo pertenecía a este árbol
+     */
+    public boolean eliminar(NodoDistribucion nodo) {
+        if (nodo == null || nodo.getArbol() != this) return false;
+        if (nodo == raiz) {
+            setRaiz(null);
+            return true;
+        }
+        return nodo.getPadre().quitarHijo(nodo);
+    }
+
+    /**
+     * Devuelve las unidades distribuidas en todo el árbol.
+     *
+     * @return total del subárbol de la raíz
+     */
+    public long getTotal() {
+        return raiz != null ? raiz.getTotalSubarbol() : 0;
+    }
+
+    /**
+     * Devuelve las unidades distribuidas hacia una ubicación.
+     *
+     * @param ubicacion ubicación destino
+     * @return unidades distribuidas hacia ella
+     */
+    public long obtenerTotal(Ubicacion ubicacion) {
+        AgregadoUbicacion agregado = agregados.get(ubicacion);
+        return agregado != null ? agregado.total : 0;
+    }
+
+    /**
+     * Devuelve las unidades de un tipo distribuidas hacia una ubicación.
+     *
+     * @param ubicacion ubicación destino
+     * @param tipo      tipo de recurso
+     * @return unidades de ese tipo distribuidas hacia ella
+     */
+    public long obtenerCantidad(Ubicacion ubicacion, TipoRecurso tipo) {
+        AgregadoUbicacion agregado = agregados.get(ubicacion);
+        return agregado != null ? agregado.porTipo[tipo.ordinal()] : 0;
     }
 
     /** Distribuye los recursos a partir de la raíz */
@@ -26,16 +123,11 @@ public class ArbolDistribucion {
             return;
         }
         System.out.println("Distribuyendo recursos desde: " + raiz.getRecurso().getNombre());
-        distribuirDesdeNodo(raiz, 1);
-    }
-
-    private void distribuirDesdeNodo(NodoDistribucion nodo, int nivel) {
-        String indent = "  ".repeat(nivel);
-        for (NodoDistribucion hijo : nodo.getHijos()) {
-            System.out.println(indent + "Distribuyendo " + hijo.getRecurso().getNombre() +
-                    " hacia " + (hijo.getDestino() != null ? hijo.getDestino().getNombre() : "Sin destino"));
-            distribuirDesdeNodo(hijo, nivel + 1);
-        }
+        recorrer((nodo, nivel) -> {
+            if (nivel == 0) return;
+            System.out.println("  ".repeat(nivel) + "Distribuyendo " + nodo.getRecurso().getNombre() +
+                    " hacia " + (nodo.getDestino() != null ? nodo.getDestino().getNombre() : "Sin destino"));
+        });
     }
 
     /** Mostrar jerarquía completa del árbol */
@@ -44,37 +136,88 @@ public class ArbolDistribucion {
             System.out.println("El árbol de distribución está vacío.");
         } else {
             System.out.println("Jerarquía de distribución:");
-            mostrarJerarquiaDesdeNodo(raiz, 0);
+            recorrer((nodo, nivel) -> System.out.println("  ".repeat(nivel) + "- " + nodo.getRecurso().getNombre() +
+                    (nodo.getDestino() != null ? " → " + nodo.getDestino().getNombre() : "")));
         }
     }
 
-    private void mostrarJerarquiaDesdeNodo(NodoDistribucion nodo, int nivel) {
-        System.out.println("  ".repeat(nivel) + "- " + nodo.getRecurso().getNombre() +
-                (nodo.getDestino() != null ? " → " + nodo.getDestino().getNombre() : ""));
-        for (NodoDistribucion hijo : nodo.getHijos()) {
-            mostrarJerarquiaDesdeNodo(hijo, nivel + 1);
+    /** Acción aplicada a cada nodo de un recorrido junto con su profundidad. */
+    private interface Visita {
+        void visitar(NodoDistribucion nodo, int nivel);
+    }
+
+    /** Recorre el árbol en preorden, con los hijos en el orden en que se agregaron. */
+    private void recorrer(Visita visita) {
+        Deque<NodoDistribucion> nodos = new ArrayDeque<>();
+        Deque<Integer> niveles = new ArrayDeque<>();
+        nodos.push(raiz);
+        niveles.push(0);
+        while (!nodos.isEmpty()) {
+            NodoDistribucion nodo = nodos.pop();
+            int nivel = niveles.pop();
+            visita.visitar(nodo, nivel);
+            List<NodoDistribucion> hijos = nodo.getHijos();
+            for (int i = hijos.size() - 1; i >= 0; i--) {
+                nodos.push(hijos.get(i));
+                niveles.push(nivel + 1);
+            }
         }
     }
 
-    /** Método que resuelve tu error: devuelve un resumen de recursos por ubicación */
+    /**
+     * Devuelve un resumen de recursos por ubicación, mantenido al agregar y quitar nodos.
+     *
+     * @return vista de solo lectura con las unidades distribuidas por ubicación y recurso
+     */
     public Map<Ubicacion, Map<Recurso, Integer>> obtenerResumenPorUbicacion() {
-        Map<Ubicacion, Map<Recurso, Integer>> resumen = new HashMap<>();
-        if (raiz != null) {
-            recorrerNodo(raiz, resumen);
-        }
-        return resumen;
+        return Collections.unmodifiableMap(resumen);
     }
 
-    private void recorrerNodo(NodoDistribucion nodo, Map<Ubicacion, Map<Recurso, Integer>> resumen) {
-        if (nodo.getDestino() != null) {
-            resumen.putIfAbsent(nodo.getDestino(), new HashMap<>());
-            Map<Recurso, Integer> recursos = resumen.get(nodo.getDestino());
+    /** Incorpora a los agregados un subárbol recién enlazado al árbol. */
+    void subarbolAgregado(NodoDistribucion subarbol) {
+        Deque<NodoDistribucion> pendientes = new ArrayDeque<>();
+        pendientes.push(subarbol);
+        while (!pendientes.isEmpty()) {
+            NodoDistribucion nodo = pendientes.pop();
+            nodo.setArbol(this);
+            nodoAgregado(nodo);
+            for (NodoDistribucion hijo : nodo.getHijos()) pendientes.push(hijo);
+        }
+    }
 
-            recursos.merge(nodo.getRecurso(), nodo.getRecurso().getCantidadDisponible(), Integer::sum);
+    /** Descuenta de los agregados un subárbol que se separa del árbol. */
+    void subarbolQuitado(NodoDistribucion subarbol) {
+        Deque<NodoDistribucion> pendientes = new ArrayDeque<>();
+        pendientes.push(subarbol);
+        while (!pendientes.isEmpty()) {
+            NodoDistribucion nodo = pendientes.pop();
+            nodoQuitado(nodo);
+            nodo.setArbol(null);
+            for (NodoDistribucion hijo : nodo.getHijos()) pendientes.push(hijo);
         }
+    }
+
+    /** Suma a los agregados la cantidad de un solo nodo. */
+    void nodoAgregado(NodoDistribucion nodo) {
+        if (nodo.getDestino() == null || nodo.getRecurso() == null) return;
+        AgregadoUbicacion agregado = agregados.computeIfAbsent(nodo.getDestino(), u -> new AgregadoUbicacion());
+        if (agregado.nodos++ == 0) resumen.put(nodo.getDestino(), agregado.vista);
+        agregado.porRecurso.merge(nodo.getRecurso(), nodo.getCantidad(), Integer::sum);
+        agregado.porTipo[nodo.getRecurso().getTipo().ordinal()] += nodo.getCantidad();
+        agregado.total += nodo.getCantidad();
+    }
 
-        for (NodoDistribucion hijo : nodo.getHijos()) {
-            recorrerNodo(hijo, resumen);
+    /** Descuenta de los agregados la cantidad de un solo nodo. */
+    void nodoQuitado(NodoDistribucion nodo) {
+        if (nodo.getDestino() == null || nodo.getRecurso() == null) return;
+        AgregadoUbicacion agregado = agregados.get(nodo.getDestino());
+        if (agregado == null) return;
+        agregado.porRecurso.computeIfPresent(nodo.getRecurso(), (r, c) -> c == nodo.getCantidad() ? null : c - nodo.getCantidad());
+        agregado.porTipo[nodo.getRecurso().getTipo().ordinal()] -= nodo.getCantidad();
+        agregado.total -= nodo.getCantidad();
+        if (--agregado.nodos == 0) {
+            agregados.remove(nodo.getDestino());
+            resumen.remove(nodo.getDestino());
         }
     }
 
@@ -82,6 +225,7 @@ public class ArbolDistribucion {
     public String toString() {
         return "ArbolDistribucion{" +
                 "raiz=" + (raiz != null ? raiz.getRecurso().getNombre() : "null") +
+                ", total=" + getTotal() +
                 '}';
     }
 }
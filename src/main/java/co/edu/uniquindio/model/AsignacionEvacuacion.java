@@ -0,0 +1,61 @@
+package co.edu.uniquindio.model;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reclamo temporal de una zona de evacuación por parte de un operador. Mientras el plazo no
+ * venza, la zona no se entrega a nadie más; si el operador no confirma ni libera la zona antes
+ * del vencimiento, el despacho la devuelve a la cola.
+ */
+public final class AsignacionEvacuacion implements Delayed {
+
+    private final Ubicacion zona;
+    private final String operador;
+    private final long vencimientoNanos;
+
+    /**
+     * Crea un reclamo de zona.
+     *
+     * @param zona             zona reclamada
+     * @param operador         nombre del operador que la reclamó
+     * @param vencimientoNanos instante de vencimiento según {@link System#nanoTime()}
+     */
+    AsignacionEvacuacion(Ubicacion zona, String operador, long vencimientoNanos) {
+        this.zona = zona;
+        this.operador = operador;
+        this.vencimientoNanos = vencimientoNanos;
+    }
+
+    /** @return zona reclamada */
+    public Ubicacion getZona() { return zona; }
+
+    /** @return operador que reclamó la zona */
+    public String getOperador() { return operador; }
+
+    /** @return instante de vencimiento, en la escala de {@link System#nanoTime()} */
+    long getVencimientoNanos() { return vencimientoNanos; }
+
+    /** @return true si el plazo del reclamo ya venció */
+    public boolean estaVencida() {
+        return System.nanoTime() - vencimientoNanos >= 0;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unidad) {
+        return unidad.convert(vencimientoNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed otro) {
+        if (otro instanceof AsignacionEvacuacion) {
+            return Long.compare(vencimientoNanos - ((AsignacionEvacuacion) otro).vencimientoNanos, 0);
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), otro.getDelay(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsignacionEvacuacion{zona='%s', operador='%s'}", zona.getNombre(), operador);
+    }
+}
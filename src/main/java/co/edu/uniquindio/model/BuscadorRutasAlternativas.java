@@ -0,0 +1,142 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Calcula los k caminos más cortos sin ciclos entre dos ubicaciones con el algoritmo de Yen.
+ * En cada iteración, las búsquedas de desvío desde cada nodo del último camino aceptado son
+ * independientes entre sí y se ejecutan en paralelo, cada una con su propio espacio de búsqueda.
+ * Opcionalmente descarta candidatos que comparten demasiada distancia con un camino ya aceptado.
+ */
+public class BuscadorRutasAlternativas {
+
+    private final GrafoCompacto grafo;
+    private final ThreadLocal<EspacioBusqueda> espacios;
+
+    /**
+     * Crea un buscador sobre un grafo compilado.
+     *
+     * @param grafo     grafo compilado
+     * @param espacios  espacios de búsqueda por hilo
+     */
+    public BuscadorRutasAlternativas(GrafoCompacto grafo, ThreadLocal<EspacioBusqueda> espacios) {
+        this.grafo = grafo;
+        this.espacios = espacios;
+    }
+
+    /**
+     * Busca hasta k caminos entre dos nodos, ordenados de menor a mayor distancia.
+     *
+     * @param origen              nodo inicial
+     * @param destino             nodo final
+     * @param k                   cantidad máxima de caminos
+     * @param maximoSolapamiento  fracción máxima (0 a 1) de la distancia de un candidato que puede
+     *                            coincidir con un camino aceptado; 1 acepta cualquier solapamiento
+     * @return caminos encontrados, el primero es el más corto
+     */
+    public List<Camino> buscar(int origen, int destino, int k, double maximoSolapamiento) {
+        List<Camino> aceptados = new ArrayList<>();
+        if (k <= 0) return aceptados;
+
+        EspacioBusqueda espacio = espacios.get();
+        if (grafo.dijkstra(origen, destino, espacio) == Double.POSITIVE_INFINITY) return aceptados;
+        Camino primero = new Camino(grafo, origen, extraerAristas(destino, espacio));
+        aceptados.add(primero);
+
+        List<Camino> generadores = new ArrayList<>(aceptados);
+        PriorityQueue<Camino> candidatos = new PriorityQueue<>(Comparator.comparingDouble(Camino::getDistancia));
+        Set<List<Integer>> vistos = new HashSet<>();
+        vistos.add(clave(primero));
+        Camino ultimo = primero;
+
+        while (aceptados.size() < k) {
+            Camino previo = ultimo;
+            List<Camino> desvios = IntStream.range(0, previo.getAristas().length).parallel()
+                    .mapToObj(i -> buscarDesvio(previo, i, generadores, destino))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            for (Camino desvio : desvios) {
+                if (vistos.add(clave(desvio))) candidatos.add(desvio);
+            }
+
+            Camino siguiente = null;
+            while (!candidatos.isEmpty() && siguiente == null) {
+                Camino candidato = candidatos.poll();
+                generadores.add(candidato);
+                if (solapamientoMaximo(candidato, aceptados) <= maximoSolapamiento) siguiente = candidato;
+            }
+            if (siguiente == null) break;
+            aceptados.add(siguiente);
+            ultimo = siguiente;
+        }
+        return aceptados;
+    }
+
+    /**
+     * Busca el desvío que sale del i-ésimo nodo del camino previo: mantiene el prefijo,
+     * veta las rutas que otros caminos con el mismo prefijo tomaron desde ese nodo y los
+     * nodos del prefijo para evitar ciclos.
+     */
+    private Camino buscarDesvio(Camino previo, int i, List<Camino> generadores, int destino) {
+        int[] raiz = Arrays.copyOf(previo.getAristas(), i);
+        int nodoDesvio = i == 0 ? grafo.getOrigen(previo.getAristas()[0]) : grafo.getDestino(raiz[i - 1]);
+
+        EspacioBusqueda espacio = espacios.get();
+        espacio.preparar(grafo.getNumeroNodos(), grafo.getNumeroAristas());
+        for (Camino otro : generadores) {
+            int[] aristas = otro.getAristas();
+            if (aristas.length > i && Arrays.equals(aristas, 0, i, raiz, 0, i)) {
+                espacio.vetarArista(aristas[i]);
+            }
+        }
+        for (int e : raiz) espacio.vetarNodo(grafo.getOrigen(e));
+
+        if (grafo.dijkstraRestringido(nodoDesvio, destino, espacio) == Double.POSITIVE_INFINITY) return null;
+        int[] desvio = extraerAristas(destino, espacio);
+        int[] completo = Arrays.copyOf(raiz, raiz.length + desvio.length);
+        System.arraycopy(desvio, 0, completo, raiz.length, desvio.length);
+        return new Camino(grafo, grafo.getOrigen(completo[0]), completo);
+    }
+
+    private int[] extraerAristas(int destino, EspacioBusqueda espacio) {
+        int cantidad = 0;
+        for (int nodo = destino; espacio.getAristaPrevia(nodo) >= 0; nodo = grafo.getOrigen(espacio.getAristaPrevia(nodo))) {
+            cantidad++;
+        }
+        int[] aristas = new int[cantidad];
+        for (int nodo = destino; espacio.getAristaPrevia(nodo) >= 0; nodo = grafo.getOrigen(espacio.getAristaPrevia(nodo))) {
+            aristas[--cantidad] = espacio.getAristaPrevia(nodo);
+        }
+        return aristas;
+    }
+
+    private static List<Integer> clave(Camino camino) {
+        return Arrays.stream(camino.getAristas()).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Fracción de la distancia del candidato que recorre rutas de algún camino ya aceptado.
+     */
+    private double solapamientoMaximo(Camino candidato, List<Camino> aceptados) {
+        if (candidato.getDistancia() <= 0) return 0.0;
+        double maximo = 0.0;
+        for (Camino aceptado : aceptados) {
+            Set<Integer> propias = Arrays.stream(aceptado.getAristas()).boxed().collect(Collectors.toSet());
+            double compartida = 0.0;
+            for (int e : candidato.getAristas()) {
+                if (propias.contains(e)) compartida += grafo.getPeso(e);
+            }
+            maximo = Math.max(maximo, compartida / candidato.getDistancia());
+        }
+        return maximo;
+    }
+}
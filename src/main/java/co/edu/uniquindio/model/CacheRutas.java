@@ -0,0 +1,183 @@
+package co.edu.uniquindio.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché acotada, con política LRU, de caminos más cortos y de árboles de caminos por origen.
+ * Los caminos se guardan por origen, destino y modo de búsqueda: dos modos pueden elegir
+ * caminos distintos de igual distancia, y cada consulta recibe el de su modo. Los árboles son de
+ * Dijkstra, así que solo responden consultas en modo {@link ModoBusqueda#DIJKSTRA}.
+ * Cada entrada pertenece a una versión del grafo; cuando llega una versión más nueva todo el
+ * contenido se descarta. Los resultados de consultas que empezaron antes de un cambio llegan
+ * con una versión anterior y no se guardan.
+ */
+public class CacheRutas {
+
+    private final int capacidadCaminos;
+    private final int capacidadArboles;
+    private final LinkedHashMap<Long, List<Ubicacion>> caminos;
+    private final LinkedHashMap<Integer, ArbolCaminos> arboles;
+    private long version;
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long invalidaciones;
+
+    /**
+     * Crea una caché con las capacidades indicadas.
+     *
+     * @param capacidadCaminos cantidad máxima de pares origen/destino guardados
+     * @param capacidadArboles cantidad máxima de árboles de caminos guardados
+     */
+    public CacheRutas(int capacidadCaminos, int capacidadArboles) {
+        this.capacidadCaminos = capacidadCaminos;
+        this.capacidadArboles = capacidadArboles;
+        this.caminos = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<Ubicacion>> mayor) {
+                return desalojar(size() > CacheRutas.this.capacidadCaminos);
+            }
+        };
+        this.arboles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ArbolCaminos> mayor) {
+                return desalojar(size() > CacheRutas.this.capacidadArboles);
+            }
+        };
+        this.version = -1;
+    }
+
+    private boolean desalojar(boolean excede) {
+        if (excede) desalojos++;
+        return excede;
+    }
+
+    /**
+     * Descarta todo el contenido si la versión del grafo es más nueva que la guardada. Una
+     * versión anterior no cambia nada: viene de una consulta que empezó antes del último cambio.
+     */
+    private void sincronizar(long versionGrafo) {
+        if (versionGrafo > version) {
+            if (!caminos.isEmpty() || !arboles.isEmpty()) invalidaciones++;
+            caminos.clear();
+            arboles.clear();
+            version = versionGrafo;
+        }
+    }
+
+    /** Bits de la clave que identifican el modo de búsqueda. */
+    private static final int BITS_MODO = 2;
+
+    static {
+        if (ModoBusqueda.values().length > 1 << BITS_MODO)
+            throw new IllegalStateException("La clave de la caché no alcanza para todos los modos de búsqueda.");
+    }
+
+    /** Los índices de nodo no son negativos, así que 31 bits por nodo y 2 por modo caben en 64. */
+    private static long clave(int origen, int destino, ModoBusqueda modo) {
+        return (((long) origen << 31 | destino) << BITS_MODO) | modo.ordinal();
+    }
+
+    /**
+     * Busca un camino guardado; si no existe y el modo es Dijkstra, intenta derivarlo de un árbol
+     * del mismo origen.
+     *
+     * @param origen       nodo inicial
+     * @param destino      nodo final
+     * @param modo         modo de búsqueda de la consulta
+     * @param versionGrafo versión actual del grafo
+     * @return camino inmodificable, o null si no está en la caché
+     */
+    public synchronized List<Ubicacion> obtenerCamino(int origen, int destino, ModoBusqueda modo, long versionGrafo) {
+        sincronizar(versionGrafo);
+        long clave = clave(origen, destino, modo);
+        List<Ubicacion> camino = caminos.get(clave);
+        if (camino == null && modo == ModoBusqueda.DIJKSTRA) {
+            ArbolCaminos arbol = arboles.get(origen);
+            if (arbol != null) {
+                camino = List.copyOf(arbol.getCamino(destino));
+                caminos.put(clave, camino);
+            }
+        }
+        if (camino != null) aciertos++;
+        else fallos++;
+        return camino;
+    }
+
+    /**
+     * Guarda un camino calculado para la versión del grafo con la que se calculó.
+     *
+     * @param origen       nodo inicial
+     * @param destino      nodo final
+     * @param modo         modo de búsqueda con el que se calculó
+     * @param versionGrafo versión del grafo usada en el cálculo
+     * @param camino       camino calculado
+     * @return copia inmodificable del camino guardado
+     */
+    public synchronized List<Ubicacion> guardarCamino(int origen, int destino, ModoBusqueda modo, long versionGrafo,
+                                                      List<Ubicacion> camino) {
+        List<Ubicacion> copia = List.copyOf(camino);
+        sincronizar(versionGrafo);
+        if (versionGrafo == version) caminos.put(clave(origen, destino, modo), copia);
+        return copia;
+    }
+
+    /**
+     * Busca el árbol de caminos de un origen.
+     *
+     * @param origen       nodo raíz
+     * @param versionGrafo versión actual del grafo
+     * @return árbol guardado o null
+     */
+    public synchronized ArbolCaminos obtenerArbol(int origen, long versionGrafo) {
+        sincronizar(versionGrafo);
+        ArbolCaminos arbol = arboles.get(origen);
+        if (arbol != null) aciertos++;
+        else fallos++;
+        return arbol;
+    }
+
+    /**
+     * Guarda el árbol de caminos de un origen.
+     *
+     * @param origen       nodo raíz
+     * @param versionGrafo versión del grafo usada en el cálculo
+     * @param arbol        árbol calculado
+     */
+    public synchronized void guardarArbol(int origen, long versionGrafo, ArbolCaminos arbol) {
+        sincronizar(versionGrafo);
+        if (versionGrafo == version) arboles.put(origen, arbol);
+    }
+
+    /** @return consultas respondidas desde la caché */
+    public synchronized long getAciertos() { return aciertos; }
+
+    /** @return consultas que tuvieron que calcularse */
+    public synchronized long getFallos() { return fallos; }
+
+    /** @return entradas descartadas por falta de capacidad */
+    public synchronized long getDesalojos() { return desalojos; }
+
+    /** @return veces que la caché se vació por un cambio de versión del grafo */
+    public synchronized long getInvalidaciones() { return invalidaciones; }
+
+    /** @return cantidad de caminos guardados actualmente */
+    public synchronized int getCaminosGuardados() { return caminos.size(); }
+
+    /** @return cantidad de árboles guardados actualmente */
+    public synchronized int getArbolesGuardados() { return arboles.size(); }
+
+    @Override
+    public synchronized String toString() {
+        return "CacheRutas{" +
+                "aciertos=" + aciertos +
+                ", fallos=" + fallos +
+                ", desalojos=" + desalojos +
+                ", invalidaciones=" + invalidaciones +
+                ", caminos=" + caminos.size() + "/" + capacidadCaminos +
+                ", arboles=" + arboles.size() + "/" + capacidadArboles +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+package co.edu.uniquindio.model;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Camino entre dos ubicaciones con su distancia total, tal como lo devuelven las consultas
+ * de rutas alternativas.
+ */
+public class Camino {
+
+    private final List<Ubicacion> ubicaciones;
+    private final double distancia;
+    private final int[] aristas;
+
+    /**
+     * Crea un camino a partir de las rutas que lo componen en el grafo compilado.
+     *
+     * @param grafo   grafo compilado
+     * @param origen  nodo inicial
+     * @param aristas índices de las rutas recorridas en orden
+     */
+    Camino(GrafoCompacto grafo, int origen, int[] aristas) {
+        Ubicacion[] nodos = new Ubicacion[aristas.length + 1];
+        nodos[0] = grafo.getUbicacion(origen);
+        double total = 0.0;
+        for (int i = 0; i < aristas.length; i++) {
+            nodos[i + 1] = grafo.getUbicacion(grafo.getDestino(aristas[i]));
+            total += grafo.getPeso(aristas[i]);
+        }
+        this.ubicaciones = List.of(nodos);
+        this.distancia = total;
+        this.aristas = aristas;
+    }
+
+    /** @return ubicaciones del camino, desde el origen hasta el destino */
+    public List<Ubicacion> getUbicaciones() { return ubicaciones; }
+
+    /** @return distancia total del camino en kilómetros */
+    public double getDistancia() { return distancia; }
+
+    /** @return índices de las rutas recorridas en el grafo compilado */
+    int[] getAristas() { return aristas; }
+
+    @Override
+    public String toString() {
+        return ubicaciones.stream().map(Ubicacion::getNombre).collect(Collectors.joining(" → "))
+                + String.format(" (%.1f km)", distancia);
+    }
+}
@@ -0,0 +1,194 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cola de prioridad indexada de zonas a evacuar, implementada como montículo 4-ario de máximos.
+ * <p>
+ * La prioridad de cada zona es su nivel de urgencia y, a igual urgencia, la cantidad de personas
+ * afectadas; entre zonas empatadas sale primero la que se registró antes. La prioridad se copia al
+ * insertar, de modo que cambiar la urgencia de una ubicación no corrompe el montículo: el cambio se
+ * aplica al llamar a {@link #actualizar(Ubicacion)}. Un mapa de posiciones da pertenencia en O(1)
+ * y permite actualizar o eliminar cualquier zona en O(log n).
+ */
+public class ColaEvacuacion {
+
+    private static final int ARIDAD = 4;
+
+    private Ubicacion[] zonas;
+    private long[] claves;
+    private long[] secuencias;
+    private final Map<Ubicacion, Integer> posiciones;
+    private int tamano;
+    private long siguienteSecuencia;
+
+    /**
+     * Crea una cola de evacuación vacía.
+     */
+    public ColaEvacuacion() {
+        this.zonas = new Ubicacion[16];
+        this.claves = new long[16];
+        this.secuencias = new long[16];
+        this.posiciones = new HashMap<>();
+    }
+
+    /**
+     * Calcula la prioridad de una zona: urgencia en los bits altos y personas afectadas en los bajos.
+     *
+     * @param zona ubicación a evaluar
+     * @return clave de prioridad (mayor sale primero)
+     */
+    public static long prioridadDe(Ubicacion zona) {
+        return ((long) zona.getNivelUrgencia() << 32) | Math.max(0, zona.getPersonasAfectadas());
+    }
+
+    /**
+     * Inserta una zona si no estaba en la cola.
+     *
+     * @param zona ubicación a evacuar
+     * @return true si se insertó, false si ya estaba registrada
+     */
+    public boolean agregar(Ubicacion zona) {
+        if (posiciones.containsKey(zona)) return false;
+        if (tamano == zonas.length) {
+            zonas = Arrays.copyOf(zonas, tamano * 2);
+            claves = Arrays.copyOf(claves, tamano * 2);
+            secuencias = Arrays.copyOf(secuencias, tamano * 2);
+        }
+        int pos = tamano++;
+        zonas[pos] = zona;
+        claves[pos] = prioridadDe(zona);
+        secuencias[pos] = siguienteSecuencia++;
+        posiciones.put(zona, pos);
+        subir(pos);
+        return true;
+    }
+
+    /**
+     * Vuelve a leer la urgencia y las personas afectadas de una zona y la reubica en la cola.
+     *
+     * @param zona ubicación cuya prioridad cambió
+     * @return true si la zona estaba en la cola
+     */
+    public boolean actualizar(Ubicacion zona) {
+        Integer pos = posiciones.get(zona);
+        if (pos == null) return false;
+        long anterior = claves[pos];
+        claves[pos] = prioridadDe(zona);
+        if (claves[pos] > anterior) subir(pos);
+        else if (claves[pos] < anterior) bajar(pos);
+        return true;
+    }
+
+    /**
+     * Retira una zona de cualquier posición de la cola.
+     *
+     * @param zona ubicación a retirar
+     * @return true si la zona estaba en la cola
+     */
+    public boolean eliminar(Ubicacion zona) {
+        Integer pos = posiciones.remove(zona);
+        if (pos == null) return false;
+        int ultimo = --tamano;
+        if (pos != ultimo) {
+            mover(ultimo, pos);
+            Ubicacion movida = zonas[pos];
+            subir(pos);
+            bajar(posiciones.get(movida));
+        }
+        zonas[ultimo] = null;
+        return true;
+    }
+
+    /**
+     * @param zona ubicación a consultar
+     * @return true si la zona está pendiente de evacuación
+     */
+    public boolean contiene(Ubicacion zona) {
+        return posiciones.containsKey(zona);
+    }
+
+    /** @return zona con mayor prioridad sin retirarla, o null si la cola está vacía */
+    public Ubicacion verSiguiente() {
+        return tamano == 0 ? null : zonas[0];
+    }
+
+    /**
+     * Retira la zona con mayor prioridad.
+     *
+     * @return zona retirada, o null si la cola está vacía
+     */
+    public Ubicacion extraerSiguiente() {
+        if (tamano == 0) return null;
+        Ubicacion primera = zonas[0];
+        eliminar(primera);
+        return primera;
+    }
+
+    /** @return cantidad de zonas pendientes */
+    public int getTamano() { return tamano; }
+
+    /** @return true si no hay zonas pendientes */
+    public boolean estaVacia() { return tamano == 0; }
+
+    /**
+     * Devuelve las zonas pendientes ordenadas de mayor a menor prioridad, sin modificar la cola.
+     *
+     * @return lista ordenada de zonas
+     */
+    public List<Ubicacion> enOrden() {
+        Integer[] orden = new Integer[tamano];
+        for (int i = 0; i < tamano; i++) orden[i] = i;
+        Arrays.sort(orden, (a, b) -> precede(a, b) ? -1 : precede(b, a) ? 1 : 0);
+        List<Ubicacion> lista = new ArrayList<>(tamano);
+        for (int i : orden) lista.add(zonas[i]);
+        return lista;
+    }
+
+    /** Indica si la zona en la posición a debe salir antes que la de la posición b. */
+    private boolean precede(int a, int b) {
+        return claves[a] != claves[b] ? claves[a] > claves[b] : secuencias[a] < secuencias[b];
+    }
+
+    private void subir(int pos) {
+        while (pos > 0) {
+            int padre = (pos - 1) / ARIDAD;
+            if (!precede(pos, padre)) break;
+            intercambiar(pos, padre);
+            pos = padre;
+        }
+    }
+
+    private void bajar(int pos) {
+        while (true) {
+            int primero = pos * ARIDAD + 1;
+            if (primero >= tamano) break;
+            int mejor = primero;
+            for (int hijo = primero + 1; hijo < Math.min(primero + ARIDAD, tamano); hijo++) {
+                if (precede(hijo, mejor)) mejor = hijo;
+            }
+            if (!precede(mejor, pos)) break;
+            intercambiar(pos, mejor);
+            pos = mejor;
+        }
+    }
+
+    private void mover(int desde, int hasta) {
+        zonas[hasta] = zonas[desde];
+        claves[hasta] = claves[desde];
+        secuencias[hasta] = secuencias[desde];
+        posiciones.put(zonas[hasta], hasta);
+    }
+
+    private void intercambiar(int a, int b) {
+        Ubicacion zona = zonas[a]; zonas[a] = zonas[b]; zonas[b] = zona;
+        long clave = claves[a]; claves[a] = claves[b]; claves[b] = clave;
+        long secuencia = secuencias[a]; secuencias[a] = secuencias[b]; secuencias[b] = secuencia;
+        posiciones.put(zonas[a], a);
+        posiciones.put(zonas[b], b);
+    }
+}
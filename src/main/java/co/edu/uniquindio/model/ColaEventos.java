@@ -0,0 +1,131 @@
+package co.edu.uniquindio.model;
+
+import java.util.Arrays;
+
+/**
+ * Cola de eventos de una simulación de tiempo discreto, ordenada por instante y, a igual
+ * instante, por orden de programación.
+ * <p>
+ * Los eventos no son objetos: cada uno es un entero que el simulador codifica a su gusto
+ * (tipo y entidad afectada), guardado en un montículo cuaternario sobre arreglos primitivos
+ * junto a su instante y su número de secuencia. Así programar y extraer eventos no genera basura
+ * y el montículo tiene la mitad de niveles que uno binario.
+ */
+public final class ColaEventos {
+
+    private double[] tiempos;
+    private long[] secuencias;
+    private int[] eventos;
+    private int tamano;
+    private long siguienteSecuencia;
+
+    /** Crea una cola vacía. */
+    public ColaEventos() {
+        this(64);
+    }
+
+    /**
+     * Crea una cola vacía con capacidad inicial dada.
+     *
+     * @param capacidad cantidad de eventos que caben sin crecer
+     */
+    public ColaEventos(int capacidad) {
+        int inicial = Math.max(4, capacidad);
+        this.tiempos = new double[inicial];
+        this.secuencias = new long[inicial];
+        this.eventos = new int[inicial];
+    }
+
+    /**
+     * Programa un evento.
+     *
+     * @param tiempo instante del evento
+     * @param evento evento codificado por el simulador
+     */
+    public void programar(double tiempo, int evento) {
+        if (Double.isNaN(tiempo)) throw new IllegalArgumentException("El instante del evento no es válido.");
+        if (tamano == tiempos.length) {
+            int n = tamano * 2;
+            tiempos = Arrays.copyOf(tiempos, n);
+            secuencias = Arrays.copyOf(secuencias, n);
+            eventos = Arrays.copyOf(eventos, n);
+        }
+        subir(tamano++, tiempo, siguienteSecuencia++, evento);
+    }
+
+    /** @return instante del próximo evento (la cola no debe estar vacía) */
+    public double tiempoSiguiente() {
+        return tiempos[0];
+    }
+
+    /** @return próximo evento sin retirarlo (la cola no debe estar vacía) */
+    public int verSiguiente() {
+        return eventos[0];
+    }
+
+    /**
+     * Retira el próximo evento; su instante debe leerse antes con {@link #tiempoSiguiente()}.
+     *
+     * @return evento retirado
+     */
+    public int extraer() {
+        int primero = eventos[0];
+        tamano--;
+        if (tamano > 0) bajar(0, tiempos[tamano], secuencias[tamano], eventos[tamano]);
+        return primero;
+    }
+
+    /** @return true si no quedan eventos */
+    public boolean estaVacia() { return tamano == 0; }
+
+    /** @return cantidad de eventos programados */
+    public int getTamano() { return tamano; }
+
+    /** Descarta todos los eventos y reinicia la secuencia, conservando la memoria reservada. */
+    public void vaciar() {
+        tamano = 0;
+        siguienteSecuencia = 0;
+    }
+
+    private static boolean antes(double t1, long s1, double t2, long s2) {
+        return t1 < t2 || (t1 == t2 && s1 < s2);
+    }
+
+    private void subir(int pos, double tiempo, long secuencia, int evento) {
+        while (pos > 0) {
+            int padre = (pos - 1) >>> 2;
+            if (!antes(tiempo, secuencia, tiempos[padre], secuencias[padre])) break;
+            mover(padre, pos);
+            pos = padre;
+        }
+        colocar(pos, tiempo, secuencia, evento);
+    }
+
+    private void bajar(int pos, double tiempo, long secuencia, int evento) {
+        while (true) {
+            int primerHijo = 4 * pos + 1;
+            if (primerHijo >= tamano) break;
+            int mejor = primerHijo;
+            int ultimo = Math.min(primerHijo + 4, tamano);
+            for (int h = primerHijo + 1; h < ultimo; h++) {
+                if (antes(tiempos[h], secuencias[h], tiempos[mejor], secuencias[mejor])) mejor = h;
+            }
+            if (!antes(tiempos[mejor], secuencias[mejor], tiempo, secuencia)) break;
+            mover(mejor, pos);
+            pos = mejor;
+        }
+        colocar(pos, tiempo, secuencia, evento);
+    }
+
+    private void mover(int desde, int hasta) {
+        tiempos[hasta] = tiempos[desde];
+        secuencias[hasta] = secuencias[desde];
+        eventos[hasta] = eventos[desde];
+    }
+
+    private void colocar(int pos, double tiempo, long secuencia, int evento) {
+        tiempos[pos] = tiempo;
+        secuencias[pos] = secuencia;
+        eventos[pos] = evento;
+    }
+}
@@ -0,0 +1,97 @@
+package co.edu.uniquindio.model;
+
+/**
+ * Conjunto de enteros de 64 bits con direccionamiento abierto y sondeo lineal, sin objetos por
+ * elemento. Se usa para detectar rutas repetidas con claves que combinan los identificadores
+ * densos de origen y destino.
+ */
+final class ConjuntoLong {
+
+    private static final double CARGA_MAXIMA = 0.5;
+
+    // El cero marca las celdas vacías; si el cero es elemento se anota aparte
+    private long[] celdas;
+    private int mascara;
+    private int tamano;
+    private boolean contieneCero;
+
+    /**
+     * @param capacidadEsperada elementos que se espera guardar sin redimensionar
+     */
+    ConjuntoLong(int capacidadEsperada) {
+        int capacidad = 16;
+        while (capacidad * CARGA_MAXIMA < capacidadEsperada) capacidad <<= 1;
+        this.celdas = new long[capacidad];
+        this.mascara = capacidad - 1;
+    }
+
+    /**
+     * Combina dos identificadores no negativos en una clave.
+     *
+     * @param origen  identificador del origen
+     * @param destino identificador del destino
+     * @return clave de la ruta entre ambos
+     */
+    static long clave(int origen, int destino) {
+        return ((long) origen << 32) | (destino & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Agrega un valor al conjunto.
+     *
+     * @param valor valor a agregar
+     * @return true si no estaba
+     */
+    boolean agregar(long valor) {
+        if (valor == 0) {
+            if (contieneCero) return false;
+            contieneCero = true;
+            tamano++;
+            return true;
+        }
+        int i = posicion(valor);
+        while (celdas[i] != 0) {
+            if (celdas[i] == valor) return false;
+            i = (i + 1) & mascara;
+        }
+        celdas[i] = valor;
+        if (++tamano > celdas.length * CARGA_MAXIMA) redimensionar();
+        return true;
+    }
+
+    /**
+     * @param valor valor buscado
+     * @return true si el valor está en el conjunto
+     */
+    boolean contiene(long valor) {
+        if (valor == 0) return contieneCero;
+        int i = posicion(valor);
+        while (celdas[i] != 0) {
+            if (celdas[i] == valor) return true;
+            i = (i + 1) & mascara;
+        }
+        return false;
+    }
+
+    /** @return cantidad de valores guardados */
+    int getTamano() {
+        return tamano;
+    }
+
+    private int posicion(long valor) {
+        long h = valor * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private void redimensionar() {
+        long[] anteriores = celdas;
+        celdas = new long[anteriores.length << 1];
+        mascara = celdas.length - 1;
+        for (long valor : anteriores) {
+            if (valor == 0) continue;
+            int i = posicion(valor);
+            while (celdas[i] != 0) i = (i + 1) & mascara;
+            celdas[i] = valor;
+        }
+    }
+}
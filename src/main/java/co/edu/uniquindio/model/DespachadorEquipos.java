@@ -0,0 +1,444 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Despacho de equipos de rescate hacia las zonas críticas.
+ * <p>
+ * Llevar un equipo desde su base hasta una zona cuesta los kilómetros del camino más corto, y
+ * dejar una zona crítica sin equipo cuesta una penalización por su nivel de urgencia. El despacho
+ * minimiza la suma con el algoritmo húngaro sobre una matriz cuadrada: las filas son los equipos
+ * más una fila por zona (la zona queda sin cubrir) y las columnas son las zonas más una columna
+ * por equipo (el equipo queda libre). Un equipo solo va a una zona si llegar cuesta menos que
+ * dejarla sin cubrir.
+ * <p>
+ * Los potenciales de filas y columnas se conservan entre llamadas. Cuando un equipo queda libre
+ * o una zona cambia de urgencia solo cambian los costos de una fila o de una columna: se ajusta
+ * su potencial para que siga siendo factible, se deshace su pareja y un solo camino de aumento,
+ * en O(n²), devuelve la asignación óptima sin resolver todo de nuevo.
+ */
+public class DespachadorEquipos {
+
+    /** Costo, en kilómetros, de dejar una zona crítica sin equipo por cada nivel de urgencia. */
+    public static final double PENALIZACION = 100.0;
+
+    private final GrafoRutas grafo;
+    private double penalizacion;
+    /**
+     * Penalización con la que se resolvió el despacho actual; las actualizaciones incrementales la
+     * siguen usando aunque cambie {@link #penalizacion}, para no romper los potenciales guardados.
+     */
+    private double penalizacionDespacho;
+
+    private final List<Equipo> equipos;
+    private final List<Ubicacion> zonas;
+    private final Map<Equipo, Integer> indiceEquipo;
+    private final Map<Ubicacion, Integer> indiceZona;
+    /** Kilómetros desde la base de cada equipo hasta cada zona. */
+    private final List<double[]> distancias;
+    /** Costo de dejar cada zona sin equipo; 0 si la zona no es crítica. */
+    private double[] pesoZona;
+    private int[] filaDeEquipo;
+    private int[] columnaDeZona;
+
+    // Algoritmo húngaro con índices desde 1; la columna 0 es la auxiliar del camino de aumento.
+    private int n;
+    private int[] equipoDeFila;
+    private int[] zonaDeColumna;
+    private double[] potencialFila;
+    private double[] potencialColumna;
+    private int[] filaDeColumna;
+    private int[] columnaDeFila;
+
+    /**
+     * @param grafo grafo de rutas con las distancias
+     */
+    public DespachadorEquipos(GrafoRutas grafo) {
+        if (grafo == null) throw new IllegalArgumentException("El grafo de rutas no puede ser nulo.");
+        this.grafo = grafo;
+        this.penalizacion = PENALIZACION;
+        this.penalizacionDespacho = PENALIZACION;
+        this.equipos = new ArrayList<>();
+        this.zonas = new ArrayList<>();
+        this.indiceEquipo = new IdentityHashMap<>();
+        this.indiceZona = new IdentityHashMap<>();
+        this.distancias = new ArrayList<>();
+        reiniciar();
+    }
+
+    /**
+     * Cambia la penalización por zona sin cubrir; se aplica desde el próximo
+     * {@link #despachar(Collection, Collection)}. Mientras tanto, {@link #equipoLiberado(Equipo)}
+     * y {@link #zonaActualizada(Ubicacion)} siguen usando la del despacho actual.
+     *
+     * @param penalizacion kilómetros por nivel de urgencia
+     */
+    public synchronized void setPenalizacion(double penalizacion) {
+        if (penalizacion <= 0 || Double.isNaN(penalizacion))
+            throw new IllegalArgumentException("La penalización debe ser positiva.");
+        this.penalizacion = penalizacion;
+    }
+
+    /**
+     * Despacha los equipos hacia las ubicaciones críticas del grafo.
+     *
+     * @param equipos equipos disponibles
+     * @return zona asignada a cada equipo despachado
+     */
+    public Map<Equipo, Ubicacion> despachar(Collection<Equipo> equipos) {
+        return despachar(equipos, grafo.getUbicaciones().stream()
+                .filter(Ubicacion::esZonaCritica)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Resuelve el despacho completo y actualiza la zona asignada de cada equipo; los equipos que
+     * no conviene enviar quedan sin zona. Las distancias de todas las bases a todas las zonas se
+     * calculan en paralelo con {@link GrafoRutas#calcularMatrizDistancias(List, List)}.
+     *
+     * @param equipos equipos disponibles
+     * @param zonas   zonas candidatas; las que no son críticas no reciben equipos
+     * @return zona asignada a cada equipo despachado
+     */
+    public synchronized Map<Equipo, Ubicacion> despachar(Collection<Equipo> equipos, Collection<Ubicacion> zonas) {
+        reiniciar();
+        penalizacionDespacho = penalizacion;
+        for (Ubicacion zona : new LinkedHashSet<>(zonas)) registrarZona(zona);
+        for (Equipo equipo : new LinkedHashSet<>(equipos)) registrarEquipo(equipo, null);
+
+        List<Ubicacion> bases = this.equipos.stream().map(Equipo::getBase).collect(Collectors.toList());
+        if (!bases.isEmpty() && !this.zonas.isEmpty()) {
+            double[][] matriz = grafo.calcularMatrizDistancias(bases, this.zonas);
+            for (int e = 0; e < matriz.length; e++) {
+                System.arraycopy(matriz[e], 0, distancias.get(e), 0, matriz[e].length);
+            }
+        }
+
+        // filas: equipos y luego zonas sin cubrir; columnas: zonas y luego equipos libres
+        int t = this.equipos.size();
+        int z = this.zonas.size();
+        n = t + z;
+        asegurarCapacidad(n);
+        for (int e = 0; e < t; e++) {
+            filaDeEquipo[e] = e + 1;
+            equipoDeFila[e + 1] = e;
+            zonaDeColumna[z + e + 1] = -1;
+        }
+        // cada zona empieza sin cubrir (costo 0 con potenciales 0, que ya es factible), así que
+        // solo los equipos necesitan un camino de aumento
+        for (int k = 0; k < z; k++) {
+            columnaDeZona[k] = k + 1;
+            zonaDeColumna[k + 1] = k;
+            equipoDeFila[t + k + 1] = -1;
+            filaDeColumna[k + 1] = t + k + 1;
+            columnaDeFila[t + k + 1] = k + 1;
+        }
+        for (int fila = 1; fila <= t; fila++) {
+            ajustarFila(fila);
+            aumentar(fila, new ArrayList<>());
+        }
+        for (Equipo equipo : this.equipos) equipo.setZonaAsignada(zonaDe(filaDeEquipo[indiceEquipo.get(equipo)]));
+        return getAsignaciones();
+    }
+
+    /**
+     * Un equipo terminó su tarea y vuelve a estar disponible desde la zona donde estaba, que pasa
+     * a ser su base. Si el equipo no formaba parte del despacho, se incorpora. Si la zona dejó de
+     * ser crítica, conviene informar también {@link #zonaActualizada(Ubicacion)}.
+     *
+     * @param equipo equipo liberado
+     * @return equipos cuya zona asignada cambió
+     */
+    public synchronized List<Equipo> equipoLiberado(Equipo equipo) {
+        if (equipo == null) throw new IllegalArgumentException("El equipo no puede ser nulo.");
+        if (equipo.getZonaAsignada() != null) equipo.setBase(equipo.getZonaAsignada());
+        double[] fila = distanciasDesde(equipo.getBase());
+
+        Integer e = indiceEquipo.get(equipo);
+        List<Integer> cambiadas = new ArrayList<>();
+        if (e == null) {
+            registrarEquipo(equipo, fila);
+            int nueva = agregarFilaYColumna(this.equipos.size() - 1, -1);
+            filaDeEquipo[this.equipos.size() - 1] = nueva;
+            aumentar(nueva, cambiadas);
+        } else {
+            distancias.set(e, fila);
+            int f = filaDeEquipo[e];
+            desasignar(f);
+            ajustarFila(f);
+            aumentar(f, cambiadas);
+        }
+        return aplicar(cambiadas);
+    }
+
+    /**
+     * Una zona cambió su nivel de urgencia (o pasó a ser crítica o dejó de serlo). Solo se
+     * recalcula la columna de la zona; una zona crítica nueva se incorpora al despacho.
+     *
+     * @param zona zona actualizada
+     * @return equipos cuya zona asignada cambió
+     */
+    public synchronized List<Equipo> zonaActualizada(Ubicacion zona) {
+        if (zona == null) throw new IllegalArgumentException("La zona no puede ser nula.");
+        Integer z = indiceZona.get(zona);
+        List<Integer> cambiadas = new ArrayList<>();
+        if (z == null) {
+            if (!zona.esZonaCritica()) return Collections.emptyList();
+            registrarZona(zona);
+            int k = this.zonas.size() - 1;
+            if (!this.equipos.isEmpty()) {
+                List<Ubicacion> bases = this.equipos.stream().map(Equipo::getBase).collect(Collectors.toList());
+                double[][] columna = grafo.calcularMatrizDistancias(bases, Collections.singletonList(zona));
+                for (int e = 0; e < columna.length; e++) distancias.get(e)[k] = columna[e][0];
+            }
+            int nueva = agregarFilaYColumna(-1, k);
+            columnaDeZona[k] = nueva;
+            aumentar(nueva, cambiadas);
+        } else {
+            pesoZona[z] = peso(zona);
+            int columna = columnaDeZona[z];
+            int fila = filaDeColumna[columna];
+            desasignar(fila);
+            ajustarColumna(columna);
+            aumentar(fila, cambiadas);
+        }
+        return aplicar(cambiadas);
+    }
+
+    /** @return zona asignada a cada equipo despachado */
+    public synchronized Map<Equipo, Ubicacion> getAsignaciones() {
+        Map<Equipo, Ubicacion> asignaciones = new LinkedHashMap<>();
+        for (int e = 0; e < equipos.size(); e++) {
+            Ubicacion zona = zonaDe(filaDeEquipo[e]);
+            if (zona != null) asignaciones.put(equipos.get(e), zona);
+        }
+        return asignaciones;
+    }
+
+    /** @return zonas críticas del despacho que quedaron sin equipo */
+    public synchronized List<Ubicacion> getZonasSinCubrir() {
+        List<Ubicacion> sinCubrir = new ArrayList<>();
+        for (int z = 0; z < zonas.size(); z++) {
+            if (pesoZona[z] > 0 && equipoDeFila[filaDeColumna[columnaDeZona[z]]] < 0) sinCubrir.add(zonas.get(z));
+        }
+        return sinCubrir;
+    }
+
+    /** @return kilómetros que recorren en total los equipos despachados */
+    public synchronized double getDistanciaTotal() {
+        double total = 0;
+        for (int e = 0; e < equipos.size(); e++) {
+            int fila = filaDeEquipo[e];
+            if (zonaDe(fila) != null) total += distancias.get(e)[zonaDeColumna[columnaDeFila[fila]]];
+        }
+        return total;
+    }
+
+    private void reiniciar() {
+        equipos.clear();
+        zonas.clear();
+        indiceEquipo.clear();
+        indiceZona.clear();
+        distancias.clear();
+        pesoZona = new double[16];
+        filaDeEquipo = new int[16];
+        columnaDeZona = new int[16];
+        n = 0;
+        equipoDeFila = new int[17];
+        zonaDeColumna = new int[17];
+        potencialFila = new double[17];
+        potencialColumna = new double[17];
+        filaDeColumna = new int[17];
+        columnaDeFila = new int[17];
+    }
+
+    private void registrarZona(Ubicacion zona) {
+        int z = zonas.size();
+        zonas.add(zona);
+        indiceZona.put(zona, z);
+        if (z == pesoZona.length) {
+            int capacidad = z * 2;
+            pesoZona = Arrays.copyOf(pesoZona, capacidad);
+            columnaDeZona = Arrays.copyOf(columnaDeZona, capacidad);
+            for (int e = 0; e < distancias.size(); e++) distancias.set(e, Arrays.copyOf(distancias.get(e), capacidad));
+        }
+        pesoZona[z] = peso(zona);
+    }
+
+    private void registrarEquipo(Equipo equipo, double[] fila) {
+        int e = equipos.size();
+        equipos.add(equipo);
+        indiceEquipo.put(equipo, e);
+        distancias.add(fila != null ? fila : infinitas());
+        if (e == filaDeEquipo.length) filaDeEquipo = Arrays.copyOf(filaDeEquipo, e * 2);
+    }
+
+    /** Distancias desde una base hasta cada zona, con la misma capacidad que las demás filas. */
+    private double[] distanciasDesde(Ubicacion base) {
+        double[] fila = infinitas();
+        if (!zonas.isEmpty()) {
+            double[] calculadas = grafo.calcularMatrizDistancias(Collections.singletonList(base), zonas)[0];
+            System.arraycopy(calculadas, 0, fila, 0, calculadas.length);
+        }
+        return fila;
+    }
+
+    private double[] infinitas() {
+        double[] fila = new double[pesoZona.length];
+        Arrays.fill(fila, Double.POSITIVE_INFINITY);
+        return fila;
+    }
+
+    private double peso(Ubicacion zona) {
+        return zona.esZonaCritica() ? penalizacionDespacho * Math.max(1, zona.getNivelUrgencia()) : 0.0;
+    }
+
+    /**
+     * Costo de emparejar una fila con una columna. Las filas de zona sin cubrir y las columnas de
+     * equipo libre cuestan 0; un equipo en una zona cuesta la distancia menos la penalización de
+     * la zona, y si eso no es negativo cuesta un valor positivo que nunca elige el óptimo.
+     */
+    private double costo(int fila, int columna) {
+        int e = equipoDeFila[fila];
+        int z = zonaDeColumna[columna];
+        if (e < 0 || z < 0) return 0.0;
+        double distancia = distancias.get(e)[z];
+        double peso = pesoZona[z];
+        return distancia < peso ? distancia - peso : penalizacionDespacho;
+    }
+
+    /** Zona a la que va el equipo de una fila, o null si queda libre. */
+    private Ubicacion zonaDe(int fila) {
+        int columna = columnaDeFila[fila];
+        if (columna == 0 || zonaDeColumna[columna] < 0 || costo(fila, columna) >= 0) return null;
+        return zonas.get(zonaDeColumna[columna]);
+    }
+
+    /**
+     * Agrega una fila y una columna nuevas, con potenciales que mantienen factible el dual.
+     *
+     * @return índice de la fila nueva, todavía sin pareja
+     */
+    private int agregarFilaYColumna(int equipo, int zona) {
+        asegurarCapacidad(n + 1);
+        int nueva = ++n;
+        equipoDeFila[nueva] = equipo;
+        zonaDeColumna[nueva] = zona;
+        filaDeColumna[nueva] = 0;
+        columnaDeFila[nueva] = 0;
+        // la columna nueva se ajusta contra las filas ya existentes y la fila nueva contra todas
+        potencialFila[nueva] = Double.POSITIVE_INFINITY;
+        ajustarColumna(nueva);
+        ajustarFila(nueva);
+        return nueva;
+    }
+
+    private void asegurarCapacidad(int tamano) {
+        if (tamano < equipoDeFila.length) return;
+        int capacidad = Math.max(tamano + 1, equipoDeFila.length * 2);
+        equipoDeFila = Arrays.copyOf(equipoDeFila, capacidad);
+        zonaDeColumna = Arrays.copyOf(zonaDeColumna, capacidad);
+        potencialFila = Arrays.copyOf(potencialFila, capacidad);
+        potencialColumna = Arrays.copyOf(potencialColumna, capacidad);
+        filaDeColumna = Arrays.copyOf(filaDeColumna, capacidad);
+        columnaDeFila = Arrays.copyOf(columnaDeFila, capacidad);
+    }
+
+    private void desasignar(int fila) {
+        int columna = columnaDeFila[fila];
+        if (columna != 0) filaDeColumna[columna] = 0;
+        columnaDeFila[fila] = 0;
+    }
+
+    /** Mayor potencial de fila que respeta el costo reducido no negativo con cada columna. */
+    private void ajustarFila(int fila) {
+        double minimo = Double.POSITIVE_INFINITY;
+        for (int j = 1; j <= n; j++) minimo = Math.min(minimo, costo(fila, j) - potencialColumna[j]);
+        potencialFila[fila] = minimo;
+    }
+
+    /** Mayor potencial de columna que respeta el costo reducido no negativo con cada fila. */
+    private void ajustarColumna(int columna) {
+        double minimo = Double.POSITIVE_INFINITY;
+        for (int i = 1; i <= n; i++) {
+            if (potencialFila[i] == Double.POSITIVE_INFINITY) continue;
+            minimo = Math.min(minimo, costo(i, columna) - potencialFila[i]);
+        }
+        potencialColumna[columna] = minimo == Double.POSITIVE_INFINITY ? 0.0 : minimo;
+    }
+
+    /**
+     * Empareja una fila libre con el camino de aumento de menor costo reducido, actualizando los
+     * potenciales como en el algoritmo húngaro clásico.
+     *
+     * @param cambiadas recibe las filas cuya pareja cambió
+     */
+    private void aumentar(int fila, List<Integer> cambiadas) {
+        double[] minimo = new double[n + 1];
+        boolean[] usada = new boolean[n + 1];
+        int[] anterior = new int[n + 1];
+        Arrays.fill(minimo, Double.POSITIVE_INFINITY);
+        filaDeColumna[0] = fila;
+        int j0 = 0;
+        do {
+            usada[j0] = true;
+            int i0 = filaDeColumna[j0];
+            double delta = Double.POSITIVE_INFINITY;
+            int j1 = 0;
+            for (int j = 1; j <= n; j++) {
+                if (usada[j]) continue;
+                double reducido = costo(i0, j) - potencialFila[i0] - potencialColumna[j];
+                if (reducido < minimo[j]) {
+                    minimo[j] = reducido;
+                    anterior[j] = j0;
+                }
+                if (minimo[j] < delta) {
+                    delta = minimo[j];
+                    j1 = j;
+                }
+            }
+            for (int j = 0; j <= n; j++) {
+                if (usada[j]) {
+                    potencialFila[filaDeColumna[j]] += delta;
+                    potencialColumna[j] -= delta;
+                } else {
+                    minimo[j] -= delta;
+                }
+            }
+            j0 = j1;
+        } while (filaDeColumna[j0] != 0);
+        do {
+            int j1 = anterior[j0];
+            filaDeColumna[j0] = filaDeColumna[j1];
+            columnaDeFila[filaDeColumna[j0]] = j0;
+            cambiadas.add(filaDeColumna[j0]);
+            j0 = j1;
+        } while (j0 != 0);
+        filaDeColumna[0] = 0;
+    }
+
+    /** Actualiza la zona asignada de los equipos de las filas indicadas. */
+    private List<Equipo> aplicar(List<Integer> filas) {
+        List<Equipo> reasignados = new ArrayList<>();
+        for (int fila : filas) {
+            int e = equipoDeFila[fila];
+            if (e < 0) continue;
+            Equipo equipo = equipos.get(e);
+            Ubicacion zona = zonaDe(fila);
+            if (zona != equipo.getZonaAsignada()) {
+                equipo.setZonaAsignada(zona);
+                reasignados.add(equipo);
+            }
+        }
+        return reasignados;
+    }
+}
@@ -0,0 +1,374 @@
+package co.edu.uniquindio.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de despacho de evacuaciones para varios operadores concurrentes.
+ * <p>
+ * Las zonas se reparten por su nombre entre varias franjas, cada una con su propia
+ * {@link ColaEvacuacion} y su propio candado, de modo que los operadores no compiten por un único
+ * candado. Para reclamar una zona se comparan los topes de dos franjas al azar y se extrae de la
+ * mejor (prioridad relajada de "dos opciones"): la zona entregada no siempre es la más urgente de
+ * todas, pero sí una de las primeras.
+ * <p>
+ * Cada zona está en un solo lugar a la vez, en una franja o reclamada, y los reclamos son
+ * {@link AsignacionEvacuacion} con plazo: solo el dueño de un reclamo vigente puede confirmar la
+ * evacuación, y las zonas con reclamos vencidos vuelven a la cola. Así cada zona se evacúa a lo
+ * sumo una vez. Se lleva el vencimiento más próximo de todas las franjas: en cuanto pasa, el
+ * siguiente reclamo devuelve las zonas vencidas de todas ellas, de modo que una zona urgente
+ * vencida no espera a que alguien visite su franja.
+ */
+public class DespachoEvacuacion {
+
+    private static final long SIN_ZONAS = Long.MIN_VALUE;
+    private static final long SIN_VENCIMIENTOS = Long.MAX_VALUE;
+
+    private final Franja[] franjas;
+    private final ConcurrentHashMap<Ubicacion, AsignacionEvacuacion> reclamadas;
+    private final long plazoNanos;
+    /** Vencimiento más temprano entre los reclamos de todas las franjas, o SIN_VENCIMIENTOS. */
+    private final AtomicLong proximoVencimiento = new AtomicLong(SIN_VENCIMIENTOS);
+
+    /**
+     * Cola de una franja con su candado, los reclamos de sus zonas ordenados por vencimiento
+     * y la prioridad de su tope, legible sin bloquear.
+     */
+    private static final class Franja {
+        final ReentrantLock candado = new ReentrantLock();
+        final ColaEvacuacion cola = new ColaEvacuacion();
+        final DelayQueue<AsignacionEvacuacion> vencimientos = new DelayQueue<>();
+        volatile long tope = SIN_ZONAS;
+
+        void refrescarTope() {
+            Ubicacion primera = cola.verSiguiente();
+            tope = primera == null ? SIN_ZONAS : ColaEvacuacion.prioridadDe(primera);
+        }
+    }
+
+    /**
+     * Crea un despacho con una cantidad de franjas acorde a los núcleos disponibles.
+     *
+     * @param plazo tiempo que un operador tiene para confirmar una zona reclamada
+     */
+    public DespachoEvacuacion(Duration plazo) {
+        this(plazo, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crea un despacho con una cantidad de franjas dada.
+     *
+     * @param plazo           tiempo que un operador tiene para confirmar una zona reclamada
+     * @param cantidadFranjas cantidad de franjas (se redondea a potencia de dos)
+     */
+    public DespachoEvacuacion(Duration plazo, int cantidadFranjas) {
+        if (plazo == null || plazo.isNegative() || plazo.isZero())
+            throw new IllegalArgumentException("El plazo de los reclamos debe ser positivo.");
+
+        int n = 2;
+        while (n < cantidadFranjas) n <<= 1;
+        this.franjas = new Franja[n];
+        for (int i = 0; i < n; i++) franjas[i] = new Franja();
+        this.reclamadas = new ConcurrentHashMap<>();
+        this.plazoNanos = plazo.toNanos();
+    }
+
+    private Franja franjaDe(Ubicacion zona) {
+        int h = zona.hashCode();
+        h ^= h >>> 16;
+        return franjas[h & (franjas.length - 1)];
+    }
+
+    /**
+     * Registra una zona pendiente de evacuación.
+     *
+     * @param zona zona a evacuar
+     * @return true si se registró, false si ya estaba pendiente o reclamada
+     */
+    public boolean agregar(Ubicacion zona) {
+        Franja franja = franjaDe(zona);
+        franja.candado.lock();
+        try {
+            if (reclamadas.containsKey(zona) || !franja.cola.agregar(zona)) return false;
+            franja.refrescarTope();
+            return true;
+        } finally {
+            franja.candado.unlock();
+        }
+    }
+
+    /**
+     * Reubica una zona pendiente después de un cambio de urgencia o de personas afectadas.
+     * Las zonas reclamadas no se modifican.
+     *
+     * @param zona zona cuya prioridad cambió
+     * @return true si la zona estaba pendiente en la cola
+     */
+    public boolean actualizar(Ubicacion zona) {
+        Franja franja = franjaDe(zona);
+        franja.candado.lock();
+        try {
+            if (!franja.cola.actualizar(zona)) return false;
+            franja.refrescarTope();
+            return true;
+        } finally {
+            franja.candado.unlock();
+        }
+    }
+
+    /**
+     * Retira una zona pendiente sin evacuarla.
+     *
+     * @param zona zona a retirar
+     * @return true si la zona estaba pendiente en la cola
+     */
+    public boolean eliminar(Ubicacion zona) {
+        Franja franja = franjaDe(zona);
+        franja.candado.lock();
+        try {
+            if (!franja.cola.eliminar(zona)) return false;
+            franja.refrescarTope();
+            return true;
+        } finally {
+            franja.candado.unlock();
+        }
+    }
+
+    /**
+     * Reclama la siguiente zona a evacuar para un operador. Si ya venció algún reclamo, antes se
+     * devuelven a la cola las zonas vencidas de todas las franjas; además cada franja visitada
+     * devuelve las suyas.
+     *
+     * @param operador nombre del operador
+     * @return reclamo de la zona, o null si no hay zonas pendientes
+     */
+    public AsignacionEvacuacion reclamar(String operador) {
+        long limite = proximoVencimiento.get();
+        // un solo hilo barre; los reclamos que se hagan mientras tanto anotan su propio vencimiento
+        if (limite != SIN_VENCIMIENTOS && System.nanoTime() - limite >= 0
+                && proximoVencimiento.compareAndSet(limite, SIN_VENCIMIENTOS)) {
+            recuperarVencidas();
+        }
+
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        int mascara = franjas.length - 1;
+
+        int a = azar.nextInt(franjas.length);
+        int b = (a + 1 + azar.nextInt(mascara)) & mascara;
+        Franja elegida = franjas[a].tope >= franjas[b].tope ? franjas[a] : franjas[b];
+        AsignacionEvacuacion asignacion = extraer(elegida, operador);
+        if (asignacion != null) return asignacion;
+
+        // la franja elegida estaba vacía o se vació: se recorren todas desde una posición al azar
+        int inicio = azar.nextInt(franjas.length);
+        for (int i = 0; i < franjas.length; i++) {
+            asignacion = extraer(franjas[(inicio + i) & mascara], operador);
+            if (asignacion != null) return asignacion;
+        }
+        return null;
+    }
+
+    /**
+     * Reclama la zona más urgente de todas las franjas, revisando el tope de cada una. Es más
+     * costoso que {@link #reclamar(String)} y está pensado para un único operador.
+     *
+     * @param operador nombre del operador
+     * @return reclamo de la zona, o null si no hay zonas pendientes
+     */
+    public AsignacionEvacuacion reclamarMasUrgente(String operador) {
+        recuperarVencidas();
+        Franja mejor = null;
+        for (Franja franja : franjas) {
+            if (franja.tope != SIN_ZONAS && (mejor == null || franja.tope > mejor.tope)) mejor = franja;
+        }
+        AsignacionEvacuacion asignacion = mejor == null ? null : extraer(mejor, operador);
+        return asignacion != null ? asignacion : reclamar(operador);
+    }
+
+    private AsignacionEvacuacion extraer(Franja franja, String operador) {
+        franja.candado.lock();
+        try {
+            recuperarVencidas(franja);
+            Ubicacion zona = franja.cola.extraerSiguiente();
+            if (zona == null) return null;
+            franja.refrescarTope();
+            AsignacionEvacuacion asignacion = new AsignacionEvacuacion(zona, operador, System.nanoTime() + plazoNanos);
+            // se registra antes de soltar el candado para que agregar() no vea la zona en ninguna parte
+            reclamadas.put(zona, asignacion);
+            franja.vencimientos.add(asignacion);
+            anotarVencimiento(asignacion);
+            return asignacion;
+        } finally {
+            franja.candado.unlock();
+        }
+    }
+
+    /**
+     * Devuelve a la cola de la franja las zonas con reclamos vencidos y anota el vencimiento del
+     * primer reclamo que queda; requiere su candado.
+     */
+    private int recuperarVencidas(Franja franja) {
+        int devueltas = 0;
+        AsignacionEvacuacion vencida;
+        while ((vencida = franja.vencimientos.poll()) != null) {
+            if (reclamadas.remove(vencida.getZona(), vencida) && franja.cola.agregar(vencida.getZona())) {
+                devueltas++;
+            }
+        }
+        if (devueltas > 0) franja.refrescarTope();
+        AsignacionEvacuacion siguiente = franja.vencimientos.peek();
+        if (siguiente != null) anotarVencimiento(siguiente);
+        return devueltas;
+    }
+
+    private void anotarVencimiento(AsignacionEvacuacion asignacion) {
+        long vence = asignacion.getVencimientoNanos();
+        proximoVencimiento.accumulateAndGet(vence, (actual, nuevo) ->
+                actual == SIN_VENCIMIENTOS || nuevo - actual < 0 ? nuevo : actual);
+    }
+
+    /**
+     * Confirma que la zona de un reclamo fue evacuada y la retira definitivamente.
+     *
+     * @param asignacion reclamo obtenido con {@link #reclamar(String)}
+     * @return true si el reclamo seguía vigente; false si venció o ya fue confirmado o liberado
+     */
+    public boolean confirmar(AsignacionEvacuacion asignacion) {
+        if (asignacion.estaVencida()) return false;
+        return reclamadas.remove(asignacion.getZona(), asignacion);
+    }
+
+    /**
+     * Devuelve a la cola la zona de un reclamo que el operador no va a atender.
+     *
+     * @param asignacion reclamo obtenido con {@link #reclamar(String)}
+     * @return true si el reclamo seguía vigente y la zona volvió a la cola
+     */
+    public boolean liberar(AsignacionEvacuacion asignacion) {
+        if (!reclamadas.remove(asignacion.getZona(), asignacion)) return false;
+        devolver(asignacion.getZona());
+        return true;
+    }
+
+    /**
+     * Devuelve a la cola todas las zonas cuyos reclamos vencieron sin confirmación.
+     *
+     * @return cantidad de zonas devueltas
+     */
+    public int recuperarVencidas() {
+        int devueltas = 0;
+        for (Franja franja : franjas) {
+            franja.candado.lock();
+            try {
+                devueltas += recuperarVencidas(franja);
+            } finally {
+                franja.candado.unlock();
+            }
+        }
+        return devueltas;
+    }
+
+    private void devolver(Ubicacion zona) {
+        Franja franja = franjaDe(zona);
+        franja.candado.lock();
+        try {
+            franja.cola.agregar(zona);
+            franja.refrescarTope();
+        } finally {
+            franja.candado.unlock();
+        }
+    }
+
+    /**
+     * Devuelve la zona pendiente de mayor prioridad sin reclamarla.
+     *
+     * @return zona más urgente entre todas las franjas, o null si no hay zonas pendientes
+     */
+    public Ubicacion verSiguiente() {
+        Ubicacion mejor = null;
+        long mejorClave = SIN_ZONAS;
+        for (Franja franja : franjas) {
+            if (franja.tope == SIN_ZONAS || (mejor != null && franja.tope <= mejorClave)) continue;
+            franja.candado.lock();
+            try {
+                Ubicacion primera = franja.cola.verSiguiente();
+                if (primera != null && (mejor == null || ColaEvacuacion.prioridadDe(primera) > mejorClave)) {
+                    mejor = primera;
+                    mejorClave = ColaEvacuacion.prioridadDe(primera);
+                }
+            } finally {
+                franja.candado.unlock();
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * @param zona zona a consultar
+     * @return true si la zona está pendiente en la cola o reclamada por un operador
+     */
+    public boolean contiene(Ubicacion zona) {
+        if (reclamadas.containsKey(zona)) return true;
+        Franja franja = franjaDe(zona);
+        franja.candado.lock();
+        try {
+            return franja.cola.contiene(zona);
+        } finally {
+            franja.candado.unlock();
+        }
+    }
+
+    /** @return cantidad de zonas pendientes en la cola, sin contar las reclamadas */
+    public int getPendientes() {
+        int total = 0;
+        for (Franja franja : franjas) {
+            franja.candado.lock();
+            try {
+                total += franja.cola.getTamano();
+            } finally {
+                franja.candado.unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Devuelve una copia de las zonas aún no evacuadas: las pendientes en la cola, de mayor a
+     * menor prioridad dentro de cada franja, seguidas de las reclamadas.
+     *
+     * @return lista de zonas sin evacuar
+     */
+    public List<Ubicacion> getZonas() {
+        List<Ubicacion> zonas = new ArrayList<>();
+        for (Franja franja : franjas) {
+            franja.candado.lock();
+            try {
+                zonas.addAll(franja.cola.enOrden());
+            } finally {
+                franja.candado.unlock();
+            }
+        }
+        zonas.addAll(reclamadas.keySet());
+        return zonas;
+    }
+
+    /** @return cantidad de zonas reclamadas por operadores y aún sin confirmar */
+    public int getReclamadas() {
+        return reclamadas.size();
+    }
+
+    /**
+     * Devuelve una copia de los reclamos vigentes.
+     *
+     * @return lista de reclamos sin confirmar
+     */
+    public List<AsignacionEvacuacion> getAsignaciones() {
+        return new ArrayList<>(reclamadas.values());
+    }
+}
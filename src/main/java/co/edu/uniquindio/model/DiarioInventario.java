@@ -0,0 +1,762 @@
+package co.edu.uniquindio.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario binario de solo anexado con cada movimiento del inventario de un {@link GestorRecursos}
+ * y de los recursos de cada {@link Ubicacion}, para auditar las existencias y reconstruirlas
+ * después de una caída.
+ * <p>
+ * Los movimientos se guardan como diferencias en segmentos de tamaño fijo mapeados en memoria;
+ * un encabezado al inicio de cada archivo indica hasta dónde llegan sus registros, de modo que
+ * los segmentos nunca se truncan mientras están mapeados. Cada registro lleva su largo y un
+ * CRC32C, y la lectura se detiene en el primer registro incompleto o dañado. Las escrituras se confirman en disco por grupos: un hilo de fondo fuerza el
+ * segmento a intervalos regulares y, en modo síncrono, cada operación del gestor espera a que
+ * un único forzado cubra sus registros junto con los de los demás hilos que esperan.
+ * <p>
+ * Al llenarse un segmento se abre otro, y los segmentos cerrados se pliegan en segundo plano
+ * en una instantánea compacta (un registro por recurso y ubicación) escrita con el mismo formato.
+ * Al abrir el diario se reproduce la última instantánea y los segmentos posteriores, y las
+ * escrituras nuevas van siempre a un segmento nuevo. Los archivos se leen sin mapearlos; los
+ * segmentos ya plegados que el sistema no deja borrar porque aún siguen mapeados (en Windows,
+ * hasta que se libera el mapeo) se vuelven a intentar borrar en la siguiente compactación.
+ */
+public final class DiarioInventario implements AutoCloseable {
+
+    /** Tamaño de cada segmento del diario, en bytes. */
+    public static final long TAMANO_SEGMENTO = 64L << 20;
+    /** Intervalo con que el hilo de fondo confirma en disco las escrituras pendientes. */
+    public static final Duration INTERVALO_COMMIT = Duration.ofMillis(10);
+
+    private static final byte UBICACION = 1;
+    private static final byte RECURSO = 2;
+    private static final byte CANTIDAD = 3;
+    private static final byte RESERVADA = 4;
+    private static final byte TIPO = 5;
+    private static final byte EN_UBICACION = 6;
+
+    /** Largo del registro y CRC32C que lo rodean. */
+    private static final int MARCO = 8;
+    /** Encabezado de cada archivo: número mágico y fin lógico de los registros. */
+    private static final int ENCABEZADO = 16;
+    private static final int POSICION_FIN = 4;
+    private static final int MAGICO = 0x44494E56;
+    private static final int TAMANO_BUFER_INSTANTANEA = 1 << 20;
+    private static final String PREFIJO_SEGMENTO = "diario-";
+    private static final String PREFIJO_INSTANTANEA = "instantanea-";
+    private static final TipoRecurso[] TIPOS = TipoRecurso.values();
+
+    private final Path directorio;
+    private final long tamanoSegmento;
+    private final boolean commitSincrono;
+
+    private final ReentrantLock candado = new ReentrantLock();
+    private final Object forzado = new Object();
+    private final ReentrantLock compactacion = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private final IdentityHashMap<Ubicacion, Integer> idsUbicacion = new IdentityHashMap<>();
+    private final IdentityHashMap<Recurso, Integer> idsRecurso = new IdentityHashMap<>();
+    private int siguienteUbicacion;
+    private int siguienteRecurso;
+
+    private EstadoDiario estadoInicial;
+    private final long entradasReproducidas;
+    private long entradasEscritas;
+
+    private long generacion;
+    private volatile long instantanea;
+    private final List<Path> porBorrar = new ArrayList<>();
+    private MappedByteBuffer mapa;
+    private ByteBuffer vista;
+    private long baseSegmento;
+    private volatile long escrito;
+    private volatile long durable;
+    private volatile boolean cerrado;
+
+    private final ScheduledExecutorService confirmador;
+    private final ExecutorService compactador;
+
+    /**
+     * Abre el diario de un directorio con el tamaño de segmento y el intervalo de confirmación
+     * por defecto, confirmando en disco en segundo plano.
+     *
+     * @param directorio directorio del diario; se crea si no existe
+     * @throws IOException si no se puede leer el historial o abrir el segmento nuevo
+     */
+    public DiarioInventario(Path directorio) throws IOException {
+        this(directorio, TAMANO_SEGMENTO, INTERVALO_COMMIT, false);
+    }
+
+    /**
+     * Abre el diario de un directorio y reproduce su historial.
+     *
+     * @param directorio      directorio del diario; se crea si no existe
+     * @param tamanoSegmento  tamaño de cada segmento, en bytes
+     * @param intervaloCommit intervalo con que se confirman en disco las escrituras pendientes
+     * @param commitSincrono  si es true, cada operación del gestor espera a que sus movimientos
+     *                        estén en disco
+     * @throws IOException si no se puede leer el historial o abrir el segmento nuevo
+     */
+    public DiarioInventario(Path directorio, long tamanoSegmento, Duration intervaloCommit,
+                            boolean commitSincrono) throws IOException {
+        if (directorio == null) throw new IllegalArgumentException("El directorio del diario no puede ser nulo.");
+        if (tamanoSegmento < 1024 || tamanoSegmento > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("El tamaño de segmento debe estar entre 1 KB y 2 GB.");
+        if (intervaloCommit == null || intervaloCommit.isNegative() || intervaloCommit.isZero())
+            throw new IllegalArgumentException("El intervalo de confirmación debe ser positivo.");
+
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.commitSincrono = commitSincrono;
+        Files.createDirectories(directorio);
+
+        // la última instantánea cubre todo lo anterior a su generación
+        long ultimaInstantanea = 0;
+        for (long g : generaciones(PREFIJO_INSTANTANEA)) ultimaInstantanea = g;
+        EstadoDiario estado = new EstadoDiario();
+        long leidas = 0;
+        if (ultimaInstantanea > 0) leidas += leer(rutaInstantanea(ultimaInstantanea), estado);
+        long ultimoSegmento = ultimaInstantanea - 1;
+        for (long g : generaciones(PREFIJO_INSTANTANEA)) {
+            if (g < ultimaInstantanea) porBorrar.add(rutaInstantanea(g));
+        }
+        for (long g : generaciones(PREFIJO_SEGMENTO)) {
+            if (g < ultimaInstantanea) {
+                // plegado en la instantánea pero no se pudo borrar en la ejecución anterior
+                porBorrar.add(rutaSegmento(g));
+                continue;
+            }
+            leidas += leer(rutaSegmento(g), estado);
+            ultimoSegmento = g;
+        }
+        borrarPlegados();
+        this.estadoInicial = estado;
+        this.entradasReproducidas = leidas;
+        this.instantanea = ultimaInstantanea;
+        this.siguienteUbicacion = estado.ubicaciones.size();
+        this.siguienteRecurso = estado.recursos;
+
+        this.generacion = Math.max(ultimoSegmento + 1, 1);
+        abrirSegmento();
+
+        ThreadFactory hilos = r -> {
+            Thread t = new Thread(r, "diario-inventario");
+            t.setDaemon(true);
+            return t;
+        };
+        this.confirmador = Executors.newSingleThreadScheduledExecutor(hilos);
+        this.compactador = Executors.newSingleThreadExecutor(hilos);
+        long intervalo = intervaloCommit.toNanos();
+        confirmador.scheduleWithFixedDelay(this::confirmarPendientes, intervalo, intervalo, TimeUnit.NANOSECONDS);
+        if (ultimoSegmento >= Math.max(ultimaInstantanea, 1)) programarCompactacion(generacion - 1);
+    }
+
+    // ---------------------------------------------------------------- restauración
+
+    /**
+     * @return true si el diario trae movimientos de una ejecución anterior que aún no se
+     * restauraron
+     */
+    public boolean tieneHistorial() {
+        return estadoInicial != null && (estadoInicial.recursos > 0 || !estadoInicial.ubicaciones.isEmpty());
+    }
+
+    /** @return registros leídos del disco al abrir el diario */
+    public long getEntradasReproducidas() {
+        return entradasReproducidas;
+    }
+
+    /** @return registros escritos desde que se abrió el diario */
+    public long getEntradasEscritas() {
+        candado.lock();
+        try {
+            return entradasEscritas;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Reconstruye en un gestor vacío el inventario guardado en el diario y lo enlaza para que
+     * registre sus movimientos siguientes. Las ubicaciones se buscan por nombre; los recursos de
+     * ubicaciones desconocidas se omiten. Las reservas que quedaron pendientes se dan por
+     * canceladas y sus unidades vuelven a estar disponibles.
+     *
+     * @param gestor      gestor sin inventario
+     * @param ubicaciones ubicaciones conocidas
+     * @return cantidad de recursos restaurados
+     */
+    public int restaurar(GestorRecursos gestor, Collection<Ubicacion> ubicaciones) {
+        if (gestor == null) throw new IllegalArgumentException("El gestor no puede ser nulo.");
+        if (!gestor.getInventarioGlobal().isEmpty())
+            throw new IllegalStateException("El inventario se restaura en un gestor vacío.");
+
+        Map<String, Ubicacion> porNombre = new HashMap<>();
+        if (ubicaciones != null) for (Ubicacion u : ubicaciones) porNombre.put(u.getNombre(), u);
+
+        int restaurados = 0;
+        candado.lock();
+        try {
+            EstadoDiario e = estadoInicial;
+            if (e == null) throw new IllegalStateException("El historial del diario ya se restauró.");
+            estadoInicial = null;
+
+            Ubicacion[] ubicacionDe = new Ubicacion[e.ubicaciones.size()];
+            for (int id = 0; id < ubicacionDe.length; id++) {
+                Ubicacion u = porNombre.get(e.ubicaciones.get(id));
+                if (u != null && !idsUbicacion.containsKey(u)) {
+                    ubicacionDe[id] = u;
+                    idsUbicacion.put(u, id);
+                }
+            }
+
+            Recurso[] recursoDe = new Recurso[e.recursos];
+            for (int id = 0; id < e.recursos; id++) {
+                if (e.nombres[id] == null) continue;
+                Ubicacion u = null;
+                if (e.ubicacionDe[id] >= 0) {
+                    u = e.ubicacionDe[id] < ubicacionDe.length ? ubicacionDe[e.ubicacionDe[id]] : null;
+                    if (u == null) {
+                        System.out.println("No existe la ubicación " + e.ubicaciones.get(e.ubicacionDe[id])
+                                + "; se omite el recurso " + e.nombres[id]);
+                        continue;
+                    }
+                }
+                long reservada = e.reservadas[id];
+                Recurso r = new Recurso(e.nombres[id], TIPOS[e.tipos[id]], (int) Math.max(0, e.cantidades[id] + reservada));
+                gestor.restaurarRecurso(r, u);
+                idsRecurso.put(r, id);
+                recursoDe[id] = r;
+                if (reservada != 0) {
+                    anexar(RESERVADA, id, (int) -reservada, 0, null);
+                    anexar(CANTIDAD, id, (int) reservada, 0, null);
+                }
+                restaurados++;
+            }
+
+            for (Map.Entry<Long, Long> entrada : e.enUbicacion.entrySet()) {
+                int ubicacion = (int) (entrada.getKey() >>> 32);
+                int recurso = (int) (long) entrada.getKey();
+                if (entrada.getValue() <= 0 || ubicacion >= ubicacionDe.length || recurso < 0 || recurso >= recursoDe.length
+                        || ubicacionDe[ubicacion] == null || recursoDe[recurso] == null) continue;
+                ubicacionDe[ubicacion].getRecursos().merge(recursoDe[recurso], (int) (long) entrada.getValue(), Integer::sum);
+            }
+        } finally {
+            candado.unlock();
+        }
+        gestor.usarDiario(this);
+        return restaurados;
+    }
+
+    // ---------------------------------------------------------------- movimientos
+
+    /**
+     * Registra un recurso con su cantidad actual; no hace nada si ya estaba registrado.
+     *
+     * @param recurso recurso global o de una ubicación
+     */
+    void registrarRecurso(Recurso recurso) {
+        candado.lock();
+        try {
+            if (idsRecurso.containsKey(recurso)) return;
+            int id = idRecurso(recurso);
+            if (recurso.getCantidadDisponible() != 0) anexar(CANTIDAD, id, recurso.getCantidadDisponible(), 0, null);
+            if (recurso.getCantidadReservada() != 0) anexar(RESERVADA, id, recurso.getCantidadReservada(), 0, null);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /** Registra un cambio en la cantidad disponible de un recurso. */
+    void cantidadModificada(Recurso recurso, int diferencia) {
+        anexar(CANTIDAD, recurso, diferencia);
+    }
+
+    /** Registra un cambio en las unidades reservadas de un recurso. */
+    void reservaModificada(Recurso recurso, int diferencia) {
+        anexar(RESERVADA, recurso, diferencia);
+    }
+
+    /** Registra el tipo actual de un recurso. */
+    void tipoModificado(Recurso recurso) {
+        anexar(TIPO, recurso, recurso.getTipo().ordinal());
+    }
+
+    /** Registra un cambio en la cantidad de un recurso guardada en el mapa de una ubicación. */
+    void recursoEnUbicacion(Ubicacion ubicacion, Recurso recurso, int diferencia) {
+        candado.lock();
+        try {
+            anexar(EN_UBICACION, idUbicacion(ubicacion), idRecurso(recurso), diferencia, null);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /** Espera a que los movimientos ya escritos estén en disco si el diario es síncrono. */
+    void persistir() {
+        if (commitSincrono) sincronizar();
+    }
+
+    private void anexar(byte tipo, Recurso recurso, int valor) {
+        candado.lock();
+        try {
+            anexar(tipo, idRecurso(recurso), valor, 0, null);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private int idRecurso(Recurso recurso) {
+        Integer id = idsRecurso.get(recurso);
+        if (id != null) return id;
+        int ubicacion = recurso.getUbicacion() == null ? -1 : idUbicacion(recurso.getUbicacion());
+        id = siguienteRecurso++;
+        idsRecurso.put(recurso, id);
+        anexar(RECURSO, id, ubicacion, recurso.getTipo().ordinal(), recurso.getNombre().getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+
+    private int idUbicacion(Ubicacion ubicacion) {
+        Integer id = idsUbicacion.get(ubicacion);
+        if (id != null) return id;
+        id = siguienteUbicacion++;
+        idsUbicacion.put(ubicacion, id);
+        anexar(UBICACION, id, 0, 0, ubicacion.getNombre().getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+
+    /** Escribe un registro en el segmento actual; requiere el candado. */
+    private void anexar(byte tipo, int a, int b, int c, byte[] texto) {
+        if (cerrado) throw new IllegalStateException("El diario está cerrado.");
+        if (mapa.remaining() < tamanoRegistro(tipo, texto)) {
+            try {
+                rotar();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo abrir un segmento nuevo del diario.", e);
+            }
+        }
+        escribirRegistro(mapa, vista, crc, tipo, a, b, c, texto);
+        mapa.putInt(POSICION_FIN, mapa.position());
+        escrito = baseSegmento + mapa.position();
+        entradasEscritas++;
+    }
+
+    // ---------------------------------------------------------------- confirmación en disco
+
+    /**
+     * Fuerza a disco los movimientos escritos hasta ahora. Los hilos que llaman a la vez
+     * comparten un único forzado: el primero fuerza todo lo escrito y los demás encuentran sus
+     * registros ya cubiertos.
+     */
+    public void sincronizar() {
+        long objetivo = escrito;
+        if (durable >= objetivo) return;
+        synchronized (forzado) {
+            if (durable >= objetivo) return;
+            MappedByteBuffer segmento;
+            long hasta;
+            candado.lock();
+            try {
+                if (cerrado) return;
+                segmento = mapa;
+                hasta = escrito;
+            } finally {
+                candado.unlock();
+            }
+            segmento.force();
+            durable = Math.max(durable, hasta);
+        }
+    }
+
+    private void confirmarPendientes() {
+        try {
+            sincronizar();
+        } catch (RuntimeException e) {
+            System.out.println("No se pudo confirmar el diario de inventario: " + e.getMessage());
+        }
+    }
+
+    // ---------------------------------------------------------------- segmentos e instantáneas
+
+    /**
+     * Crea el segmento de la generación actual con su tamaño completo y lo mapea. El canal se
+     * cierra enseguida: el mapeo sigue siendo válido y el archivo no vuelve a cambiar de tamaño.
+     */
+    private void abrirSegmento() throws IOException {
+        try (FileChannel canal = FileChannel.open(rutaSegmento(generacion),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+            canal.force(true);
+        }
+        mapa.putInt(0, MAGICO).putInt(POSICION_FIN, ENCABEZADO);
+        mapa.position(ENCABEZADO);
+        vista = mapa.duplicate();
+    }
+
+    /** Cierra el segmento actual y abre el siguiente; requiere el candado. */
+    private void rotar() throws IOException {
+        cerrarSegmento();
+        baseSegmento = escrito;
+        generacion++;
+        abrirSegmento();
+        programarCompactacion(generacion - 1);
+    }
+
+    /**
+     * Confirma el segmento actual y suelta las referencias a su mapeo para que pueda liberarse
+     * antes de que la compactación borre el archivo.
+     */
+    private void cerrarSegmento() {
+        mapa.force();
+        mapa = null;
+        vista = null;
+    }
+
+    private void programarCompactacion(long hasta) {
+        if (!compactador.isShutdown()) compactador.execute(() -> {
+            try {
+                compactarHasta(hasta);
+            } catch (IOException | UncheckedIOException e) {
+                System.out.println("No se pudo compactar el diario de inventario: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Cierra el segmento actual y pliega todo el historial en una instantánea nueva, descartando
+     * los segmentos que cubre.
+     *
+     * @throws IOException si no se puede escribir la instantánea
+     */
+    public void compactar() throws IOException {
+        long hasta;
+        candado.lock();
+        try {
+            if (cerrado) throw new IllegalStateException("El diario está cerrado.");
+            rotar();
+            hasta = generacion - 1;
+        } finally {
+            candado.unlock();
+        }
+        compactarHasta(hasta);
+    }
+
+    /** Escribe la instantánea que cubre los segmentos cerrados hasta la generación dada. */
+    private void compactarHasta(long hasta) throws IOException {
+        compactacion.lock();
+        try {
+            long anterior = instantanea;
+            if (anterior > hasta) return;
+
+            EstadoDiario estado = new EstadoDiario();
+            if (anterior > 0) leer(rutaInstantanea(anterior), estado);
+            List<Long> cubiertos = new ArrayList<>();
+            for (long g : generaciones(PREFIJO_SEGMENTO)) {
+                if (g < anterior || g > hasta) continue;
+                leer(rutaSegmento(g), estado);
+                cubiertos.add(g);
+            }
+
+            Path temporal = directorio.resolve(PREFIJO_INSTANTANEA + "tmp");
+            escribirInstantanea(estado, temporal);
+            Files.move(temporal, rutaInstantanea(hasta + 1), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            instantanea = hasta + 1;
+
+            for (long g : cubiertos) porBorrar.add(rutaSegmento(g));
+            if (anterior > 0) porBorrar.add(rutaInstantanea(anterior));
+            borrarPlegados();
+        } finally {
+            compactacion.unlock();
+        }
+    }
+
+    /**
+     * Borra los archivos ya plegados en la instantánea; requiere el candado de compactación. Un
+     * segmento que el sistema no deja borrar porque su mapeo aún no se liberó queda para la
+     * siguiente compactación: como su generación es anterior a la instantánea, no se vuelve a leer.
+     */
+    private void borrarPlegados() {
+        for (Iterator<Path> it = porBorrar.iterator(); it.hasNext(); ) {
+            try {
+                Files.deleteIfExists(it.next());
+                it.remove();
+            } catch (IOException e) {
+                // sigue mapeado; se intenta de nuevo más adelante
+            }
+        }
+    }
+
+    private void escribirInstantanea(EstadoDiario estado, Path destino) throws IOException {
+        try (FileChannel salida = FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bufer = ByteBuffer.allocate(TAMANO_BUFER_INSTANTANEA);
+            ByteBuffer vistaBufer = bufer.duplicate();
+            bufer.putInt(MAGICO).putInt(0).putLong(0);
+            CRC32C crcInstantanea = new CRC32C();
+
+            for (int id = 0; id < estado.ubicaciones.size(); id++) {
+                byte[] nombre = estado.ubicaciones.get(id).getBytes(StandardCharsets.UTF_8);
+                vaciarSiNoCabe(salida, bufer, tamanoRegistro(UBICACION, nombre));
+                escribirRegistro(bufer, vistaBufer, crcInstantanea, UBICACION, id, 0, 0, nombre);
+            }
+            for (int id = 0; id < estado.recursos; id++) {
+                if (estado.nombres[id] == null) continue;
+                byte[] nombre = estado.nombres[id].getBytes(StandardCharsets.UTF_8);
+                vaciarSiNoCabe(salida, bufer, tamanoRegistro(RECURSO, nombre) + 2 * tamanoRegistro(CANTIDAD, null));
+                escribirRegistro(bufer, vistaBufer, crcInstantanea, RECURSO, id, estado.ubicacionDe[id], estado.tipos[id], nombre);
+                if (estado.cantidades[id] != 0)
+                    escribirRegistro(bufer, vistaBufer, crcInstantanea, CANTIDAD, id, (int) estado.cantidades[id], 0, null);
+                if (estado.reservadas[id] != 0)
+                    escribirRegistro(bufer, vistaBufer, crcInstantanea, RESERVADA, id, (int) estado.reservadas[id], 0, null);
+            }
+            for (Map.Entry<Long, Long> e : estado.enUbicacion.entrySet()) {
+                if (e.getValue() == 0) continue;
+                vaciarSiNoCabe(salida, bufer, tamanoRegistro(EN_UBICACION, null));
+                escribirRegistro(bufer, vistaBufer, crcInstantanea, EN_UBICACION,
+                        (int) (e.getKey() >>> 32), (int) (long) e.getKey(), (int) (long) e.getValue(), null);
+            }
+            vaciarSiNoCabe(salida, bufer, bufer.capacity());
+            ByteBuffer fin = ByteBuffer.allocate(4).putInt(0, (int) salida.size());
+            salida.write(fin, POSICION_FIN);
+            salida.force(true);
+        }
+    }
+
+    private static void vaciarSiNoCabe(FileChannel salida, ByteBuffer bufer, int tamano) throws IOException {
+        if (bufer.remaining() >= tamano) return;
+        bufer.flip();
+        while (bufer.hasRemaining()) salida.write(bufer);
+        bufer.clear();
+    }
+
+    /**
+     * Reproduce los registros válidos de un archivo sobre un estado. Lee hasta el fin que indica
+     * el encabezado con el canal, sin mapear el archivo, para que pueda borrarse enseguida.
+     *
+     * @return registros leídos
+     */
+    private static long leer(Path ruta, EstadoDiario estado) throws IOException {
+        ByteBuffer b;
+        try (FileChannel entrada = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            if (entrada.size() < ENCABEZADO) return 0;
+            ByteBuffer encabezado = leerCompleto(entrada, ENCABEZADO);
+            if (encabezado.getInt(0) != MAGICO) throw new IOException("No es un archivo del diario: " + ruta);
+            int fin = encabezado.getInt(POSICION_FIN);
+            if (fin <= ENCABEZADO) return 0;
+            b = leerCompleto(entrada, (int) Math.min(fin, entrada.size()));
+        }
+
+        long leidos = 0;
+        ByteBuffer vistaLectura = b.duplicate();
+        CRC32C crcLectura = new CRC32C();
+        int limite = b.capacity();
+        int pos = ENCABEZADO;
+        while (limite - pos >= MARCO + 1) {
+            int largo = b.getInt(pos);
+            if (largo <= 0 || largo > limite - pos - MARCO) break;
+            int fin = pos + 4 + largo;
+            vistaLectura.limit(fin).position(pos + 4);
+            crcLectura.reset();
+            crcLectura.update(vistaLectura);
+            if ((int) crcLectura.getValue() != b.getInt(fin)) break;
+            estado.aplicar(b, pos + 4);
+            pos = fin + 4;
+            leidos++;
+        }
+        return leidos;
+    }
+
+    /** Lee los primeros bytes de un archivo en un búfer del heap. */
+    private static ByteBuffer leerCompleto(FileChannel entrada, int tamano) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(tamano);
+        while (b.hasRemaining()) {
+            if (entrada.read(b, b.position()) < 0) throw new IOException("El archivo del diario terminó antes de lo esperado.");
+        }
+        return b;
+    }
+
+    private static int tamanoRegistro(byte tipo, byte[] texto) {
+        int cuerpo;
+        switch (tipo) {
+            case UBICACION: cuerpo = 4 + 2 + texto.length; break;
+            case RECURSO: cuerpo = 4 + 4 + 1 + 2 + texto.length; break;
+            case TIPO: cuerpo = 4 + 1; break;
+            case EN_UBICACION: cuerpo = 4 + 4 + 4; break;
+            default: cuerpo = 4 + 4;
+        }
+        return MARCO + 1 + cuerpo;
+    }
+
+    /**
+     * Escribe un registro {@code [largo][tipo][campos][crc]} en la posición actual del búfer.
+     * La vista es un duplicado del búfer con el que se calcula el CRC sin moverlo.
+     */
+    private static void escribirRegistro(ByteBuffer b, ByteBuffer vistaBufer, CRC32C crc,
+                                         byte tipo, int x, int y, int z, byte[] texto) {
+        int inicio = b.position();
+        b.putInt(0).put(tipo);
+        switch (tipo) {
+            case UBICACION:
+                b.putInt(x).putShort((short) texto.length).put(texto);
+                break;
+            case RECURSO:
+                b.putInt(x).putInt(y).put((byte) z).putShort((short) texto.length).put(texto);
+                break;
+            case TIPO:
+                b.putInt(x).put((byte) y);
+                break;
+            case EN_UBICACION:
+                b.putInt(x).putInt(y).putInt(z);
+                break;
+            default:
+                b.putInt(x).putInt(y);
+        }
+        int fin = b.position();
+        b.putInt(inicio, fin - inicio - 4);
+        vistaBufer.limit(fin).position(inicio + 4);
+        crc.reset();
+        crc.update(vistaBufer);
+        b.putInt((int) crc.getValue());
+    }
+
+    private Path rutaSegmento(long g) {
+        return directorio.resolve(String.format("%s%08d.log", PREFIJO_SEGMENTO, g));
+    }
+
+    private Path rutaInstantanea(long g) {
+        return directorio.resolve(String.format("%s%08d.bin", PREFIJO_INSTANTANEA, g));
+    }
+
+    /** @return generaciones de los archivos con el prefijo dado, en orden creciente */
+    private List<Long> generaciones(String prefijo) throws IOException {
+        List<Long> gens = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(prefijo) && n.length() == prefijo.length() + 12)
+                    .forEach(n -> {
+                        try {
+                            gens.add(Long.parseLong(n.substring(prefijo.length(), prefijo.length() + 8)));
+                        } catch (NumberFormatException ignorado) {
+                            // no es un archivo del diario
+                        }
+                    });
+        }
+        Collections.sort(gens);
+        return gens;
+    }
+
+    /**
+     * Confirma en disco lo escrito, espera la compactación en curso y cierra el segmento.
+     */
+    @Override
+    public void close() throws IOException {
+        confirmador.shutdown();
+        compactador.shutdown();
+        try {
+            compactador.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (forzado) {
+            candado.lock();
+            try {
+                if (cerrado) return;
+                cerrado = true;
+                cerrarSegmento();
+                durable = escrito;
+            } finally {
+                candado.unlock();
+            }
+        }
+    }
+
+    /**
+     * Estado plegado del diario: definición, cantidad y reservas de cada recurso por
+     * identificador, y cantidades de los mapas de recursos de las ubicaciones.
+     */
+    private static final class EstadoDiario {
+        final List<String> ubicaciones = new ArrayList<>();
+        int recursos;
+        String[] nombres = new String[16];
+        int[] ubicacionDe = new int[16];
+        byte[] tipos = new byte[16];
+        long[] cantidades = new long[16];
+        long[] reservadas = new long[16];
+        final Map<Long, Long> enUbicacion = new HashMap<>();
+
+        /** Aplica el registro que empieza (por su tipo) en la posición dada. */
+        void aplicar(ByteBuffer b, int pos) {
+            byte tipo = b.get(pos);
+            int id = b.getInt(pos + 1);
+            switch (tipo) {
+                case UBICACION:
+                    while (ubicaciones.size() <= id) ubicaciones.add(null);
+                    ubicaciones.set(id, texto(b, pos + 5));
+                    break;
+                case RECURSO:
+                    asegurar(id);
+                    ubicacionDe[id] = b.getInt(pos + 5);
+                    tipos[id] = b.get(pos + 9);
+                    nombres[id] = texto(b, pos + 10);
+                    break;
+                case CANTIDAD:
+                    asegurar(id);
+                    cantidades[id] += b.getInt(pos + 5);
+                    break;
+                case RESERVADA:
+                    asegurar(id);
+                    reservadas[id] += b.getInt(pos + 5);
+                    break;
+                case TIPO:
+                    asegurar(id);
+                    tipos[id] = b.get(pos + 5);
+                    break;
+                case EN_UBICACION:
+                    long clave = ((long) id << 32) | (b.getInt(pos + 5) & 0xFFFFFFFFL);
+                    enUbicacion.merge(clave, (long) b.getInt(pos + 9), Long::sum);
+                    break;
+                default:
+                    // registro de una versión posterior: se ignora
+            }
+        }
+
+        private void asegurar(int id) {
+            if (id >= nombres.length) {
+                int n = Math.max(nombres.length * 2, id + 1);
+                nombres = Arrays.copyOf(nombres, n);
+                ubicacionDe = Arrays.copyOf(ubicacionDe, n);
+                tipos = Arrays.copyOf(tipos, n);
+                cantidades = Arrays.copyOf(cantidades, n);
+                reservadas = Arrays.copyOf(reservadas, n);
+            }
+            if (id >= recursos) recursos = id + 1;
+        }
+
+        private static String texto(ByteBuffer b, int pos) {
+            int largo = b.getShort(pos) & 0xFFFF;
+            byte[] bytes = new byte[largo];
+            for (int i = 0; i < largo; i++) bytes[i] = b.get(pos + 2 + i);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package co.edu.uniquindio.model;
+
+/**
+ * Envío de unidades de un recurso hacia una zona, calculado por {@link PlanificadorDistribucion}.
+ */
+public class EnvioRecurso {
+
+    private final Recurso recurso;
+    private final Ubicacion origen;
+    private final Ubicacion destino;
+    private final int cantidad;
+    private final double distancia;
+
+    /**
+     * @param recurso   recurso del que salen las unidades
+     * @param origen    ubicación donde está el recurso, o null si es del inventario global
+     * @param destino   zona que recibe las unidades
+     * @param cantidad  unidades enviadas
+     * @param distancia distancia por carretera del origen al destino, en kilómetros
+     */
+    public EnvioRecurso(Recurso recurso, Ubicacion origen, Ubicacion destino, int cantidad, double distancia) {
+        this.recurso = recurso;
+        this.origen = origen;
+        this.destino = destino;
+        this.cantidad = cantidad;
+        this.distancia = distancia;
+    }
+
+    /** @return recurso del que salen las unidades */
+    public Recurso getRecurso() { return recurso; }
+
+    /** @return ubicación de origen, o null si las unidades salen del inventario global */
+    public Ubicacion getOrigen() { return origen; }
+
+    /** @return zona que recibe las unidades */
+    public Ubicacion getDestino() { return destino; }
+
+    /** @return unidades enviadas */
+    public int getCantidad() { return cantidad; }
+
+    /** @return distancia recorrida por el envío, en kilómetros */
+    public double getDistancia() { return distancia; }
+
+    @Override
+    public String toString() {
+        return String.format("EnvioRecurso{%d x %s: %s -> %s, %.1f km}", cantidad, recurso.getNombre(),
+                origen != null ? origen.getNombre() : "Inventario global", destino.getNombre(), distancia);
+    }
+}
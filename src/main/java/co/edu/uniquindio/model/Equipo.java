@@ -7,11 +7,20 @@ public class Equipo {
 
     private String nombre;
     private List<String> integrantes;
-    private Ubicacion zonaAsignada;
+    private volatile Ubicacion zonaAsignada;
+    private Ubicacion base;
+    private GestorEquipos gestor;
+    private volatile PosicionEquipo posicion;
 
-    public Equipo(String nombre, List<String> integrantes, Ubicacion zonaAsignada) {
+    /**
+     * @param nombre      nombre del equipo
+     * @param integrantes integrantes del equipo
+     * @param base        ubicación desde la que sale el equipo cuando se despacha
+     */
+    public Equipo(String nombre, List<String> integrantes, Ubicacion base) {
         this.nombre = nombre;
         this.integrantes = integrantes;
+        this.base = base;
         this.zonaAsignada = null; //Sin asignar inicialmente
     }
 
@@ -31,7 +40,49 @@ public class Equipo {
         return zonaAsignada;
     }
 
-    public void setZonaAsignada(Ubicacion zonaAsignada) {
+    /**
+     * Cambia la zona asignada y actualiza el índice de equipos por zona del gestor donde está
+     * registrado el equipo.
+     *
+     * @param zonaAsignada nueva zona, o null para dejar el equipo sin asignar
+     */
+    public synchronized void setZonaAsignada(Ubicacion zonaAsignada) {
+        Ubicacion anterior = this.zonaAsignada;
         this.zonaAsignada = zonaAsignada;
+        if (gestor != null && anterior != zonaAsignada) gestor.zonaAsignadaModificada(this, anterior, zonaAsignada);
+    }
+
+    /** @return última posición reportada en campo, o null si el equipo no ha reportado */
+    public PosicionEquipo getPosicion() {
+        return posicion;
+    }
+
+    void setPosicion(PosicionEquipo posicion) {
+        this.posicion = posicion;
+    }
+
+    /** Registra el equipo en un gestor, que desde ahora recibe sus cambios de zona. */
+    synchronized void vincular(GestorEquipos gestor) {
+        if (this.gestor != null)
+            throw new IllegalArgumentException("El equipo " + nombre + " ya está registrado en un gestor de equipos.");
+        this.gestor = gestor;
+        if (zonaAsignada != null) gestor.zonaAsignadaModificada(this, null, zonaAsignada);
+    }
+
+    /** Quita el equipo del gestor indicado; devuelve false si no estaba registrado en él. */
+    synchronized boolean desvincular(GestorEquipos gestor) {
+        if (this.gestor != gestor) return false;
+        if (zonaAsignada != null) gestor.zonaAsignadaModificada(this, zonaAsignada, null);
+        this.gestor = null;
+        return true;
+    }
+
+    /** @return ubicación desde la que sale el equipo cuando se despacha */
+    public Ubicacion getBase() {
+        return base;
+    }
+
+    public void setBase(Ubicacion base) {
+        this.base = base;
     }
 }
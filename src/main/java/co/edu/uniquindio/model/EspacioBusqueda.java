@@ -0,0 +1,186 @@
+package co.edu.uniquindio.model;
+
+import java.util.Arrays;
+
+/**
+ * Arreglos de trabajo reutilizables para las búsquedas de caminos sobre un {@link GrafoCompacto}.
+ * Cada hilo mantiene su propio espacio; las distancias se invalidan con un contador de época,
+ * de modo que iniciar una búsqueda nueva no requiere limpiar los arreglos completos.
+ */
+public final class EspacioBusqueda {
+
+    private double[] distancias;
+    private int[] aristaPrevia;
+    private int[] marcas;
+    private int[] objetivos;
+    private int[] nodosVetados;
+    private int[] aristasVetadas;
+    private int epoca;
+    private int asentados;
+    private final MonticuloMinimo monticulo;
+
+    /**
+     * Crea un espacio de búsqueda vacío; los arreglos crecen al preparar la primera búsqueda.
+     */
+    public EspacioBusqueda() {
+        this.distancias = new double[0];
+        this.aristaPrevia = new int[0];
+        this.marcas = new int[0];
+        this.objetivos = new int[0];
+        this.nodosVetados = new int[0];
+        this.aristasVetadas = new int[0];
+        this.epoca = 0;
+        this.monticulo = new MonticuloMinimo(1);
+    }
+
+    /**
+     * Prepara el espacio para una nueva búsqueda sobre un grafo de n nodos.
+     *
+     * @param n cantidad de nodos del grafo
+     */
+    public void preparar(int n) {
+        preparar(n, 0);
+    }
+
+    /**
+     * Prepara el espacio para una búsqueda que además puede vetar rutas individuales.
+     *
+     * @param n cantidad de nodos del grafo
+     * @param m cantidad de rutas del grafo
+     */
+    public void preparar(int n, int m) {
+        if (aristasVetadas.length < m) aristasVetadas = new int[m];
+        if (marcas.length < n) {
+            distancias = new double[n];
+            aristaPrevia = new int[n];
+            marcas = new int[n];
+            objetivos = new int[n];
+            nodosVetados = new int[n];
+        }
+        monticulo.asegurarCapacidad(n);
+        monticulo.vaciar();
+        asentados = 0;
+        if (++epoca == Integer.MAX_VALUE) {
+            Arrays.fill(marcas, 0);
+            Arrays.fill(objetivos, 0);
+            Arrays.fill(nodosVetados, 0);
+            Arrays.fill(aristasVetadas, 0);
+            epoca = 1;
+        }
+    }
+
+    /**
+     * Indica si el nodo recibió una distancia en la búsqueda actual.
+     *
+     * @param nodo identificador del nodo
+     * @return true si el nodo fue alcanzado
+     */
+    public boolean fueAlcanzado(int nodo) {
+        return marcas[nodo] == epoca;
+    }
+
+    /**
+     * Devuelve la distancia tentativa del nodo en la búsqueda actual.
+     *
+     * @param nodo identificador del nodo
+     * @return distancia conocida o infinito si no ha sido alcanzado
+     */
+    public double getDistancia(int nodo) {
+        return marcas[nodo] == epoca ? distancias[nodo] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Devuelve la arista por la que se llegó al nodo en la búsqueda actual.
+     *
+     * @param nodo identificador del nodo
+     * @return índice de la arista previa o -1 si es un origen o no fue alcanzado
+     */
+    public int getAristaPrevia(int nodo) {
+        return marcas[nodo] == epoca ? aristaPrevia[nodo] : -1;
+    }
+
+    /**
+     * Registra una nueva distancia tentativa para un nodo.
+     *
+     * @param nodo      identificador del nodo
+     * @param distancia distancia acumulada
+     * @param arista    arista por la que se llegó, o -1 para un origen
+     */
+    public void fijar(int nodo, double distancia, int arista) {
+        marcas[nodo] = epoca;
+        distancias[nodo] = distancia;
+        aristaPrevia[nodo] = arista;
+    }
+
+    /**
+     * Marca un nodo como objetivo de la búsqueda actual.
+     *
+     * @param nodo identificador del nodo
+     * @return true si no estaba marcado todavía
+     */
+    public boolean marcarObjetivo(int nodo) {
+        if (objetivos[nodo] == epoca) return false;
+        objetivos[nodo] = epoca;
+        return true;
+    }
+
+    /**
+     * @param nodo identificador del nodo
+     * @return true si el nodo es objetivo de la búsqueda actual
+     */
+    public boolean esObjetivo(int nodo) {
+        return objetivos[nodo] == epoca;
+    }
+
+    /**
+     * Excluye un nodo de la búsqueda actual.
+     *
+     * @param nodo identificador del nodo
+     */
+    public void vetarNodo(int nodo) {
+        nodosVetados[nodo] = epoca;
+    }
+
+    /**
+     * @param nodo identificador del nodo
+     * @return true si el nodo está excluido de la búsqueda actual
+     */
+    public boolean estaNodoVetado(int nodo) {
+        return nodosVetados[nodo] == epoca;
+    }
+
+    /**
+     * Excluye una ruta de la búsqueda actual; el espacio debe haberse preparado indicando
+     * la cantidad de rutas del grafo.
+     *
+     * @param arista índice de la ruta
+     */
+    public void vetarArista(int arista) {
+        aristasVetadas[arista] = epoca;
+    }
+
+    /**
+     * @param arista índice de la ruta
+     * @return true si la ruta está excluida de la búsqueda actual
+     */
+    public boolean estaAristaVetada(int arista) {
+        return arista < aristasVetadas.length && aristasVetadas[arista] == epoca;
+    }
+
+    /**
+     * Registra que la búsqueda actual asentó un nodo más.
+     */
+    public void contarAsentado() {
+        asentados++;
+    }
+
+    /** @return cantidad de nodos asentados en la búsqueda actual */
+    public int getNodosAsentados() {
+        return asentados;
+    }
+
+    /** @return montículo de prioridades asociado a este espacio */
+    public MonticuloMinimo getMonticulo() {
+        return monticulo;
+    }
+}
@@ -0,0 +1,87 @@
+package co.edu.uniquindio.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen estadístico del tiempo total de evacuación sobre varias réplicas independientes.
+ */
+public class EstadisticasSimulacion {
+
+    /** Cuantil normal para un intervalo de confianza del 95 %. */
+    private static final double Z_95 = 1.959964;
+
+    private final List<ResultadoSimulacion> replicas;
+    private final double media;
+    private final double desviacion;
+    private final double minimo;
+    private final double maximo;
+    private final long eventosTotales;
+    private final double segundos;
+
+    /**
+     * @param replicas resultados de cada réplica
+     * @param segundos tiempo real empleado en todas las réplicas
+     */
+    public EstadisticasSimulacion(ResultadoSimulacion[] replicas, double segundos) {
+        if (replicas.length == 0) throw new IllegalArgumentException("Se requiere al menos una réplica.");
+        this.replicas = Collections.unmodifiableList(Arrays.asList(replicas.clone()));
+        this.segundos = segundos;
+
+        double suma = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        long eventos = 0;
+        for (ResultadoSimulacion r : replicas) {
+            suma += r.getTiempoTotalHoras();
+            min = Math.min(min, r.getTiempoTotalHoras());
+            max = Math.max(max, r.getTiempoTotalHoras());
+            eventos += r.getEventosProcesados();
+        }
+        this.media = suma / replicas.length;
+        double cuadrados = 0;
+        for (ResultadoSimulacion r : replicas) {
+            double d = r.getTiempoTotalHoras() - media;
+            cuadrados += d * d;
+        }
+        this.desviacion = replicas.length > 1 ? Math.sqrt(cuadrados / (replicas.length - 1)) : 0.0;
+        this.minimo = min;
+        this.maximo = max;
+        this.eventosTotales = eventos;
+    }
+
+    /** @return resultados de cada réplica */
+    public List<ResultadoSimulacion> getReplicas() { return replicas; }
+
+    /** @return tiempo total de evacuación medio, en horas */
+    public double getMedia() { return media; }
+
+    /** @return desviación estándar muestral del tiempo total, en horas */
+    public double getDesviacion() { return desviacion; }
+
+    /** @return semiancho del intervalo de confianza del 95 % para la media, en horas */
+    public double getMargenError95() {
+        return Z_95 * desviacion / Math.sqrt(replicas.size());
+    }
+
+    /** @return menor tiempo total observado, en horas */
+    public double getMinimo() { return minimo; }
+
+    /** @return mayor tiempo total observado, en horas */
+    public double getMaximo() { return maximo; }
+
+    /** @return eventos atendidos sumando todas las réplicas */
+    public long getEventosTotales() { return eventosTotales; }
+
+    /** @return eventos atendidos por segundo de tiempo real */
+    public double getEventosPorSegundo() {
+        return segundos > 0 ? eventosTotales / segundos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EstadisticasSimulacion{replicas=%d, media=%.2fh ± %.2f, min=%.2fh, max=%.2fh, eventos/s=%.0f}",
+                replicas.size(), media, getMargenError95(), minimo, maximo, getEventosPorSegundo());
+    }
+}
@@ -0,0 +1,263 @@
+package co.edu.uniquindio.model;
+
+import java.util.Arrays;
+
+/**
+ * Red de flujo de costo mínimo resuelta con caminos más cortos sucesivos y potenciales de nodo
+ * (esquema primal-dual).
+ * <p>
+ * Cada arista se guarda junto a su arista residual (la de índice par es la directa y la siguiente
+ * su inversa) en arreglos primitivos. Los potenciales mantienen no negativos los costos
+ * reducidos, así que las distancias se calculan con Dijkstra sobre el {@link MonticuloMinimo}
+ * del proyecto; la búsqueda se detiene al asentar el sumidero y los nodos no asentados reciben la
+ * distancia del sumidero como potencial, lo que conserva la validez de los costos reducidos.
+ * Los costos de las aristas deben ser no negativos.
+ */
+public class FlujoCostoMinimo {
+
+    /** Capacidad usada para aristas sin límite. */
+    public static final long CAPACIDAD_INFINITA = Long.MAX_VALUE / 4;
+
+    /** Margen para considerar nulo un costo reducido calculado en punto flotante. */
+    private static final double TOLERANCIA = 1e-9;
+
+    private final int nodos;
+    private int[] primera;
+    private int[] siguiente;
+    private int[] destino;
+    private long[] capacidad;
+    private long[] flujo;
+    private double[] costo;
+    private int aristas;
+    private final double[] potencial;
+
+    private long flujoTotal;
+    private double costoTotal;
+
+    /**
+     * Crea una red vacía.
+     *
+     * @param nodos cantidad de nodos de la red
+     */
+    public FlujoCostoMinimo(int nodos) {
+        if (nodos <= 0) throw new IllegalArgumentException("La red debe tener al menos un nodo.");
+        this.nodos = nodos;
+        this.primera = new int[nodos];
+        Arrays.fill(primera, -1);
+        int inicial = 16;
+        this.siguiente = new int[inicial];
+        this.destino = new int[inicial];
+        this.capacidad = new long[inicial];
+        this.flujo = new long[inicial];
+        this.costo = new double[inicial];
+        this.potencial = new double[nodos];
+    }
+
+    /**
+     * Agrega una arista dirigida. Las aristas deben agregarse antes de enviar flujo: una arista
+     * nueva podría abaratar un ciclo de la red residual y dejar de ser óptimo el flujo ya enviado.
+     *
+     * @param desde     nodo de origen
+     * @param hasta     nodo de destino
+     * @param capacidad capacidad máxima (>= 0)
+     * @param costo     costo por unidad de flujo (>= 0)
+     * @return identificador de la arista, para consultar luego su flujo
+     *
+     * @throws IllegalStateException si ya se envió flujo por la red
+     */
+    public int agregarArista(int desde, int hasta, long capacidad, double costo) {
+        if (capacidad < 0 || costo < 0 || Double.isNaN(costo))
+            throw new IllegalArgumentException("La capacidad y el costo de la arista no pueden ser negativos.");
+        if (flujoTotal > 0)
+            throw new IllegalStateException("No se pueden agregar aristas después de enviar flujo.");
+        if (aristas + 2 > destino.length) crecer();
+        int id = aristas;
+        enlazar(desde, hasta, Math.min(capacidad, CAPACIDAD_INFINITA), costo);
+        enlazar(hasta, desde, 0, -costo);
+        return id;
+    }
+
+    private void enlazar(int desde, int hasta, long cap, double c) {
+        destino[aristas] = hasta;
+        capacidad[aristas] = cap;
+        costo[aristas] = c;
+        siguiente[aristas] = primera[desde];
+        primera[desde] = aristas++;
+    }
+
+    private void crecer() {
+        int n = destino.length * 2;
+        siguiente = Arrays.copyOf(siguiente, n);
+        destino = Arrays.copyOf(destino, n);
+        capacidad = Arrays.copyOf(capacidad, n);
+        flujo = Arrays.copyOf(flujo, n);
+        costo = Arrays.copyOf(costo, n);
+    }
+
+    /**
+     * Envía el mayor flujo posible (hasta el límite indicado) de la fuente al sumidero con el
+     * menor costo total. Puede llamarse varias veces; cada llamada continúa desde el flujo actual.
+     * <p>
+     * Cada fase calcula con Dijkstra las distancias reducidas, actualiza los potenciales y luego
+     * satura con un flujo bloqueante (como en Dinic) todos los caminos de costo reducido cero, de
+     * modo que la cantidad de búsquedas depende de las longitudes distintas de camino y no de la
+     * cantidad de caminos de aumento.
+     *
+     * @param fuente   nodo de origen del flujo
+     * @param sumidero nodo de destino del flujo
+     * @param limite   flujo máximo a enviar en esta llamada
+     * @return flujo enviado en esta llamada
+     */
+    public long resolver(int fuente, int sumidero, long limite) {
+        double[] distancia = new double[nodos];
+        boolean[] asentado = new boolean[nodos];
+        int[] nivel = new int[nodos];
+        int[] iterador = new int[nodos];
+        int[] cola = new int[nodos];
+        int[] pila = new int[nodos];
+        MonticuloMinimo monticulo = new MonticuloMinimo(nodos);
+        long enviado = 0;
+
+        while (enviado < limite) {
+            if (!calcularDistanciasReducidas(fuente, sumidero, distancia, asentado, monticulo)) break;
+            double hastaSumidero = distancia[sumidero];
+            for (int v = 0; v < nodos; v++) {
+                potencial[v] += Math.min(distancia[v], hastaSumidero);
+            }
+            if (!calcularNiveles(fuente, sumidero, nivel, cola)) break;
+            long fase = enviarFlujoBloqueante(fuente, sumidero, limite - enviado, nivel, iterador, pila);
+            if (fase == 0) break;
+            enviado += fase;
+        }
+        flujoTotal += enviado;
+        return enviado;
+    }
+
+    /** Dijkstra sobre costos reducidos en la red residual; se detiene al asentar el sumidero. */
+    private boolean calcularDistanciasReducidas(int fuente, int sumidero, double[] distancia,
+                                                boolean[] asentado, MonticuloMinimo cola) {
+        Arrays.fill(distancia, Double.POSITIVE_INFINITY);
+        Arrays.fill(asentado, false);
+        cola.vaciar();
+        distancia[fuente] = 0.0;
+        cola.insertarODisminuir(fuente, 0.0);
+
+        while (!cola.estaVacio()) {
+            int u = cola.extraerMinimo();
+            asentado[u] = true;
+            if (u == sumidero) return true;
+            for (int e = primera[u]; e >= 0; e = siguiente[e]) {
+                if (capacidad[e] - flujo[e] <= 0) continue;
+                int v = destino[e];
+                if (asentado[v]) continue;
+                double nueva = distancia[u] + Math.max(0.0, costoReducido(u, e));
+                if (nueva < distancia[v]) {
+                    distancia[v] = nueva;
+                    cola.insertarODisminuir(v, nueva);
+                }
+            }
+        }
+        return false;
+    }
+
+    private double costoReducido(int u, int e) {
+        return costo[e] + potencial[u] - potencial[destino[e]];
+    }
+
+    private boolean esAdmisible(int u, int e) {
+        return capacidad[e] - flujo[e] > 0 && costoReducido(u, e) <= TOLERANCIA;
+    }
+
+    /** Niveles BFS desde la fuente sobre las aristas residuales de costo reducido cero. */
+    private boolean calcularNiveles(int fuente, int sumidero, int[] nivel, int[] cola) {
+        Arrays.fill(nivel, -1);
+        int cabeza = 0;
+        int fin = 0;
+        nivel[fuente] = 0;
+        cola[fin++] = fuente;
+        while (cabeza < fin) {
+            int u = cola[cabeza++];
+            for (int e = primera[u]; e >= 0; e = siguiente[e]) {
+                int v = destino[e];
+                if (nivel[v] < 0 && esAdmisible(u, e)) {
+                    nivel[v] = nivel[u] + 1;
+                    cola[fin++] = v;
+                }
+            }
+        }
+        return nivel[sumidero] >= 0;
+    }
+
+    /**
+     * Flujo bloqueante sobre el grafo de niveles con búsqueda en profundidad iterativa:
+     * avanza por aristas admisibles que suben un nivel, aumenta al llegar al sumidero y
+     * retrocede hasta la primera arista saturada.
+     */
+    private long enviarFlujoBloqueante(int fuente, int sumidero, long limite, int[] nivel, int[] iterador, int[] pila) {
+        for (int v = 0; v < nodos; v++) iterador[v] = primera[v];
+        long enviado = 0;
+        int tope = 0;
+        int u = fuente;
+
+        while (enviado < limite) {
+            if (u == sumidero) {
+                long cuello = limite - enviado;
+                for (int i = 0; i < tope; i++) {
+                    cuello = Math.min(cuello, capacidad[pila[i]] - flujo[pila[i]]);
+                }
+                int primeraSaturada = -1;
+                for (int i = 0; i < tope; i++) {
+                    int e = pila[i];
+                    flujo[e] += cuello;
+                    flujo[e ^ 1] -= cuello;
+                    costoTotal += cuello * costo[e];
+                    if (primeraSaturada < 0 && capacidad[e] - flujo[e] <= 0) primeraSaturada = i;
+                }
+                enviado += cuello;
+                if (primeraSaturada < 0) break;
+                tope = primeraSaturada;
+                u = tope == 0 ? fuente : destino[pila[tope - 1]];
+                continue;
+            }
+
+            int e = iterador[u];
+            while (e >= 0 && !(nivel[destino[e]] == nivel[u] + 1 && esAdmisible(u, e))) e = siguiente[e];
+            iterador[u] = e;
+            if (e >= 0) {
+                pila[tope++] = e;
+                u = destino[e];
+            } else {
+                // nodo sin salida: se descarta y se retrocede una arista
+                nivel[u] = -1;
+                if (tope == 0) break;
+                int anterior = pila[--tope];
+                u = destino[anterior ^ 1];
+                iterador[u] = siguiente[iterador[u]];
+            }
+        }
+        return enviado;
+    }
+
+    /**
+     * @param arista identificador devuelto por {@link #agregarArista}
+     * @return flujo que circula por la arista
+     */
+    public long getFlujo(int arista) {
+        return flujo[arista];
+    }
+
+    /** @return flujo total enviado por todas las llamadas a {@link #resolver} */
+    public long getFlujoTotal() {
+        return flujoTotal;
+    }
+
+    /** @return costo total del flujo enviado */
+    public double getCostoTotal() {
+        return costoTotal;
+    }
+
+    /** @return cantidad de nodos de la red */
+    public int getNumeroNodos() {
+        return nodos;
+    }
+}
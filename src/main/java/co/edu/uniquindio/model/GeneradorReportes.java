@@ -34,6 +34,6 @@ public class GeneradorReportes {
      * @return cadena con el reporte de evacuaciones
      */
     public String generarReporteEvacuaciones() {
-        return "Zonas pendientes de evacuación: " + gestorEvacuacion.getColaEvacuacion().size();
+        return "Zonas pendientes de evacuación: " + gestorEvacuacion.getZonasPendientes();
     }
 }
\ No newline at end of file
@@ -1,37 +1,107 @@
 package co.edu.uniquindio.model;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Clase encargada de gestionar la lista de equipos disponibles en el sistema.
+ * <p>
+ * Además de la lista, mantiene un índice de los equipos asignados a cada zona. Los equipos
+ * registrados avisan al gestor cuando cambia su zona asignada, de modo que consultar los equipos
+ * de una zona no requiere recorrer todos los equipos.
  */
 public class GestorEquipos {
 
-    // Lista estática que almacena todos los equipos registrados
-    private static List<Equipo> listaEquipos = List.of();
+    // Lista de equipos registrados; se recorre mucho más de lo que se modifica
+    private final List<Equipo> listaEquipos;
+
+    // Equipos asignados a cada zona; el conjunto de una zona se conserva aunque quede vacío
+    private final Map<Ubicacion, Set<Equipo>> equiposPorZona;
 
     /**
-     * Constructor que inicializa la lista de equipos como una lista mutable vacía.
+     * Constructor que inicializa la lista de equipos y el índice por zona vacíos.
      */
     public GestorEquipos() {
-        this.listaEquipos = new ArrayList<>();
+        this.listaEquipos = new CopyOnWriteArrayList<>();
+        this.equiposPorZona = new ConcurrentHashMap<>();
     }
 
     /**
      * Agrega un nuevo equipo a la lista de equipos.
      *
      * @param e el equipo que se desea agregar
+     * @throws IllegalArgumentException si el equipo ya está registrado en un gestor
      */
     public void agregarEquipo(Equipo e) {
+        if (e == null) throw new IllegalArgumentException("El equipo no puede ser nulo.");
+        e.vincular(this);
         listaEquipos.add(e);
     }
 
+    /**
+     * Quita un equipo de la lista y del índice por zona.
+     *
+     * @param e el equipo que se desea quitar
+     * @return true si el equipo estaba registrado en este gestor
+     */
+    public boolean eliminarEquipo(Equipo e) {
+        if (e == null || !e.desvincular(this)) return false;
+        listaEquipos.remove(e);
+        return true;
+    }
+
     /**
      * Devuelve la lista completa de equipos registrados.
      *
-     * @return lista de equipos
+     * @return lista de solo lectura con los equipos
+     */
+    public List<Equipo> getListaEquipos() {
+        return Collections.unmodifiableList(listaEquipos);
+    }
+
+    /**
+     * Devuelve los equipos asignados a una zona.
+     *
+     * @param zona la zona consultada
+     * @return vista de solo lectura, que se mantiene al día, con los equipos de la zona
+     */
+    public Set<Equipo> obtenerEquiposEnZona(Ubicacion zona) {
+        if (zona == null) return Collections.emptySet();
+        return Collections.unmodifiableSet(conjuntoDe(zona));
+    }
+
+    /**
+     * Devuelve la zona asignada a un equipo.
+     *
+     * @param equipo el equipo consultado
+     * @return la zona asignada, o null si no tiene
      */
-    public static List<Equipo> getListaEquipos() {
-        return listaEquipos;
+    public Ubicacion obtenerZona(Equipo equipo) {
+        return equipo.getZonaAsignada();
+    }
+
+    /**
+     * Cuenta los equipos asignados a una zona.
+     *
+     * @param zona la zona consultada
+     * @return cantidad de equipos en la zona
+     */
+    public int contarEquiposEnZona(Ubicacion zona) {
+        Set<Equipo> equipos = zona != null ? equiposPorZona.get(zona) : null;
+        return equipos != null ? equipos.size() : 0;
+    }
+
+    /** Mueve un equipo en el índice; el equipo lo llama con su propio candado tomado. */
+    void zonaAsignadaModificada(Equipo equipo, Ubicacion anterior, Ubicacion nueva) {
+        if (anterior != null) conjuntoDe(anterior).remove(equipo);
+        if (nueva != null) conjuntoDe(nueva).add(equipo);
+    }
+
+    private Set<Equipo> conjuntoDe(Ubicacion zona) {
+        return equiposPorZona.computeIfAbsent(zona, z -> ConcurrentHashMap.newKeySet());
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,34 @@
 package co.edu.uniquindio.model;
 
-import java.util.PriorityQueue;
-import java.util.Comparator;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 /**
  * Clase encargada de gestionar la evacuación de zonas afectadas,
- * priorizando aquellas con mayor nivel de urgencia.
+ * priorizando aquellas con mayor nivel de urgencia y, a igual urgencia,
+ * las que tienen más personas afectadas. Varios operadores pueden reclamar
+ * zonas a la vez; cada zona se entrega a un solo operador.
  */
 public class GestorEvacuacion {
 
-    private final PriorityQueue<Ubicacion> colaEvacuacion;
+    private final DespachoEvacuacion despacho;
+    private final List<Consumer<Ubicacion>> oyentesUrgencia;
+
+    /** Tiempo que tiene un operador para confirmar la evacuación de una zona reclamada. */
+    private static final Duration PLAZO_RECLAMO = Duration.ofMinutes(30);
+
+    /** Operador usado cuando la evacuación se ejecuta directamente desde el sistema. */
+    private static final String OPERADOR_SISTEMA = "Sistema";
 
     /**
      * Constructor que inicializa la cola de evacuación con prioridad
      * basada en el nivel de urgencia de cada ubicación (mayor urgencia primero).
      */
     public GestorEvacuacion() {
-        this.colaEvacuacion = new PriorityQueue<>(
-                Comparator.comparingInt(Ubicacion::getNivelUrgencia).reversed()
-        );
+        this.despacho = new DespachoEvacuacion(PLAZO_RECLAMO);
+        this.oyentesUrgencia = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -27,20 +38,130 @@ public class GestorEvacuacion {
      * @param ubicacion la zona que se desea evacuar
      */
     public void agregarZonaEvacuacion(Ubicacion ubicacion) {
-        if (!colaEvacuacion.contains(ubicacion)) {
-            colaEvacuacion.add(ubicacion);
-        } else {
+        if (!despacho.agregar(ubicacion)) {
             System.out.println("La zona " + ubicacion.getNombre() + " ya está en la lista de evacuación.");
         }
     }
 
+    /**
+     * Reubica una zona en la cola después de que cambió su nivel de urgencia o su cantidad
+     * de personas afectadas.
+     *
+     * @param ubicacion zona cuya prioridad cambió
+     */
+    public void actualizarPrioridad(Ubicacion ubicacion) {
+        if (!despacho.actualizar(ubicacion)) {
+            System.out.println("La zona " + ubicacion.getNombre() + " no está pendiente en la lista de evacuación.");
+        }
+        avisarUrgencia(ubicacion);
+    }
+
+    /**
+     * Cambia el nivel de urgencia de una zona, la reubica en la cola si está pendiente y avisa a
+     * los oyentes de urgencia.
+     *
+     * @param ubicacion zona a actualizar
+     * @param nivel     nuevo nivel de urgencia, entre 1 y 10
+     * @return true si el nivel cambió
+     */
+    public boolean cambiarUrgencia(Ubicacion ubicacion, int nivel) {
+        int anterior = ubicacion.getNivelUrgencia();
+        ubicacion.setNivelUrgencia(nivel);
+        if (ubicacion.getNivelUrgencia() == anterior) return false;
+        despacho.actualizar(ubicacion);
+        avisarUrgencia(ubicacion);
+        return true;
+    }
+
+    /**
+     * Suscribe un oyente que recibe cada zona cuya urgencia cambia por
+     * {@link #cambiarUrgencia(Ubicacion, int)} o {@link #actualizarPrioridad(Ubicacion)}.
+     * Se llama desde el hilo que hizo el cambio.
+     *
+     * @param oyente oyente de cambios de urgencia
+     */
+    public void agregarOyenteUrgencia(Consumer<Ubicacion> oyente) {
+        if (oyente == null) throw new IllegalArgumentException("El oyente no puede ser nulo.");
+        oyentesUrgencia.add(oyente);
+    }
+
+    /**
+     * @param oyente oyente suscrito con {@link #agregarOyenteUrgencia(Consumer)}
+     * @return true si estaba suscrito
+     */
+    public boolean quitarOyenteUrgencia(Consumer<Ubicacion> oyente) {
+        return oyentesUrgencia.remove(oyente);
+    }
+
+    private void avisarUrgencia(Ubicacion ubicacion) {
+        for (Consumer<Ubicacion> oyente : oyentesUrgencia) oyente.accept(ubicacion);
+    }
+
+    /**
+     * Retira una zona de la cola de evacuación sin evacuarla.
+     *
+     * @param ubicacion zona a retirar
+     * @return true si la zona estaba pendiente
+     */
+    public boolean eliminarZonaEvacuacion(Ubicacion ubicacion) {
+        return despacho.eliminar(ubicacion);
+    }
+
+    /**
+     * Indica si una zona está pendiente de evacuación, en la cola o reclamada por un operador.
+     *
+     * @param ubicacion zona a consultar
+     * @return true si la zona aún no ha sido evacuada
+     */
+    public boolean estaPendiente(Ubicacion ubicacion) {
+        return despacho.contiene(ubicacion);
+    }
+
+    /**
+     * Reclama para un operador la siguiente zona a evacuar. La zona queda reservada para él
+     * hasta que confirme la evacuación, la libere o venza el plazo del reclamo.
+     *
+     * @param operador nombre del operador
+     * @return reclamo de la zona, o null si no hay zonas pendientes
+     */
+    public AsignacionEvacuacion reclamarZona(String operador) {
+        return despacho.reclamar(operador);
+    }
+
+    /**
+     * Confirma la evacuación de una zona reclamada.
+     *
+     * @param asignacion reclamo del operador
+     * @return true si la confirmación fue aceptada; false si el reclamo venció o ya fue usado
+     */
+    public boolean confirmarEvacuacion(AsignacionEvacuacion asignacion) {
+        boolean confirmada = despacho.confirmar(asignacion);
+        if (confirmada) {
+            System.out.println("Zona evacuada: " + asignacion.getZona().getNombre() +
+                    " (Operador: " + asignacion.getOperador() + ")");
+        } else {
+            System.out.println("El reclamo de la zona " + asignacion.getZona().getNombre() + " ya no está vigente.");
+        }
+        return confirmada;
+    }
+
+    /**
+     * Devuelve a la cola una zona reclamada que el operador no va a atender.
+     *
+     * @param asignacion reclamo del operador
+     * @return true si la zona volvió a la cola
+     */
+    public boolean liberarZona(AsignacionEvacuacion asignacion) {
+        return despacho.liberar(asignacion);
+    }
+
     /**
      * Devuelve la siguiente zona prioritaria para evacuar sin retirarla de la cola.
      *
      * @return la ubicación con mayor urgencia o null si no hay zonas pendientes
      */
     public Ubicacion obtenerZonaPrioritaria() {
-        return colaEvacuacion.peek();
+        return despacho.verSiguiente();
     }
 
     /**
@@ -48,8 +169,9 @@ public class GestorEvacuacion {
      * Muestra un mensaje indicando la acción realizada.
      */
     public void ejecutarEvacuacion() {
-        Ubicacion zonaEvacuada = colaEvacuacion.poll();
-        if (zonaEvacuada != null) {
+        AsignacionEvacuacion asignacion = despacho.reclamarMasUrgente(OPERADOR_SISTEMA);
+        if (asignacion != null && despacho.confirmar(asignacion)) {
+            Ubicacion zonaEvacuada = asignacion.getZona();
             System.out.println("Evacuando zona prioritaria: " + zonaEvacuada.getNombre() +
                     " (Urgencia: " + zonaEvacuada.getNivelUrgencia() + ")");
         } else {
@@ -58,21 +180,31 @@ public class GestorEvacuacion {
     }
 
     /**
-     * Devuelve la cantidad de zonas pendientes en la cola de evacuación.
+     * Devuelve la cantidad de zonas pendientes de evacuación, incluidas las reclamadas
+     * por operadores que aún no confirman.
      *
      * @return número de zonas pendientes
      */
     public int getZonasPendientes() {
-        return colaEvacuacion.size();
+        return despacho.getPendientes() + despacho.getReclamadas();
+    }
+
+    /**
+     * Devuelve las zonas registradas que aún no han sido evacuadas.
+     *
+     * @return lista de zonas pendientes o reclamadas
+     */
+    public List<Ubicacion> obtenerZonasPendientes() {
+        return despacho.getZonas();
     }
 
     /**
-     * Devuelve la cola de evacuación actual.
+     * Devuelve el despacho concurrente de evacuaciones.
      *
-     * @return cola de evacuación con las zonas registradas
+     * @return despacho con las zonas registradas y los reclamos vigentes
      */
-    public PriorityQueue<Ubicacion> getColaEvacuacion() {
-        return colaEvacuacion;
+    public DespachoEvacuacion getDespacho() {
+        return despacho;
     }
 
     /**
@@ -84,8 +216,8 @@ public class GestorEvacuacion {
     @Override
     public String toString() {
         return "GestorEvacuacion{" +
-                "zonasPendientes=" + colaEvacuacion.size() +
-                ", siguiente=" + (colaEvacuacion.peek() != null ? colaEvacuacion.peek().getNombre() : "Ninguna") +
+                "zonasPendientes=" + getZonasPendientes() +
+                ", siguiente=" + (despacho.verSiguiente() != null ? despacho.verSiguiente().getNombre() : "Ninguna") +
                 '}';
     }
 }
\ No newline at end of file
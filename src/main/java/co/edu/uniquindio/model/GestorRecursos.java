@@ -1,41 +1,150 @@
 package co.edu.uniquindio.model;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Clase encargada de gestionar el inventario de recursos, su asignación a ubicaciones
  * y la distribución mediante un árbol de nodos. También coordina el envío de equipos de rescate.
+ * <p>
+ * El inventario global se indexa por tipo y cada ubicación guarda una sola entrada por recurso,
+ * que acumula las asignaciones repetidas, junto a contadores por tipo. Los recursos registrados
+ * avisan al gestor cuando cambia su cantidad o su tipo, así que los totales por tipo, globales y
+ * por ubicación se consultan en tiempo constante sin recorrer listas.
+ * <p>
+ * Las asignaciones admiten varios operadores a la vez. Cada recurso descuenta sus unidades con
+ * operaciones atómicas, de modo que nunca se entrega más de lo disponible, y la entrada de cada
+ * ubicación se crea o acumula bajo el candado de su franja, repartidas por ubicación. Una
+ * {@link ReservaRecursos} aparta de una vez las cantidades de varios recursos (o ninguna) y
+ * luego se confirma o se libera.
+ * <p>
+ * Con un {@link DiarioInventario} enlazado, cada movimiento queda además registrado en disco.
  */
 public class GestorRecursos {
 
+    private static final TipoRecurso[] TIPOS = TipoRecurso.values();
+
     private final List<Recurso> inventarioGlobal;
-    private final Map<Ubicacion, List<Recurso>> recursosPorUbicacion;
+    private final EnumMap<TipoRecurso, List<Recurso>> inventarioPorTipo;
+    private final AtomicLongArray totalGlobalPorTipo;
+    private final AtomicIntegerArray disponiblesPorTipo;
+    private final Map<Ubicacion, InventarioUbicacion> recursosPorUbicacion;
+    private final ReentrantLock[] candados;
     private final ArbolDistribucion arbolDistribucion;
+    private volatile DiarioInventario diario;
+
+    /**
+     * Recursos asignados a una ubicación, con una entrada por recurso y las cantidades por tipo
+     * indexadas por el ordinal del tipo.
+     */
+    private static final class InventarioUbicacion {
+        final List<Recurso> recursos = new CopyOnWriteArrayList<>();
+        final AtomicLongArray cantidadPorTipo = new AtomicLongArray(TIPOS.length);
+        final AtomicLong total = new AtomicLong();
+
+        Recurso buscar(Recurso recurso) {
+            for (Recurso r : recursos) {
+                if (r.equals(recurso)) return r;
+            }
+            return null;
+        }
+
+        void sumar(TipoRecurso tipo, long cantidad) {
+            cantidadPorTipo.addAndGet(tipo.ordinal(), cantidad);
+            total.addAndGet(cantidad);
+        }
+    }
 
     /**
      * Constructor que inicializa el gestor con un inventario vacío,
      * sin recursos asignados y un árbol de distribución vacío.
      */
     public GestorRecursos() {
-        this.inventarioGlobal = new ArrayList<>();
-        this.recursosPorUbicacion = new HashMap<>();
+        this.inventarioGlobal = new CopyOnWriteArrayList<>();
+        this.inventarioPorTipo = new EnumMap<>(TipoRecurso.class);
+        for (TipoRecurso tipo : TIPOS) inventarioPorTipo.put(tipo, new CopyOnWriteArrayList<>());
+        this.totalGlobalPorTipo = new AtomicLongArray(TIPOS.length);
+        this.disponiblesPorTipo = new AtomicIntegerArray(TIPOS.length);
+        this.recursosPorUbicacion = new ConcurrentHashMap<>();
+        int n = 2;
+        while (n < 2 * Runtime.getRuntime().availableProcessors()) n <<= 1;
+        this.candados = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) candados[i] = new ReentrantLock();
         this.arbolDistribucion = new ArbolDistribucion();
     }
 
+    private ReentrantLock candadoDe(Ubicacion ubicacion) {
+        int h = ubicacion.hashCode();
+        h ^= h >>> 16;
+        return candados[h & (candados.length - 1)];
+    }
+
     /**
      * Registra un recurso en el inventario global si no es nulo.
      *
      * @param recurso el recurso a registrar
      */
-    public void registrarRecursoGlobal(Recurso recurso) {
+    public synchronized void registrarRecursoGlobal(Recurso recurso) {
         if (recurso == null) {
             System.out.println("No se puede registrar un recurso nulo.");
             return;
         }
-        inventarioGlobal.add(recurso);
+        if (recurso.getGestor() == this) {
+            System.out.println("El recurso " + recurso.getNombre() + " ya está registrado.");
+            return;
+        }
+        indexar(recurso, null);
+        DiarioInventario d = diario;
+        if (d != null) {
+            d.registrarRecurso(recurso);
+            d.persistir();
+        }
         System.out.println("Recurso registrado globalmente: " + recurso.getNombre());
     }
 
+    /**
+     * Enlaza un diario que registrará los movimientos siguientes, anotando primero el inventario
+     * actual. Se usa al iniciar, antes de que haya asignaciones en curso.
+     *
+     * @param diario diario de inventario
+     */
+    public synchronized void usarDiario(DiarioInventario diario) {
+        if (diario == null) throw new IllegalArgumentException("El diario no puede ser nulo.");
+        for (Recurso r : inventarioGlobal) diario.registrarRecurso(r);
+        for (InventarioUbicacion inventario : recursosPorUbicacion.values()) {
+            for (Recurso r : inventario.recursos) diario.registrarRecurso(r);
+        }
+        this.diario = diario;
+    }
+
+    /**
+     * Incorpora un recurso reconstruido por el diario, sin registrarlo de nuevo.
+     *
+     * @param recurso   recurso restaurado
+     * @param ubicacion ubicación donde está, o null si es del inventario global
+     */
+    synchronized void restaurarRecurso(Recurso recurso, Ubicacion ubicacion) {
+        indexar(recurso, ubicacion);
+    }
+
+    private void indexar(Recurso recurso, Ubicacion ubicacion) {
+        recurso.vincular(this, ubicacion);
+        if (ubicacion == null) {
+            inventarioGlobal.add(recurso);
+            inventarioPorTipo.get(recurso.getTipo()).add(recurso);
+            sumarGlobal(recurso.getTipo(), 0, recurso.getCantidadDisponible());
+        } else {
+            InventarioUbicacion inventario = recursosPorUbicacion.computeIfAbsent(ubicacion, u -> new InventarioUbicacion());
+            inventario.recursos.add(recurso);
+            inventario.sumar(recurso.getTipo(), recurso.getCantidadDisponible());
+        }
+    }
+
     /**
      * Asigna una cantidad específica de un recurso a una ubicación afectada,
      * actualizando el inventario global y el árbol de distribución.
@@ -56,35 +165,321 @@ public class GestorRecursos {
             return false;
         }
 
-        if (recurso.getCantidadDisponible() < cantidad) {
+        ReservaRecursos reserva = reservarRecurso(destino, recurso, cantidad);
+        if (reserva == null) {
             System.out.println("No hay suficiente cantidad disponible de " + recurso.getNombre());
             return false;
         }
+        confirmarReserva(reserva);
+
+        System.out.println("Suministros " + cantidad + " unidades de " + recurso.getNombre() + " asignadas a " + destino.getNombre());
+        return true;
+    }
+
+    /**
+     * Reserva una cantidad de un recurso para una ubicación.
+     *
+     * @param destino  ubicación que recibirá el recurso
+     * @param recurso  recurso a reservar
+     * @param cantidad unidades a reservar
+     * @return la reserva pendiente, o null si no hay unidades suficientes
+     */
+    public ReservaRecursos reservarRecurso(Ubicacion destino, Recurso recurso, int cantidad) {
+        return reservarRecursos(destino, Collections.singletonMap(recurso, cantidad));
+    }
+
+    /**
+     * Reserva a la vez varias cantidades de recursos para una ubicación: o se apartan todas,
+     * o ninguna. Si algún recurso no alcanza, las unidades ya apartadas se devuelven.
+     *
+     * @param destino     ubicación que recibirá los recursos
+     * @param solicitudes unidades pedidas de cada recurso
+     * @return la reserva pendiente, o null si algún recurso no tiene unidades suficientes
+     */
+    public ReservaRecursos reservarRecursos(Ubicacion destino, Map<Recurso, Integer> solicitudes) {
+        if (destino == null) throw new IllegalArgumentException("El destino de la reserva no puede ser nulo.");
+        if (solicitudes == null || solicitudes.isEmpty())
+            throw new IllegalArgumentException("La reserva debe incluir al menos un recurso.");
+
+        Recurso[] recursos = new Recurso[solicitudes.size()];
+        int[] cantidades = new int[recursos.length];
+        int k = 0;
+        for (Map.Entry<Recurso, Integer> e : solicitudes.entrySet()) {
+            if (e.getKey() == null) throw new IllegalArgumentException("No se puede reservar un recurso nulo.");
+            if (e.getValue() == null || e.getValue() <= 0)
+                throw new IllegalArgumentException("La cantidad a reservar debe ser mayor que cero.");
+            recursos[k] = e.getKey();
+            cantidades[k++] = e.getValue();
+        }
 
-        recurso.setCantidadDisponible(recurso.getCantidadDisponible() - cantidad);
+        ReservaRecursos reserva = new ReservaRecursos(destino, recursos, cantidades);
+        for (int i = 0; i < recursos.length; i++) {
+            if (!recursos[i].reservar(cantidades[i])) {
+                for (int j = 0; j < i; j++) recursos[j].liberarReserva(cantidades[j]);
+                reserva = null;
+                break;
+            }
+        }
+        persistir();
+        return reserva;
+    }
 
-        recursosPorUbicacion.putIfAbsent(destino, new ArrayList<>());
-        Recurso recursoAsignado = new Recurso(recurso.getNombre(), recurso.getTipo(), cantidad);
-        recursosPorUbicacion.get(destino).add(recursoAsignado);
+    /**
+     * Confirma una reserva pendiente: las unidades salen de sus recursos y se suman al inventario
+     * del destino y al árbol de distribución.
+     *
+     * @param reserva reserva obtenida con {@link #reservarRecursos(Ubicacion, Map)}
+     * @return true si la reserva seguía pendiente; false si ya estaba confirmada o liberada
+     */
+    public boolean confirmarReserva(ReservaRecursos reserva) {
+        if (!reserva.cerrar(true)) return false;
+        for (int i = 0; i < reserva.getTamano(); i++) {
+            Recurso recurso = reserva.getRecurso(i);
+            int cantidad = reserva.getCantidad(i);
+            recurso.consumirReserva(cantidad);
+            depositar(reserva.getDestino(), recurso, cantidad);
+            actualizarArbolDistribucion(reserva.getDestino(), new Recurso(recurso.getNombre(), recurso.getTipo(), cantidad));
+        }
+        persistir();
+        return true;
+    }
 
-        actualizarArbolDistribucion(destino, recursoAsignado);
+    /**
+     * Cancela una reserva pendiente y devuelve sus unidades a cada recurso.
+     *
+     * @param reserva reserva obtenida con {@link #reservarRecursos(Ubicacion, Map)}
+     * @return true si la reserva seguía pendiente; false si ya estaba confirmada o liberada
+     */
+    public boolean liberarReserva(ReservaRecursos reserva) {
+        if (!reserva.cerrar(false)) return false;
+        for (int i = 0; i < reserva.getTamano(); i++) {
+            reserva.getRecurso(i).liberarReserva(reserva.getCantidad(i));
+        }
+        persistir();
+        return true;
+    }
 
-        System.out.println("Suministros " + cantidad + " unidades de " + recurso.getNombre() + " asignadas a " + destino.getNombre());
+    /**
+     * Aplica un plan de {@link PlanificadorDistribucion} en un solo lote: reserva los envíos de
+     * cada zona y, solo si todas las reservas se obtienen, las confirma. Si el inventario cambió
+     * desde que se calculó el plan y algún envío ya no alcanza, no se aplica ninguno.
+     *
+     * @param plan plan de distribución
+     * @return true si se aplicaron todos los envíos del plan
+     */
+    public boolean aplicarPlanDistribucion(PlanDistribucion plan) {
+        if (plan == null) throw new IllegalArgumentException("El plan de distribución no puede ser nulo.");
+
+        // recursos con el mismo nombre y tipo pueden salir de ubicaciones distintas
+        Map<Ubicacion, Map<Recurso, Integer>> porDestino = new LinkedHashMap<>();
+        for (EnvioRecurso envio : plan.getEnvios()) {
+            porDestino.computeIfAbsent(envio.getDestino(), u -> new IdentityHashMap<>())
+                    .merge(envio.getRecurso(), envio.getCantidad(), Integer::sum);
+        }
+
+        List<ReservaRecursos> reservas = new ArrayList<>(porDestino.size());
+        for (Map.Entry<Ubicacion, Map<Recurso, Integer>> e : porDestino.entrySet()) {
+            ReservaRecursos reserva = reservarRecursos(e.getKey(), e.getValue());
+            if (reserva == null) {
+                for (ReservaRecursos r : reservas) liberarReserva(r);
+                System.out.println("No se pudo aplicar el plan de distribución: el inventario cambió para " + e.getKey().getNombre());
+                return false;
+            }
+            reservas.add(reserva);
+        }
+        for (ReservaRecursos reserva : reservas) confirmarReserva(reserva);
+
+        System.out.println("Plan de distribución aplicado: " + plan.getTotalEnviado() + " unidades hacia " +
+                porDestino.size() + " zonas, " + plan.getTotalFaltante() + " unidades sin cubrir.");
         return true;
     }
 
+    /** Suma unidades al inventario de una ubicación, acumulándolas en la entrada del recurso. */
+    private void depositar(Ubicacion destino, Recurso recurso, int cantidad) {
+        InventarioUbicacion inventario = recursosPorUbicacion.computeIfAbsent(destino, u -> new InventarioUbicacion());
+        ReentrantLock candado = candadoDe(destino);
+        candado.lock();
+        try {
+            Recurso acumulado = inventario.buscar(recurso);
+            if (acumulado == null) {
+                acumulado = new Recurso(recurso.getNombre(), recurso.getTipo(), cantidad);
+                acumulado.vincular(this, destino);
+                DiarioInventario d = diario;
+                if (d != null) d.registrarRecurso(acumulado);
+                inventario.recursos.add(acumulado);
+                inventario.sumar(acumulado.getTipo(), cantidad);
+            } else {
+                acumulado.incrementarCantidad(cantidad);
+            }
+        } finally {
+            candado.unlock();
+        }
+    }
+
     /**
-     * Devuelve la lista de recursos asignados a una ubicación específica.
+     * Devuelve los recursos asignados a una ubicación específica, uno por recurso con la
+     * cantidad acumulada de todas sus asignaciones.
      *
      * @param ubicacion la ubicación consultada
-     * @return lista de recursos asignados a esa ubicación
+     * @return lista de solo lectura con los recursos asignados a esa ubicación
      */
     public List<Recurso> obtenerRecursosPorUbicacion(Ubicacion ubicacion) {
-        return recursosPorUbicacion.getOrDefault(ubicacion, new ArrayList<>());
+        InventarioUbicacion inventario = recursosPorUbicacion.get(ubicacion);
+        return inventario == null ? Collections.emptyList() : Collections.unmodifiableList(inventario.recursos);
+    }
+
+    /** @return ubicaciones a las que el gestor ha asignado recursos */
+    Set<Ubicacion> getUbicacionesConRecursos() {
+        return recursosPorUbicacion.keySet();
+    }
+
+    /**
+     * Devuelve cuántas unidades de un tipo de recurso hay en una ubicación.
+     *
+     * @param ubicacion la ubicación consultada
+     * @param tipo      tipo de recurso
+     * @return unidades disponibles de ese tipo en la ubicación
+     */
+    public long obtenerCantidad(Ubicacion ubicacion, TipoRecurso tipo) {
+        InventarioUbicacion inventario = recursosPorUbicacion.get(ubicacion);
+        return inventario == null ? 0 : inventario.cantidadPorTipo.get(tipo.ordinal());
+    }
+
+    /**
+     * Devuelve cuántas unidades de recursos, de todos los tipos, hay en una ubicación.
+     *
+     * @param ubicacion la ubicación consultada
+     * @return unidades disponibles en la ubicación
+     */
+    public long obtenerTotalEnUbicacion(Ubicacion ubicacion) {
+        InventarioUbicacion inventario = recursosPorUbicacion.get(ubicacion);
+        return inventario == null ? 0 : inventario.total.get();
+    }
+
+    /**
+     * Devuelve cuántas unidades de un tipo quedan en el inventario global.
+     *
+     * @param tipo tipo de recurso
+     * @return unidades disponibles de ese tipo
+     */
+    public long obtenerTotalGlobal(TipoRecurso tipo) {
+        return totalGlobalPorTipo.get(tipo.ordinal());
+    }
+
+    /**
+     * Devuelve cuántas unidades quedan en el inventario global sumando todos los tipos.
+     *
+     * @return unidades disponibles en el inventario global
+     */
+    public long obtenerTotalGlobal() {
+        long total = 0;
+        for (int i = 0; i < TIPOS.length; i++) total += totalGlobalPorTipo.get(i);
+        return total;
+    }
+
+    /**
+     * Devuelve cuántos recursos globales de un tipo tienen unidades disponibles.
+     *
+     * @param tipo tipo de recurso
+     * @return cantidad de recursos de ese tipo que no están agotados
+     */
+    public int contarRecursosDisponibles(TipoRecurso tipo) {
+        return disponiblesPorTipo.get(tipo.ordinal());
+    }
+
+    /**
+     * Devuelve los recursos globales de un tipo.
+     *
+     * @param tipo tipo de recurso
+     * @return lista de solo lectura con los recursos de ese tipo
+     */
+    public List<Recurso> obtenerRecursosPorTipo(TipoRecurso tipo) {
+        return Collections.unmodifiableList(inventarioPorTipo.get(tipo));
+    }
+
+    /**
+     * Ajusta los índices cuando cambia la cantidad de un recurso registrado.
+     *
+     * @param recurso  recurso modificado
+     * @param anterior cantidad antes del cambio
+     * @param actual   cantidad después del cambio
+     */
+    void cantidadModificada(Recurso recurso, int anterior, int actual) {
+        if (recurso.getUbicacion() == null) {
+            sumarGlobal(recurso.getTipo(), anterior, actual);
+        } else {
+            InventarioUbicacion inventario = recursosPorUbicacion.get(recurso.getUbicacion());
+            if (inventario != null) inventario.sumar(recurso.getTipo(), actual - anterior);
+        }
+        DiarioInventario d = diario;
+        if (d != null) d.cantidadModificada(recurso, actual - anterior);
+    }
+
+    /**
+     * Registra en el diario un cambio en las unidades reservadas de un recurso.
+     *
+     * @param recurso    recurso modificado
+     * @param diferencia unidades reservadas añadidas (o retiradas, si es negativa)
+     */
+    void reservaModificada(Recurso recurso, int diferencia) {
+        DiarioInventario d = diario;
+        if (d != null) d.reservaModificada(recurso, diferencia);
+    }
+
+    /**
+     * Registra en el diario un cambio en el mapa de recursos de una ubicación, hecho con
+     * {@link Ubicacion#agregarRecurso(Recurso, int)} o {@link Ubicacion#consumirRecurso(Recurso, int)}.
+     *
+     * @param ubicacion  ubicación modificada
+     * @param recurso    recurso afectado
+     * @param diferencia unidades añadidas (o retiradas, si es negativa)
+     */
+    void recursoDeUbicacionModificado(Ubicacion ubicacion, Recurso recurso, int diferencia) {
+        DiarioInventario d = diario;
+        if (d == null || diferencia == 0) return;
+        d.recursoEnUbicacion(ubicacion, recurso, diferencia);
+        d.persistir();
+    }
+
+    private void persistir() {
+        DiarioInventario d = diario;
+        if (d != null) d.persistir();
+    }
+
+    /**
+     * Mueve un recurso registrado al índice de su nuevo tipo. Cambiar el tipo es una tarea
+     * administrativa y no debe coincidir con asignaciones del mismo recurso.
+     *
+     * @param recurso  recurso modificado
+     * @param anterior tipo antes del cambio
+     */
+    synchronized void tipoModificado(Recurso recurso, TipoRecurso anterior) {
+        int cantidad = recurso.getCantidadDisponible();
+        if (recurso.getUbicacion() == null) {
+            inventarioPorTipo.get(anterior).remove(recurso);
+            inventarioPorTipo.get(recurso.getTipo()).add(recurso);
+            sumarGlobal(anterior, cantidad, 0);
+            sumarGlobal(recurso.getTipo(), 0, cantidad);
+        } else {
+            InventarioUbicacion inventario = recursosPorUbicacion.get(recurso.getUbicacion());
+            if (inventario == null) return;
+            inventario.sumar(anterior, -cantidad);
+            inventario.sumar(recurso.getTipo(), cantidad);
+        }
+        DiarioInventario d = diario;
+        if (d != null) d.tipoModificado(recurso);
+    }
+
+    private void sumarGlobal(TipoRecurso tipo, int anterior, int actual) {
+        totalGlobalPorTipo.addAndGet(tipo.ordinal(), actual - anterior);
+        if (anterior == 0 && actual > 0) disponiblesPorTipo.incrementAndGet(tipo.ordinal());
+        else if (anterior > 0 && actual == 0) disponiblesPorTipo.decrementAndGet(tipo.ordinal());
     }
 
     /**
      * Actualiza el árbol de distribución agregando un nuevo nodo con el recurso asignado.
+     * Solo se informa el nuevo envío; la jerarquía completa se muestra con
+     * {@link ArbolDistribucion#mostrarJerarquia()}.
      *
      * @param destino ubicación destino del recurso
      * @param recurso recurso asignado
@@ -92,22 +487,19 @@ public class GestorRecursos {
     private void actualizarArbolDistribucion(Ubicacion destino, Recurso recurso) {
         NodoDistribucion nodo = new NodoDistribucion(recurso, destino);
 
-        if (arbolDistribucion.getRaiz() == null) {
-            arbolDistribucion.setRaiz(nodo);
-        } else {
-            arbolDistribucion.getRaiz().agregarHijo(nodo);
+        synchronized (arbolDistribucion) {
+            arbolDistribucion.agregar(nodo);
         }
-
-        arbolDistribucion.distribuirRecursos();
+        System.out.println("Distribuyendo " + recurso.getNombre() + " hacia " + destino.getNombre());
     }
 
     /**
      * Devuelve el inventario global de recursos.
      *
-     * @return lista de recursos registrados globalmente
+     * @return lista de solo lectura con los recursos registrados globalmente
      */
     public List<Recurso> getInventarioGlobal() {
-        return inventarioGlobal;
+        return Collections.unmodifiableList(inventarioGlobal);
     }
 
     /**
@@ -131,9 +523,10 @@ public class GestorRecursos {
             return;
         }
 
+        Set<Ubicacion> candidatas = new HashSet<>(ubicaciones);
         for (Ubicacion zona : ubicaciones) {
             if (zona.esZonaCritica()) {
-                Ubicacion base = buscarBaseMasCercanaConEquipos(zona, ubicaciones, grafo);
+                Ubicacion base = buscarBaseMasCercanaConEquipos(zona, candidatas, grafo);
                 if (base != null) {
                     Recurso equipo = obtenerRecursoDisponible(base, TipoRecurso.EQUIPO_RESCATE);
                     if (equipo != null) {
@@ -148,55 +541,18 @@ public class GestorRecursos {
     }
 
     /**
-     * Busca la base más cercana con equipos de rescate disponibles.
+     * Busca la base más cercana con equipos de rescate disponibles mediante un único
+     * recorrido inverso desde la zona crítica, que se detiene en la primera base válida.
      *
      * @param destino     ubicación crítica
-     * @param ubicaciones lista de ubicaciones disponibles
+     * @param candidatas  ubicaciones que pueden actuar como base
      * @param grafo       grafo de rutas
      * @return ubicación de la base más cercana con equipos disponibles
      */
-    private Ubicacion buscarBaseMasCercanaConEquipos(Ubicacion destino, List<Ubicacion> ubicaciones, GrafoRutas grafo) {
-        Ubicacion baseMasCercana = null;
-        double distanciaMin = Double.MAX_VALUE;
-
-        for (Ubicacion origen : ubicaciones) {
-            if (tieneEquiposDisponibles(origen)) {
-                List<Ubicacion> camino = grafo.obtenerCaminoMasCorto(origen, destino);
-                if (!camino.isEmpty()) {
-                    double distancia = calcularDistanciaTotal(camino, grafo);
-                    if (distancia >= 0 && distancia < distanciaMin) {
-                        distanciaMin = distancia;
-                        baseMasCercana = origen;
-                    }
-                }
-            }
-        }
-        return baseMasCercana;
-    }
-
-    /**
-     * Calcula la distancia total de una ruta entre ubicaciones.
-     *
-     * @param camino lista de ubicaciones en la ruta
-     * @param grafo  grafo de rutas
-     * @return distancia total en kilómetros
-     */
-    private double calcularDistanciaTotal(List<Ubicacion> camino, GrafoRutas grafo) {
-        double total = 0;
-        Map<Ubicacion, List<Ruta>> adyacencias = grafo.getAdyacencias();
-
-        for (int i = 0; i < camino.size() - 1; i++) {
-            Ubicacion actual = camino.get(i);
-            Ubicacion siguiente = camino.get(i + 1);
-
-            for (Ruta r : adyacencias.getOrDefault(actual, Collections.emptyList())) {
-                if (r.getDestino().equals(siguiente)) {
-                    total += r.getDistancia();
-                    break;
-                }
-            }
-        }
-        return total;
+    private Ubicacion buscarBaseMasCercanaConEquipos(Ubicacion destino, Set<Ubicacion> candidatas, GrafoRutas grafo) {
+        UbicacionCercana base = grafo.buscarMasCercana(destino,
+                u -> candidatas.contains(u) && tieneEquiposDisponibles(u));
+        return base != null ? base.getUbicacion() : null;
     }
 
     /**
@@ -206,8 +562,7 @@ public class GestorRecursos {
      * @return true si hay equipos disponibles, false si no
      */
     private boolean tieneEquiposDisponibles(Ubicacion ubicacion) {
-        List<Recurso> recursos = obtenerRecursosPorUbicacion(ubicacion);
-        return recursos.stream().anyMatch(r -> r.getTipo() == TipoRecurso.EQUIPO_RESCATE && r.getCantidadDisponible() > 0);
+        return obtenerCantidad(ubicacion, TipoRecurso.EQUIPO_RESCATE) > 0;
     }
 
     /**
@@ -218,8 +573,9 @@ public class GestorRecursos {
      * @return recurso disponible o null si no hay
      */
     private Recurso obtenerRecursoDisponible(Ubicacion ubicacion, TipoRecurso tipo) {
-        List<Recurso> recursos = obtenerRecursosPorUbicacion(ubicacion);
-        for (Recurso r : recursos) {
+        InventarioUbicacion inventario = recursosPorUbicacion.get(ubicacion);
+        if (inventario == null || inventario.cantidadPorTipo.get(tipo.ordinal()) == 0) return null;
+        for (Recurso r : inventario.recursos) {
             if (r.getTipo() == tipo && r.getCantidadDisponible() > 0) {
                 return r;
             }
@@ -240,8 +596,8 @@ public class GestorRecursos {
             sb.append("    - ").append(r).append("\n");
         }
         sb.append("  Recursos por Ubicación:\n");
-        for (Map.Entry<Ubicacion, List<Recurso>> e : recursosPorUbicacion.entrySet()) {
-            sb.append("    ").append(e.getKey().getNombre()).append(": ").append(e.getValue()).append("\n");
+        for (Map.Entry<Ubicacion, InventarioUbicacion> e : recursosPorUbicacion.entrySet()) {
+            sb.append("    ").append(e.getKey().getNombre()).append(": ").append(e.getValue().recursos).append("\n");
         }
         return sb.toString();
     }
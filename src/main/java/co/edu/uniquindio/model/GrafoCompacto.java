@@ -0,0 +1,586 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Representación compilada y de solo lectura de un {@link GrafoRutas}.
+ * Las ubicaciones se numeran de forma densa y las rutas se guardan en formato CSR
+ * (filas dispersas comprimidas): desplazamientos por nodo, destinos y pesos primitivos,
+ * más un conjunto de bits con la disponibilidad de cada ruta.
+ */
+public final class GrafoCompacto {
+
+    private final Ubicacion[] ubicaciones;
+    private final Map<Ubicacion, Integer> indices;
+    private final int[] inicioAristas;
+    private final int[] origenes;
+    private final int[] destinos;
+    private final double[] pesos;
+    private final long[] disponibles;
+    private final Ruta[] rutas;
+    private final int[] inicioEntrantes;
+    private final int[] aristasEntrantes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final AtomicInteger modificaciones = new AtomicInteger();
+    private final AtomicInteger reducciones = new AtomicInteger();
+    /** Bits de las rutas más cortas que la línea recta; null hasta verificarlas todas. */
+    private volatile long[] masCortasQueRecta;
+    private volatile int cantidadMasCortasQueRecta;
+
+    /** Radio medio de la Tierra en kilómetros, usado por la fórmula del haversine. */
+    public static final double RADIO_TIERRA_KM = 6371.0088;
+
+    /**
+     * Compila las adyacencias de un grafo de rutas. Cada ruta queda enlazada con su índice
+     * para que los cambios de distancia o disponibilidad se reflejen sin recompilar.
+     *
+     * @param adyacencias mapa de ubicaciones con sus rutas salientes
+     */
+    GrafoCompacto(Map<Ubicacion, List<Ruta>> adyacencias) {
+        int n = adyacencias.size();
+        int m = 0;
+        for (List<Ruta> salientes : adyacencias.values()) {
+            m += salientes.size();
+        }
+
+        this.ubicaciones = new Ubicacion[n];
+        this.indices = new HashMap<>(n * 2);
+        this.inicioAristas = new int[n + 1];
+        this.origenes = new int[m];
+        this.destinos = new int[m];
+        this.pesos = new double[m];
+        this.disponibles = new long[(m + 63) >>> 6];
+        this.rutas = new Ruta[m];
+        this.inicioEntrantes = new int[n + 1];
+        this.aristasEntrantes = new int[m];
+        this.latitudes = new double[n];
+        this.longitudes = new double[n];
+
+        int i = 0;
+        for (Ubicacion u : adyacencias.keySet()) {
+            ubicaciones[i] = u;
+            indices.put(u, i);
+            latitudes[i] = Math.toRadians(u.getLatitud());
+            longitudes[i] = Math.toRadians(u.getLongitud());
+            i++;
+        }
+
+        int e = 0;
+        for (int nodo = 0; nodo < n; nodo++) {
+            inicioAristas[nodo] = e;
+            for (Ruta ruta : adyacencias.get(ubicaciones[nodo])) {
+                origenes[e] = nodo;
+                destinos[e] = indices.get(ruta.getDestino());
+                pesos[e] = ruta.getDistancia();
+                if (ruta.isDisponible()) disponibles[e >>> 6] |= 1L << e;
+                rutas[e] = ruta;
+                ruta.setIndiceCompacto(e);
+                e++;
+            }
+        }
+        inicioAristas[n] = e;
+
+        // CSR inverso: para cada nodo, índices de las rutas que llegan a él
+        for (int a = 0; a < m; a++) inicioEntrantes[destinos[a] + 1]++;
+        for (int nodo = 0; nodo < n; nodo++) inicioEntrantes[nodo + 1] += inicioEntrantes[nodo];
+        int[] siguiente = Arrays.copyOf(inicioEntrantes, n);
+        for (int a = 0; a < m; a++) aristasEntrantes[siguiente[destinos[a]]++] = a;
+    }
+
+    /** @return cantidad de ubicaciones del grafo */
+    public int getNumeroNodos() { return ubicaciones.length; }
+
+    /** @return cantidad de rutas del grafo */
+    public int getNumeroAristas() { return destinos.length; }
+
+    /**
+     * Devuelve el identificador denso de una ubicación.
+     *
+     * @param ubicacion ubicación buscada
+     * @return índice de la ubicación o -1 si no pertenece al grafo
+     */
+    public int indiceDe(Ubicacion ubicacion) {
+        Integer indice = indices.get(ubicacion);
+        return indice != null ? indice : -1;
+    }
+
+    /**
+     * @param nodo identificador denso
+     * @return ubicación correspondiente
+     */
+    public Ubicacion getUbicacion(int nodo) { return ubicaciones[nodo]; }
+
+    /**
+     * @param nodo identificador denso
+     * @return índice de la primera ruta saliente del nodo
+     */
+    public int inicioAristas(int nodo) { return inicioAristas[nodo]; }
+
+    /**
+     * @param nodo identificador denso
+     * @return índice siguiente a la última ruta saliente del nodo
+     */
+    public int finAristas(int nodo) { return inicioAristas[nodo + 1]; }
+
+    /**
+     * @param nodo identificador denso
+     * @return posición de la primera ruta entrante del nodo en el CSR inverso
+     */
+    public int inicioEntrantes(int nodo) { return inicioEntrantes[nodo]; }
+
+    /**
+     * @param nodo identificador denso
+     * @return posición siguiente a la última ruta entrante del nodo en el CSR inverso
+     */
+    public int finEntrantes(int nodo) { return inicioEntrantes[nodo + 1]; }
+
+    /**
+     * @param posicion posición dentro del CSR inverso
+     * @return índice de la ruta entrante en esa posición
+     */
+    public int aristaEntrante(int posicion) { return aristasEntrantes[posicion]; }
+
+    /** @return cantidad de cambios de distancia o disponibilidad aplicados desde la compilación */
+    public int getModificaciones() { return modificaciones.get(); }
+
+    /**
+     * @return cantidad de cambios que acortaron alguna ruta disponible o reabrieron una cerrada;
+     * los demás solo alargan distancias y mantienen válidas las cotas inferiores ya calculadas
+     */
+    public int getReducciones() { return reducciones.get(); }
+
+    /** @param arista índice de ruta @return nodo de origen */
+    public int getOrigen(int arista) { return origenes[arista]; }
+
+    /** @param arista índice de ruta @return nodo de destino */
+    public int getDestino(int arista) { return destinos[arista]; }
+
+    /** @param arista índice de ruta @return distancia de la ruta */
+    public double getPeso(int arista) { return pesos[arista]; }
+
+    /** @param arista índice de ruta @return ruta original del modelo */
+    public Ruta getRuta(int arista) { return rutas[arista]; }
+
+    /**
+     * @param arista índice de ruta
+     * @return true si la ruta está disponible
+     */
+    public boolean estaDisponible(int arista) {
+        return (disponibles[arista >>> 6] & (1L << arista)) != 0;
+    }
+
+    /**
+     * @param arista índice de ruta
+     * @return distancia de la ruta si está disponible, o infinito si está cerrada
+     */
+    public double getPesoEfectivo(int arista) {
+        return estaDisponible(arista) ? pesos[arista] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Copia en la representación compilada la distancia y disponibilidad actuales de una ruta.
+     *
+     * @param ruta ruta modificada
+     * @return true si la ruta pertenece a esta compilación y fue actualizada
+     */
+    boolean actualizarRuta(Ruta ruta) {
+        int e = ruta.getIndiceCompacto();
+        if (e < 0 || e >= rutas.length || rutas[e] != ruta) return false;
+        double anterior = pesos[e];
+        double efectivoAnterior = getPesoEfectivo(e);
+        pesos[e] = ruta.getDistancia();
+        if (ruta.isDisponible()) disponibles[e >>> 6] |= 1L << e;
+        else disponibles[e >>> 6] &= ~(1L << e);
+        if (getPesoEfectivo(e) < efectivoAnterior) reducciones.incrementAndGet();
+        if (pesos[e] != anterior) verificarRuta(e, anterior);
+        modificaciones.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Actualiza el registro de rutas más cortas que la línea recta tras cambiar la distancia de
+     * una sola ruta: solo puede entrar si se acortó y solo puede salir si ya estaba.
+     */
+    private synchronized void verificarRuta(int e, double anterior) {
+        long[] masCortas = masCortasQueRecta;
+        if (masCortas == null) return;
+        boolean estaba = (masCortas[e >>> 6] & (1L << e)) != 0;
+        if (estaba == (pesos[e] < anterior)) return;
+        if (esMasCortaQueRecta(e) == estaba) return;
+        masCortas[e >>> 6] ^= 1L << e;
+        cantidadMasCortasQueRecta += estaba ? -1 : 1;
+    }
+
+    private boolean esMasCortaQueRecta(int e) {
+        return pesos[e] < distanciaGeografica(origenes[e], destinos[e]) * (1.0 - 1e-9);
+    }
+
+    /**
+     * Copia en la representación compilada las coordenadas actuales de una ubicación y obliga
+     * a verificar de nuevo si la heurística geográfica sigue siendo admisible.
+     *
+     * @param ubicacion ubicación cuyas coordenadas cambiaron
+     */
+    void actualizarCoordenadas(Ubicacion ubicacion) {
+        int nodo = indiceDe(ubicacion);
+        if (nodo < 0) return;
+        latitudes[nodo] = Math.toRadians(ubicacion.getLatitud());
+        longitudes[nodo] = Math.toRadians(ubicacion.getLongitud());
+        synchronized (this) {
+            masCortasQueRecta = null;
+        }
+    }
+
+    /**
+     * Calcula la distancia de círculo máximo entre dos nodos con la fórmula del haversine.
+     *
+     * @param a primer nodo
+     * @param b segundo nodo
+     * @return distancia en línea recta sobre la superficie terrestre, en kilómetros
+     */
+    public double distanciaGeografica(int a, int b) {
+        double sinLat = Math.sin((latitudes[b] - latitudes[a]) * 0.5);
+        double sinLon = Math.sin((longitudes[b] - longitudes[a]) * 0.5);
+        double h = sinLat * sinLat + Math.cos(latitudes[a]) * Math.cos(latitudes[b]) * sinLon * sinLon;
+        return 2.0 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    /**
+     * Devuelve las rutas cuya distancia es menor que la distancia en línea recta entre sus extremos.
+     * Mientras exista alguna, la distancia geográfica no es una cota inferior válida para A*.
+     *
+     * @return índices de las rutas inconsistentes
+     */
+    public List<Integer> rutasMasCortasQueLineaRecta() {
+        List<Integer> inconsistentes = new ArrayList<>();
+        for (int e = 0; e < destinos.length; e++) {
+            if (esMasCortaQueRecta(e)) inconsistentes.add(e);
+        }
+        return inconsistentes;
+    }
+
+    /**
+     * Indica si la distancia geográfica es una cota inferior válida en el estado actual del grafo.
+     * Todas las rutas se revisan solo la primera vez y después de mover una ubicación; los
+     * cambios de distancia revisan únicamente la ruta modificada.
+     *
+     * @return true si ninguna ruta es más corta que la línea recta entre sus extremos
+     */
+    public boolean esHeuristicaGeograficaAdmisible() {
+        if (masCortasQueRecta == null) {
+            synchronized (this) {
+                if (masCortasQueRecta == null) {
+                    long[] masCortas = new long[disponibles.length];
+                    int cantidad = 0;
+                    for (int e : rutasMasCortasQueLineaRecta()) {
+                        masCortas[e >>> 6] |= 1L << e;
+                        cantidad++;
+                    }
+                    cantidadMasCortasQueRecta = cantidad;
+                    masCortasQueRecta = masCortas;
+                }
+            }
+        }
+        return cantidadMasCortasQueRecta == 0;
+    }
+
+    /**
+     * Crea la heurística geográfica hacia un destino: la distancia de círculo máximo.
+     *
+     * @param destino nodo objetivo
+     * @return heurística admisible mientras ninguna ruta sea más corta que la línea recta
+     */
+    public Heuristica heuristicaGeografica(int destino) {
+        return nodo -> distanciaGeografica(nodo, destino);
+    }
+
+    /**
+     * Ejecuta Dijkstra desde un origen usando únicamente rutas disponibles. Si se indica un
+     * destino, la búsqueda se detiene al asentarlo. Los resultados quedan en el espacio de búsqueda.
+     *
+     * @param origen  nodo inicial
+     * @param destino nodo objetivo o -1 para recorrer todo el grafo alcanzable
+     * @param espacio arreglos de trabajo del hilo actual
+     * @return distancia al destino, o infinito si no es alcanzable (0 si destino es -1)
+     */
+    public double dijkstra(int origen, int destino, EspacioBusqueda espacio) {
+        espacio.preparar(ubicaciones.length);
+        MonticuloMinimo cola = espacio.getMonticulo();
+        espacio.fijar(origen, 0.0, -1);
+        cola.insertarODisminuir(origen, 0.0);
+
+        while (!cola.estaVacio()) {
+            int actual = cola.extraerMinimo();
+            espacio.contarAsentado();
+            if (actual == destino) return espacio.getDistancia(actual);
+            double base = espacio.getDistancia(actual);
+
+            for (int e = inicioAristas[actual], fin = inicioAristas[actual + 1]; e < fin; e++) {
+                if ((disponibles[e >>> 6] & (1L << e)) == 0) continue;
+                int vecino = destinos[e];
+                double nuevaDist = base + pesos[e];
+                if (nuevaDist < espacio.getDistancia(vecino)) {
+                    espacio.fijar(vecino, nuevaDist, e);
+                    cola.insertarODisminuir(vecino, nuevaDist);
+                }
+            }
+        }
+        return destino < 0 ? 0.0 : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Ejecuta Dijkstra entre dos nodos ignorando nodos y rutas vetados, como lo requieren las
+     * búsquedas de desvío del algoritmo de Yen. El espacio debe prepararse con
+     * {@link EspacioBusqueda#preparar(int, int)} y los vetos marcarse antes de llamar a este método.
+     *
+     * @param origen  nodo inicial (no debe estar vetado)
+     * @param destino nodo objetivo
+     * @param espacio espacio ya preparado con los vetos de esta búsqueda
+     * @return distancia al destino, o infinito si no es alcanzable con las restricciones
+     */
+    public double dijkstraRestringido(int origen, int destino, EspacioBusqueda espacio) {
+        MonticuloMinimo cola = espacio.getMonticulo();
+        espacio.fijar(origen, 0.0, -1);
+        cola.insertarODisminuir(origen, 0.0);
+
+        while (!cola.estaVacio()) {
+            int actual = cola.extraerMinimo();
+            espacio.contarAsentado();
+            if (actual == destino) return espacio.getDistancia(actual);
+            double base = espacio.getDistancia(actual);
+
+            for (int e = inicioAristas[actual], fin = inicioAristas[actual + 1]; e < fin; e++) {
+                if ((disponibles[e >>> 6] & (1L << e)) == 0 || espacio.estaAristaVetada(e)) continue;
+                int vecino = destinos[e];
+                if (espacio.estaNodoVetado(vecino)) continue;
+                double nuevaDist = base + pesos[e];
+                if (nuevaDist < espacio.getDistancia(vecino)) {
+                    espacio.fijar(vecino, nuevaDist, e);
+                    cola.insertarODisminuir(vecino, nuevaDist);
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Ejecuta Dijkstra desde un origen y se detiene en cuanto todos los destinos indicados
+     * quedan asentados. Sirve para consultas de uno a muchos con una sola búsqueda.
+     *
+     * @param origen    nodo inicial
+     * @param objetivos nodos cuyas distancias se necesitan
+     * @param espacio   arreglos de trabajo del hilo actual
+     */
+    public void dijkstraHacia(int origen, int[] objetivos, EspacioBusqueda espacio) {
+        espacio.preparar(ubicaciones.length);
+        int pendientes = 0;
+        for (int d : objetivos) {
+            if (espacio.marcarObjetivo(d)) pendientes++;
+        }
+        MonticuloMinimo cola = espacio.getMonticulo();
+        espacio.fijar(origen, 0.0, -1);
+        cola.insertarODisminuir(origen, 0.0);
+
+        while (!cola.estaVacio() && pendientes > 0) {
+            int actual = cola.extraerMinimo();
+            espacio.contarAsentado();
+            if (espacio.esObjetivo(actual)) pendientes--;
+            double base = espacio.getDistancia(actual);
+
+            for (int e = inicioAristas[actual], fin = inicioAristas[actual + 1]; e < fin; e++) {
+                if ((disponibles[e >>> 6] & (1L << e)) == 0) continue;
+                int vecino = destinos[e];
+                double nuevaDist = base + pesos[e];
+                if (nuevaDist < espacio.getDistancia(vecino)) {
+                    espacio.fijar(vecino, nuevaDist, e);
+                    cola.insertarODisminuir(vecino, nuevaDist);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un Dijkstra acotado desde varios orígenes a la vez: solo asienta los nodos cuya
+     * distancia al origen más cercano no supera el presupuesto, por lo que su costo depende del
+     * tamaño de la zona alcanzada y no del grafo completo.
+     *
+     * @param fuentes     nodos de partida (todos con distancia cero)
+     * @param presupuesto distancia máxima en kilómetros
+     * @param inverso     true para medir la distancia desde cada nodo hacia los orígenes
+     * @param espacio     arreglos de trabajo del hilo actual
+     * @return resultado con los nodos alcanzados y sus distancias, en orden creciente de distancia
+     */
+    public ResultadoAlcance dijkstraAcotado(int[] fuentes, double presupuesto, boolean inverso, EspacioBusqueda espacio) {
+        espacio.preparar(ubicaciones.length);
+        MonticuloMinimo cola = espacio.getMonticulo();
+        for (int f : fuentes) {
+            espacio.fijar(f, 0.0, -1);
+            cola.insertarODisminuir(f, 0.0);
+        }
+
+        int[] alcanzados = new int[Math.max(16, fuentes.length)];
+        double[] distancias = new double[alcanzados.length];
+        int cantidad = 0;
+
+        while (!cola.estaVacio()) {
+            int actual = cola.extraerMinimo();
+            espacio.contarAsentado();
+            double base = espacio.getDistancia(actual);
+            if (cantidad == alcanzados.length) {
+                alcanzados = Arrays.copyOf(alcanzados, cantidad * 2);
+                distancias = Arrays.copyOf(distancias, cantidad * 2);
+            }
+            alcanzados[cantidad] = actual;
+            distancias[cantidad++] = base;
+
+            int inicio = inverso ? inicioEntrantes[actual] : inicioAristas[actual];
+            int fin = inverso ? inicioEntrantes[actual + 1] : inicioAristas[actual + 1];
+            for (int k = inicio; k < fin; k++) {
+                int e = inverso ? aristasEntrantes[k] : k;
+                if ((disponibles[e >>> 6] & (1L << e)) == 0) continue;
+                double nuevaDist = base + pesos[e];
+                if (nuevaDist > presupuesto) continue;
+                int vecino = inverso ? origenes[e] : destinos[e];
+                if (nuevaDist < espacio.getDistancia(vecino)) {
+                    espacio.fijar(vecino, nuevaDist, e);
+                    cola.insertarODisminuir(vecino, nuevaDist);
+                }
+            }
+        }
+        return new ResultadoAlcance(this, Arrays.copyOf(alcanzados, cantidad), Arrays.copyOf(distancias, cantidad));
+    }
+
+    /**
+     * Ejecuta Dijkstra en sentido inverso: calcula la distancia desde cada nodo hasta el destino.
+     * La arista previa de cada nodo es la ruta por la que sale hacia el destino.
+     *
+     * @param destino nodo al que se calculan las distancias
+     * @param espacio arreglos de trabajo del hilo actual
+     */
+    public void dijkstraInverso(int destino, EspacioBusqueda espacio) {
+        espacio.preparar(ubicaciones.length);
+        MonticuloMinimo cola = espacio.getMonticulo();
+        espacio.fijar(destino, 0.0, -1);
+        cola.insertarODisminuir(destino, 0.0);
+
+        while (!cola.estaVacio()) {
+            int actual = cola.extraerMinimo();
+            espacio.contarAsentado();
+            double base = espacio.getDistancia(actual);
+
+            for (int k = inicioEntrantes[actual], fin = inicioEntrantes[actual + 1]; k < fin; k++) {
+                int e = aristasEntrantes[k];
+                if ((disponibles[e >>> 6] & (1L << e)) == 0) continue;
+                int vecino = origenes[e];
+                double nuevaDist = base + pesos[e];
+                if (nuevaDist < espacio.getDistancia(vecino)) {
+                    espacio.fijar(vecino, nuevaDist, e);
+                    cola.insertarODisminuir(vecino, nuevaDist);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta Dijkstra inverso desde un destino y se detiene en el primer nodo asentado que
+     * cumple la condición; ese nodo es el candidato con menor distancia hacia el destino.
+     *
+     * @param destino     nodo al que deben llegar los candidatos
+     * @param esCandidato condición que debe cumplir el nodo buscado
+     * @param espacio     arreglos de trabajo del hilo actual
+     * @return nodo candidato más cercano, o -1 si ninguno puede llegar al destino
+     */
+    public int buscarCandidatoMasCercano(int destino, IntPredicate esCandidato, EspacioBusqueda espacio) {
+        espacio.preparar(ubicaciones.length);
+        MonticuloMinimo cola = espacio.getMonticulo();
+        espacio.fijar(destino, 0.0, -1);
+        cola.insertarODisminuir(destino, 0.0);
+
+        while (!cola.estaVacio()) {
+            int actual = cola.extraerMinimo();
+            espacio.contarAsentado();
+            if (esCandidato.test(actual)) return actual;
+            double base = espacio.getDistancia(actual);
+
+            for (int k = inicioEntrantes[actual], fin = inicioEntrantes[actual + 1]; k < fin; k++) {
+                int e = aristasEntrantes[k];
+                if ((disponibles[e >>> 6] & (1L << e)) == 0) continue;
+                int vecino = origenes[e];
+                double nuevaDist = base + pesos[e];
+                if (nuevaDist < espacio.getDistancia(vecino)) {
+                    espacio.fijar(vecino, nuevaDist, e);
+                    cola.insertarODisminuir(vecino, nuevaDist);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ejecuta A* entre dos nodos. La cola se ordena por distancia acumulada más la estimación
+     * de la heurística, que debe ser consistente para que el camino encontrado sea óptimo.
+     *
+     * @param origen     nodo inicial
+     * @param destino    nodo objetivo
+     * @param heuristica cota inferior de la distancia restante hasta el destino
+     * @param espacio    arreglos de trabajo del hilo actual
+     * @return distancia al destino, o infinito si no es alcanzable
+     */
+    public double aEstrella(int origen, int destino, Heuristica heuristica, EspacioBusqueda espacio) {
+        espacio.preparar(ubicaciones.length);
+        MonticuloMinimo cola = espacio.getMonticulo();
+        double estimacionInicial = heuristica.estimar(origen);
+        if (estimacionInicial == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+        espacio.fijar(origen, 0.0, -1);
+        cola.insertarODisminuir(origen, estimacionInicial);
+
+        while (!cola.estaVacio()) {
+            int actual = cola.extraerMinimo();
+            espacio.contarAsentado();
+            if (actual == destino) return espacio.getDistancia(actual);
+            double base = espacio.getDistancia(actual);
+
+            for (int e = inicioAristas[actual], fin = inicioAristas[actual + 1]; e < fin; e++) {
+                if ((disponibles[e >>> 6] & (1L << e)) == 0) continue;
+                int vecino = destinos[e];
+                double nuevaDist = base + pesos[e];
+                if (nuevaDist < espacio.getDistancia(vecino)) {
+                    double estimacion = heuristica.estimar(vecino);
+                    // una estimación infinita significa que el destino no es alcanzable desde el vecino
+                    if (estimacion == Double.POSITIVE_INFINITY) continue;
+                    espacio.fijar(vecino, nuevaDist, e);
+                    cola.insertarODisminuir(vecino, nuevaDist + estimacion);
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Reconstruye la secuencia de ubicaciones hasta el destino a partir de la última búsqueda.
+     *
+     * @param destino nodo final
+     * @param espacio espacio de búsqueda con los resultados
+     * @return lista de ubicaciones desde el origen hasta el destino, o vacía si no fue alcanzado
+     */
+    public List<Ubicacion> reconstruirCamino(int destino, EspacioBusqueda espacio) {
+        if (!espacio.fueAlcanzado(destino)) return Collections.emptyList();
+        List<Ubicacion> camino = new ArrayList<>();
+        for (int nodo = destino; ; ) {
+            camino.add(ubicaciones[nodo]);
+            int arista = espacio.getAristaPrevia(nodo);
+            if (arista < 0) break;
+            nodo = origenes[arista];
+        }
+        Collections.reverse(camino);
+        return camino;
+    }
+}
@@ -1,14 +1,43 @@
 package co.edu.uniquindio.model;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 public class GrafoRutas {
     private final Map<Ubicacion, List<Ruta>> adyacencias;
+    private final ThreadLocal<EspacioBusqueda> espacios;
+    private final ThreadLocal<EspacioBusqueda> espaciosAuxiliares;
+    private volatile GrafoCompacto compacto;
+    private volatile PuntosReferencia puntosReferencia;
+    private volatile JerarquiaContraccion jerarquia;
+    private final AtomicLong version;
+    private final AtomicLong cambiosCapacidad;
+    private final CacheRutas cache;
+    private final Map<Ubicacion, ArbolDinamico> centros;
+    private final IndiceEspacial indiceEspacial;
+
+    /** Capacidades de la caché de consultas: pares origen/destino y árboles completos. */
+    private static final int CAPACIDAD_CACHE_CAMINOS = 4096;
+    private static final int CAPACIDAD_CACHE_ARBOLES = 32;
+
+    /** Cantidad de puntos de referencia usados por las consultas ALT. */
+    private static final int PUNTOS_REFERENCIA = 8;
+
     /**
      * Constructor que inicializa el grafo de rutas como un mapa vacío.
+     * Se usa un mapa ordenado por inserción para que los identificadores densos sean estables.
      */
     public GrafoRutas() {
-        this.adyacencias = new HashMap<>();
+        this.adyacencias = new LinkedHashMap<>();
+        this.espacios = ThreadLocal.withInitial(EspacioBusqueda::new);
+        this.espaciosAuxiliares = ThreadLocal.withInitial(EspacioBusqueda::new);
+        this.version = new AtomicLong();
+        this.cambiosCapacidad = new AtomicLong();
+        this.cache = new CacheRutas(CAPACIDAD_CACHE_CAMINOS, CAPACIDAD_CACHE_ARBOLES);
+        this.centros = new LinkedHashMap<>();
+        this.indiceEspacial = new IndiceEspacial();
     }
 
     /**
@@ -17,7 +46,11 @@ public class GrafoRutas {
      * @param ubicacion la ubicación que se desea agregar al grafo
      */
     public void agregarUbicacion(Ubicacion ubicacion) {
-        adyacencias.putIfAbsent(ubicacion, new ArrayList<>());
+        if (adyacencias.putIfAbsent(ubicacion, new ArrayList<>()) == null) {
+            ubicacion.vincular(this);
+            indiceEspacial.agregar(ubicacion);
+            invalidarCompilacion();
+        }
     }
 
     /**
@@ -41,61 +74,613 @@ public class GrafoRutas {
                 .anyMatch(r -> r.getDestino().equals(destino));
 
         if (!existe) {
-            adyacencias.get(origen).add(new Ruta(origen, destino, distancia, true));
+            Ruta ruta = new Ruta(origen, destino, distancia, true);
+            ruta.vincular(this);
+            adyacencias.get(origen).add(ruta);
+            invalidarCompilacion();
         }
     }
 
     /**
-     * Calcula el camino más corto entre dos ubicaciones usando el algoritmo de Dijkstra.
-     * Solo considera rutas disponibles.
+     * Agrega una ruta dirigida con un límite de personas por hora, usado por la planificación
+     * de evacuaciones. Si la ruta ya existe, solo se actualiza su capacidad.
+     *
+     * @param origen    ubicación de origen
+     * @param destino   ubicación de destino
+     * @param distancia distancia entre origen y destino
+     * @param capacidad personas por hora que admite la ruta
+     */
+    public void agregarRuta(Ubicacion origen, Ubicacion destino, double distancia, int capacidad) {
+        agregarRuta(origen, destino, distancia);
+        if (origen == null || destino == null) return;
+        adyacencias.get(origen).stream()
+                .filter(r -> r.getDestino().equals(destino))
+                .findFirst()
+                .ifPresent(r -> r.setCapacidad(capacidad));
+    }
+
+    /**
+     * Incorpora rutas sin ninguna búsqueda de duplicados, para cargas que ya los descartaron
+     * (una instantánea o una importación): sus extremos ya están en el grafo y ningún par de
+     * origen y destino se repite. La representación compilada se invalida una sola vez.
+     *
+     * @param rutas rutas depuradas
+     */
+    void restaurarRutas(List<Ruta> rutas) {
+        for (Ruta ruta : rutas) {
+            ruta.vincular(this);
+            adyacencias.get(ruta.getOrigen()).add(ruta);
+        }
+        invalidarCompilacion();
+    }
+
+    /**
+     * Calcula el camino más corto entre dos ubicaciones usando el algoritmo de Dijkstra
+     * sobre la representación compilada del grafo. Solo considera rutas disponibles.
      *
      * @param origen  ubicación inicial
      * @param destino ubicación final
      * @return lista de ubicaciones que representan el camino más corto, o lista vacía si no hay ruta
      */
     public List<Ubicacion> obtenerCaminoMasCorto(Ubicacion origen, Ubicacion destino) {
-        if (!adyacencias.containsKey(origen) || !adyacencias.containsKey(destino)) {
+        return obtenerCaminoMasCorto(origen, destino, ModoBusqueda.DIJKSTRA);
+    }
+
+    /**
+     * Calcula el camino más corto entre dos ubicaciones con el modo de búsqueda indicado.
+     * A* usa la distancia geográfica como cota inferior; si alguna ruta es más corta que la
+     * línea recta entre sus extremos la cota deja de ser válida y se usa Dijkstra en su lugar.
+     * ALT usa distancias precalculadas a puntos de referencia, que se recalculan solo
+     * cuando alguna ruta se acorta o se reabre: los cierres mantienen válidas sus cotas.
+     * CONTRACCION construye la primera vez un índice de jerarquías de contracción; los cambios de
+     * distancia o disponibilidad solo lo vuelven a personalizar, sin reconstruirlo. Los caminos
+     * quedan en la caché por modo, porque dos modos pueden devolver caminos distintos de igual
+     * distancia.
+     *
+     * @param origen  ubicación inicial
+     * @param destino ubicación final
+     * @param modo    algoritmo de búsqueda a utilizar
+     * @return lista de ubicaciones que representan el camino más corto, o lista vacía si no hay ruta
+     */
+    public List<Ubicacion> obtenerCaminoMasCorto(Ubicacion origen, Ubicacion destino, ModoBusqueda modo) {
+        long versionActual = version.get();
+        GrafoCompacto grafo = getGrafoCompacto();
+        int o = grafo.indiceDe(origen);
+        int d = grafo.indiceDe(destino);
+        if (o < 0 || d < 0) {
             System.out.println("Una o ambas ubicaciones no existen en el grafo.");
             return Collections.emptyList();
         }
 
-        Map<Ubicacion, Double> distancias = new HashMap<>();
-        Map<Ubicacion, Ubicacion> anteriores = new HashMap<>();
+        ArbolDinamico arbolCentro = obtenerArbolCentro(origen);
+        List<Ubicacion> camino = arbolCentro != null ? arbolCentro.getCamino(d) : cache.obtenerCamino(o, d, modo, versionActual);
+        if (camino == null) {
+            camino = cache.guardarCamino(o, d, modo, versionActual, calcularCamino(grafo, o, d, modo));
+        }
+
+        if (camino.isEmpty()) {
+            System.out.println("No existe una ruta entre " + origen.getNombre() + " y " + destino.getNombre());
+        }
+        return camino;
+    }
+
+    private List<Ubicacion> calcularCamino(GrafoCompacto grafo, int o, int d, ModoBusqueda modo) {
+        EspacioBusqueda espacio = espacios.get();
+        if (modo == ModoBusqueda.CONTRACCION) {
+            return getJerarquia(grafo).obtenerCamino(o, d, espacio, espaciosAuxiliares.get());
+        }
+        if (modo == ModoBusqueda.A_ESTRELLA && grafo.esHeuristicaGeograficaAdmisible()) {
+            grafo.aEstrella(o, d, grafo.heuristicaGeografica(d), espacio);
+        } else if (modo == ModoBusqueda.ALT) {
+            grafo.aEstrella(o, d, getPuntosReferencia(grafo).heuristicaHacia(d), espacio);
+        } else {
+            grafo.dijkstra(o, d, espacio);
+        }
+        return grafo.reconstruirCamino(d, espacio);
+    }
+
+    /**
+     * Devuelve el árbol de caminos más cortos desde un origen hacia todas las ubicaciones.
+     * El árbol queda en la caché, y las consultas posteriores desde el mismo origen se responden con él.
+     *
+     * @param origen ubicación raíz
+     * @return árbol de caminos, o null si el origen no pertenece al grafo
+     */
+    public ArbolCaminos obtenerArbolCaminos(Ubicacion origen) {
+        long versionActual = version.get();
+        GrafoCompacto grafo = getGrafoCompacto();
+        int o = grafo.indiceDe(origen);
+        if (o < 0) return null;
+
+        ArbolCaminos arbol = cache.obtenerArbol(o, versionActual);
+        if (arbol == null) {
+            EspacioBusqueda espacio = espacios.get();
+            grafo.dijkstra(o, -1, espacio);
+            arbol = new ArbolCaminos(grafo, o, espacio);
+            cache.guardarArbol(o, versionActual, arbol);
+        }
+        return arbol;
+    }
+
+    /**
+     * Calcula hasta k caminos alternativos sin ciclos entre dos ubicaciones (algoritmo de Yen),
+     * ordenados de menor a mayor distancia.
+     *
+     * @param origen  ubicación inicial
+     * @param destino ubicación final
+     * @param k       cantidad máxima de caminos
+     * @return caminos encontrados; el primero es el más corto
+     */
+    public List<Camino> obtenerRutasAlternativas(Ubicacion origen, Ubicacion destino, int k) {
+        return obtenerRutasAlternativas(origen, destino, k, 1.0);
+    }
+
+    /**
+     * Calcula hasta k caminos alternativos sin ciclos, descartando los que comparten con un
+     * camino ya elegido más de la fracción indicada de su distancia. Así se obtienen respaldos
+     * que no dependen de la misma carretera que podría bloquearse.
+     *
+     * @param origen             ubicación inicial
+     * @param destino            ubicación final
+     * @param k                  cantidad máxima de caminos
+     * @param maximoSolapamiento fracción máxima de distancia compartida (entre 0 y 1)
+     * @return caminos encontrados; el primero es el más corto
+     */
+    public List<Camino> obtenerRutasAlternativas(Ubicacion origen, Ubicacion destino, int k, double maximoSolapamiento) {
+        GrafoCompacto grafo = getGrafoCompacto();
+        int o = grafo.indiceDe(origen);
+        int d = grafo.indiceDe(destino);
+        if (o < 0 || d < 0) {
+            System.out.println("Una o ambas ubicaciones no existen en el grafo.");
+            return Collections.emptyList();
+        }
+        return new BuscadorRutasAlternativas(grafo, espacios).buscar(o, d, k, maximoSolapamiento);
+    }
+
+    /**
+     * Calcula en paralelo las rutas de una lista de pares origen/destino. Los pares se agrupan
+     * por origen y cada origen distinto se resuelve con un único Dijkstra que se detiene al
+     * asentar todos sus destinos; los orígenes se reparten entre los núcleos disponibles y cada
+     * hilo trabajador usa sus propios arreglos de búsqueda.
+     *
+     * @param pares          pares a consultar
+     * @param incluirCaminos true para reconstruir también los caminos, no solo las distancias
+     * @return distancias (y caminos) en el mismo orden de los pares
+     */
+    public ResultadoLote calcularRutasEnLote(List<ParOrigenDestino> pares, boolean incluirCaminos) {
+        GrafoCompacto grafo = getGrafoCompacto();
+        int k = pares.size();
+        double[] distancias = new double[k];
+        Arrays.fill(distancias, Double.POSITIVE_INFINITY);
+        List<List<Ubicacion>> caminos = incluirCaminos
+                ? new ArrayList<>(Collections.nCopies(k, Collections.<Ubicacion>emptyList()))
+                : null;
+
+        Map<Integer, List<Integer>> porOrigen = new LinkedHashMap<>();
+        for (int i = 0; i < k; i++) {
+            ParOrigenDestino par = pares.get(i);
+            int o = grafo.indiceDe(par.getOrigen());
+            if (o >= 0 && grafo.indiceDe(par.getDestino()) >= 0) {
+                porOrigen.computeIfAbsent(o, x -> new ArrayList<>()).add(i);
+            }
+        }
+
+        porOrigen.entrySet().parallelStream().forEach(grupo -> {
+            EspacioBusqueda espacio = espacios.get();
+            List<Integer> indices = grupo.getValue();
+            int[] objetivos = new int[indices.size()];
+            for (int j = 0; j < objetivos.length; j++) {
+                objetivos[j] = grafo.indiceDe(pares.get(indices.get(j)).getDestino());
+            }
+            grafo.dijkstraHacia(grupo.getKey(), objetivos, espacio);
+            for (int j = 0; j < objetivos.length; j++) {
+                int i = indices.get(j);
+                distancias[i] = espacio.getDistancia(objetivos[j]);
+                if (caminos != null) caminos.set(i, grafo.reconstruirCamino(objetivos[j], espacio));
+            }
+        });
+        return new ResultadoLote(pares, distancias, caminos);
+    }
+
+    /**
+     * Calcula las rutas desde un origen hacia varios destinos con una sola búsqueda.
+     *
+     * @param origen         ubicación inicial
+     * @param destinos       ubicaciones finales
+     * @param incluirCaminos true para reconstruir también los caminos
+     * @return distancias (y caminos) en el orden de los destinos
+     */
+    public ResultadoLote calcularUnoAMuchos(Ubicacion origen, List<Ubicacion> destinos, boolean incluirCaminos) {
+        return calcularMuchosAMuchos(List.of(origen), destinos, incluirCaminos);
+    }
+
+    /**
+     * Calcula las rutas de cada origen hacia cada destino, en paralelo por origen.
+     *
+     * @param origenes       ubicaciones iniciales
+     * @param destinos       ubicaciones finales
+     * @param incluirCaminos true para reconstruir también los caminos
+     * @return resultado con los pares ordenados por origen y luego por destino
+     */
+    public ResultadoLote calcularMuchosAMuchos(List<Ubicacion> origenes, List<Ubicacion> destinos, boolean incluirCaminos) {
+        List<ParOrigenDestino> pares = new ArrayList<>(origenes.size() * destinos.size());
+        for (Ubicacion origen : origenes) {
+            for (Ubicacion destino : destinos) {
+                pares.add(new ParOrigenDestino(origen, destino));
+            }
+        }
+        return calcularRutasEnLote(pares, incluirCaminos);
+    }
+
+    /**
+     * Calcula la matriz completa de distancias entre dos subconjuntos de ubicaciones
+     * (por ejemplo, todos los refugios contra todas las ciudades). Cada fila se resuelve
+     * en paralelo con un Dijkstra desde su origen.
+     *
+     * @param origenes ubicaciones de las filas
+     * @param destinos ubicaciones de las columnas
+     * @return matriz [origen][destino] con la distancia más corta, o infinito si no hay ruta
+     */
+    public double[][] calcularMatrizDistancias(List<Ubicacion> origenes, List<Ubicacion> destinos) {
+        GrafoCompacto grafo = getGrafoCompacto();
+        int[] columnas = new int[destinos.size()];
+        for (int j = 0; j < columnas.length; j++) columnas[j] = grafo.indiceDe(destinos.get(j));
+        int[] validas = Arrays.stream(columnas).filter(c -> c >= 0).toArray();
+
+        double[][] matriz = new double[origenes.size()][columnas.length];
+        IntStream.range(0, origenes.size()).parallel().forEach(i -> {
+            double[] fila = matriz[i];
+            Arrays.fill(fila, Double.POSITIVE_INFINITY);
+            int o = grafo.indiceDe(origenes.get(i));
+            if (o < 0) return;
+            EspacioBusqueda espacio = espacios.get();
+            grafo.dijkstraHacia(o, validas, espacio);
+            for (int j = 0; j < columnas.length; j++) {
+                if (columnas[j] >= 0) fila[j] = espacio.getDistancia(columnas[j]);
+            }
+        });
+        return matriz;
+    }
+
+    /**
+     * Registra una ubicación como centro (refugio, centro de ayuda) cuyo árbol de caminos más
+     * cortos se mantiene siempre actualizado. Los cierres y reaperturas de rutas reparan solo la
+     * parte afectada del árbol en lugar de recalcularlo.
+     *
+     * @param centro ubicación del grafo que actuará como centro
+     */
+    public void registrarCentro(Ubicacion centro) {
+        if (!adyacencias.containsKey(centro)) {
+            System.out.println("La ubicación " + centro.getNombre() + " no existe en el grafo.");
+            return;
+        }
+        synchronized (centros) {
+            centros.putIfAbsent(centro, null);
+        }
+    }
+
+    /**
+     * Deja de mantener el árbol de caminos de un centro.
+     *
+     * @param centro ubicación registrada como centro
+     */
+    public void eliminarCentro(Ubicacion centro) {
+        synchronized (centros) {
+            centros.remove(centro);
+        }
+    }
+
+    /** @return centros registrados, en el orden en que se registraron */
+    List<Ubicacion> getCentros() {
+        synchronized (centros) {
+            return new ArrayList<>(centros.keySet());
+        }
+    }
+
+    /**
+     * Devuelve el árbol de caminos vigente de un centro registrado. Si la estructura del grafo
+     * cambió desde su construcción, el árbol se recalcula completo.
+     *
+     * @param centro ubicación registrada como centro
+     * @return árbol dinámico del centro, o null si la ubicación no es un centro
+     */
+    public ArbolDinamico obtenerArbolCentro(Ubicacion centro) {
+        synchronized (centros) {
+            if (!centros.containsKey(centro)) return null;
+            GrafoCompacto grafo = getGrafoCompacto();
+            ArbolDinamico arbol = centros.get(centro);
+            if (arbol == null || arbol.getGrafo() != grafo) {
+                arbol = new ArbolDinamico(grafo, grafo.indiceDe(centro));
+                centros.put(centro, arbol);
+            }
+            return arbol;
+        }
+    }
+
+    /**
+     * Devuelve la versión actual del grafo. Aumenta con cada ubicación o ruta nueva y con cada
+     * cambio de distancia, disponibilidad o extremos de una ruta.
+     *
+     * @return número de versión
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Devuelve cuántas veces cambió la capacidad de alguna ruta. Los cambios de capacidad no
+     * aumentan {@link #getVersion()}; quien guarde resultados que dependan de las capacidades debe
+     * comparar este contador.
+     *
+     * @return cantidad de cambios de capacidad
+     */
+    public long getCambiosCapacidad() {
+        return cambiosCapacidad.get();
+    }
+
+    /**
+     * Devuelve la caché de consultas, con sus contadores de aciertos, fallos y desalojos.
+     *
+     * @return caché de caminos del grafo
+     */
+    public CacheRutas getCache() {
+        return cache;
+    }
+
+    /**
+     * Devuelve las ubicaciones que se pueden alcanzar desde alguno de los orígenes recorriendo
+     * como máximo la distancia indicada (por ejemplo, lo que un equipo alcanza en 30 km).
+     * La búsqueda se detiene en el presupuesto, así que solo explora la zona alcanzada.
+     *
+     * @param origenes    ubicaciones de partida
+     * @param presupuesto distancia máxima en kilómetros
+     * @return ubicaciones alcanzadas con su distancia al origen más cercano
+     */
+    public ResultadoAlcance obtenerAlcanzables(Collection<Ubicacion> origenes, double presupuesto) {
+        return calcularAlcance(origenes, presupuesto, false);
+    }
+
+    /**
+     * Devuelve las ubicaciones desde las que se llega a alguno de los destinos recorriendo como
+     * máximo la distancia indicada (por ejemplo, las zonas a menos de 15 km de un refugio).
+     *
+     * @param destinos    ubicaciones de llegada
+     * @param presupuesto distancia máxima en kilómetros
+     * @return ubicaciones encontradas con su distancia al destino más cercano
+     */
+    public ResultadoAlcance obtenerQueAlcanzan(Collection<Ubicacion> destinos, double presupuesto) {
+        return calcularAlcance(destinos, presupuesto, true);
+    }
+
+    /**
+     * Calcula en paralelo el alcance de cada ubicación por separado, con una búsqueda acotada
+     * por ubicación. Pensado para refrescar el área de todas las zonas a la vez.
+     *
+     * @param ubicaciones ubicaciones a consultar
+     * @param presupuesto distancia máxima en kilómetros
+     * @param inverso     true para medir la distancia hacia cada ubicación en lugar de desde ella
+     * @return un resultado por ubicación, en el mismo orden
+     */
+    public List<ResultadoAlcance> calcularAlcanceEnLote(List<Ubicacion> ubicaciones, double presupuesto, boolean inverso) {
+        GrafoCompacto grafo = getGrafoCompacto();
+        ResultadoAlcance[] resultados = new ResultadoAlcance[ubicaciones.size()];
+        IntStream.range(0, resultados.length).parallel().forEach(i ->
+                resultados[i] = calcularAlcance(grafo, List.of(ubicaciones.get(i)), presupuesto, inverso));
+        return Arrays.asList(resultados);
+    }
+
+    private ResultadoAlcance calcularAlcance(Collection<Ubicacion> fuentes, double presupuesto, boolean inverso) {
+        return calcularAlcance(getGrafoCompacto(), fuentes, presupuesto, inverso);
+    }
+
+    private ResultadoAlcance calcularAlcance(GrafoCompacto grafo, Collection<Ubicacion> fuentes,
+                                             double presupuesto, boolean inverso) {
+        if (presupuesto < 0 || Double.isNaN(presupuesto))
+            throw new IllegalArgumentException("El presupuesto de distancia no puede ser negativo.");
 
-        for (Ubicacion u : adyacencias.keySet()) {
-            distancias.put(u, Double.MAX_VALUE);
+        int[] nodos = fuentes.stream().mapToInt(grafo::indiceDe).filter(n -> n >= 0).distinct().toArray();
+        return grafo.dijkstraAcotado(nodos, presupuesto, inverso, espacios.get());
+    }
+
+    /**
+     * Busca, con un único recorrido inverso desde el destino, la ubicación más cercana que
+     * cumple una condición. Equivale a calcular el camino desde cada candidata y quedarse con
+     * el más corto, pero explora el grafo una sola vez y se detiene en la primera encontrada.
+     *
+     * @param destino     ubicación a la que deben llegar las candidatas
+     * @param esCandidata condición que debe cumplir la ubicación buscada
+     * @return ubicación más cercana con su distancia, o null si ninguna puede llegar al destino
+     */
+    public UbicacionCercana buscarMasCercana(Ubicacion destino, Predicate<Ubicacion> esCandidata) {
+        GrafoCompacto grafo = getGrafoCompacto();
+        int d = grafo.indiceDe(destino);
+        if (d < 0) return null;
+
+        EspacioBusqueda espacio = espacios.get();
+        int encontrado = grafo.buscarCandidatoMasCercano(d, nodo -> esCandidata.test(grafo.getUbicacion(nodo)), espacio);
+        if (encontrado < 0) return null;
+        return new UbicacionCercana(grafo.getUbicacion(encontrado), espacio.getDistancia(encontrado));
+    }
+
+    /**
+     * Busca las ubicaciones más cercanas en línea recta a un punto del mapa usando el índice
+     * espacial, por ejemplo el refugio más cercano a donde se reportó una emergencia.
+     *
+     * @param latitud  latitud del punto
+     * @param longitud longitud del punto
+     * @param k        cantidad máxima de resultados
+     * @param filtro   condición que deben cumplir las ubicaciones, o null para aceptar todas
+     * @return ubicaciones con su distancia en línea recta, de la más cercana a la más lejana
+     */
+    public List<UbicacionCercana> buscarCercanasAlPunto(double latitud, double longitud, int k, Predicate<Ubicacion> filtro) {
+        return indiceEspacial.buscarMasCercanas(latitud, longitud, k, filtro);
+    }
+
+    /**
+     * Busca las ubicaciones a una distancia en línea recta no mayor que el radio.
+     *
+     * @param latitud  latitud del centro
+     * @param longitud longitud del centro
+     * @param radioKm  radio en kilómetros
+     * @return ubicaciones dentro del radio, de la más cercana a la más lejana
+     */
+    public List<UbicacionCercana> buscarEnRadio(double latitud, double longitud, double radioKm) {
+        return indiceEspacial.buscarEnRadio(latitud, longitud, radioKm);
+    }
+
+    /**
+     * Busca las ubicaciones visibles dentro de un rectángulo del mapa.
+     *
+     * @param latMin latitud sur
+     * @param lonMin longitud oeste
+     * @param latMax latitud norte
+     * @param lonMax longitud este
+     * @return ubicaciones dentro del rectángulo
+     */
+    public List<Ubicacion> buscarEnRectangulo(double latMin, double lonMin, double latMax, double lonMax) {
+        return indiceEspacial.buscarEnRectangulo(latMin, lonMin, latMax, lonMax);
+    }
+
+    /**
+     * Devuelve las rutas cuya distancia es menor que la distancia en línea recta entre sus
+     * ubicaciones. Estas rutas invalidan la heurística geográfica de A*, por lo que conviene
+     * corregir sus datos o sus coordenadas.
+     *
+     * @return lista de rutas inconsistentes con las coordenadas
+     */
+    public List<Ruta> verificarConsistenciaHeuristica() {
+        GrafoCompacto grafo = getGrafoCompacto();
+        List<Ruta> inconsistentes = new ArrayList<>();
+        for (int e : grafo.rutasMasCortasQueLineaRecta()) {
+            inconsistentes.add(grafo.getRuta(e));
         }
-        distancias.put(origen, 0.0);
+        return inconsistentes;
+    }
 
-        PriorityQueue<Ubicacion> cola = new PriorityQueue<>(Comparator.comparingDouble(distancias::get));
-        cola.add(origen);
+    /**
+     * Devuelve los puntos de referencia vigentes para el grafo compilado, recalculándolos
+     * si el grafo cambió desde su construcción.
+     */
+    private PuntosReferencia getPuntosReferencia(GrafoCompacto grafo) {
+        PuntosReferencia actuales = puntosReferencia;
+        if (actuales == null || !actuales.esVigente(grafo)) {
+            synchronized (this) {
+                actuales = puntosReferencia;
+                if (actuales == null || !actuales.esVigente(grafo)) {
+                    actuales = new PuntosReferencia(grafo, PUNTOS_REFERENCIA);
+                    puntosReferencia = actuales;
+                }
+            }
+        }
+        return actuales;
+    }
 
-        while (!cola.isEmpty()) {
-            Ubicacion actual = cola.poll();
-            for (Ruta ruta : adyacencias.getOrDefault(actual, Collections.emptyList())) {
-                if (!ruta.isDisponible()) continue;
+    /**
+     * Devuelve el índice de jerarquías de contracción del grafo compilado. Se construye solo si
+     * cambió la estructura del grafo; si solo cambiaron distancias o disponibilidad se personaliza de nuevo.
+     *
+     * @param grafo grafo compilado vigente
+     * @return índice listo para consultas
+     */
+    private JerarquiaContraccion getJerarquia(GrafoCompacto grafo) {
+        JerarquiaContraccion actual = jerarquia;
+        if (actual == null || actual.getGrafo() != grafo || !actual.estaPersonalizada()) {
+            synchronized (this) {
+                actual = jerarquia;
+                if (actual == null || actual.getGrafo() != grafo) {
+                    actual = new JerarquiaContraccion(grafo);
+                    jerarquia = actual;
+                } else if (!actual.estaPersonalizada()) {
+                    actual.personalizar();
+                }
+            }
+        }
+        return actual;
+    }
 
-                double nuevaDist = distancias.get(actual) + ruta.getDistancia();
-                if (nuevaDist < distancias.get(ruta.getDestino())) {
-                    distancias.put(ruta.getDestino(), nuevaDist);
-                    anteriores.put(ruta.getDestino(), actual);
-                    cola.add(ruta.getDestino());
+    /**
+     * Devuelve la representación compilada del grafo, construyéndola si hubo cambios
+     * estructurales desde la última compilación.
+     *
+     * @return grafo compacto con identificadores densos
+     */
+    public GrafoCompacto getGrafoCompacto() {
+        GrafoCompacto actual = compacto;
+        if (actual == null) {
+            synchronized (this) {
+                actual = compacto;
+                if (actual == null) {
+                    actual = new GrafoCompacto(adyacencias);
+                    compacto = actual;
                 }
             }
         }
+        return actual;
+    }
 
-        List<Ubicacion> camino = new ArrayList<>();
-        for (Ubicacion at = destino; at != null; at = anteriores.get(at)) {
-            camino.add(at);
+    /**
+     * Descarta la representación compilada; se reconstruirá en la siguiente consulta.
+     */
+    void invalidarCompilacion() {
+        compacto = null;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Refleja en la representación compilada un cambio de distancia o disponibilidad de una ruta.
+     * La versión aumenta al final, cuando el grafo compilado y los árboles de los centros ya
+     * están reparados: una consulta que lea la versión nueva no puede calcular sobre el grafo
+     * anterior y guardar su resultado como vigente.
+     *
+     * @param ruta ruta modificada
+     */
+    void rutaModificada(Ruta ruta) {
+        GrafoCompacto actual = compacto;
+        if (actual == null) {
+            version.incrementAndGet();
+            return;
         }
-        Collections.reverse(camino);
 
-        if (camino.isEmpty() || !camino.get(0).equals(origen)) {
-            System.out.println("No existe una ruta entre " + origen.getNombre() + " y " + destino.getNombre());
-            return Collections.emptyList();
+        int arista = ruta.getIndiceCompacto();
+        boolean pertenece = arista >= 0 && arista < actual.getNumeroAristas() && actual.getRuta(arista) == ruta;
+        double pesoAnterior = pertenece ? actual.getPesoEfectivo(arista) : Double.POSITIVE_INFINITY;
+        if (!actual.actualizarRuta(ruta)) {
+            invalidarCompilacion();
+            return;
         }
+        double pesoNuevo = actual.getPesoEfectivo(arista);
 
-        return camino;
+        synchronized (centros) {
+            for (ArbolDinamico arbol : centros.values()) {
+                if (arbol != null && arbol.getGrafo() == actual) {
+                    arbol.actualizarArista(arista, pesoAnterior, pesoNuevo);
+                }
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Registra un cambio de capacidad de una ruta. La capacidad no afecta los caminos más cortos,
+     * así que la versión, la caché y los índices de búsqueda se conservan; solo aumenta el contador
+     * que consultan los planificadores de flujo y de evacuación.
+     *
+     * @param ruta ruta modificada
+     */
+    void capacidadModificada(Ruta ruta) {
+        cambiosCapacidad.incrementAndGet();
+    }
+
+    /**
+     * Refleja el cambio de coordenadas de una ubicación en el índice espacial y en las
+     * coordenadas que usa la heurística geográfica de A*.
+     *
+     * @param ubicacion ubicación movida
+     */
+    void ubicacionMovida(Ubicacion ubicacion) {
+        indiceEspacial.actualizar(ubicacion);
+        GrafoCompacto actual = compacto;
+        if (actual != null) actual.actualizarCoordenadas(ubicacion);
     }
 
     /**
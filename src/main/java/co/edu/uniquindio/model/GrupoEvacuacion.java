@@ -0,0 +1,61 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Grupo de personas que sale de una zona hacia un refugio por un camino y en un horario con
+ * capacidad reservada, según {@link PlanificadorCapacidadRutas}.
+ */
+public class GrupoEvacuacion {
+
+    private final Ubicacion zona;
+    private final Ubicacion refugio;
+    private final int personas;
+    private final List<Ruta> rutas;
+    private final double salidaHoras;
+    private final double llegadaHoras;
+
+    /**
+     * @param zona         zona de origen del grupo
+     * @param refugio      refugio de destino
+     * @param personas     tamaño del grupo
+     * @param rutas        rutas recorridas, en orden
+     * @param salidaHoras  instante de salida por la primera ruta
+     * @param llegadaHoras instante de llegada al refugio
+     */
+    public GrupoEvacuacion(Ubicacion zona, Ubicacion refugio, int personas, List<Ruta> rutas,
+                           double salidaHoras, double llegadaHoras) {
+        this.zona = zona;
+        this.refugio = refugio;
+        this.personas = personas;
+        this.rutas = Collections.unmodifiableList(new ArrayList<>(rutas));
+        this.salidaHoras = salidaHoras;
+        this.llegadaHoras = llegadaHoras;
+    }
+
+    /** @return zona de origen */
+    public Ubicacion getZona() { return zona; }
+
+    /** @return refugio de destino */
+    public Ubicacion getRefugio() { return refugio; }
+
+    /** @return personas del grupo */
+    public int getPersonas() { return personas; }
+
+    /** @return rutas recorridas, en orden */
+    public List<Ruta> getRutas() { return rutas; }
+
+    /** @return instante de salida en horas */
+    public double getSalidaHoras() { return salidaHoras; }
+
+    /** @return instante de llegada al refugio en horas */
+    public double getLlegadaHoras() { return llegadaHoras; }
+
+    @Override
+    public String toString() {
+        return String.format("GrupoEvacuacion{%s -> %s, personas=%d, salida=%.2fh, llegada=%.2fh}",
+                zona.getNombre(), refugio.getNombre(), personas, salidaHoras, llegadaHoras);
+    }
+}
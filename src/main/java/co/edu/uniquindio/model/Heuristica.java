@@ -0,0 +1,16 @@
+package co.edu.uniquindio.model;
+
+/**
+ * Cota inferior de la distancia restante desde un nodo hasta el destino de una búsqueda A*.
+ * Para que el resultado sea óptimo la estimación nunca debe superar la distancia real.
+ */
+public interface Heuristica {
+
+    /**
+     * Estima la distancia desde el nodo indicado hasta el destino fijado en la heurística.
+     *
+     * @param nodo identificador denso del nodo
+     * @return cota inferior de la distancia restante
+     */
+    double estimar(int nodo);
+}
@@ -0,0 +1,989 @@
+package co.edu.uniquindio.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Importa redes viales grandes (ubicaciones y rutas) desde archivos CSV o GeoJSON.
+ * <p>
+ * Los archivos se leen por bloques de tamaño fijo que se cortan en el último registro completo,
+ * de modo que la memoria usada durante la lectura no depende del tamaño del archivo. Cada bloque
+ * se interpreta en paralelo y los resultados se incorporan en el orden del archivo, así que los
+ * identificadores de las ubicaciones nuevas son los mismos en cada importación. Primero se
+ * leen las ubicaciones de todos los archivos y luego las rutas, que se refieren a ellas por
+ * nombre; las rutas repetidas, entre sí o con las que ya están en el grafo, se descartan con un
+ * conjunto de claves de 64 bits. El grafo no se toca hasta que todos los archivos se leyeron:
+ * entonces se agregan las ubicaciones nuevas y las rutas en un solo lote, de modo que un archivo
+ * defectuoso no deja la importación a medias.
+ * <p>
+ * Formatos admitidos, según la extensión del archivo:
+ * <ul>
+ *   <li>{@code .csv}: separado por comas o por punto y coma, con encabezado. Un archivo de
+ *   ubicaciones tiene las columnas {@code nombre, latitud, longitud} y opcionalmente
+ *   {@code tipo, personas, urgencia, capacidad}; uno de rutas tiene {@code origen, destino} y
+ *   opcionalmente {@code distancia, capacidad, disponible, bidireccional}. Los campos pueden ir
+ *   entre comillas pero no pueden contener saltos de línea.</li>
+ *   <li>{@code .geojson} o {@code .json}: una FeatureCollection. Los puntos son ubicaciones y las
+ *   líneas son rutas, con las mismas propiedades que las columnas del CSV.</li>
+ *   <li>{@code .geojsonl}, {@code .geojsons} o {@code .ndjson}: un Feature por línea.</li>
+ * </ul>
+ * Si una ruta no indica su distancia se usa la longitud de su geometría o, si no la tiene, la
+ * distancia en línea recta entre sus extremos.
+ */
+public class ImportadorRedVial {
+
+    private static final int TAMANO_BLOQUE = 1 << 20;
+    private static final int ERRORES_MAXIMOS = 20;
+    private static final int PROFUNDIDAD_MAXIMA = 64;
+    private static final String TIPO_PREDETERMINADO = "Intersección";
+
+    private final GrafoRutas grafo;
+    private int hilos;
+
+    private enum Formato { CSV, GEOJSON, GEOJSON_LINEAS }
+
+    private enum Fase { UBICACIONES, RUTAS }
+
+    /**
+     * @param grafo grafo que recibe las ubicaciones y rutas importadas
+     */
+    public ImportadorRedVial(GrafoRutas grafo) {
+        if (grafo == null) throw new IllegalArgumentException("El grafo no puede ser nulo.");
+        this.grafo = grafo;
+        this.hilos = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Establece cuántos hilos interpretan bloques en paralelo.
+     *
+     * @param hilos cantidad de hilos (al menos 1)
+     */
+    public void setHilos(int hilos) {
+        if (hilos < 1) throw new IllegalArgumentException("Se necesita al menos un hilo.");
+        this.hilos = hilos;
+    }
+
+    /**
+     * Importa ubicaciones y rutas desde uno o varios archivos. Las rutas pueden referirse a
+     * ubicaciones que ya estaban en el grafo o que vienen en cualquiera de los archivos. Las
+     * ubicaciones cuyo nombre ya existe y los registros inválidos se omiten. Si se lanza una
+     * excepción el grafo queda como estaba. Hace todo en el hilo que llama; para leer en segundo
+     * plano, véase {@link #preparar(Path...)}.
+     *
+     * @param archivos archivos CSV o GeoJSON
+     * @return resumen de la importación
+     * @throws IOException              si no se puede leer algún archivo o un GeoJSON está incompleto
+     * @throws IllegalArgumentException si la extensión o el encabezado de algún archivo no se reconocen
+     */
+    public ResultadoImportacion importar(Path... archivos) throws IOException {
+        Importacion importacion = preparar(archivos);
+        importacion.leer();
+        return importacion.incorporar();
+    }
+
+    /**
+     * Prepara una importación que se hace en tres pasos, para que la lectura, que es lo costoso,
+     * pueda ir en otro hilo sin tocar el grafo: este método y {@link Importacion#incorporar()}
+     * leen y modifican el grafo y deben llamarse desde el hilo que lo usa (el de la interfaz), y
+     * {@link Importacion#leer()} solo trabaja con la copia de nombres y rutas tomada aquí.
+     *
+     * @param archivos archivos CSV o GeoJSON
+     * @return importación lista para leer
+     * @throws IllegalArgumentException si la extensión de algún archivo no se reconoce
+     */
+    public Importacion preparar(Path... archivos) {
+        for (Path archivo : archivos) formatoDe(archivo);
+        return new Importacion(archivos.clone(), new Estado(grafo));
+    }
+
+    /** Importación preparada con {@link #preparar(Path...)}. */
+    public final class Importacion {
+        private final Path[] archivos;
+        private final Estado estado;
+        private long nanos;
+        private boolean leida;
+
+        private Importacion(Path[] archivos, Estado estado) {
+            this.archivos = archivos;
+            this.estado = estado;
+        }
+
+        /**
+         * Interpreta todos los archivos y descarta los repetidos sin modificar el grafo. Puede
+         * llamarse desde cualquier hilo.
+         *
+         * @throws IOException              si no se puede leer algún archivo o un GeoJSON está incompleto
+         * @throws IllegalArgumentException si el encabezado de algún archivo no se reconoce
+         */
+        public void leer() throws IOException {
+            if (leida) throw new IllegalStateException("La importación ya se leyó.");
+            long inicio = System.nanoTime();
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, r -> {
+                Thread t = new Thread(r, "importador-red-vial");
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                for (Path archivo : archivos) ImportadorRedVial.this.leer(archivo, Fase.UBICACIONES, estado, ejecutor);
+                estado.cerrarUbicaciones();
+                for (Path archivo : archivos) ImportadorRedVial.this.leer(archivo, Fase.RUTAS, estado, ejecutor);
+            } finally {
+                ejecutor.shutdownNow();
+            }
+            nanos += System.nanoTime() - inicio;
+            leida = true;
+        }
+
+        /**
+         * Agrega al grafo las ubicaciones y rutas leídas.
+         *
+         * @return resumen de la importación
+         * @throws IllegalStateException si aún no se leyó, o si el grafo recibió ubicaciones o
+         *                               rutas desde {@link #preparar(Path...)} y los repetidos ya no son fiables
+         */
+        public ResultadoImportacion incorporar() {
+            if (!leida) throw new IllegalStateException("La importación aún no se leyó.");
+            long inicio = System.nanoTime();
+            estado.incorporar();
+            nanos += System.nanoTime() - inicio;
+            return new ResultadoImportacion(estado.ubicacionesAgregadas, estado.ubicacionesRepetidas, estado.rutas.size(),
+                    estado.rutasRepetidas, estado.invalidos, estado.errores, nanos / 1_000_000);
+        }
+    }
+
+    private static Formato formatoDe(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nombre.endsWith(".csv")) return Formato.CSV;
+        if (nombre.endsWith(".geojson") || nombre.endsWith(".json")) return Formato.GEOJSON;
+        if (nombre.endsWith(".geojsonl") || nombre.endsWith(".geojsons") || nombre.endsWith(".ndjson"))
+            return Formato.GEOJSON_LINEAS;
+        throw new IllegalArgumentException("Formato de archivo no soportado: " + archivo.getFileName());
+    }
+
+    // ---------------------------------------------------------------- lectura por bloques
+
+    private void leer(Path archivo, Fase fase, Estado estado, ExecutorService ejecutor) throws IOException {
+        Formato formato = formatoDe(archivo);
+        try (InputStream entrada = new BufferedInputStream(Files.newInputStream(archivo), TAMANO_BLOQUE)) {
+            saltarMarcaOrden(entrada);
+            if (formato == Formato.CSV) {
+                ColumnasCsv columnas = new ColumnasCsv(leerLinea(entrada), archivo);
+                if (columnas.esDeRutas != (fase == Fase.RUTAS)) return;
+                if (fase == Fase.UBICACIONES) {
+                    procesar(entrada, new DivisorLineas(), datos -> ubicacionesCsv(datos, columnas), estado::agregarUbicaciones, ejecutor);
+                } else {
+                    Ubicaciones ubicaciones = estado.ubicacionesCerradas;
+                    procesar(entrada, new DivisorLineas(), datos -> rutasCsv(datos, columnas, ubicaciones), estado::agregarRutas, ejecutor);
+                }
+            } else {
+                Divisor divisor = formato == Formato.GEOJSON ? new DivisorColeccion() : new DivisorLineas();
+                if (fase == Fase.UBICACIONES) {
+                    procesar(entrada, divisor, datos -> geoJson(datos, null), estado::agregarUbicaciones, ejecutor);
+                } else {
+                    Ubicaciones ubicaciones = estado.ubicacionesCerradas;
+                    procesar(entrada, divisor, datos -> geoJson(datos, ubicaciones), estado::agregarRutas, ejecutor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reparte la entrada en bloques de registros completos que se interpretan en paralelo, con
+     * un número acotado de bloques en curso, y entrega los resultados en el orden del archivo.
+     */
+    private void procesar(InputStream entrada, Divisor divisor, Function<byte[], Bloque> interpretar,
+                          Consumer<Bloque> incorporar, ExecutorService ejecutor) throws IOException {
+        ArrayDeque<Future<Bloque>> enCurso = new ArrayDeque<>();
+        int limite = 2 * hilos;
+        byte[] buffer = new byte[TAMANO_BLOQUE];
+        int lleno = 0;
+        boolean fin = false;
+        while (!fin) {
+            int leidos = entrada.readNBytes(buffer, lleno, buffer.length - lleno);
+            lleno += leidos;
+            fin = lleno < buffer.length;
+            int corte = fin ? divisor.corteFinal(buffer, lleno) : divisor.corte(buffer, lleno);
+            if (corte > 0) {
+                byte[] datos = Arrays.copyOfRange(buffer, divisor.inicio(), corte);
+                enCurso.add(ejecutor.submit((Callable<Bloque>) () -> interpretar.apply(datos)));
+                System.arraycopy(buffer, corte, buffer, 0, lleno - corte);
+                lleno -= corte;
+                divisor.descartar(corte);
+            } else if (lleno == buffer.length) {
+                // un solo registro no cabe en el buffer
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while (enCurso.size() > limite || (fin && !enCurso.isEmpty())) incorporar.accept(esperar(enCurso.poll()));
+        }
+    }
+
+    private static Bloque esperar(Future<Bloque> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static void saltarMarcaOrden(InputStream entrada) throws IOException {
+        entrada.mark(3);
+        byte[] marca = entrada.readNBytes(3);
+        if (marca.length < 3 || (marca[0] & 0xFF) != 0xEF || (marca[1] & 0xFF) != 0xBB || (marca[2] & 0xFF) != 0xBF) {
+            entrada.reset();
+        }
+    }
+
+    private static String leerLinea(InputStream entrada) throws IOException {
+        ByteArrayOutputStream linea = new ByteArrayOutputStream();
+        int b;
+        while ((b = entrada.read()) >= 0 && b != '\n') linea.write(b);
+        return linea.toString(StandardCharsets.UTF_8).strip();
+    }
+
+    /** Encuentra el límite entre registros completos dentro del buffer de lectura. */
+    private interface Divisor {
+        /**
+         * Revisa el buffer y devuelve el fin del último registro completo, o 0 si no hay ninguno.
+         *
+         * @param buffer bytes leídos y aún no entregados
+         * @param lleno  cantidad de bytes válidos
+         * @return posición siguiente al último registro completo
+         */
+        int corte(byte[] buffer, int lleno);
+
+        /** Igual que {@link #corte} cuando ya no quedan bytes por leer. */
+        int corteFinal(byte[] buffer, int lleno) throws IOException;
+
+        /** @return inicio del primer registro antes del último corte */
+        int inicio();
+
+        /** Avisa que se descartaron los primeros bytes del buffer. */
+        void descartar(int bytes);
+    }
+
+    /** Registros de una línea: CSV y GeoJSON con un Feature por línea. */
+    private static final class DivisorLineas implements Divisor {
+        @Override
+        public int corte(byte[] buffer, int lleno) {
+            for (int i = lleno - 1; i >= 0; i--) {
+                if (buffer[i] == '\n') return i + 1;
+            }
+            return 0;
+        }
+
+        @Override
+        public int corteFinal(byte[] buffer, int lleno) {
+            return lleno;
+        }
+
+        @Override
+        public int inicio() {
+            return 0;
+        }
+
+        @Override
+        public void descartar(int bytes) {
+        }
+    }
+
+    /**
+     * Registros de una FeatureCollection: los objetos dentro del arreglo {@code features} del
+     * objeto raíz. Recorre cada byte una sola vez y conserva la profundidad entre lecturas.
+     */
+    private static final class DivisorColeccion implements Divisor {
+        private final boolean[] esArreglo = new boolean[PROFUNDIDAD_MAXIMA + 1];
+        private int profundidad;
+        private boolean enTexto;
+        private boolean escapado;
+        private int escaneado;
+        private int inicioRegistro = -1;
+        private int primerInicio = -1;
+        private int ultimoFin;
+
+        @Override
+        public int corte(byte[] buffer, int lleno) {
+            for (; escaneado < lleno; escaneado++) {
+                byte c = buffer[escaneado];
+                if (enTexto) {
+                    if (escapado) escapado = false;
+                    else if (c == '\\') escapado = true;
+                    else if (c == '"') enTexto = false;
+                } else if (c == '"') {
+                    enTexto = true;
+                } else if (c == '{' || c == '[') {
+                    if (++profundidad > PROFUNDIDAD_MAXIMA)
+                        throw new IllegalArgumentException("El GeoJSON tiene demasiados niveles de anidamiento.");
+                    esArreglo[profundidad] = c == '[';
+                    if (c == '{' && profundidad == 3 && esArreglo[2] && !esArreglo[1]) inicioRegistro = escaneado;
+                } else if (c == '}' || c == ']') {
+                    if (profundidad == 3 && inicioRegistro >= 0) {
+                        if (primerInicio < 0) primerInicio = inicioRegistro;
+                        ultimoFin = escaneado + 1;
+                        inicioRegistro = -1;
+                    }
+                    profundidad--;
+                }
+            }
+            return primerInicio >= 0 ? ultimoFin : 0;
+        }
+
+        @Override
+        public int corteFinal(byte[] buffer, int lleno) throws IOException {
+            int corte = corte(buffer, lleno);
+            if (profundidad != 0 || enTexto) throw new IOException("El archivo GeoJSON está incompleto.");
+            return corte;
+        }
+
+        @Override
+        public int inicio() {
+            return primerInicio;
+        }
+
+        @Override
+        public void descartar(int bytes) {
+            escaneado -= bytes;
+            if (inicioRegistro >= 0) inicioRegistro -= bytes;
+            primerInicio = -1;
+            ultimoFin = 0;
+        }
+    }
+
+    // ---------------------------------------------------------------- estado de la importación
+
+    /** Ubicaciones conocidas al leer las rutas; no cambian durante esa fase. */
+    private static final class Ubicaciones {
+        final Map<String, Integer> ids;
+        final Ubicacion[] porId;
+
+        Ubicaciones(Map<String, Integer> ids, Ubicacion[] porId) {
+            this.ids = ids;
+            this.porId = porId;
+        }
+    }
+
+    /** Resultado de interpretar un bloque; solo lo lee el hilo que incorpora los bloques. */
+    private static final class Bloque {
+        final List<Ubicacion> ubicaciones = new ArrayList<>();
+        final List<Ruta> rutas = new ArrayList<>();
+        int[] origenes = new int[16];
+        int[] destinos = new int[16];
+        final List<String> errores = new ArrayList<>();
+        int invalidos;
+
+        void agregarRuta(Ruta ruta, int origen, int destino) {
+            int n = rutas.size();
+            if (n == origenes.length) {
+                origenes = Arrays.copyOf(origenes, n * 2);
+                destinos = Arrays.copyOf(destinos, n * 2);
+            }
+            origenes[n] = origen;
+            destinos[n] = destino;
+            rutas.add(ruta);
+        }
+
+        void invalido(String error) {
+            invalidos++;
+            if (errores.size() < ERRORES_MAXIMOS) errores.add(error);
+        }
+    }
+
+    /** Estado que acumula el hilo que incorpora los bloques, en el orden de los archivos. */
+    private static final class Estado {
+        final GrafoRutas grafo;
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<Ubicacion> porId = new ArrayList<>();
+        final List<Ubicacion> nuevas = new ArrayList<>();
+        final List<Ruta> rutas = new ArrayList<>();
+        final List<String> errores = new ArrayList<>();
+        final ConjuntoLong claves;
+        final int rutasIniciales;
+        Ubicaciones ubicacionesCerradas;
+        int ubicacionesAgregadas;
+        int ubicacionesRepetidas;
+        int rutasRepetidas;
+        int invalidos;
+
+        /** Copia los nombres y las rutas del grafo; es lo único que la lectura consulta de él. */
+        Estado(GrafoRutas grafo) {
+            this.grafo = grafo;
+            for (Ubicacion u : grafo.getUbicaciones()) {
+                ids.put(u.getNombre(), porId.size());
+                porId.add(u);
+            }
+            Map<Ubicacion, List<Ruta>> adyacencias = grafo.getAdyacencias();
+            this.rutasIniciales = contarRutas(adyacencias);
+            this.claves = new ConjuntoLong(Math.max(rutasIniciales, 1024));
+            for (Map.Entry<Ubicacion, List<Ruta>> entrada : adyacencias.entrySet()) {
+                int origen = ids.get(entrada.getKey().getNombre());
+                for (Ruta r : entrada.getValue()) claves.agregar(ConjuntoLong.clave(origen, ids.get(r.getDestino().getNombre())));
+            }
+        }
+
+        private static int contarRutas(Map<Ubicacion, List<Ruta>> adyacencias) {
+            int total = 0;
+            for (List<Ruta> salientes : adyacencias.values()) total += salientes.size();
+            return total;
+        }
+
+        void agregarUbicaciones(Bloque bloque) {
+            for (Ubicacion u : bloque.ubicaciones) {
+                if (ids.putIfAbsent(u.getNombre(), porId.size()) != null) {
+                    ubicacionesRepetidas++;
+                    continue;
+                }
+                porId.add(u);
+                nuevas.add(u);
+                ubicacionesAgregadas++;
+            }
+            anotarErrores(bloque);
+        }
+
+        /** Fija las ubicaciones a las que pueden referirse las rutas. */
+        void cerrarUbicaciones() {
+            ubicacionesCerradas = new Ubicaciones(ids, porId.toArray(new Ubicacion[0]));
+        }
+
+        void agregarRutas(Bloque bloque) {
+            for (int i = 0; i < bloque.rutas.size(); i++) {
+                if (claves.agregar(ConjuntoLong.clave(bloque.origenes[i], bloque.destinos[i]))) rutas.add(bloque.rutas.get(i));
+                else rutasRepetidas++;
+            }
+            anotarErrores(bloque);
+        }
+
+        /**
+         * Agrega al grafo lo leído. Solo se llama cuando todos los archivos se interpretaron, para
+         * que un error en cualquiera de ellos no deje la importación a medias.
+         */
+        void incorporar() {
+            // el grafo solo crece: si los conteos coinciden con la copia, los repetidos siguen siendo válidos
+            if (grafo.getUbicaciones().size() != porId.size() - nuevas.size() || contarRutas(grafo.getAdyacencias()) != rutasIniciales)
+                throw new IllegalStateException("El grafo cambió durante la importación; vuelva a importar.");
+            for (Ubicacion u : nuevas) grafo.agregarUbicacion(u);
+            grafo.restaurarRutas(rutas);
+        }
+
+        private void anotarErrores(Bloque bloque) {
+            invalidos += bloque.invalidos;
+            for (String error : bloque.errores) {
+                if (errores.size() < ERRORES_MAXIMOS) errores.add(error);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- CSV
+
+    /** Posición de cada columna reconocida en el encabezado, o -1 si no está. */
+    private static final class ColumnasCsv {
+        final byte separador;
+        final boolean esDeRutas;
+        final int nombre, tipo, personas, urgencia, latitud, longitud, capacidad;
+        final int origen, destino, distancia, disponible, bidireccional;
+
+        ColumnasCsv(String encabezado, Path archivo) {
+            this.separador = (byte) (encabezado.indexOf(';') >= 0 && encabezado.indexOf(',') < 0 ? ';' : ',');
+            List<String> nombres = new ArrayList<>();
+            for (String campo : encabezado.split(separador == ';' ? ";" : ",", -1)) {
+                nombres.add(campo.strip().replace("\"", "").toLowerCase(Locale.ROOT));
+            }
+            this.nombre = indice(nombres, "nombre", "name", "id");
+            this.tipo = indice(nombres, "tipo", "type");
+            this.personas = indice(nombres, "personas", "personasafectadas");
+            this.urgencia = indice(nombres, "urgencia", "nivelurgencia");
+            this.latitud = indice(nombres, "latitud", "lat");
+            this.longitud = indice(nombres, "longitud", "lon", "lng");
+            this.capacidad = indice(nombres, "capacidad", "capacidadalojamiento");
+            this.origen = indice(nombres, "origen", "source", "from");
+            this.destino = indice(nombres, "destino", "target", "to");
+            this.distancia = indice(nombres, "distancia", "distance", "km");
+            this.disponible = indice(nombres, "disponible");
+            this.bidireccional = indice(nombres, "bidireccional");
+            this.esDeRutas = origen >= 0 && destino >= 0;
+            if (!esDeRutas && (nombre < 0 || latitud < 0 || longitud < 0)) {
+                throw new IllegalArgumentException("El encabezado de " + archivo.getFileName()
+                        + " no tiene las columnas origen y destino ni nombre, latitud y longitud.");
+            }
+        }
+
+        private static int indice(List<String> nombres, String... alias) {
+            for (String a : alias) {
+                int i = nombres.indexOf(a);
+                if (i >= 0) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static Bloque ubicacionesCsv(byte[] datos, ColumnasCsv col) {
+        Bloque bloque = new Bloque();
+        String[] campos = new String[16];
+        for (int desde = 0; desde < datos.length; ) {
+            int hasta = finDeLinea(datos, desde);
+            String[] fila = partir(datos, desde, hasta, col.separador, campos);
+            if (fila != null) {
+                campos = fila;
+                try {
+                    Ubicacion u = new Ubicacion(campo(campos, col.nombre), textoO(campo(campos, col.tipo), TIPO_PREDETERMINADO),
+                            enteroO(campo(campos, col.personas), 0), enteroO(campo(campos, col.urgencia), 1),
+                            coordenada(campo(campos, col.latitud), 90), coordenada(campo(campos, col.longitud), 180));
+                    Integer capacidad = entero(campo(campos, col.capacidad));
+                    if (capacidad != null) u.setCapacidadAlojamiento(capacidad);
+                    bloque.ubicaciones.add(u);
+                } catch (IllegalArgumentException e) {
+                    bloque.invalido("Ubicación inválida (" + linea(datos, desde, hasta) + "): " + e.getMessage());
+                }
+            }
+            desde = hasta + 1;
+        }
+        return bloque;
+    }
+
+    private static Bloque rutasCsv(byte[] datos, ColumnasCsv col, Ubicaciones ubicaciones) {
+        Bloque bloque = new Bloque();
+        String[] campos = new String[16];
+        for (int desde = 0; desde < datos.length; ) {
+            int hasta = finDeLinea(datos, desde);
+            String[] fila = partir(datos, desde, hasta, col.separador, campos);
+            if (fila != null) {
+                campos = fila;
+                try {
+                    agregarRuta(bloque, ubicaciones, campo(campos, col.origen), campo(campos, col.destino),
+                            numero(campo(campos, col.distancia)), Double.NaN, entero(campo(campos, col.capacidad)),
+                            booleanoO(campo(campos, col.disponible), true), booleanoO(campo(campos, col.bidireccional), false));
+                } catch (IllegalArgumentException e) {
+                    bloque.invalido("Ruta inválida (" + linea(datos, desde, hasta) + "): " + e.getMessage());
+                }
+            }
+            desde = hasta + 1;
+        }
+        return bloque;
+    }
+
+    private static int finDeLinea(byte[] datos, int desde) {
+        int i = desde;
+        while (i < datos.length && datos[i] != '\n') i++;
+        return i;
+    }
+
+    private static String linea(byte[] datos, int desde, int hasta) {
+        return new String(datos, desde, Math.min(hasta - desde, 80), StandardCharsets.UTF_8).strip();
+    }
+
+    /**
+     * Separa una línea en campos, admitiendo campos entre comillas con {@code ""} como comilla
+     * literal.
+     *
+     * @return los campos, con null en las posiciones que faltan, o null si la línea está vacía
+     */
+    private static String[] partir(byte[] datos, int desde, int hasta, byte separador, String[] campos) {
+        if (hasta > desde && datos[hasta - 1] == '\r') hasta--;
+        if (hasta == desde) return null;
+        Arrays.fill(campos, null);
+        int n = 0;
+        int i = desde;
+        while (i <= hasta) {
+            String valor;
+            if (i < hasta && datos[i] == '"') {
+                ByteArrayOutputStream texto = new ByteArrayOutputStream();
+                i++;
+                while (i < hasta) {
+                    if (datos[i] == '"') {
+                        if (i + 1 < hasta && datos[i + 1] == '"') {
+                            texto.write('"');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    texto.write(datos[i++]);
+                }
+                while (i < hasta && datos[i] != separador) i++;
+                valor = texto.toString(StandardCharsets.UTF_8);
+            } else {
+                int inicio = i;
+                while (i < hasta && datos[i] != separador) i++;
+                valor = new String(datos, inicio, i - inicio, StandardCharsets.UTF_8);
+            }
+            if (n == campos.length) campos = Arrays.copyOf(campos, n * 2);
+            campos[n++] = valor.strip();
+            i++;
+        }
+        return campos;
+    }
+
+    private static String campo(String[] campos, int columna) {
+        if (columna < 0 || columna >= campos.length) return null;
+        String valor = campos[columna];
+        return valor == null || valor.isEmpty() ? null : valor;
+    }
+
+    // ---------------------------------------------------------------- GeoJSON
+
+    /**
+     * Interpreta los Features de un bloque. Con {@code ubicaciones} nulo toma los puntos como
+     * ubicaciones; si no, toma las líneas como rutas entre las ubicaciones dadas.
+     */
+    private static Bloque geoJson(byte[] datos, Ubicaciones ubicaciones) {
+        Bloque bloque = new Bloque();
+        int i = 0;
+        while (true) {
+            while (i < datos.length && (datos[i] == ',' || Character.isWhitespace(datos[i]))) i++;
+            if (i >= datos.length) break;
+            int fin = finDeObjeto(datos, i);
+            // Los Features que no se pueden leer se anotan solo al buscar ubicaciones, para no contarlos dos veces
+            boolean anotar = ubicaciones == null;
+            try {
+                Object valor = new LectorJson(datos, i, fin).leer();
+                if (!(valor instanceof Map<?, ?> feature) || !"Feature".equals(feature.get("type")))
+                    throw new IllegalArgumentException("no es un Feature");
+                Map<?, ?> geometria = feature.get("geometry") instanceof Map<?, ?> g ? g : Map.of();
+                Map<?, ?> propiedades = feature.get("properties") instanceof Map<?, ?> p ? p : Map.of();
+                Object tipo = geometria.get("type");
+                if (ubicaciones == null && "Point".equals(tipo)) {
+                    bloque.ubicaciones.add(ubicacionGeoJson(feature, geometria, propiedades));
+                } else if (ubicaciones != null && "LineString".equals(tipo)) {
+                    anotar = true;
+                    rutaGeoJson(bloque, ubicaciones, geometria, propiedades);
+                }
+            } catch (IllegalArgumentException e) {
+                if (anotar) bloque.invalido("Feature inválido (" + linea(datos, i, fin) + "): " + e.getMessage());
+            }
+            i = fin;
+        }
+        return bloque;
+    }
+
+    private static Ubicacion ubicacionGeoJson(Map<?, ?> feature, Map<?, ?> geometria, Map<?, ?> propiedades) {
+        String nombre = texto(primero(propiedades, "nombre", "name"));
+        if (nombre == null) nombre = texto(feature.get("id"));
+        List<?> coordenadas = geometria.get("coordinates") instanceof List<?> c ? c : List.of();
+        if (coordenadas.size() < 2) throw new IllegalArgumentException("el punto no tiene coordenadas");
+        Ubicacion u = new Ubicacion(nombre, textoO(texto(primero(propiedades, "tipo", "type")), TIPO_PREDETERMINADO),
+                enteroO(texto(primero(propiedades, "personas", "personasAfectadas")), 0),
+                enteroO(texto(primero(propiedades, "urgencia", "nivelUrgencia")), 1),
+                coordenada(texto(coordenadas.get(1)), 90), coordenada(texto(coordenadas.get(0)), 180));
+        Integer capacidad = entero(texto(primero(propiedades, "capacidad", "capacidadAlojamiento")));
+        if (capacidad != null) u.setCapacidadAlojamiento(capacidad);
+        return u;
+    }
+
+    private static void rutaGeoJson(Bloque bloque, Ubicaciones ubicaciones, Map<?, ?> geometria, Map<?, ?> propiedades) {
+        double longitud = 0;
+        if (geometria.get("coordinates") instanceof List<?> puntos && puntos.size() >= 2) {
+            for (int k = 1; k < puntos.size(); k++) {
+                if (!(puntos.get(k - 1) instanceof List<?> a) || !(puntos.get(k) instanceof List<?> b) || a.size() < 2 || b.size() < 2)
+                    throw new IllegalArgumentException("coordenadas inválidas");
+                longitud += haversine(numero(texto(a.get(1))), numero(texto(a.get(0))), numero(texto(b.get(1))), numero(texto(b.get(0))));
+            }
+        } else {
+            longitud = Double.NaN;
+        }
+        agregarRuta(bloque, ubicaciones, texto(primero(propiedades, "origen", "source", "from")),
+                texto(primero(propiedades, "destino", "target", "to")),
+                numero(texto(primero(propiedades, "distancia", "distance"))), longitud,
+                entero(texto(primero(propiedades, "capacidad"))),
+                booleanoO(texto(primero(propiedades, "disponible")), true),
+                booleanoO(texto(primero(propiedades, "bidireccional")), false));
+    }
+
+    private static Object primero(Map<?, ?> propiedades, String... claves) {
+        for (String clave : claves) {
+            Object valor = propiedades.get(clave);
+            if (valor != null) return valor;
+        }
+        return null;
+    }
+
+    /** Posición siguiente al objeto JSON que empieza en {@code desde}, o el fin de los datos. */
+    private static int finDeObjeto(byte[] datos, int desde) {
+        int profundidad = 0;
+        boolean enTexto = false;
+        for (int i = desde; i < datos.length; i++) {
+            byte c = datos[i];
+            if (enTexto) {
+                if (c == '\\') i++;
+                else if (c == '"') enTexto = false;
+            } else if (c == '"') {
+                enTexto = true;
+            } else if (c == '{' || c == '[') {
+                profundidad++;
+            } else if ((c == '}' || c == ']') && --profundidad == 0) {
+                return i + 1;
+            } else if (profundidad == 0 && c == '\n') {
+                return i + 1;
+            }
+        }
+        return datos.length;
+    }
+
+    /**
+     * Lector JSON mínimo para un Feature: objetos como mapas, arreglos como listas, números
+     * como {@link Double}, y textos, booleanos y null tal cual.
+     */
+    private static final class LectorJson {
+        private final byte[] datos;
+        private final int fin;
+        private int i;
+
+        LectorJson(byte[] datos, int desde, int fin) {
+            this.datos = datos;
+            this.i = desde;
+            this.fin = fin;
+        }
+
+        Object leer() {
+            Object valor = valor();
+            espacios();
+            if (i < fin) throw error("contenido sobrante");
+            return valor;
+        }
+
+        private Object valor() {
+            espacios();
+            if (i >= fin) throw error("fin inesperado");
+            byte c = datos[i];
+            switch (c) {
+                case '{':
+                    return objeto();
+                case '[':
+                    return arreglo();
+                case '"':
+                    return texto();
+                case 't':
+                    return literal("true", Boolean.TRUE);
+                case 'f':
+                    return literal("false", Boolean.FALSE);
+                case 'n':
+                    return literal("null", null);
+                default:
+                    return numero();
+            }
+        }
+
+        private Map<String, Object> objeto() {
+            Map<String, Object> objeto = new HashMap<>();
+            i++;
+            espacios();
+            if (i < fin && datos[i] == '}') {
+                i++;
+                return objeto;
+            }
+            while (true) {
+                espacios();
+                if (i >= fin || datos[i] != '"') throw error("se esperaba un nombre");
+                String clave = texto();
+                espacios();
+                if (i >= fin || datos[i++] != ':') throw error("se esperaba ':'");
+                objeto.put(clave, valor());
+                espacios();
+                if (i >= fin) throw error("objeto sin cerrar");
+                if (datos[i] == ',') {
+                    i++;
+                } else if (datos[i] == '}') {
+                    i++;
+                    return objeto;
+                } else {
+                    throw error("se esperaba ',' o '}'");
+                }
+            }
+        }
+
+        private List<Object> arreglo() {
+            List<Object> arreglo = new ArrayList<>();
+            i++;
+            espacios();
+            if (i < fin && datos[i] == ']') {
+                i++;
+                return arreglo;
+            }
+            while (true) {
+                arreglo.add(valor());
+                espacios();
+                if (i >= fin) throw error("arreglo sin cerrar");
+                if (datos[i] == ',') {
+                    i++;
+                } else if (datos[i] == ']') {
+                    i++;
+                    return arreglo;
+                } else {
+                    throw error("se esperaba ',' o ']'");
+                }
+            }
+        }
+
+        private String texto() {
+            int inicio = ++i;
+            while (i < fin && datos[i] != '"' && datos[i] != '\\') i++;
+            if (i < fin && datos[i] == '"') return new String(datos, inicio, i++ - inicio, StandardCharsets.UTF_8);
+
+            ByteArrayOutputStream texto = new ByteArrayOutputStream();
+            texto.write(datos, inicio, i - inicio);
+            while (i < fin && datos[i] != '"') {
+                if (datos[i] != '\\') {
+                    texto.write(datos[i++]);
+                    continue;
+                }
+                if (++i >= fin) break;
+                byte e = datos[i++];
+                switch (e) {
+                    case 'n' -> texto.write('\n');
+                    case 't' -> texto.write('\t');
+                    case 'r' -> texto.write('\r');
+                    case 'b' -> texto.write('\b');
+                    case 'f' -> texto.write('\f');
+                    case 'u' -> {
+                        if (i + 4 > fin) throw error("escape incompleto");
+                        char caracter = (char) Integer.parseInt(new String(datos, i, 4, StandardCharsets.US_ASCII), 16);
+                        texto.writeBytes(String.valueOf(caracter).getBytes(StandardCharsets.UTF_8));
+                        i += 4;
+                    }
+                    default -> texto.write(e);
+                }
+            }
+            if (i >= fin) throw error("texto sin cerrar");
+            i++;
+            return texto.toString(StandardCharsets.UTF_8);
+        }
+
+        private Object literal(String palabra, Object valor) {
+            for (int k = 0; k < palabra.length(); k++) {
+                if (i + k >= fin || datos[i + k] != palabra.charAt(k)) throw error("valor desconocido");
+            }
+            i += palabra.length();
+            return valor;
+        }
+
+        private Double numero() {
+            int inicio = i;
+            while (i < fin && (Character.isDigit(datos[i]) || datos[i] == '-' || datos[i] == '+' || datos[i] == '.'
+                    || datos[i] == 'e' || datos[i] == 'E')) i++;
+            if (i == inicio) throw error("valor desconocido");
+            return Double.valueOf(new String(datos, inicio, i - inicio, StandardCharsets.US_ASCII));
+        }
+
+        private void espacios() {
+            while (i < fin && (datos[i] == ' ' || datos[i] == '\n' || datos[i] == '\r' || datos[i] == '\t')) i++;
+        }
+
+        private IllegalArgumentException error(String motivo) {
+            return new IllegalArgumentException("JSON inválido: " + motivo);
+        }
+    }
+
+    // ---------------------------------------------------------------- registros
+
+    /**
+     * Crea la ruta (y la de regreso, si es bidireccional) entre dos ubicaciones conocidas.
+     *
+     * @param distancia distancia indicada, o NaN para usar la de la geometría
+     * @param geometria longitud de la geometría, o NaN para usar la línea recta entre extremos
+     */
+    private static void agregarRuta(Bloque bloque, Ubicaciones ubicaciones, String origen, String destino, Double distancia,
+                                    double geometria, Integer capacidad, boolean disponible, boolean bidireccional) {
+        if (origen == null || destino == null) throw new IllegalArgumentException("falta el origen o el destino");
+        Integer o = ubicaciones.ids.get(origen);
+        Integer d = ubicaciones.ids.get(destino);
+        if (o == null) throw new IllegalArgumentException("no existe la ubicación " + origen);
+        if (d == null) throw new IllegalArgumentException("no existe la ubicación " + destino);
+        Ubicacion uo = ubicaciones.porId[o];
+        Ubicacion ud = ubicaciones.porId[d];
+
+        double km = distancia != null ? distancia : !Double.isNaN(geometria) ? geometria
+                : haversine(uo.getLatitud(), uo.getLongitud(), ud.getLatitud(), ud.getLongitud());
+        if (!(km >= 0) || Double.isInfinite(km)) throw new IllegalArgumentException("distancia inválida: " + km);
+        if (capacidad != null && capacidad < 0) throw new IllegalArgumentException("capacidad negativa: " + capacidad);
+
+        bloque.agregarRuta(nuevaRuta(uo, ud, km, capacidad, disponible), o, d);
+        if (bidireccional) bloque.agregarRuta(nuevaRuta(ud, uo, km, capacidad, disponible), d, o);
+    }
+
+    private static Ruta nuevaRuta(Ubicacion origen, Ubicacion destino, double distancia, Integer capacidad, boolean disponible) {
+        Ruta ruta = new Ruta(origen, destino, distancia, disponible);
+        if (capacidad != null) ruta.setCapacidad(capacidad);
+        return ruta;
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) * 0.5);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) * 0.5);
+        double h = sinLat * sinLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2.0 * GrafoCompacto.RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    /** Convierte un valor JSON en texto; los números enteros se escriben sin decimales. */
+    private static String texto(Object valor) {
+        if (valor == null) return null;
+        if (valor instanceof Double d && d == Math.rint(d) && !Double.isInfinite(d)) return Long.toString(d.longValue());
+        String texto = valor.toString().strip();
+        return texto.isEmpty() ? null : texto;
+    }
+
+    private static String textoO(String valor, String predeterminado) {
+        return valor != null ? valor : predeterminado;
+    }
+
+    private static Double numero(String valor) {
+        if (valor == null) return null;
+        try {
+            return Double.valueOf(valor.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("número inválido: " + valor);
+        }
+    }
+
+    private static double coordenada(String valor, double limite) {
+        Double numero = numero(valor);
+        if (numero == null) throw new IllegalArgumentException("faltan las coordenadas");
+        if (!(Math.abs(numero) <= limite)) throw new IllegalArgumentException("coordenada fuera de rango: " + valor);
+        return numero;
+    }
+
+    private static Integer entero(String valor) {
+        Double numero = numero(valor);
+        if (numero == null) return null;
+        if (numero != Math.rint(numero) || Math.abs(numero) > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("entero inválido: " + valor);
+        return numero.intValue();
+    }
+
+    private static int enteroO(String valor, int predeterminado) {
+        Integer numero = entero(valor);
+        return numero != null ? numero : predeterminado;
+    }
+
+    private static boolean booleanoO(String valor, boolean predeterminado) {
+        if (valor == null) return predeterminado;
+        switch (valor.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "si", "sí", "yes":
+                return true;
+            case "false", "0", "no":
+                return false;
+            default:
+                throw new IllegalArgumentException("valor lógico inválido: " + valor);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Índice espacial sobre las coordenadas de las ubicaciones para consultas de vecinos más
+ * cercanos, de radio y de rectángulo sin recorrer todas las ubicaciones.
+ * <p>
+ * Los puntos se guardan en un árbol KD implícito (arreglos empaquetados, división alternada por
+ * latitud y longitud en la mediana). Las ubicaciones nuevas o movidas después de construirlo van
+ * a una lista de pendientes que se revisa por fuerza bruta; cuando esa lista crece demasiado, el
+ * árbol se reconstruye en la siguiente consulta. Las distancias son de círculo máximo, y la poda
+ * usa una cota inferior del haversine hacia el rectángulo de cada subárbol, por lo que los
+ * resultados son exactos.
+ */
+public final class IndiceEspacial {
+
+    private Ubicacion[] puntos;
+    private double[] latitudes;
+    private double[] longitudes;
+    private boolean[] vigentes;
+    private double latMinima;
+    private double latMaxima;
+    private double lonMinima;
+    private double lonMaxima;
+    private final Map<Ubicacion, Integer> posiciones;
+    private final Set<Ubicacion> pendientes;
+
+    /** Cantidad mínima de pendientes antes de reconstruir el árbol. */
+    private static final int PENDIENTES_MINIMOS = 64;
+
+    /**
+     * Crea un índice vacío.
+     */
+    public IndiceEspacial() {
+        this.puntos = new Ubicacion[0];
+        this.latitudes = new double[0];
+        this.longitudes = new double[0];
+        this.vigentes = new boolean[0];
+        this.posiciones = new HashMap<>();
+        this.pendientes = new LinkedHashSet<>();
+    }
+
+    /**
+     * Agrega una ubicación al índice.
+     *
+     * @param ubicacion ubicación nueva
+     */
+    public synchronized void agregar(Ubicacion ubicacion) {
+        pendientes.add(ubicacion);
+    }
+
+    /**
+     * Registra que cambiaron las coordenadas de una ubicación ya indexada.
+     *
+     * @param ubicacion ubicación movida
+     */
+    public synchronized void actualizar(Ubicacion ubicacion) {
+        Integer posicion = posiciones.remove(ubicacion);
+        if (posicion != null) vigentes[posicion] = false;
+        pendientes.add(ubicacion);
+    }
+
+    /** @return cantidad de ubicaciones indexadas */
+    public synchronized int getTamano() {
+        return posiciones.size() + pendientes.size();
+    }
+
+    /**
+     * Busca las k ubicaciones más cercanas en línea recta a un punto que cumplen una condición.
+     *
+     * @param latitud  latitud del punto
+     * @param longitud longitud del punto
+     * @param k        cantidad máxima de resultados
+     * @param filtro   condición que deben cumplir las ubicaciones, o null para aceptar todas
+     * @return ubicaciones con su distancia en kilómetros, de la más cercana a la más lejana
+     */
+    public synchronized List<UbicacionCercana> buscarMasCercanas(double latitud, double longitud, int k,
+                                                                 Predicate<Ubicacion> filtro) {
+        if (k <= 0) throw new IllegalArgumentException("La cantidad de vecinos debe ser positiva.");
+        reconstruirSiHaceFalta();
+
+        PriorityQueue<UbicacionCercana> mejores = new PriorityQueue<>(
+                Comparator.comparingDouble(UbicacionCercana::getDistancia).reversed());
+        Consulta consulta = new Consulta(latitud, longitud);
+        for (Ubicacion u : pendientes) {
+            if (filtro == null || filtro.test(u)) {
+                ofrecer(mejores, k, u, consulta.distancia(u.getLatitud(), u.getLongitud()));
+            }
+        }
+        vecinos(0, puntos.length, 0, latMinima, latMaxima, lonMinima, lonMaxima, consulta, k, filtro, mejores);
+        return ordenar(new ArrayList<>(mejores));
+    }
+
+    /**
+     * Busca todas las ubicaciones a una distancia en línea recta no mayor que el radio.
+     *
+     * @param latitud  latitud del centro
+     * @param longitud longitud del centro
+     * @param radioKm  radio en kilómetros
+     * @return ubicaciones dentro del radio, de la más cercana a la más lejana
+     */
+    public synchronized List<UbicacionCercana> buscarEnRadio(double latitud, double longitud, double radioKm) {
+        if (radioKm < 0) throw new IllegalArgumentException("El radio no puede ser negativo.");
+        reconstruirSiHaceFalta();
+
+        List<UbicacionCercana> encontradas = new ArrayList<>();
+        Consulta consulta = new Consulta(latitud, longitud);
+        for (Ubicacion u : pendientes) {
+            double d = consulta.distancia(u.getLatitud(), u.getLongitud());
+            if (d <= radioKm) encontradas.add(new UbicacionCercana(u, d));
+        }
+        radio(0, puntos.length, 0, latMinima, latMaxima, lonMinima, lonMaxima, consulta, radioKm, encontradas);
+        return ordenar(encontradas);
+    }
+
+    /**
+     * Busca las ubicaciones dentro de un rectángulo de coordenadas, como la vista actual del mapa.
+     * Si la longitud mínima es mayor que la máxima, el rectángulo cruza el antimeridiano.
+     *
+     * @param latMin latitud sur
+     * @param lonMin longitud oeste
+     * @param latMax latitud norte
+     * @param lonMax longitud este
+     * @return ubicaciones dentro del rectángulo
+     */
+    public synchronized List<Ubicacion> buscarEnRectangulo(double latMin, double lonMin, double latMax, double lonMax) {
+        if (latMin > latMax) throw new IllegalArgumentException("La latitud mínima no puede superar la máxima.");
+        reconstruirSiHaceFalta();
+
+        Rectangulo rectangulo = new Rectangulo(latMin, lonMin, latMax, lonMax);
+        List<Ubicacion> encontradas = new ArrayList<>();
+        for (Ubicacion u : pendientes) {
+            if (rectangulo.contiene(u.getLatitud(), u.getLongitud())) encontradas.add(u);
+        }
+        rectangulo(0, puntos.length, 0, latMinima, latMaxima, lonMinima, lonMaxima, rectangulo, encontradas);
+        return encontradas;
+    }
+
+    // ---------------- construcción ----------------
+
+    private void reconstruirSiHaceFalta() {
+        if (pendientes.size() > Math.max(PENDIENTES_MINIMOS, posiciones.size() / 32)) reconstruir();
+    }
+
+    private void reconstruir() {
+        List<Ubicacion> todas = new ArrayList<>(posiciones.keySet());
+        todas.addAll(pendientes);
+        int n = todas.size();
+
+        puntos = todas.toArray(new Ubicacion[0]);
+        latitudes = new double[n];
+        longitudes = new double[n];
+        vigentes = new boolean[n];
+        latMinima = lonMinima = Double.MAX_VALUE;
+        latMaxima = lonMaxima = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = puntos[i].getLatitud();
+            longitudes[i] = puntos[i].getLongitud();
+            vigentes[i] = true;
+            latMinima = Math.min(latMinima, latitudes[i]);
+            latMaxima = Math.max(latMaxima, latitudes[i]);
+            lonMinima = Math.min(lonMinima, longitudes[i]);
+            lonMaxima = Math.max(lonMaxima, longitudes[i]);
+        }
+        construir(0, n, 0);
+
+        posiciones.clear();
+        for (int i = 0; i < n; i++) posiciones.put(puntos[i], i);
+        pendientes.clear();
+    }
+
+    /**
+     * Ordena el rango [desde, hasta) como subárbol KD: la mediana según el eje queda en el centro,
+     * los menores a la izquierda y los mayores a la derecha.
+     */
+    private void construir(int desde, int hasta, int eje) {
+        while (hasta - desde > 1) {
+            int medio = (desde + hasta) >>> 1;
+            seleccionar(desde, hasta - 1, medio, eje);
+            construir(desde, medio, eje ^ 1);
+            desde = medio + 1;
+            eje ^= 1;
+        }
+    }
+
+    /** Selección rápida (Hoare) de la k-ésima posición del rango [izq, der] según el eje. */
+    private void seleccionar(int izq, int der, int k, int eje) {
+        double[] claves = eje == 0 ? latitudes : longitudes;
+        while (izq < der) {
+            double pivote = claves[(izq + der) >>> 1];
+            int i = izq;
+            int j = der;
+            while (i <= j) {
+                while (claves[i] < pivote) i++;
+                while (claves[j] > pivote) j--;
+                if (i <= j) intercambiar(i++, j--);
+            }
+            if (k <= j) der = j;
+            else if (k >= i) izq = i;
+            else return;
+        }
+    }
+
+    private void intercambiar(int a, int b) {
+        Ubicacion u = puntos[a]; puntos[a] = puntos[b]; puntos[b] = u;
+        double lat = latitudes[a]; latitudes[a] = latitudes[b]; latitudes[b] = lat;
+        double lon = longitudes[a]; longitudes[a] = longitudes[b]; longitudes[b] = lon;
+    }
+
+    // ---------------- recorridos ----------------
+
+    private void vecinos(int desde, int hasta, int eje, double latMin, double latMax, double lonMin, double lonMax,
+                         Consulta consulta, int k, Predicate<Ubicacion> filtro, PriorityQueue<UbicacionCercana> mejores) {
+        if (desde >= hasta) return;
+        if (mejores.size() == k && consulta.cotaInferior(latMin, latMax, lonMin, lonMax) > mejores.peek().getDistancia()) return;
+
+        int medio = (desde + hasta) >>> 1;
+        if (vigentes[medio] && (filtro == null || filtro.test(puntos[medio]))) {
+            ofrecer(mejores, k, puntos[medio], consulta.distancia(latitudes[medio], longitudes[medio]));
+        }
+
+        // primero el lado del punto de consulta, para acotar antes el otro
+        double corte = eje == 0 ? latitudes[medio] : longitudes[medio];
+        boolean izquierdaPrimero = (eje == 0 ? consulta.latitud : consulta.longitud) <= corte;
+        for (int lado = 0; lado < 2; lado++) {
+            if ((lado == 0) == izquierdaPrimero) {
+                if (eje == 0) vecinos(desde, medio, 1, latMin, corte, lonMin, lonMax, consulta, k, filtro, mejores);
+                else vecinos(desde, medio, 0, latMin, latMax, lonMin, corte, consulta, k, filtro, mejores);
+            } else {
+                if (eje == 0) vecinos(medio + 1, hasta, 1, corte, latMax, lonMin, lonMax, consulta, k, filtro, mejores);
+                else vecinos(medio + 1, hasta, 0, latMin, latMax, corte, lonMax, consulta, k, filtro, mejores);
+            }
+        }
+    }
+
+    private void radio(int desde, int hasta, int eje, double latMin, double latMax, double lonMin, double lonMax,
+                       Consulta consulta, double radioKm, List<UbicacionCercana> encontradas) {
+        if (desde >= hasta) return;
+        if (consulta.cotaInferior(latMin, latMax, lonMin, lonMax) > radioKm) return;
+
+        int medio = (desde + hasta) >>> 1;
+        if (vigentes[medio]) {
+            double d = consulta.distancia(latitudes[medio], longitudes[medio]);
+            if (d <= radioKm) encontradas.add(new UbicacionCercana(puntos[medio], d));
+        }
+        if (eje == 0) {
+            radio(desde, medio, 1, latMin, latitudes[medio], lonMin, lonMax, consulta, radioKm, encontradas);
+            radio(medio + 1, hasta, 1, latitudes[medio], latMax, lonMin, lonMax, consulta, radioKm, encontradas);
+        } else {
+            radio(desde, medio, 0, latMin, latMax, lonMin, longitudes[medio], consulta, radioKm, encontradas);
+            radio(medio + 1, hasta, 0, latMin, latMax, longitudes[medio], lonMax, consulta, radioKm, encontradas);
+        }
+    }
+
+    private void rectangulo(int desde, int hasta, int eje, double latMin, double latMax, double lonMin, double lonMax,
+                            Rectangulo buscado, List<Ubicacion> encontradas) {
+        if (desde >= hasta || !buscado.intersecta(latMin, latMax, lonMin, lonMax)) return;
+
+        int medio = (desde + hasta) >>> 1;
+        if (vigentes[medio] && buscado.contiene(latitudes[medio], longitudes[medio])) encontradas.add(puntos[medio]);
+        if (eje == 0) {
+            rectangulo(desde, medio, 1, latMin, latitudes[medio], lonMin, lonMax, buscado, encontradas);
+            rectangulo(medio + 1, hasta, 1, latitudes[medio], latMax, lonMin, lonMax, buscado, encontradas);
+        } else {
+            rectangulo(desde, medio, 0, latMin, latMax, lonMin, longitudes[medio], buscado, encontradas);
+            rectangulo(medio + 1, hasta, 0, latMin, latMax, longitudes[medio], lonMax, buscado, encontradas);
+        }
+    }
+
+    private static void ofrecer(PriorityQueue<UbicacionCercana> mejores, int k, Ubicacion u, double distancia) {
+        if (mejores.size() < k) {
+            mejores.add(new UbicacionCercana(u, distancia));
+        } else if (distancia < mejores.peek().getDistancia()) {
+            mejores.poll();
+            mejores.add(new UbicacionCercana(u, distancia));
+        }
+    }
+
+    private static List<UbicacionCercana> ordenar(List<UbicacionCercana> lista) {
+        lista.sort(Comparator.comparingDouble(UbicacionCercana::getDistancia));
+        return lista;
+    }
+
+    /**
+     * Punto de consulta con sus valores trigonométricos precalculados.
+     */
+    private static final class Consulta {
+        final double latitud;
+        final double longitud;
+        final double latRad;
+        final double cosLat;
+
+        Consulta(double latitud, double longitud) {
+            this.latitud = latitud;
+            this.longitud = longitud;
+            this.latRad = Math.toRadians(latitud);
+            this.cosLat = Math.cos(latRad);
+        }
+
+        double distancia(double lat, double lon) {
+            double otraLat = Math.toRadians(lat);
+            double sinLat = Math.sin((otraLat - latRad) * 0.5);
+            double sinLon = Math.sin(Math.toRadians(lon - longitud) * 0.5);
+            double h = sinLat * sinLat + cosLat * Math.cos(otraLat) * sinLon * sinLon;
+            return 2.0 * GrafoCompacto.RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+        }
+
+        /**
+         * Cota inferior de la distancia a cualquier punto del rectángulo: cada término del
+         * haversine se acota por separado con la menor diferencia de latitud, la menor diferencia
+         * de longitud y el menor coseno de latitud posibles dentro del rectángulo.
+         */
+        double cotaInferior(double latMin, double latMax, double lonMin, double lonMax) {
+            double dLat = latitud < latMin ? latMin - latitud : latitud > latMax ? latitud - latMax : 0.0;
+            double dLon = 0.0;
+            if (longitud < lonMin || longitud > lonMax) {
+                dLon = Math.min(diferenciaLongitud(longitud, lonMin), diferenciaLongitud(longitud, lonMax));
+            }
+            if (dLat == 0.0 && dLon == 0.0) return 0.0;
+
+            double cosMin = Math.max(0.0, Math.min(Math.cos(Math.toRadians(latMin)), Math.cos(Math.toRadians(latMax))));
+            double sinLat = Math.sin(Math.toRadians(dLat) * 0.5);
+            double sinLon = Math.sin(Math.toRadians(dLon) * 0.5);
+            double h = sinLat * sinLat + cosLat * cosMin * sinLon * sinLon;
+            return 2.0 * GrafoCompacto.RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+        }
+
+        private static double diferenciaLongitud(double a, double b) {
+            double d = Math.abs(a - b) % 360.0;
+            return d > 180.0 ? 360.0 - d : d;
+        }
+    }
+
+    /**
+     * Rectángulo de búsqueda en grados, que puede cruzar el antimeridiano.
+     */
+    private static final class Rectangulo {
+        final double latMin;
+        final double lonMin;
+        final double latMax;
+        final double lonMax;
+
+        Rectangulo(double latMin, double lonMin, double latMax, double lonMax) {
+            this.latMin = latMin;
+            this.lonMin = lonMin;
+            this.latMax = latMax;
+            this.lonMax = lonMax;
+        }
+
+        boolean contiene(double lat, double lon) {
+            if (lat < latMin || lat > latMax) return false;
+            return lonMin <= lonMax ? lon >= lonMin && lon <= lonMax : lon >= lonMin || lon <= lonMax;
+        }
+
+        boolean intersecta(double otroLatMin, double otroLatMax, double otroLonMin, double otroLonMax) {
+            if (otroLatMax < latMin || otroLatMin > latMax) return false;
+            if (lonMin <= lonMax) return otroLonMax >= lonMin && otroLonMin <= lonMax;
+            return otroLonMax >= lonMin || otroLonMin <= lonMax;
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package co.edu.uniquindio.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Instantánea binaria del modelo (grafo de rutas, inventario, zonas de evacuación y equipos)
+ * para arrancar sin reconstruirlo desde los datos de origen. Los usuarios no se guardan, para
+ * no dejar sus contraseñas en disco: se cargan siempre desde su fuente habitual.
+ * <p>
+ * Los objetos se sustituyen por identificadores densos: las ubicaciones se numeran en el orden
+ * del grafo, las rutas guardan los identificadores de sus extremos y los recursos el de su
+ * ubicación. Cada tabla se guarda por columnas en arreglos primitivos, de modo que escribir y
+ * leer son copias en bloque entre los arreglos y un búfer que se transfiere de una vez con el
+ * canal del archivo. El archivo no se mapea en memoria: un mapeo abierto impediría reemplazarlo
+ * en Windows hasta que el recolector lo liberara. El archivo empieza con un
+ * número mágico, la versión del formato y un CRC32C del cuerpo; se escribe en un temporal que
+ * luego reemplaza al anterior, así que un corte a medio guardar deja intacta la instantánea
+ * previa.
+ * <p>
+ * {@link #capturar} solo copia el estado a arreglos y debe llamarse desde el hilo que modifica
+ * el modelo; {@link #escribir} no toca el modelo y puede hacerse después en otro hilo.
+ */
+public final class InstantaneaModelo {
+
+    private static final int MAGICO = 0x53474449; // "SGDI"
+    private static final int VERSION = 2;
+    // mágico, versión, longitud del cuerpo, CRC32C del cuerpo y cuatro bytes reservados
+    private static final int TAMANO_CABECERA = 24;
+
+    private static final TipoRecurso[] TIPOS = TipoRecurso.values();
+
+    // Ubicación de un recurso que no está en ninguna ubicación
+    private static final int GLOBAL = -1;
+    private static final int SIN_GESTOR = -2;
+
+    // Base o zona de un equipo que no tiene
+    private static final int NINGUNA = -1;
+
+    private String[] textos;
+
+    // Ubicaciones; las primeras ubicacionesEnGrafo son las del grafo, en su orden
+    private int ubicacionesEnGrafo;
+    private int[] nombreUbicacion;
+    private int[] tipoUbicacion;
+    private int[] personasAfectadas;
+    private int[] nivelUrgencia;
+    private int[] capacidadAlojamiento;
+    private double[] latitud;
+    private double[] longitud;
+
+    private int[] origenRuta;
+    private int[] destinoRuta;
+    private double[] distanciaRuta;
+    private int[] capacidadRuta;
+    private byte[] rutaDisponible;
+
+    private int[] centros;
+
+    // Recursos: los del gestor y los que solo aparecen en el mapa de alguna ubicación
+    private int[] nombreRecurso;
+    private byte[] tipoRecurso;
+    private int[] cantidadRecurso;
+    private int[] ubicacionRecurso;
+
+    // Entradas del mapa de recursos de cada ubicación
+    private int[] ubicacionEntrada;
+    private int[] recursoEntrada;
+    private int[] cantidadEntrada;
+
+    private int[] zonasEvacuacion;
+
+    private int[] nombreEquipo;
+    private int[] baseEquipo;
+    private int[] zonaEquipo;
+    private int[] inicioIntegrantes;
+    private int[] integrantes;
+
+    private InstantaneaModelo() {
+    }
+
+    // ---------------------------------------------------------------- captura
+
+    /**
+     * Copia el estado del modelo a arreglos primitivos. Las reservas pendientes se dan por
+     * canceladas: sus unidades se guardan como disponibles.
+     *
+     * @return instantánea lista para escribirse
+     */
+    public static InstantaneaModelo capturar(GrafoRutas grafo, GestorRecursos gestorRecursos, GestorEvacuacion gestorEvacuacion,
+                                             GestorEquipos gestorEquipos) {
+        InstantaneaModelo s = new InstantaneaModelo();
+        Tabla<String> textos = new Tabla<>();
+        // Las ubicaciones del grafo y sus rutas conservan la numeración del grafo compilado;
+        // las demás se numeran a continuación
+        GrafoCompacto compacto = grafo.getGrafoCompacto();
+        Tabla<Ubicacion> otras = new Tabla<>();
+        s.ubicacionesEnGrafo = compacto.getNumeroNodos();
+
+        int m = compacto.getNumeroAristas();
+        s.origenRuta = new int[m];
+        s.destinoRuta = new int[m];
+        s.distanciaRuta = new double[m];
+        s.capacidadRuta = new int[m];
+        s.rutaDisponible = new byte[m];
+        for (int e = 0; e < m; e++) {
+            Ruta r = compacto.getRuta(e);
+            s.origenRuta[e] = compacto.getOrigen(e);
+            s.destinoRuta[e] = compacto.getDestino(e);
+            s.distanciaRuta[e] = r.getDistancia();
+            s.capacidadRuta[e] = r.getCapacidad();
+            s.rutaDisponible[e] = (byte) (r.isDisponible() ? 1 : 0);
+        }
+
+        s.centros = grafo.getCentros().stream().mapToInt(c -> idUbicacion(compacto, otras, c)).toArray();
+
+        // Recursos del gestor: primero el inventario global y luego el de cada ubicación
+        Map<Recurso, Integer> idsRecurso = new IdentityHashMap<>();
+        List<Recurso> recursos = new ArrayList<>(gestorRecursos.getInventarioGlobal());
+        for (Ubicacion u : gestorRecursos.getUbicacionesConRecursos()) {
+            recursos.addAll(gestorRecursos.obtenerRecursosPorUbicacion(u));
+        }
+        List<Integer> ubicacionDe = new ArrayList<>(recursos.size());
+        for (Recurso r : recursos) {
+            idsRecurso.put(r, idsRecurso.size());
+            ubicacionDe.add(r.getUbicacion() == null ? GLOBAL : idUbicacion(compacto, otras, r.getUbicacion()));
+        }
+
+        s.zonasEvacuacion = gestorEvacuacion.obtenerZonasPendientes().stream()
+                .mapToInt(z -> idUbicacion(compacto, otras, z)).toArray();
+
+        List<Equipo> equipos = gestorEquipos.getListaEquipos();
+        s.nombreEquipo = new int[equipos.size()];
+        s.baseEquipo = new int[equipos.size()];
+        s.zonaEquipo = new int[equipos.size()];
+        s.inicioIntegrantes = new int[equipos.size() + 1];
+        List<Integer> integrantes = new ArrayList<>();
+        for (int k = 0; k < equipos.size(); k++) {
+            Equipo e = equipos.get(k);
+            s.nombreEquipo[k] = textos.id(e.getNombre());
+            s.baseEquipo[k] = e.getBase() == null ? NINGUNA : idUbicacion(compacto, otras, e.getBase());
+            s.zonaEquipo[k] = e.getZonaAsignada() == null ? NINGUNA : idUbicacion(compacto, otras, e.getZonaAsignada());
+            if (e.getIntegrantes() != null) {
+                for (String integrante : e.getIntegrantes()) integrantes.add(textos.id(integrante));
+            }
+            s.inicioIntegrantes[k + 1] = integrantes.size();
+        }
+        s.integrantes = integrantes.stream().mapToInt(Integer::intValue).toArray();
+
+        // Mapas de recursos de las ubicaciones; ya no se agregan ubicaciones nuevas
+        int n = s.ubicacionesEnGrafo + otras.size();
+        int entradas = 0;
+        for (int id = 0; id < n; id++) entradas += ubicacion(compacto, otras, id).getRecursos().size();
+        s.ubicacionEntrada = new int[entradas];
+        s.recursoEntrada = new int[entradas];
+        s.cantidadEntrada = new int[entradas];
+        int i = 0;
+        for (int id = 0; id < n; id++) {
+            for (Map.Entry<Recurso, Integer> entrada : ubicacion(compacto, otras, id).getRecursos().entrySet()) {
+                Recurso r = entrada.getKey();
+                Integer idRecurso = idsRecurso.get(r);
+                if (idRecurso == null) {
+                    idRecurso = idsRecurso.size();
+                    idsRecurso.put(r, idRecurso);
+                    recursos.add(r);
+                    ubicacionDe.add(SIN_GESTOR);
+                }
+                s.ubicacionEntrada[i] = id;
+                s.recursoEntrada[i] = idRecurso;
+                s.cantidadEntrada[i] = entrada.getValue();
+                i++;
+            }
+        }
+
+        s.nombreRecurso = new int[recursos.size()];
+        s.tipoRecurso = new byte[recursos.size()];
+        s.cantidadRecurso = new int[recursos.size()];
+        s.ubicacionRecurso = new int[recursos.size()];
+        for (i = 0; i < recursos.size(); i++) {
+            Recurso r = recursos.get(i);
+            s.nombreRecurso[i] = textos.id(r.getNombre());
+            s.tipoRecurso[i] = (byte) r.getTipo().ordinal();
+            s.cantidadRecurso[i] = (int) Math.min(Integer.MAX_VALUE, (long) r.getCantidadDisponible() + r.getCantidadReservada());
+            s.ubicacionRecurso[i] = ubicacionDe.get(i);
+        }
+
+        s.nombreUbicacion = new int[n];
+        s.tipoUbicacion = new int[n];
+        s.personasAfectadas = new int[n];
+        s.nivelUrgencia = new int[n];
+        s.capacidadAlojamiento = new int[n];
+        s.latitud = new double[n];
+        s.longitud = new double[n];
+        for (i = 0; i < n; i++) {
+            Ubicacion u = ubicacion(compacto, otras, i);
+            s.nombreUbicacion[i] = textos.id(u.getNombre());
+            s.tipoUbicacion[i] = textos.id(u.getTipo());
+            s.personasAfectadas[i] = u.getPersonasAfectadas();
+            s.nivelUrgencia[i] = u.getNivelUrgencia();
+            s.capacidadAlojamiento[i] = u.getCapacidadAlojamiento();
+            s.latitud[i] = u.getLatitud();
+            s.longitud[i] = u.getLongitud();
+        }
+
+        s.textos = textos.elementos.toArray(new String[0]);
+        return s;
+    }
+
+    private static int idUbicacion(GrafoCompacto grafo, Tabla<Ubicacion> otras, Ubicacion u) {
+        int id = grafo.indiceDe(u);
+        return id >= 0 ? id : grafo.getNumeroNodos() + otras.id(u);
+    }
+
+    private static Ubicacion ubicacion(GrafoCompacto grafo, Tabla<Ubicacion> otras, int id) {
+        return id < grafo.getNumeroNodos() ? grafo.getUbicacion(id) : otras.elementos.get(id - grafo.getNumeroNodos());
+    }
+
+    /** Numeración densa, en orden de aparición, de los objetos que se guardan por identificador. */
+    private static final class Tabla<T> {
+        final Map<T, Integer> ids = new HashMap<>();
+        final List<T> elementos = new ArrayList<>();
+
+        int id(T elemento) {
+            Integer id = ids.get(elemento);
+            if (id == null) {
+                id = elementos.size();
+                ids.put(elemento, id);
+                elementos.add(elemento);
+            }
+            return id;
+        }
+
+        int size() {
+            return elementos.size();
+        }
+    }
+
+    // ---------------------------------------------------------------- escritura
+
+    /**
+     * Escribe la instantánea en un archivo, reemplazando de forma atómica el anterior.
+     *
+     * @param archivo archivo destino
+     * @throws IOException si no se puede escribir
+     */
+    public void escribir(Path archivo) throws IOException {
+        byte[][] codificados = new byte[textos.length][];
+        int[] longitudes = new int[textos.length];
+        long bytesTexto = 0;
+        for (int i = 0; i < textos.length; i++) {
+            codificados[i] = textos[i].getBytes(StandardCharsets.UTF_8);
+            longitudes[i] = codificados[i].length;
+            bytesTexto += longitudes[i];
+        }
+
+        long tamano = TAMANO_CABECERA + tamano(longitudes) + 4 + bytesTexto + 4
+                + tamano(nombreUbicacion) + tamano(tipoUbicacion) + tamano(personasAfectadas) + tamano(nivelUrgencia)
+                + tamano(capacidadAlojamiento) + tamano(latitud) + tamano(longitud)
+                + tamano(origenRuta) + tamano(destinoRuta) + tamano(distanciaRuta) + tamano(capacidadRuta) + tamano(rutaDisponible)
+                + tamano(centros)
+                + tamano(nombreRecurso) + tamano(tipoRecurso) + tamano(cantidadRecurso) + tamano(ubicacionRecurso)
+                + tamano(ubicacionEntrada) + tamano(recursoEntrada) + tamano(cantidadEntrada)
+                + tamano(zonasEvacuacion)
+                + tamano(nombreEquipo) + tamano(baseEquipo) + tamano(zonaEquipo) + tamano(inicioIntegrantes) + tamano(integrantes);
+        if (tamano > Integer.MAX_VALUE) throw new IOException("La instantánea supera el tamaño máximo de 2 GB.");
+
+        Path destino = archivo.toAbsolutePath();
+        if (destino.getParent() != null) Files.createDirectories(destino.getParent());
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) tamano).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(TAMANO_CABECERA);
+
+            escribir(buffer, longitudes);
+            buffer.putInt((int) bytesTexto);
+            for (byte[] texto : codificados) buffer.put(texto);
+
+            buffer.putInt(ubicacionesEnGrafo);
+            escribir(buffer, nombreUbicacion);
+            escribir(buffer, tipoUbicacion);
+            escribir(buffer, personasAfectadas);
+            escribir(buffer, nivelUrgencia);
+            escribir(buffer, capacidadAlojamiento);
+            escribir(buffer, latitud);
+            escribir(buffer, longitud);
+
+            escribir(buffer, origenRuta);
+            escribir(buffer, destinoRuta);
+            escribir(buffer, distanciaRuta);
+            escribir(buffer, capacidadRuta);
+            escribir(buffer, rutaDisponible);
+
+            escribir(buffer, centros);
+
+            escribir(buffer, nombreRecurso);
+            escribir(buffer, tipoRecurso);
+            escribir(buffer, cantidadRecurso);
+            escribir(buffer, ubicacionRecurso);
+
+            escribir(buffer, ubicacionEntrada);
+            escribir(buffer, recursoEntrada);
+            escribir(buffer, cantidadEntrada);
+
+            escribir(buffer, zonasEvacuacion);
+
+            escribir(buffer, nombreEquipo);
+            escribir(buffer, baseEquipo);
+            escribir(buffer, zonaEquipo);
+            escribir(buffer, inicioIntegrantes);
+            escribir(buffer, integrantes);
+
+            buffer.putInt(0, MAGICO);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, tamano - TAMANO_CABECERA);
+            buffer.putInt(16, crc(buffer, (int) tamano));
+            buffer.putInt(20, 0);
+            buffer.flip();
+            while (buffer.hasRemaining()) canal.write(buffer);
+            canal.force(true);
+        }
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long tamano(int[] v) { return 4 + 4L * v.length; }
+
+    private static long tamano(double[] v) { return 4 + 8L * v.length; }
+
+    private static long tamano(byte[] v) { return 4 + (long) v.length; }
+
+    private static void escribir(ByteBuffer buffer, int[] v) {
+        buffer.putInt(v.length);
+        buffer.asIntBuffer().put(v);
+        buffer.position(buffer.position() + 4 * v.length);
+    }
+
+    private static void escribir(ByteBuffer buffer, double[] v) {
+        buffer.putInt(v.length);
+        buffer.asDoubleBuffer().put(v);
+        buffer.position(buffer.position() + 8 * v.length);
+    }
+
+    private static void escribir(ByteBuffer buffer, byte[] v) {
+        buffer.putInt(v.length);
+        buffer.put(v);
+    }
+
+    private static int crc(ByteBuffer buffer, int tamano) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(tamano).position(TAMANO_CABECERA));
+        return (int) crc.getValue();
+    }
+
+    // ---------------------------------------------------------------- lectura
+
+    /**
+     * Lee una instantánea escrita con {@link #escribir(Path)}.
+     *
+     * @param archivo archivo de la instantánea
+     * @return instantánea leída, lista para restaurarse
+     * @throws IOException si no se puede leer, no es una instantánea o está dañada
+     */
+    public static InstantaneaModelo leer(Path archivo) throws IOException {
+        ByteBuffer buffer;
+        long tamano;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            tamano = canal.size();
+            if (tamano < TAMANO_CABECERA || tamano > Integer.MAX_VALUE)
+                throw new IOException(archivo + " no es una instantánea del modelo.");
+            buffer = ByteBuffer.allocate((int) tamano).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer) < 0) throw new IOException("La instantánea está incompleta.");
+            }
+        }
+        try {
+            if (buffer.getInt(0) != MAGICO) throw new IOException(archivo + " no es una instantánea del modelo.");
+            if (buffer.getInt(4) != VERSION)
+                throw new IOException("Versión de instantánea no soportada: " + buffer.getInt(4));
+            if (buffer.getLong(8) != tamano - TAMANO_CABECERA) throw new IOException("La instantánea está incompleta.");
+            if (buffer.getInt(16) != crc(buffer, (int) tamano)) throw new IOException("La instantánea está dañada.");
+            buffer.position(TAMANO_CABECERA);
+
+            InstantaneaModelo s = new InstantaneaModelo();
+            int[] longitudes = leerInts(buffer);
+            byte[] bytesTexto = leerBytes(buffer);
+            s.textos = new String[longitudes.length];
+            int desde = 0;
+            for (int i = 0; i < longitudes.length; i++) {
+                if (longitudes[i] < 0 || longitudes[i] > bytesTexto.length - desde)
+                    throw new IOException("La instantánea está dañada.");
+                s.textos[i] = new String(bytesTexto, desde, longitudes[i], StandardCharsets.UTF_8);
+                desde += longitudes[i];
+            }
+
+            s.ubicacionesEnGrafo = buffer.getInt();
+            s.nombreUbicacion = leerInts(buffer);
+            s.tipoUbicacion = leerInts(buffer);
+            s.personasAfectadas = leerInts(buffer);
+            s.nivelUrgencia = leerInts(buffer);
+            s.capacidadAlojamiento = leerInts(buffer);
+            s.latitud = leerDoubles(buffer);
+            s.longitud = leerDoubles(buffer);
+
+            s.origenRuta = leerInts(buffer);
+            s.destinoRuta = leerInts(buffer);
+            s.distanciaRuta = leerDoubles(buffer);
+            s.capacidadRuta = leerInts(buffer);
+            s.rutaDisponible = leerBytes(buffer);
+
+            s.centros = leerInts(buffer);
+
+            s.nombreRecurso = leerInts(buffer);
+            s.tipoRecurso = leerBytes(buffer);
+            s.cantidadRecurso = leerInts(buffer);
+            s.ubicacionRecurso = leerInts(buffer);
+
+            s.ubicacionEntrada = leerInts(buffer);
+            s.recursoEntrada = leerInts(buffer);
+            s.cantidadEntrada = leerInts(buffer);
+
+            s.zonasEvacuacion = leerInts(buffer);
+
+            s.nombreEquipo = leerInts(buffer);
+            s.baseEquipo = leerInts(buffer);
+            s.zonaEquipo = leerInts(buffer);
+            s.inicioIntegrantes = leerInts(buffer);
+            s.integrantes = leerInts(buffer);
+
+            if (buffer.hasRemaining() || !s.esConsistente()) throw new IOException("La instantánea está dañada.");
+            return s;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("La instantánea está incompleta.", e);
+        }
+    }
+
+    private static int leerLongitud(ByteBuffer buffer, int ancho) throws IOException {
+        int n = buffer.getInt();
+        if (n < 0 || (long) n * ancho > buffer.remaining()) throw new IOException("La instantánea está dañada.");
+        return n;
+    }
+
+    private static int[] leerInts(ByteBuffer buffer) throws IOException {
+        int[] v = new int[leerLongitud(buffer, 4)];
+        buffer.asIntBuffer().get(v);
+        buffer.position(buffer.position() + 4 * v.length);
+        return v;
+    }
+
+    private static double[] leerDoubles(ByteBuffer buffer) throws IOException {
+        double[] v = new double[leerLongitud(buffer, 8)];
+        buffer.asDoubleBuffer().get(v);
+        buffer.position(buffer.position() + 8 * v.length);
+        return v;
+    }
+
+    private static byte[] leerBytes(ByteBuffer buffer) throws IOException {
+        byte[] v = new byte[leerLongitud(buffer, 1)];
+        buffer.get(v);
+        return v;
+    }
+
+    /** Comprueba que las columnas de cada tabla coincidan y que los identificadores existan. */
+    private boolean esConsistente() {
+        int t = textos.length;
+        int n = nombreUbicacion.length;
+        int m = origenRuta.length;
+        int r = nombreRecurso.length;
+        int e = nombreEquipo.length;
+        return ubicacionesEnGrafo >= 0 && ubicacionesEnGrafo <= n
+                && mide(n, tipoUbicacion, personasAfectadas, nivelUrgencia, capacidadAlojamiento)
+                && latitud.length == n && longitud.length == n
+                && mide(m, destinoRuta, capacidadRuta) && distanciaRuta.length == m && rutaDisponible.length == m
+                && mide(r, cantidadRecurso, ubicacionRecurso) && tipoRecurso.length == r
+                && mide(ubicacionEntrada.length, recursoEntrada, cantidadEntrada)
+                && mide(e, baseEquipo, zonaEquipo) && inicioIntegrantes.length == e + 1
+                && enRango(nombreUbicacion, 0, t) && enRango(tipoUbicacion, 0, t)
+                && enRango(nivelUrgencia, 1, 11)
+                && enRango(origenRuta, 0, ubicacionesEnGrafo) && enRango(destinoRuta, 0, ubicacionesEnGrafo)
+                && enRango(centros, 0, ubicacionesEnGrafo)
+                && enRango(nombreRecurso, 0, t) && enRango(tipoRecurso, 0, TIPOS.length)
+                && enRango(ubicacionRecurso, SIN_GESTOR, n)
+                && enRango(ubicacionEntrada, 0, n) && enRango(recursoEntrada, 0, r)
+                && enRango(zonasEvacuacion, 0, n)
+                && enRango(nombreEquipo, 0, t) && enRango(baseEquipo, NINGUNA, n) && enRango(zonaEquipo, NINGUNA, n)
+                && enRango(inicioIntegrantes, 0, integrantes.length + 1) && enRango(integrantes, 0, t);
+    }
+
+    private static boolean mide(int n, int[]... columnas) {
+        for (int[] c : columnas) if (c.length != n) return false;
+        return true;
+    }
+
+    private static boolean enRango(int[] v, int desde, int hasta) {
+        for (int x : v) if (x < desde || x >= hasta) return false;
+        return true;
+    }
+
+    private static boolean enRango(byte[] v, int desde, int hasta) {
+        for (byte x : v) if (x < desde || x >= hasta) return false;
+        return true;
+    }
+
+    // ---------------------------------------------------------------- restauración
+
+    /**
+     * Reconstruye el modelo guardado en gestores vacíos. Los usuarios no forman parte de la
+     * instantánea y deben cargarse aparte.
+     *
+     * @param incluirInventario false para omitir los recursos, cuando el inventario se restaura
+     *                          desde el {@link DiarioInventario}
+     * @return las ubicaciones restauradas, incluidas las que no están en el grafo
+     * @throws IllegalStateException si el grafo o, cuando se incluye, el inventario no están vacíos
+     */
+    public List<Ubicacion> restaurar(GrafoRutas grafo, GestorRecursos gestorRecursos, GestorEvacuacion gestorEvacuacion,
+                                     GestorEquipos gestorEquipos, boolean incluirInventario) {
+        if (!grafo.getAdyacencias().isEmpty())
+            throw new IllegalStateException("La instantánea se restaura en un grafo vacío.");
+        if (incluirInventario && !gestorRecursos.getInventarioGlobal().isEmpty())
+            throw new IllegalStateException("El inventario se restaura en un gestor vacío.");
+
+        Ubicacion[] ubicaciones = new Ubicacion[nombreUbicacion.length];
+        for (int i = 0; i < ubicaciones.length; i++) {
+            Ubicacion u = new Ubicacion(textos[nombreUbicacion[i]], textos[tipoUbicacion[i]], personasAfectadas[i],
+                    nivelUrgencia[i], latitud[i], longitud[i]);
+            u.setCapacidadAlojamiento(capacidadAlojamiento[i]);
+            if (i < ubicacionesEnGrafo) grafo.agregarUbicacion(u);
+            ubicaciones[i] = u;
+        }
+
+        Ruta[] rutas = new Ruta[origenRuta.length];
+        for (int i = 0; i < rutas.length; i++) {
+            Ruta r = new Ruta(ubicaciones[origenRuta[i]], ubicaciones[destinoRuta[i]], distanciaRuta[i], rutaDisponible[i] != 0);
+            r.setCapacidad(capacidadRuta[i]);
+            rutas[i] = r;
+        }
+        grafo.restaurarRutas(Arrays.asList(rutas));
+        for (int c : centros) grafo.registrarCentro(ubicaciones[c]);
+
+        if (incluirInventario) {
+            Recurso[] recursos = new Recurso[nombreRecurso.length];
+            for (int i = 0; i < recursos.length; i++) {
+                recursos[i] = new Recurso(textos[nombreRecurso[i]], TIPOS[tipoRecurso[i]], cantidadRecurso[i]);
+                if (ubicacionRecurso[i] != SIN_GESTOR) {
+                    gestorRecursos.restaurarRecurso(recursos[i], ubicacionRecurso[i] == GLOBAL ? null : ubicaciones[ubicacionRecurso[i]]);
+                }
+            }
+            for (int i = 0; i < ubicacionEntrada.length; i++) {
+                ubicaciones[ubicacionEntrada[i]].getRecursos().merge(recursos[recursoEntrada[i]], cantidadEntrada[i], Integer::sum);
+            }
+        }
+
+        for (int z : zonasEvacuacion) gestorEvacuacion.agregarZonaEvacuacion(ubicaciones[z]);
+
+        for (int i = 0; i < nombreEquipo.length; i++) {
+            List<String> miembros = new ArrayList<>();
+            for (int k = inicioIntegrantes[i]; k < inicioIntegrantes[i + 1]; k++) miembros.add(textos[integrantes[k]]);
+            Equipo e = new Equipo(textos[nombreEquipo[i]], miembros, baseEquipo[i] == NINGUNA ? null : ubicaciones[baseEquipo[i]]);
+            gestorEquipos.agregarEquipo(e);
+            if (zonaEquipo[i] != NINGUNA) e.setZonaAsignada(ubicaciones[zonaEquipo[i]]);
+        }
+        return Arrays.asList(ubicaciones);
+    }
+
+    /** @return ubicaciones guardadas, incluidas las que no están en el grafo */
+    public int getUbicaciones() {
+        return nombreUbicacion.length;
+    }
+
+    /** @return rutas guardadas */
+    public int getRutas() {
+        return origenRuta.length;
+    }
+}
@@ -0,0 +1,313 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Índice de jerarquías de contracción personalizables (CCH) sobre un {@link GrafoCompacto}.
+ * <p>
+ * El preprocesamiento depende solo de la topología: ordena los nodos por grado mínimo,
+ * los contrae en ese orden y agrega como atajos todas las aristas de relleno. Las distancias
+ * se asignan después en una fase de personalización que recorre los triángulos inferiores,
+ * por lo que cerrar una ruta o cambiar su distancia solo exige volver a personalizar,
+ * sin recalcular el orden ni los atajos.
+ * <p>
+ * Las consultas hacen dos búsquedas ascendentes (desde el origen y hacia el destino) con
+ * detención por demanda (stall-on-demand), de modo que su costo depende del tamaño de los
+ * espacios de búsqueda y no del grafo, y desempaquetan los atajos del camino resultante en la
+ * secuencia de ubicaciones original.
+ */
+public final class JerarquiaContraccion {
+
+    private final GrafoCompacto grafo;
+    private final int[] rango;
+    private final int[] nodoEnRango;
+    private final int[] inicioArcos;
+    private final int[] bajo;
+    private final int[] alto;
+    private volatile Metrica metrica;
+
+    /**
+     * Distancias personalizadas de todos los arcos ascendentes para un estado del grafo.
+     */
+    private static final class Metrica {
+        final double[] subida;
+        final double[] bajada;
+        final int[] medioSubida;
+        final int[] medioBajada;
+        final int modificaciones;
+
+        Metrica(int arcos, int modificaciones) {
+            this.subida = new double[arcos];
+            this.bajada = new double[arcos];
+            this.medioSubida = new int[arcos];
+            this.medioBajada = new int[arcos];
+            this.modificaciones = modificaciones;
+            Arrays.fill(subida, Double.POSITIVE_INFINITY);
+            Arrays.fill(bajada, Double.POSITIVE_INFINITY);
+            Arrays.fill(medioSubida, -1);
+            Arrays.fill(medioBajada, -1);
+        }
+    }
+
+    /**
+     * Construye el índice: orden de contracción, atajos y una primera personalización.
+     *
+     * @param grafo grafo compilado
+     */
+    public JerarquiaContraccion(GrafoCompacto grafo) {
+        this.grafo = grafo;
+        int n = grafo.getNumeroNodos();
+        this.rango = new int[n];
+        this.nodoEnRango = new int[n];
+
+        // grafo de eliminación no dirigido
+        List<Set<Integer>> vecinos = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) vecinos.add(new HashSet<>());
+        for (int e = 0; e < grafo.getNumeroAristas(); e++) {
+            int u = grafo.getOrigen(e);
+            int v = grafo.getDestino(e);
+            if (u == v) continue;
+            vecinos.get(u).add(v);
+            vecinos.get(v).add(u);
+        }
+
+        // orden por grado mínimo con actualización perezosa de la cola
+        boolean[] eliminado = new boolean[n];
+        PriorityQueue<long[]> cola = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        for (int v = 0; v < n; v++) cola.add(new long[]{vecinos.get(v).size(), v});
+        int[][] superiores = new int[n][];
+        int siguienteRango = 0;
+
+        while (!cola.isEmpty()) {
+            long[] entrada = cola.poll();
+            int x = (int) entrada[1];
+            if (eliminado[x] || entrada[0] != vecinos.get(x).size()) continue;
+
+            eliminado[x] = true;
+            rango[x] = siguienteRango;
+            nodoEnRango[siguienteRango++] = x;
+
+            int[] restantes = vecinos.get(x).stream().mapToInt(Integer::intValue).toArray();
+            superiores[x] = restantes;
+            for (int a : restantes) vecinos.get(a).remove(x);
+            for (int i = 0; i < restantes.length; i++) {
+                for (int j = i + 1; j < restantes.length; j++) {
+                    vecinos.get(restantes[i]).add(restantes[j]);
+                    vecinos.get(restantes[j]).add(restantes[i]);
+                }
+            }
+            for (int a : restantes) cola.add(new long[]{vecinos.get(a).size(), a});
+            vecinos.set(x, Collections.emptySet());
+        }
+
+        // arcos ascendentes en espacio de rangos, ordenados por rango del extremo superior
+        this.inicioArcos = new int[n + 1];
+        for (int r = 0; r < n; r++) {
+            inicioArcos[r + 1] = inicioArcos[r] + superiores[nodoEnRango[r]].length;
+        }
+        int arcos = inicioArcos[n];
+        this.bajo = new int[arcos];
+        this.alto = new int[arcos];
+        for (int r = 0; r < n; r++) {
+            int[] arriba = superiores[nodoEnRango[r]];
+            int[] rangos = new int[arriba.length];
+            for (int i = 0; i < arriba.length; i++) rangos[i] = rango[arriba[i]];
+            Arrays.sort(rangos);
+            for (int i = 0; i < rangos.length; i++) {
+                bajo[inicioArcos[r] + i] = r;
+                alto[inicioArcos[r] + i] = rangos[i];
+            }
+        }
+
+        personalizar();
+    }
+
+    /** @return grafo compilado sobre el que se construyó el índice */
+    public GrafoCompacto getGrafo() { return grafo; }
+
+    /** @return cantidad de arcos del índice, incluyendo atajos */
+    public int getNumeroArcos() { return alto.length; }
+
+    /**
+     * Indica si las distancias personalizadas corresponden al estado actual del grafo.
+     *
+     * @return true si no hubo cambios de distancia o disponibilidad desde la última personalización
+     */
+    public boolean estaPersonalizada() {
+        return metrica.modificaciones == grafo.getModificaciones();
+    }
+
+    /**
+     * Recalcula las distancias de todos los arcos a partir de las distancias y disponibilidad
+     * actuales de las rutas. No modifica el orden ni los atajos, y las consultas en curso
+     * siguen usando la métrica anterior hasta que termina.
+     */
+    public void personalizar() {
+        int modificaciones = grafo.getModificaciones();
+        Metrica nueva = new Metrica(alto.length, modificaciones);
+
+        for (int e = 0; e < grafo.getNumeroAristas(); e++) {
+            if (!grafo.estaDisponible(e)) continue;
+            int ru = rango[grafo.getOrigen(e)];
+            int rv = rango[grafo.getDestino(e)];
+            if (ru == rv) continue;
+            double peso = grafo.getPeso(e);
+            if (ru < rv) {
+                int arco = buscarArco(ru, rv);
+                if (peso < nueva.subida[arco]) nueva.subida[arco] = peso;
+            } else {
+                int arco = buscarArco(rv, ru);
+                if (peso < nueva.bajada[arco]) nueva.bajada[arco] = peso;
+            }
+        }
+
+        // triángulos inferiores: x < a < b con arcos x-a, x-b y a-b
+        int n = rango.length;
+        for (int x = 0; x < n; x++) {
+            for (int i = inicioArcos[x]; i < inicioArcos[x + 1]; i++) {
+                int a = alto[i];
+                for (int j = i + 1; j < inicioArcos[x + 1]; j++) {
+                    int b = alto[j];
+                    int arco = buscarArco(a, b);
+                    double porXSubida = nueva.bajada[i] + nueva.subida[j];
+                    if (porXSubida < nueva.subida[arco]) {
+                        nueva.subida[arco] = porXSubida;
+                        nueva.medioSubida[arco] = x;
+                    }
+                    double porXBajada = nueva.bajada[j] + nueva.subida[i];
+                    if (porXBajada < nueva.bajada[arco]) {
+                        nueva.bajada[arco] = porXBajada;
+                        nueva.medioBajada[arco] = x;
+                    }
+                }
+            }
+        }
+        this.metrica = nueva;
+    }
+
+    private int buscarArco(int desde, int hasta) {
+        int indice = Arrays.binarySearch(alto, inicioArcos[desde], inicioArcos[desde + 1], hasta);
+        if (indice < 0) throw new IllegalStateException("Arco inexistente en la jerarquía: " + desde + " → " + hasta);
+        return indice;
+    }
+
+    /**
+     * Calcula el camino más corto entre dos nodos con una búsqueda bidireccional ascendente:
+     * primero la búsqueda completa desde el origen y luego la del destino, que revisa el punto
+     * de encuentro al asentar cada nodo y se detiene cuando el mínimo de su cola ya no puede
+     * mejorar el mejor camino encontrado.
+     *
+     * @param origen    nodo inicial
+     * @param destino   nodo final
+     * @param adelante  espacio de búsqueda para el sentido origen → cima
+     * @param atras     espacio de búsqueda para el sentido cima → destino
+     * @return lista de ubicaciones del camino, o lista vacía si no hay ruta
+     */
+    public List<Ubicacion> obtenerCamino(int origen, int destino, EspacioBusqueda adelante, EspacioBusqueda atras) {
+        Metrica actual = metrica;
+        int s = rango[origen];
+        int t = rango[destino];
+
+        buscarAscendente(s, actual.subida, actual.bajada, adelante, null);
+        int encuentro = buscarAscendente(t, actual.bajada, actual.subida, atras, adelante);
+        if (encuentro < 0) return Collections.emptyList();
+
+        // cadena de rangos s → encuentro → t, luego desempaquetado de atajos
+        List<Integer> subida = new ArrayList<>();
+        for (int r = encuentro; r != s; r = bajo[adelante.getAristaPrevia(r)]) subida.add(r);
+        subida.add(s);
+        Collections.reverse(subida);
+        List<Integer> cadena = new ArrayList<>(subida);
+        for (int r = encuentro; r != t; ) {
+            r = bajo[atras.getAristaPrevia(r)];
+            cadena.add(r);
+        }
+
+        List<Ubicacion> camino = new ArrayList<>();
+        camino.add(grafo.getUbicacion(nodoEnRango[s]));
+        for (int i = 0; i + 1 < cadena.size(); i++) {
+            desempaquetar(cadena.get(i), cadena.get(i + 1), actual, camino);
+        }
+        return camino;
+    }
+
+    /**
+     * Búsqueda de Dijkstra restringida a arcos ascendentes. Un nodo al que se llega más corto
+     * bajando desde un vecino superior ya alcanzado no está en ningún camino más corto por la
+     * jerarquía, así que no se expanden sus arcos (detención por demanda).
+     *
+     * @param pesos     distancias de los arcos en el sentido de la búsqueda
+     * @param contrarios distancias de los arcos en el sentido opuesto, para la detención
+     * @param otra      búsqueda ya terminada del sentido contrario, o null
+     * @return con {@code otra}, el nodo de encuentro del camino más corto, o -1 si no hay
+     */
+    private int buscarAscendente(int inicio, double[] pesos, double[] contrarios, EspacioBusqueda espacio,
+                                 EspacioBusqueda otra) {
+        espacio.preparar(rango.length);
+        MonticuloMinimo cola = espacio.getMonticulo();
+        espacio.fijar(inicio, 0.0, -1);
+        cola.insertarODisminuir(inicio, 0.0);
+        int encuentro = -1;
+        double mejor = Double.POSITIVE_INFINITY;
+
+        while (!cola.estaVacio()) {
+            if (cola.claveMinima() >= mejor) break;
+            int actual = cola.extraerMinimo();
+            espacio.contarAsentado();
+            double base = espacio.getDistancia(actual);
+            if (otra != null && otra.fueAlcanzado(actual) && base + otra.getDistancia(actual) < mejor) {
+                mejor = base + otra.getDistancia(actual);
+                encuentro = actual;
+            }
+            if (detenido(actual, base, contrarios, espacio)) continue;
+            for (int arco = inicioArcos[actual]; arco < inicioArcos[actual + 1]; arco++) {
+                double nuevaDist = base + pesos[arco];
+                int superior = alto[arco];
+                if (nuevaDist < espacio.getDistancia(superior)) {
+                    espacio.fijar(superior, nuevaDist, arco);
+                    cola.insertarODisminuir(superior, nuevaDist);
+                }
+            }
+        }
+        return encuentro;
+    }
+
+    private boolean detenido(int nodo, double distancia, double[] contrarios, EspacioBusqueda espacio) {
+        for (int arco = inicioArcos[nodo]; arco < inicioArcos[nodo + 1]; arco++) {
+            if (espacio.getDistancia(alto[arco]) + contrarios[arco] < distancia) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Agrega al camino las ubicaciones del tramo desde → hasta (sin incluir el inicio),
+     * expandiendo recursivamente los atajos mediante una pila explícita.
+     */
+    private void desempaquetar(int desde, int hasta, Metrica actual, List<Ubicacion> camino) {
+        int[] pila = new int[64];
+        int tope = 0;
+        pila[tope++] = desde;
+        pila[tope++] = hasta;
+
+        while (tope > 0) {
+            int b = pila[--tope];
+            int a = pila[--tope];
+            int medio = a < b ? actual.medioSubida[buscarArco(a, b)] : actual.medioBajada[buscarArco(b, a)];
+            if (medio < 0) {
+                camino.add(grafo.getUbicacion(nodoEnRango[b]));
+                continue;
+            }
+            if (tope + 4 > pila.length) pila = Arrays.copyOf(pila, pila.length * 2);
+            pila[tope++] = medio;
+            pila[tope++] = b;
+            pila[tope++] = a;
+            pila[tope++] = medio;
+        }
+    }
+}
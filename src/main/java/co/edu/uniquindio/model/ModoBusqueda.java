@@ -0,0 +1,24 @@
+package co.edu.uniquindio.model;
+
+public enum ModoBusqueda {
+
+    DIJKSTRA("Dijkstra clásico"),
+    A_ESTRELLA("A* con distancia geográfica"),
+    ALT("A* con puntos de referencia"),
+    CONTRACCION("Jerarquías de contracción");
+
+    private final String descripcion;
+
+    ModoBusqueda(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    @Override
+    public String toString() {
+        return descripcion;
+    }
+}
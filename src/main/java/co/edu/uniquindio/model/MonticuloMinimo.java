@@ -0,0 +1,134 @@
+package co.edu.uniquindio.model;
+
+import java.util.Arrays;
+
+/**
+ * Montículo binario de mínimos sobre identificadores enteros de nodo con claves primitivas.
+ * Admite disminución de clave en O(log n) gracias a un arreglo de posiciones, y se reutiliza
+ * entre búsquedas sin crear objetos nuevos.
+ */
+public final class MonticuloMinimo {
+
+    private int[] nodos;
+    private double[] claves;
+    private int[] posiciones;
+    private int tamano;
+
+    /**
+     * Crea un montículo vacío con capacidad para la cantidad de nodos indicada.
+     *
+     * @param capacidad número máximo de nodos distintos que se insertarán
+     */
+    public MonticuloMinimo(int capacidad) {
+        this.nodos = new int[Math.max(1, capacidad)];
+        this.claves = new double[Math.max(1, capacidad)];
+        this.posiciones = new int[Math.max(1, capacidad)];
+        Arrays.fill(posiciones, -1);
+        this.tamano = 0;
+    }
+
+    /**
+     * Asegura que el montículo pueda contener nodos con identificadores menores que la capacidad dada.
+     *
+     * @param capacidad cantidad de nodos requerida
+     */
+    public void asegurarCapacidad(int capacidad) {
+        if (capacidad <= posiciones.length) return;
+        int anterior = posiciones.length;
+        nodos = Arrays.copyOf(nodos, capacidad);
+        claves = Arrays.copyOf(claves, capacidad);
+        posiciones = Arrays.copyOf(posiciones, capacidad);
+        Arrays.fill(posiciones, anterior, capacidad, -1);
+    }
+
+    /**
+     * Inserta el nodo con la clave dada o disminuye su clave si ya estaba en el montículo.
+     *
+     * @param nodo  identificador del nodo
+     * @param clave prioridad del nodo (menor sale primero)
+     */
+    public void insertarODisminuir(int nodo, double clave) {
+        int pos = posiciones[nodo];
+        if (pos < 0) {
+            pos = tamano++;
+            nodos[pos] = nodo;
+            claves[pos] = clave;
+            posiciones[nodo] = pos;
+            subir(pos);
+        } else if (clave < claves[pos]) {
+            claves[pos] = clave;
+            subir(pos);
+        }
+    }
+
+    /**
+     * Retira el nodo con menor clave.
+     *
+     * @return identificador del nodo retirado
+     */
+    public int extraerMinimo() {
+        int minimo = nodos[0];
+        posiciones[minimo] = -1;
+        tamano--;
+        if (tamano > 0) {
+            nodos[0] = nodos[tamano];
+            claves[0] = claves[tamano];
+            posiciones[nodos[0]] = 0;
+            bajar(0);
+        }
+        return minimo;
+    }
+
+    /** @return clave mínima actual (el montículo no debe estar vacío) */
+    public double claveMinima() { return claves[0]; }
+
+    /** @return true si no quedan nodos en el montículo */
+    public boolean estaVacio() { return tamano == 0; }
+
+    /** @return cantidad de nodos en el montículo */
+    public int getTamano() { return tamano; }
+
+    /**
+     * Vacía el montículo limpiando solo las posiciones ocupadas, sin recorrer toda la capacidad.
+     */
+    public void vaciar() {
+        for (int i = 0; i < tamano; i++) {
+            posiciones[nodos[i]] = -1;
+        }
+        tamano = 0;
+    }
+
+    private void subir(int pos) {
+        int nodo = nodos[pos];
+        double clave = claves[pos];
+        while (pos > 0) {
+            int padre = (pos - 1) >>> 1;
+            if (claves[padre] <= clave) break;
+            nodos[pos] = nodos[padre];
+            claves[pos] = claves[padre];
+            posiciones[nodos[pos]] = pos;
+            pos = padre;
+        }
+        nodos[pos] = nodo;
+        claves[pos] = clave;
+        posiciones[nodo] = pos;
+    }
+
+    private void bajar(int pos) {
+        int nodo = nodos[pos];
+        double clave = claves[pos];
+        int mitad = tamano >>> 1;
+        while (pos < mitad) {
+            int hijo = 2 * pos + 1;
+            if (hijo + 1 < tamano && claves[hijo + 1] < claves[hijo]) hijo++;
+            if (clave <= claves[hijo]) break;
+            nodos[pos] = nodos[hijo];
+            claves[pos] = claves[hijo];
+            posiciones[nodos[pos]] = pos;
+            pos = hijo;
+        }
+        nodos[pos] = nodo;
+        claves[pos] = clave;
+        posiciones[nodo] = pos;
+    }
+}
@@ -1,16 +1,24 @@
 package co.edu.uniquindio.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 /**
  * Representa un nodo dentro de una estructura de distribución de recursos.
  * Cada nodo contiene un recurso, una ubicación destino y una lista de nodos hijos.
+ * <p>
+ * El nodo guarda la cantidad que distribuye, tomada del recurso al crearlo o al cambiarlo, y el
+ * total de su subárbol, que se actualiza en sus ancestros al agregar o quitar hijos.
  */
 public class NodoDistribucion {
 
     private Recurso recurso;
     private Ubicacion destino;
     private final List<NodoDistribucion> hijos;
+    private NodoDistribucion padre;
+    private ArbolDistribucion arbol;
+    private int cantidad;
+    private long totalSubarbol;
 
     /**
      * Constructor que inicializa un nodo de distribución con un recurso y una ubicación destino.
@@ -22,6 +30,8 @@ public class NodoDistribucion {
         this.recurso = recurso;
         this.destino = destino;
         this.hijos = new ArrayList<>();
+        this.cantidad = recurso != null ? recurso.getCantidadDisponible() : 0;
+        this.totalSubarbol = cantidad;
     }
 
     /**
@@ -39,7 +49,12 @@ public class NodoDistribucion {
      * @param recurso el nuevo recurso a asignar
      */
     public void setRecurso(Recurso recurso) {
+        if (arbol != null) arbol.nodoQuitado(this);
+        int nueva = recurso != null ? recurso.getCantidadDisponible() : 0;
+        sumarEnAncestros(this, nueva - cantidad);
         this.recurso = recurso;
+        this.cantidad = nueva;
+        if (arbol != null) arbol.nodoAgregado(this);
     }
 
     /**
@@ -57,27 +72,94 @@ public class NodoDistribucion {
      * @param destino la nueva ubicación destino
      */
     public void setDestino(Ubicacion destino) {
+        if (arbol != null) arbol.nodoQuitado(this);
         this.destino = destino;
+        if (arbol != null) arbol.nodoAgregado(this);
+    }
+
+    /**
+     * Devuelve la cantidad que distribuye este nodo.
+     *
+     * @return unidades del recurso del nodo
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Devuelve las unidades distribuidas por este nodo y todos sus descendientes.
+     *
+     * @return total del subárbol
+     */
+    public long getTotalSubarbol() {
+        return totalSubarbol;
+    }
+
+    /**
+     * Devuelve el nodo del que depende este nodo.
+     *
+     * @return nodo padre, o null si es una raíz
+     */
+    public NodoDistribucion getPadre() {
+        return padre;
     }
 
     /**
      * Devuelve la lista de nodos hijos que dependen de este nodo.
      *
-     * @return lista de nodos hijos
+     * @return lista de solo lectura de nodos hijos
      */
     public List<NodoDistribucion> getHijos() {
-        return hijos;
+        return Collections.unmodifiableList(hijos);
     }
 
     /**
-     * Agrega un nodo hijo a la lista de distribución.
+     * Agrega un nodo hijo a la lista de distribución y suma su subárbol al total de este nodo
+     * y de sus ancestros.
      *
      * @param hijo el nodo hijo que se desea agregar
+     * @throws IllegalArgumentException si el hijo ya pertenece a otro árbol o es ancestro de este nodo
      */
     public void agregarHijo(NodoDistribucion hijo) {
-        if (hijo != null) {
-            hijos.add(hijo);
+        if (hijo == null) return;
+        if (hijo.padre != null || hijo.arbol != null)
+            throw new IllegalArgumentException("El nodo ya pertenece a un árbol de distribución.");
+        for (NodoDistribucion n = this; n != null; n = n.padre) {
+            if (n == hijo) throw new IllegalArgumentException("Un nodo no puede ser descendiente de sí mismo.");
         }
+        hijos.add(hijo);
+        hijo.padre = this;
+        sumarEnAncestros(this, hijo.totalSubarbol);
+        if (arbol != null) arbol.subarbolAgregado(hijo);
+    }
+
+    /**
+     * Quita un nodo hijo, con todo su subárbol, y descuenta su total de este nodo y de sus
+     * ancestros.
+     *
+     * @param hijo el nodo hijo que se desea quitar
+     * @return true si el nodo era hijo de este nodo
+     */
+    public boolean quitarHijo(NodoDistribucion hijo) {
+        if (hijo == null || hijo.padre != this || !hijos.remove(hijo)) return false;
+        if (arbol != null) arbol.subarbolQuitado(hijo);
+        hijo.padre = null;
+        sumarEnAncestros(this, -hijo.totalSubarbol);
+        return true;
+    }
+
+    private static void sumarEnAncestros(NodoDistribucion desde, long diferencia) {
+        if (diferencia == 0) return;
+        for (NodoDistribucion n = desde; n != null; n = n.padre) n.totalSubarbol += diferencia;
+    }
+
+    /** @return árbol al que pertenece el nodo, o null si no está en ninguno */
+    ArbolDistribucion getArbol() {
+        return arbol;
+    }
+
+    void setArbol(ArbolDistribucion arbol) {
+        this.arbol = arbol;
     }
 
     /**
@@ -91,6 +173,7 @@ public class NodoDistribucion {
         return "NodoDistribucion{" +
                 "recurso=" + recurso.getNombre() +
                 ", destino=" + (destino != null ? destino.getNombre() : "null") +
+                ", cantidad=" + cantidad +
                 ", hijos=" + hijos.size() +
                 '}';
     }
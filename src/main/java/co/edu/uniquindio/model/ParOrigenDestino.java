@@ -0,0 +1,34 @@
+package co.edu.uniquindio.model;
+
+/**
+ * Par de ubicaciones para el que se solicita una ruta en una consulta por lotes.
+ */
+public class ParOrigenDestino {
+
+    private final Ubicacion origen;
+    private final Ubicacion destino;
+
+    /**
+     * Crea un par origen/destino.
+     *
+     * @param origen  ubicación inicial
+     * @param destino ubicación final
+     */
+    public ParOrigenDestino(Ubicacion origen, Ubicacion destino) {
+        if (origen == null || destino == null)
+            throw new IllegalArgumentException("El origen y el destino no pueden ser nulos.");
+        this.origen = origen;
+        this.destino = destino;
+    }
+
+    /** @return ubicación inicial */
+    public Ubicacion getOrigen() { return origen; }
+
+    /** @return ubicación final */
+    public Ubicacion getDestino() { return destino; }
+
+    @Override
+    public String toString() {
+        return origen.getNombre() + " → " + destino.getNombre();
+    }
+}
@@ -0,0 +1,116 @@
+package co.edu.uniquindio.model;
+
+/**
+ * Parámetros de una simulación de evacuación. Los valores por defecto describen una flota
+ * pequeña de buses sobre vías interurbanas; los tiempos se expresan en horas.
+ */
+public class ParametrosSimulacion {
+
+    private int vehiculos = 20;
+    private int capacidadVehiculo = 40;
+    private double velocidadKmH = 40.0;
+    private double tiempoCargaHoras = 0.1;
+    private double tiempoDescargaHoras = 0.05;
+    private double intervaloEscalamientoHoras = 1.0;
+    private double variabilidad = 0.1;
+    private double bprAlfa = 0.15;
+    private double bprBeta = 4.0;
+
+    /** @return cantidad de vehículos de la flota */
+    public int getVehiculos() { return vehiculos; }
+
+    /**
+     * @param vehiculos cantidad de vehículos de la flota (> 0)
+     */
+    public void setVehiculos(int vehiculos) {
+        if (vehiculos <= 0) throw new IllegalArgumentException("La flota debe tener al menos un vehículo.");
+        this.vehiculos = vehiculos;
+    }
+
+    /** @return personas que transporta cada vehículo por viaje */
+    public int getCapacidadVehiculo() { return capacidadVehiculo; }
+
+    /**
+     * @param capacidadVehiculo personas por viaje (> 0)
+     */
+    public void setCapacidadVehiculo(int capacidadVehiculo) {
+        if (capacidadVehiculo <= 0) throw new IllegalArgumentException("La capacidad del vehículo debe ser positiva.");
+        this.capacidadVehiculo = capacidadVehiculo;
+    }
+
+    /** @return velocidad de flujo libre en km/h */
+    public double getVelocidadKmH() { return velocidadKmH; }
+
+    /**
+     * @param velocidadKmH velocidad de flujo libre en km/h (> 0)
+     */
+    public void setVelocidadKmH(double velocidadKmH) {
+        if (!(velocidadKmH > 0)) throw new IllegalArgumentException("La velocidad debe ser positiva.");
+        this.velocidadKmH = velocidadKmH;
+    }
+
+    /** @return tiempo medio de carga de un grupo en la zona, en horas */
+    public double getTiempoCargaHoras() { return tiempoCargaHoras; }
+
+    /**
+     * @param tiempoCargaHoras tiempo medio de carga en horas (>= 0)
+     */
+    public void setTiempoCargaHoras(double tiempoCargaHoras) {
+        if (!(tiempoCargaHoras >= 0)) throw new IllegalArgumentException("El tiempo de carga no puede ser negativo.");
+        this.tiempoCargaHoras = tiempoCargaHoras;
+    }
+
+    /** @return tiempo de descarga en el refugio, en horas */
+    public double getTiempoDescargaHoras() { return tiempoDescargaHoras; }
+
+    /**
+     * @param tiempoDescargaHoras tiempo de descarga en horas (>= 0)
+     */
+    public void setTiempoDescargaHoras(double tiempoDescargaHoras) {
+        if (!(tiempoDescargaHoras >= 0)) throw new IllegalArgumentException("El tiempo de descarga no puede ser negativo.");
+        this.tiempoDescargaHoras = tiempoDescargaHoras;
+    }
+
+    /** @return horas que deben pasar para que una zona sin evacuar suba un nivel de urgencia */
+    public double getIntervaloEscalamientoHoras() { return intervaloEscalamientoHoras; }
+
+    /**
+     * @param intervaloEscalamientoHoras horas entre escalamientos de urgencia (> 0)
+     */
+    public void setIntervaloEscalamientoHoras(double intervaloEscalamientoHoras) {
+        if (!(intervaloEscalamientoHoras > 0))
+            throw new IllegalArgumentException("El intervalo de escalamiento debe ser positivo.");
+        this.intervaloEscalamientoHoras = intervaloEscalamientoHoras;
+    }
+
+    /** @return variación relativa máxima de los tiempos de viaje entre réplicas */
+    public double getVariabilidad() { return variabilidad; }
+
+    /**
+     * @param variabilidad variación relativa de los tiempos de viaje, entre 0 y 1
+     */
+    public void setVariabilidad(double variabilidad) {
+        if (!(variabilidad >= 0 && variabilidad < 1))
+            throw new IllegalArgumentException("La variabilidad debe estar entre 0 y 1.");
+        this.variabilidad = variabilidad;
+    }
+
+    /** @return coeficiente alfa de la función de congestión BPR */
+    public double getBprAlfa() { return bprAlfa; }
+
+    /** @return exponente beta de la función de congestión BPR */
+    public double getBprBeta() { return bprBeta; }
+
+    /**
+     * Ajusta la función de congestión BPR: tiempo = libre * (1 + alfa * (volumen / capacidad)^beta).
+     *
+     * @param alfa coeficiente (>= 0)
+     * @param beta exponente (>= 1)
+     */
+    public void setCongestion(double alfa, double beta) {
+        if (!(alfa >= 0) || !(beta >= 1))
+            throw new IllegalArgumentException("Los parámetros de congestión no son válidos.");
+        this.bprAlfa = alfa;
+        this.bprBeta = beta;
+    }
+}
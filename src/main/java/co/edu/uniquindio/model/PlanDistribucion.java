@@ -0,0 +1,87 @@
+package co.edu.uniquindio.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resultado de {@link PlanificadorDistribucion}: los envíos de recursos a cada zona y, por zona
+ * y tipo de recurso, la demanda calculada y la parte que queda sin cubrir.
+ */
+public class PlanDistribucion {
+
+    private final List<EnvioRecurso> envios;
+    private final Map<Ubicacion, long[]> demandaPorZona;
+    private final Map<Ubicacion, long[]> faltantePorZona;
+    private final double costoTransporte;
+    private final double costoTotal;
+
+    /**
+     * @param envios          envíos del plan
+     * @param demandaPorZona  demanda pendiente de cada zona, por ordinal de tipo
+     * @param faltantePorZona demanda que el plan no cubre, por ordinal de tipo
+     * @param costoTransporte suma de unidades por kilómetros recorridos
+     * @param costoTotal      costo de transporte más la demanda sin cubrir ponderada por urgencia
+     */
+    public PlanDistribucion(List<EnvioRecurso> envios, Map<Ubicacion, long[]> demandaPorZona,
+                            Map<Ubicacion, long[]> faltantePorZona, double costoTransporte, double costoTotal) {
+        this.envios = Collections.unmodifiableList(envios);
+        this.demandaPorZona = demandaPorZona;
+        this.faltantePorZona = faltantePorZona;
+        this.costoTransporte = costoTransporte;
+        this.costoTotal = costoTotal;
+    }
+
+    /** @return envíos del plan */
+    public List<EnvioRecurso> getEnvios() { return envios; }
+
+    /** @return zonas consideradas en el plan */
+    public Set<Ubicacion> getZonas() { return Collections.unmodifiableSet(demandaPorZona.keySet()); }
+
+    /**
+     * @param zona zona del plan
+     * @param tipo tipo de recurso
+     * @return unidades que la zona necesitaba además de las que ya tenía
+     */
+    public long getDemanda(Ubicacion zona, TipoRecurso tipo) {
+        long[] demanda = demandaPorZona.get(zona);
+        return demanda != null ? demanda[tipo.ordinal()] : 0;
+    }
+
+    /**
+     * @param zona zona del plan
+     * @param tipo tipo de recurso
+     * @return unidades de la demanda que el plan no cubre
+     */
+    public long getFaltante(Ubicacion zona, TipoRecurso tipo) {
+        long[] faltante = faltantePorZona.get(zona);
+        return faltante != null ? faltante[tipo.ordinal()] : 0;
+    }
+
+    /** @return unidades sin cubrir sumando todas las zonas y tipos */
+    public long getTotalFaltante() {
+        long total = 0;
+        for (long[] faltante : faltantePorZona.values()) for (long f : faltante) total += f;
+        return total;
+    }
+
+    /** @return unidades enviadas sumando todos los envíos */
+    public long getTotalEnviado() {
+        long total = 0;
+        for (EnvioRecurso envio : envios) total += envio.getCantidad();
+        return total;
+    }
+
+    /** @return suma de unidades por kilómetros recorridos */
+    public double getCostoTransporte() { return costoTransporte; }
+
+    /** @return valor del objetivo: transporte más demanda sin cubrir ponderada por urgencia */
+    public double getCostoTotal() { return costoTotal; }
+
+    @Override
+    public String toString() {
+        return String.format("PlanDistribucion{envios=%d, enviado=%d, faltante=%d, transporte=%.1f}",
+                envios.size(), getTotalEnviado(), getTotalFaltante(), costoTransporte);
+    }
+}
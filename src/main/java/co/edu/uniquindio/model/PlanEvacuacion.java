@@ -0,0 +1,67 @@
+package co.edu.uniquindio.model;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Resultado de una planificación de evacuación con capacidades: cuántas personas circulan por
+ * cada ruta, cuántas salen de cada zona y cuántas llegan a cada refugio.
+ */
+public class PlanEvacuacion {
+
+    private final Map<Ruta, Long> flujosPorRuta;
+    private final Map<Ubicacion, Long> evacuadosPorZona;
+    private final Map<Ubicacion, Long> alojadosPorRefugio;
+    private final long personasSinEvacuar;
+    private final double costoTotal;
+
+    /**
+     * Crea el resultado de una planificación.
+     *
+     * @param flujosPorRuta      personas asignadas a cada ruta usada
+     * @param evacuadosPorZona   personas evacuadas de cada zona
+     * @param alojadosPorRefugio personas que llegan a cada refugio
+     * @param personasSinEvacuar personas que no caben en los refugios o no tienen ruta
+     * @param costoTotal         suma de personas por kilómetros recorridos
+     */
+    public PlanEvacuacion(Map<Ruta, Long> flujosPorRuta, Map<Ubicacion, Long> evacuadosPorZona,
+                          Map<Ubicacion, Long> alojadosPorRefugio, long personasSinEvacuar, double costoTotal) {
+        this.flujosPorRuta = Collections.unmodifiableMap(flujosPorRuta);
+        this.evacuadosPorZona = Collections.unmodifiableMap(evacuadosPorZona);
+        this.alojadosPorRefugio = Collections.unmodifiableMap(alojadosPorRefugio);
+        this.personasSinEvacuar = personasSinEvacuar;
+        this.costoTotal = costoTotal;
+    }
+
+    /** @return personas asignadas a cada ruta con flujo positivo */
+    public Map<Ruta, Long> getFlujosPorRuta() { return flujosPorRuta; }
+
+    /**
+     * @param ruta ruta del grafo
+     * @return personas asignadas a la ruta (0 si no se usa)
+     */
+    public long getFlujo(Ruta ruta) { return flujosPorRuta.getOrDefault(ruta, 0L); }
+
+    /** @return personas evacuadas de cada zona */
+    public Map<Ubicacion, Long> getEvacuadosPorZona() { return evacuadosPorZona; }
+
+    /** @return personas que llegan a cada refugio */
+    public Map<Ubicacion, Long> getAlojadosPorRefugio() { return alojadosPorRefugio; }
+
+    /** @return total de personas evacuadas */
+    public long getTotalEvacuados() {
+        return evacuadosPorZona.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /** @return personas que quedaron sin evacuar */
+    public long getPersonasSinEvacuar() { return personasSinEvacuar; }
+
+    /** @return suma de personas por kilómetros recorridos */
+    public double getCostoTotal() { return costoTotal; }
+
+    @Override
+    public String toString() {
+        return String.format("PlanEvacuacion{evacuados=%d, sinEvacuar=%d, rutasUsadas=%d, personasKm=%.1f}",
+                getTotalEvacuados(), personasSinEvacuar, flujosPorRuta.size(), costoTotal);
+    }
+}
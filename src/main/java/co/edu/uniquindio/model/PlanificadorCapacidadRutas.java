@@ -0,0 +1,392 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Planificación de rutas con restricción de capacidad (CCRP) para estimar cuánto tarda en
+ * evacuarse cada zona.
+ * <p>
+ * El tiempo se divide en pasos y cada ruta admite por paso su capacidad por hora multiplicada por
+ * la duración del paso. En cada iteración se elige, entre todas las zonas con personas pendientes,
+ * el camino de llegada más temprana a un refugio con cupo considerando la capacidad que queda en
+ * cada ruta y paso (se puede esperar en cualquier ubicación hasta que haya cupo), se envía por él
+ * el mayor grupo posible y se reserva su capacidad en los pasos en que lo recorre.
+ * <p>
+ * Como reservar capacidad o llenar un refugio solo puede retrasar las llegadas, la última llegada
+ * calculada para cada zona es una cota inferior de la actual. Las zonas esperan en un montículo
+ * ordenado por esa cota y solo se recalcula la del tope, con una búsqueda desde esa única zona:
+ * si su llegada sigue sin superar la cota de las demás, es la más temprana de todas.
+ * <p>
+ * Las reservas se conservan entre llamadas, por lo que agregar una zona solo planifica sus
+ * personas sobre la capacidad que dejaron libre las zonas anteriores, sin replanificar el resto.
+ * {@link #sincronizar(Collection)} vuelve a planificar desde cero si cambiaron las rutas del
+ * grafo o su capacidad ({@link GrafoRutas#getCambiosCapacidad()}), los refugios o su
+ * alojamiento, las personas de alguna zona planificada, o si alguna zona salió del plan: liberar
+ * sus reservas no bastaría, porque las zonas planificadas después de ella podrían haber usado la
+ * capacidad que deja. Para saltar los pasos ya llenos de una ruta se usan punteros comprimidos
+ * al siguiente paso con cupo, como en un conjunto disjunto.
+ */
+public class PlanificadorCapacidadRutas {
+
+    /** Duración por defecto de un paso de planificación: cinco minutos. */
+    public static final double PASO_HORAS = 5.0 / 60.0;
+
+    /** Velocidad por defecto de los grupos en km/h. */
+    public static final double VELOCIDAD_KMH = 40.0;
+
+    private static final long SIN_LIMITE = -1;
+
+    private final GrafoRutas grafo;
+    private final double pasoHoras;
+    private final double velocidad;
+    private final EspacioBusqueda espacio;
+
+    private GrafoCompacto compacto;
+    private int modificaciones;
+    private long cambiosCapacidad;
+    private int[] duracion;
+    private long[] capacidadPaso;
+    private long[][] reservado;
+    private int[][] siguienteConCupo;
+    private long[] alojamientoRestante;
+
+    private final Map<Ubicacion, Double> finalizacion;
+    /** Personas afectadas de cada zona cuando se planificó. */
+    private final Map<Ubicacion, Integer> personasPlanificadas;
+    /** Capacidad de alojamiento de cada refugio cuando se reiniciaron las reservas. */
+    private final Map<Ubicacion, Integer> capacidadRefugios;
+    private final Map<Ubicacion, Integer> sinRuta;
+    private final List<GrupoEvacuacion> grupos;
+
+    /**
+     * Crea un planificador con la velocidad y el paso por defecto.
+     *
+     * @param grafo grafo de rutas con capacidades por hora
+     */
+    public PlanificadorCapacidadRutas(GrafoRutas grafo) {
+        this(grafo, VELOCIDAD_KMH, PASO_HORAS);
+    }
+
+    /**
+     * Crea un planificador.
+     *
+     * @param grafo        grafo de rutas con capacidades por hora
+     * @param velocidadKmH velocidad de los grupos
+     * @param pasoHoras    duración de cada paso de tiempo
+     */
+    public PlanificadorCapacidadRutas(GrafoRutas grafo, double velocidadKmH, double pasoHoras) {
+        if (!(velocidadKmH > 0) || !(pasoHoras > 0))
+            throw new IllegalArgumentException("La velocidad y el paso de planificación deben ser positivos.");
+        this.grafo = grafo;
+        this.velocidad = velocidadKmH;
+        this.pasoHoras = pasoHoras;
+        this.espacio = new EspacioBusqueda();
+        this.finalizacion = new LinkedHashMap<>();
+        this.personasPlanificadas = new LinkedHashMap<>();
+        this.capacidadRefugios = new LinkedHashMap<>();
+        this.sinRuta = new LinkedHashMap<>();
+        this.grupos = new ArrayList<>();
+    }
+
+    /**
+     * Planifica una zona nueva sobre la capacidad libre. Si la zona ya estaba planificada no
+     * hace nada.
+     *
+     * @param zona zona a evacuar
+     * @return tiempo estimado de finalización de la zona en horas
+     */
+    public synchronized double agregarZona(Ubicacion zona) {
+        agregarZonas(Collections.singletonList(zona));
+        return getTiempoFinalizacion(zona);
+    }
+
+    /**
+     * Planifica a la vez varias zonas nuevas sobre la capacidad libre; las ya planificadas se
+     * ignoran.
+     *
+     * @param zonas zonas a evacuar
+     */
+    public synchronized void agregarZonas(Collection<Ubicacion> zonas) {
+        if (compacto == null) reiniciar();
+        Set<Ubicacion> nuevas = new LinkedHashSet<>(zonas);
+        nuevas.removeAll(finalizacion.keySet());
+        planificar(nuevas);
+    }
+
+    /**
+     * Deja el plan exactamente con las zonas indicadas. Si nada de lo planificado cambió solo
+     * agrega las zonas nuevas; si no, vuelve a planificar todas desde cero.
+     *
+     * @param zonas zonas que deben figurar en el plan
+     */
+    public synchronized void sincronizar(Collection<Ubicacion> zonas) {
+        Set<Ubicacion> deseadas = new LinkedHashSet<>(zonas);
+        if (compacto != null && (!deseadas.containsAll(finalizacion.keySet()) || planDesactualizado())) {
+            reiniciar();
+            planificar(deseadas);
+        } else {
+            agregarZonas(deseadas);
+        }
+    }
+
+    /**
+     * Quita una zona del plan, por ejemplo porque ya se evacuó, y planifica de nuevo las demás
+     * para que aprovechen la capacidad y el alojamiento que tenía reservados.
+     *
+     * @param zona zona a quitar
+     * @return true si la zona estaba en el plan
+     */
+    public synchronized boolean quitarZona(Ubicacion zona) {
+        if (!finalizacion.containsKey(zona)) return false;
+        List<Ubicacion> zonas = new ArrayList<>(finalizacion.keySet());
+        zonas.remove(zona);
+        reiniciar();
+        planificar(zonas);
+        return true;
+    }
+
+    /**
+     * Descarta todas las reservas y planifica de nuevo las zonas conocidas sobre el grafo actual,
+     * con sus personas afectadas actuales.
+     */
+    public synchronized void replanificar() {
+        List<Ubicacion> zonas = new ArrayList<>(finalizacion.keySet());
+        reiniciar();
+        planificar(zonas);
+    }
+
+    /**
+     * @return true si cambiaron las rutas o su capacidad, los refugios o su alojamiento, o las
+     * personas de alguna zona desde que se planificó
+     */
+    private boolean planDesactualizado() {
+        if (compacto != grafo.getGrafoCompacto() || compacto.getModificaciones() != modificaciones
+                || grafo.getCambiosCapacidad() != cambiosCapacidad) return true;
+        for (Map.Entry<Ubicacion, Integer> entrada : personasPlanificadas.entrySet()) {
+            if (entrada.getKey().getPersonasAfectadas() != entrada.getValue()) return true;
+        }
+        return !capacidadRefugios.equals(capacidadesActuales());
+    }
+
+    private Map<Ubicacion, Integer> capacidadesActuales() {
+        Map<Ubicacion, Integer> capacidades = new LinkedHashMap<>();
+        for (Ubicacion refugio : PlanificadorEvacuacion.obtenerRefugios(grafo.getUbicaciones())) {
+            capacidades.put(refugio, refugio.getCapacidadAlojamiento());
+        }
+        return capacidades;
+    }
+
+    private void reiniciar() {
+        compacto = grafo.getGrafoCompacto();
+        modificaciones = compacto.getModificaciones();
+        cambiosCapacidad = grafo.getCambiosCapacidad();
+        int n = compacto.getNumeroNodos();
+        int m = compacto.getNumeroAristas();
+
+        duracion = new int[m];
+        capacidadPaso = new long[m];
+        for (int e = 0; e < m; e++) {
+            duracion[e] = (int) Math.max(1, Math.ceil(compacto.getPeso(e) / velocidad / pasoHoras));
+            int capacidad = compacto.getRuta(e).getCapacidad();
+            if (!compacto.estaDisponible(e) || capacidad == 0) capacidadPaso[e] = 0;
+            else if (capacidad == Ruta.CAPACIDAD_ILIMITADA) capacidadPaso[e] = SIN_LIMITE;
+            else capacidadPaso[e] = Math.max(1, (long) Math.floor(capacidad * pasoHoras));
+        }
+        reservado = new long[m][];
+        siguienteConCupo = new int[m][];
+
+        alojamientoRestante = new long[n];
+        capacidadRefugios.clear();
+        capacidadRefugios.putAll(capacidadesActuales());
+        for (Map.Entry<Ubicacion, Integer> refugio : capacidadRefugios.entrySet()) {
+            int nodo = compacto.indiceDe(refugio.getKey());
+            if (nodo < 0) continue;
+            int capacidad = refugio.getValue();
+            alojamientoRestante[nodo] = capacidad == Integer.MAX_VALUE ? Long.MAX_VALUE : capacidad;
+        }
+
+        finalizacion.clear();
+        personasPlanificadas.clear();
+        sinRuta.clear();
+        grupos.clear();
+    }
+
+    /** CCRP desde las zonas dadas sobre las reservas actuales. */
+    private void planificar(Collection<Ubicacion> zonas) {
+        int n = compacto.getNumeroNodos();
+        List<Ubicacion> fuentes = new ArrayList<>();
+        List<Integer> nodos = new ArrayList<>();
+        for (Ubicacion zona : zonas) {
+            int nodo = compacto.indiceDe(zona);
+            finalizacion.put(zona, 0.0);
+            personasPlanificadas.put(zona, zona.getPersonasAfectadas());
+            if (nodo < 0) {
+                finalizacion.put(zona, Double.POSITIVE_INFINITY);
+                sinRuta.put(zona, zona.getPersonasAfectadas());
+            } else if (zona.getPersonasAfectadas() > 0 && alojamientoRestante[nodo] == 0) {
+                fuentes.add(zona);
+                nodos.add(nodo);
+            }
+        }
+        int[] pendientes = new int[fuentes.size()];
+        MonticuloMinimo porLlegada = new MonticuloMinimo(pendientes.length);
+        for (int i = 0; i < pendientes.length; i++) {
+            pendientes[i] = fuentes.get(i).getPersonasAfectadas();
+            porLlegada.insertarODisminuir(i, 0.0);
+        }
+        int[] camino = new int[n];
+
+        while (!porLlegada.estaVacio()) {
+            int fuente = porLlegada.extraerMinimo();
+            int refugio = buscarLlegadaMasTemprana(nodos.get(fuente));
+            if (refugio < 0) {
+                // sin camino ahora, tampoco lo tendrá con más reservas
+                finalizacion.put(fuentes.get(fuente), Double.POSITIVE_INFINITY);
+                sinRuta.put(fuentes.get(fuente), pendientes[fuente]);
+                continue;
+            }
+            double mejorLlegada = espacio.getDistancia(refugio);
+            if (!porLlegada.estaVacio() && mejorLlegada > porLlegada.claveMinima()) {
+                porLlegada.insertarODisminuir(fuente, mejorLlegada);
+                continue;
+            }
+
+            // camino desde la zona de salida hasta el refugio
+            int largo = 0;
+            for (int v = refugio, e = espacio.getAristaPrevia(v); e >= 0; e = espacio.getAristaPrevia(v)) {
+                camino[largo++] = e;
+                v = compacto.getOrigen(e);
+            }
+
+            // mayor grupo que cabe en cada ruta del camino en el paso en que la recorre
+            long grupo = Math.min(pendientes[fuente], alojamientoRestante[refugio]);
+            int[] salidas = new int[largo];
+            int t = 0;
+            for (int k = largo - 1; k >= 0; k--) {
+                int e = camino[k];
+                int salida = siguientePasoConCupo(e, t);
+                salidas[k] = salida;
+                if (capacidadPaso[e] != SIN_LIMITE) grupo = Math.min(grupo, capacidadPaso[e] - reservadoEn(e, salida));
+                t = salida + duracion[e];
+            }
+
+            List<Ruta> rutas = new ArrayList<>(largo);
+            for (int k = largo - 1; k >= 0; k--) {
+                reservar(camino[k], salidas[k], grupo);
+                rutas.add(compacto.getRuta(camino[k]));
+            }
+            if (alojamientoRestante[refugio] != Long.MAX_VALUE) alojamientoRestante[refugio] -= grupo;
+            pendientes[fuente] -= (int) grupo;
+            if (pendientes[fuente] > 0) porLlegada.insertarODisminuir(fuente, mejorLlegada);
+
+            Ubicacion zona = fuentes.get(fuente);
+            double llegada = t * pasoHoras;
+            double salida = largo > 0 ? salidas[largo - 1] * pasoHoras : 0.0;
+            grupos.add(new GrupoEvacuacion(zona, compacto.getUbicacion(refugio), (int) grupo, rutas, salida, llegada));
+            finalizacion.merge(zona, llegada, Math::max);
+        }
+    }
+
+    /**
+     * Dijkstra dependiente del tiempo desde una zona: la etiqueta de cada ubicación es el primer
+     * paso en que se puede llegar a ella, y cruzar una ruta exige esperar al primer paso con cupo.
+     *
+     * @return refugio con cupo alcanzado primero, o -1 si ninguno es alcanzable
+     */
+    private int buscarLlegadaMasTemprana(int origen) {
+        espacio.preparar(compacto.getNumeroNodos());
+        MonticuloMinimo cola = espacio.getMonticulo();
+        espacio.fijar(origen, 0.0, -1);
+        cola.insertarODisminuir(origen, 0.0);
+
+        while (!cola.estaVacio()) {
+            int u = cola.extraerMinimo();
+            if (alojamientoRestante[u] > 0) {
+                cola.vaciar();
+                return u;
+            }
+            int llegada = (int) espacio.getDistancia(u);
+            for (int e = compacto.inicioAristas(u); e < compacto.finAristas(u); e++) {
+                if (capacidadPaso[e] == 0) continue;
+                int v = compacto.getDestino(e);
+                double nueva = siguientePasoConCupo(e, llegada) + duracion[e];
+                if (nueva < espacio.getDistancia(v)) {
+                    espacio.fijar(v, nueva, e);
+                    cola.insertarODisminuir(v, nueva);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Primer paso desde t en que la ruta todavía tiene cupo. */
+    private int siguientePasoConCupo(int e, int t) {
+        int[] siguiente = siguienteConCupo[e];
+        if (siguiente == null) return t;
+        int raiz = t;
+        while (raiz < siguiente.length && siguiente[raiz] != raiz) raiz = siguiente[raiz];
+        while (t < siguiente.length && siguiente[t] != t) {
+            int proximo = siguiente[t];
+            siguiente[t] = raiz;
+            t = proximo;
+        }
+        return raiz;
+    }
+
+    private long reservadoEn(int e, int paso) {
+        long[] usados = reservado[e];
+        return usados == null || paso >= usados.length ? 0 : usados[paso];
+    }
+
+    private void reservar(int e, int paso, long personas) {
+        if (capacidadPaso[e] == SIN_LIMITE) return;
+        long[] usados = reservado[e];
+        if (usados == null || paso >= usados.length) {
+            int largo = Math.max(Math.max(16, paso + 1), usados == null ? 0 : usados.length * 2);
+            int anterior = usados == null ? 0 : usados.length;
+            usados = reservado[e] = usados == null ? new long[largo] : Arrays.copyOf(usados, largo);
+            int[] siguiente = siguienteConCupo[e] = siguienteConCupo[e] == null
+                    ? new int[largo] : Arrays.copyOf(siguienteConCupo[e], largo);
+            for (int i = anterior; i < largo; i++) siguiente[i] = i;
+        }
+        usados[paso] += personas;
+        if (usados[paso] >= capacidadPaso[e]) siguienteConCupo[e][paso] = paso + 1;
+    }
+
+    /**
+     * @param zona zona planificada
+     * @return horas hasta que llega al refugio el último grupo de la zona; infinito si parte de
+     *         sus personas no tiene camino ni refugio con cupo; NaN si la zona no fue planificada
+     */
+    public synchronized double getTiempoFinalizacion(Ubicacion zona) {
+        return finalizacion.getOrDefault(zona, Double.NaN);
+    }
+
+    /** @return copia de los tiempos estimados de finalización por zona, en horas */
+    public synchronized Map<Ubicacion, Double> getTiemposFinalizacion() {
+        return new LinkedHashMap<>(finalizacion);
+    }
+
+    /** @return horas hasta que termina de evacuarse la última zona planificada */
+    public synchronized double getTiempoTotal() {
+        return finalizacion.values().stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
+    }
+
+    /** @return copia de las personas sin camino a un refugio con cupo, por zona */
+    public synchronized Map<Ubicacion, Integer> getPersonasSinRuta() {
+        return new LinkedHashMap<>(sinRuta);
+    }
+
+    /** @return copia de los grupos planificados, en el orden en que se reservaron */
+    public synchronized List<GrupoEvacuacion> getGrupos() {
+        return new ArrayList<>(grupos);
+    }
+}
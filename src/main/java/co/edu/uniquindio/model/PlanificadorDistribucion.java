@@ -0,0 +1,323 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Calcula de una sola vez cómo repartir el inventario entre todas las zonas afectadas.
+ * <p>
+ * La demanda de cada zona y tipo de recurso es su cantidad de personas afectadas por la ración
+ * del tipo, menos lo que la zona ya tiene. Se abastece desde el inventario global (ubicado en el
+ * depósito, si se indica) y desde las ubicaciones con existencias que no necesitan. Para cada
+ * tipo se resuelve un problema de transporte como flujo de costo mínimo: cada unidad enviada
+ * cuesta los kilómetros por carretera entre origen y zona, y cada unidad sin cubrir cuesta una
+ * penalización multiplicada por el nivel de urgencia de la zona. Así se cubre primero a las
+ * zonas más urgentes y no se envía desde tan lejos que convenga dejar la demanda sin cubrir.
+ * <p>
+ * Las distancias de todos los orígenes a todas las zonas se calculan en un solo lote, cada zona
+ * se conecta solo con sus orígenes más cercanos y los tipos de recurso se resuelven en paralelo. El plan se aplica con
+ * {@link GestorRecursos#aplicarPlanDistribucion(PlanDistribucion)}.
+ */
+public class PlanificadorDistribucion {
+
+    /** Costo, en kilómetros por unidad, de dejar sin cubrir una unidad por cada nivel de urgencia. */
+    public static final double PENALIZACION = 100.0;
+
+    /** Cantidad de orígenes más cercanos, con existencias, desde los que puede recibir cada zona. */
+    public static final int ORIGENES_POR_ZONA = 16;
+
+    private static final TipoRecurso[] TIPOS = TipoRecurso.values();
+
+    private final GrafoRutas grafo;
+    private final GestorRecursos gestor;
+    private final EnumMap<TipoRecurso, Double> raciones;
+    private double penalizacion;
+    private int origenesPorZona;
+    private Ubicacion deposito;
+
+    /**
+     * Crea un planificador con las raciones por persona por defecto: una unidad de alimentos y
+     * de agua, un kit médico por cada cinco personas, un material de refugio por cada cuatro y
+     * un equipo de rescate por cada cien.
+     *
+     * @param grafo  grafo de rutas con las distancias
+     * @param gestor gestor con el inventario
+     */
+    public PlanificadorDistribucion(GrafoRutas grafo, GestorRecursos gestor) {
+        if (grafo == null || gestor == null)
+            throw new IllegalArgumentException("El grafo y el gestor de recursos no pueden ser nulos.");
+        this.grafo = grafo;
+        this.gestor = gestor;
+        this.raciones = new EnumMap<>(TipoRecurso.class);
+        for (TipoRecurso tipo : TIPOS) raciones.put(tipo, 0.0);
+        raciones.put(TipoRecurso.ALIMENTOS, 1.0);
+        raciones.put(TipoRecurso.AGUA, 1.0);
+        raciones.put(TipoRecurso.MEDICINAS, 0.2);
+        raciones.put(TipoRecurso.REFUGIO, 0.25);
+        raciones.put(TipoRecurso.EQUIPO_RESCATE, 0.01);
+        this.penalizacion = PENALIZACION;
+        this.origenesPorZona = ORIGENES_POR_ZONA;
+    }
+
+    /**
+     * @param tipo               tipo de recurso
+     * @param unidadesPorPersona unidades que necesita cada persona afectada
+     */
+    public void setRacion(TipoRecurso tipo, double unidadesPorPersona) {
+        if (tipo == null) throw new IllegalArgumentException("El tipo de recurso no puede ser nulo.");
+        if (unidadesPorPersona < 0 || Double.isNaN(unidadesPorPersona))
+            throw new IllegalArgumentException("La ración no puede ser negativa.");
+        raciones.put(tipo, unidadesPorPersona);
+    }
+
+    /** @return unidades del tipo que necesita cada persona afectada */
+    public double getRacion(TipoRecurso tipo) {
+        return raciones.get(tipo);
+    }
+
+    /**
+     * @param penalizacion costo en kilómetros de dejar sin cubrir una unidad por nivel de urgencia
+     */
+    public void setPenalizacion(double penalizacion) {
+        if (penalizacion <= 0 || Double.isNaN(penalizacion))
+            throw new IllegalArgumentException("La penalización debe ser positiva.");
+        this.penalizacion = penalizacion;
+    }
+
+    /**
+     * Limita cuántos orígenes, los más cercanos con existencias de cada tipo, puede usar cada
+     * zona además del inventario global. Con muchos centros de acopio el límite reduce la red de
+     * orígenes por zonas a zonas por límite, a cambio de que el plan pueda ser algo peor que el
+     * óptimo; si hay tantos orígenes como el límite o menos, el plan es óptimo.
+     *
+     * @param origenesPorZona orígenes por zona, o 0 para no limitar
+     */
+    public void setOrigenesPorZona(int origenesPorZona) {
+        if (origenesPorZona < 0) throw new IllegalArgumentException("La cantidad de orígenes no puede ser negativa.");
+        this.origenesPorZona = origenesPorZona;
+    }
+
+    /**
+     * @param deposito ubicación desde la que sale el inventario global, o null para no cobrar
+     *                 transporte por él
+     */
+    public void setDeposito(Ubicacion deposito) {
+        this.deposito = deposito;
+    }
+
+    /**
+     * Planifica la distribución hacia todas las ubicaciones con personas afectadas.
+     *
+     * @return plan de distribución
+     */
+    public PlanDistribucion planificar() {
+        return planificar(grafo.getUbicaciones().stream()
+                .filter(u -> u.getPersonasAfectadas() > 0)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Planifica la distribución hacia las zonas indicadas.
+     *
+     * @param zonas zonas que reciben recursos
+     * @return plan de distribución
+     */
+    public PlanDistribucion planificar(List<Ubicacion> zonas) {
+        List<Ubicacion> destinos = new ArrayList<>(new LinkedHashSet<>(zonas));
+        Map<Ubicacion, Integer> indiceZona = new IdentityHashMap<>();
+        for (int z = 0; z < destinos.size(); z++) indiceZona.put(destinos.get(z), z);
+
+        // demanda de cada zona después de usar lo que ya tiene
+        long[][] demanda = new long[destinos.size()][TIPOS.length];
+        for (int z = 0; z < destinos.size(); z++) {
+            Ubicacion zona = destinos.get(z);
+            for (TipoRecurso tipo : TIPOS) {
+                demanda[z][tipo.ordinal()] = Math.max(0, necesidad(zona, tipo) - gestor.obtenerCantidad(zona, tipo));
+            }
+        }
+
+        // orígenes: ubicaciones con existencias que no necesitan, y el depósito
+        List<Ubicacion> origenes = new ArrayList<>();
+        List<long[]> ofertas = new ArrayList<>();
+        for (Ubicacion u : grafo.getUbicaciones()) {
+            long[] oferta = new long[TIPOS.length];
+            boolean tiene = false;
+            for (TipoRecurso tipo : TIPOS) {
+                long existencias = gestor.obtenerCantidad(u, tipo);
+                if (existencias == 0) continue;
+                if (indiceZona.containsKey(u)) existencias -= necesidad(u, tipo);
+                oferta[tipo.ordinal()] = Math.max(0, existencias);
+                tiene |= existencias > 0;
+            }
+            if (tiene || u == deposito) {
+                origenes.add(u);
+                ofertas.add(oferta);
+            }
+        }
+        int filaDeposito = deposito == null ? -1 : origenes.indexOf(deposito);
+        double[][] distancias = origenes.isEmpty() || destinos.isEmpty()
+                ? new double[origenes.size()][destinos.size()]
+                : grafo.calcularMatrizDistancias(origenes, destinos);
+
+        long[] ofertaGlobal = new long[TIPOS.length];
+        for (TipoRecurso tipo : TIPOS) ofertaGlobal[tipo.ordinal()] = gestor.obtenerTotalGlobal(tipo);
+
+        long[][] faltante = new long[destinos.size()][TIPOS.length];
+        SolucionTipo[] soluciones = new SolucionTipo[TIPOS.length];
+        IntStream.range(0, TIPOS.length).parallel().forEach(t ->
+                soluciones[t] = resolverTipo(t, destinos, demanda, origenes, ofertas, ofertaGlobal[t],
+                        distancias, filaDeposito, faltante));
+
+        // de unidades por origen a envíos de recursos concretos
+        List<EnvioRecurso> envios = new ArrayList<>();
+        double transporte = 0;
+        for (int t = 0; t < TIPOS.length; t++) {
+            if (soluciones[t] == null) continue;
+            TipoRecurso tipo = TIPOS[t];
+            for (int s = -1; s < origenes.size(); s++) {
+                long[] hacia = soluciones[t].flujos[s + 1];
+                if (hacia == null) continue;
+                Ubicacion origen = s < 0 ? null : origenes.get(s);
+                List<Recurso> recursos = s < 0 ? gestor.obtenerRecursosPorTipo(tipo) : gestor.obtenerRecursosPorUbicacion(origen);
+                int[] restante = new int[recursos.size()];
+                for (int i = 0; i < restante.length; i++) {
+                    Recurso r = recursos.get(i);
+                    restante[i] = r.getTipo() == tipo ? r.getCantidadDisponible() : 0;
+                }
+                int i = 0;
+                for (int z = 0; z < destinos.size(); z++) {
+                    long pendiente = hacia[z];
+                    double distancia = s < 0 ? (filaDeposito < 0 ? 0.0 : distancias[filaDeposito][z]) : distancias[s][z];
+                    while (pendiente > 0 && i < restante.length) {
+                        if (restante[i] == 0) {
+                            i++;
+                            continue;
+                        }
+                        int cantidad = (int) Math.min(pendiente, restante[i]);
+                        envios.add(new EnvioRecurso(recursos.get(i), origen, destinos.get(z), cantidad, distancia));
+                        transporte += cantidad * distancia;
+                        restante[i] -= cantidad;
+                        pendiente -= cantidad;
+                    }
+                }
+            }
+        }
+
+        Map<Ubicacion, long[]> demandaPorZona = new LinkedHashMap<>();
+        Map<Ubicacion, long[]> faltantePorZona = new LinkedHashMap<>();
+        double costoTotal = 0;
+        for (int z = 0; z < destinos.size(); z++) {
+            demandaPorZona.put(destinos.get(z), demanda[z]);
+            faltantePorZona.put(destinos.get(z), faltante[z]);
+        }
+        for (SolucionTipo solucion : soluciones) {
+            if (solucion != null) costoTotal += solucion.costo;
+        }
+        return new PlanDistribucion(envios, demandaPorZona, faltantePorZona, transporte, costoTotal);
+    }
+
+    /**
+     * Distancia del origen más lejano que una zona puede usar para un tipo: la del último de sus
+     * {@link #setOrigenesPorZona(int) orígenes más cercanos} con existencias del tipo.
+     */
+    private double distanciaLimite(int t, Ubicacion zona, int z, List<Ubicacion> origenes, List<long[]> ofertas,
+                                   double[][] distancias, double[] candidatas) {
+        if (origenesPorZona == 0) return Double.POSITIVE_INFINITY;
+        int n = 0;
+        for (int s = 0; s < origenes.size(); s++) {
+            if (ofertas.get(s)[t] > 0 && origenes.get(s) != zona) candidatas[n++] = distancias[s][z];
+        }
+        if (n <= origenesPorZona) return Double.POSITIVE_INFINITY;
+        Arrays.sort(candidatas, 0, n);
+        return candidatas[origenesPorZona - 1];
+    }
+
+    /** Unidades de un tipo que necesitan las personas afectadas de una ubicación. */
+    private long necesidad(Ubicacion zona, TipoRecurso tipo) {
+        return (long) Math.ceil(zona.getPersonasAfectadas() * raciones.get(tipo));
+    }
+
+    /**
+     * Resuelve el problema de transporte de un tipo de recurso.
+     *
+     * @return flujos y costo del tipo, o null si el tipo no tiene demanda
+     */
+    private SolucionTipo resolverTipo(int t, List<Ubicacion> destinos, long[][] demanda, List<Ubicacion> origenes,
+                                  List<long[]> ofertas, long ofertaGlobal, double[][] distancias,
+                                  int filaDeposito, long[][] faltante) {
+        int zonas = destinos.size();
+        int filas = origenes.size() + 1;
+        long total = 0;
+        for (int z = 0; z < zonas; z++) total += demanda[z][t];
+        if (total == 0) return null;
+
+        int fuente = 0;
+        int sumidero = 1;
+        int primeraFila = 2;
+        int primeraZona = primeraFila + filas;
+        FlujoCostoMinimo red = new FlujoCostoMinimo(primeraZona + zonas);
+
+        for (int s = 0; s < filas; s++) {
+            long oferta = s == 0 ? ofertaGlobal : ofertas.get(s - 1)[t];
+            if (oferta > 0) red.agregarArista(fuente, primeraFila + s, oferta, 0.0);
+        }
+
+        int[] aristaFaltante = new int[zonas];
+        double[] candidatas = new double[origenes.size()];
+        List<int[]> envios = new ArrayList<>();
+        for (int z = 0; z < zonas; z++) {
+            aristaFaltante[z] = -1;
+            if (demanda[z][t] == 0) continue;
+            Ubicacion zona = destinos.get(z);
+            double costoFaltante = penalizacion * Math.max(1, zona.getNivelUrgencia());
+            aristaFaltante[z] = red.agregarArista(fuente, primeraZona + z, demanda[z][t], costoFaltante);
+            red.agregarArista(primeraZona + z, sumidero, demanda[z][t], 0.0);
+
+            double corte = distanciaLimite(t, zona, z, origenes, ofertas, distancias, candidatas);
+            for (int s = 0; s < filas; s++) {
+                long oferta = s == 0 ? ofertaGlobal : ofertas.get(s - 1)[t];
+                if (oferta == 0 || (s > 0 && (origenes.get(s - 1) == zona || distancias[s - 1][z] > corte))) continue;
+                double distancia = s == 0 ? (filaDeposito < 0 ? 0.0 : distancias[filaDeposito][z]) : distancias[s - 1][z];
+                // un envío que cuesta más que dejar la unidad sin cubrir nunca conviene
+                if (!(distancia < costoFaltante)) continue;
+                int arista = red.agregarArista(primeraFila + s, primeraZona + z, FlujoCostoMinimo.CAPACIDAD_INFINITA, distancia);
+                envios.add(new int[]{arista, s, z});
+            }
+        }
+
+        red.resolver(fuente, sumidero, total);
+
+        long[][] resultado = new long[filas][];
+        for (int[] envio : envios) {
+            long flujo = red.getFlujo(envio[0]);
+            if (flujo == 0) continue;
+            if (resultado[envio[1]] == null) resultado[envio[1]] = new long[zonas];
+            resultado[envio[1]][envio[2]] += flujo;
+        }
+        for (int z = 0; z < zonas; z++) {
+            if (aristaFaltante[z] >= 0) faltante[z][t] = red.getFlujo(aristaFaltante[z]);
+        }
+        return new SolucionTipo(resultado, red.getCostoTotal());
+    }
+
+    /** Solución del problema de transporte de un tipo de recurso. */
+    private static final class SolucionTipo {
+        /** Unidades enviadas [origen + 1][zona]; la fila 0 es el inventario global y las filas sin envíos son null. */
+        final long[][] flujos;
+        /** Costo total del flujo, incluidas las penalizaciones por faltantes. */
+        final double costo;
+
+        SolucionTipo(long[][] flujos, double costo) {
+            this.flujos = flujos;
+            this.costo = costo;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package co.edu.uniquindio.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Planifica el traslado de las personas afectadas hacia los refugios respetando la capacidad de
+ * las rutas y de los refugios. El problema se plantea como un flujo de costo mínimo: una fuente
+ * virtual entrega a cada zona sus personas afectadas, cada ruta disponible admite su capacidad
+ * por hora multiplicada por el horizonte de planificación con costo igual a su distancia, y cada
+ * refugio envía a un sumidero virtual hasta su capacidad de alojamiento. Se evacúa a la mayor
+ * cantidad posible de personas y, entre todas las soluciones, la de menos personas-kilómetro.
+ */
+public class PlanificadorEvacuacion {
+
+    private final GrafoRutas grafo;
+
+    /** Tipo de ubicación considerada zona de origen cuando no se indican zonas. */
+    private static final String TIPO_CIUDAD = "Ciudad";
+
+    /** Tipo de ubicación considerada refugio. */
+    private static final String TIPO_REFUGIO = "Refugio";
+
+    /**
+     * Crea un planificador sobre un grafo de rutas.
+     *
+     * @param grafo grafo con las rutas y sus capacidades
+     */
+    public PlanificadorEvacuacion(GrafoRutas grafo) {
+        this.grafo = grafo;
+    }
+
+    /**
+     * Planifica la evacuación de todas las ciudades con personas afectadas hacia los refugios.
+     *
+     * @param horas horizonte de planificación en horas
+     * @return plan con los flujos por ruta
+     */
+    public PlanEvacuacion planificar(double horas) {
+        List<Ubicacion> ubicaciones = grafo.getUbicaciones();
+        return planificar(obtenerCiudadesAfectadas(ubicaciones), obtenerRefugios(ubicaciones), horas);
+    }
+
+    /**
+     * Planifica la evacuación de las zonas pendientes de un gestor de evacuación hacia los refugios.
+     *
+     * @param gestor gestor con las zonas por evacuar
+     * @param horas  horizonte de planificación en horas
+     * @return plan con los flujos por ruta
+     */
+    public PlanEvacuacion planificar(GestorEvacuacion gestor, double horas) {
+        List<Ubicacion> refugios = obtenerRefugios(grafo.getUbicaciones());
+        List<Ubicacion> zonas = gestor.obtenerZonasPendientes().stream()
+                .filter(z -> !refugios.contains(z))
+                .collect(Collectors.toList());
+        return planificar(zonas, refugios, horas);
+    }
+
+    /**
+     * Planifica la evacuación de las zonas indicadas hacia los refugios indicados.
+     *
+     * @param zonas    zonas de origen; cada una aporta sus personas afectadas
+     * @param refugios ubicaciones de destino; cada una admite su capacidad de alojamiento
+     * @param horas    horizonte de planificación en horas
+     * @return plan con los flujos por ruta
+     */
+    public PlanEvacuacion planificar(List<Ubicacion> zonas, List<Ubicacion> refugios, double horas) {
+        if (horas <= 0 || Double.isNaN(horas))
+            throw new IllegalArgumentException("El horizonte de planificación debe ser positivo.");
+
+        GrafoCompacto compacto = grafo.getGrafoCompacto();
+        int n = compacto.getNumeroNodos();
+        int fuente = n;
+        int sumidero = n + 1;
+        FlujoCostoMinimo red = new FlujoCostoMinimo(n + 2);
+
+        int m = compacto.getNumeroAristas();
+        int[] aristaDeRuta = new int[m];
+        for (int e = 0; e < m; e++) {
+            aristaDeRuta[e] = -1;
+            if (!compacto.estaDisponible(e)) continue;
+            int capacidad = compacto.getRuta(e).getCapacidad();
+            long porHorizonte = capacidad == Ruta.CAPACIDAD_ILIMITADA
+                    ? FlujoCostoMinimo.CAPACIDAD_INFINITA
+                    : (long) Math.floor(capacidad * horas);
+            aristaDeRuta[e] = red.agregarArista(compacto.getOrigen(e), compacto.getDestino(e), porHorizonte, compacto.getPeso(e));
+        }
+
+        Map<Ubicacion, Integer> aristaDeZona = new LinkedHashMap<>();
+        long demanda = 0;
+        for (Ubicacion zona : zonas) {
+            int nodo = compacto.indiceDe(zona);
+            if (nodo < 0 || aristaDeZona.containsKey(zona)) continue;
+            aristaDeZona.put(zona, red.agregarArista(fuente, nodo, zona.getPersonasAfectadas(), 0.0));
+            demanda += zona.getPersonasAfectadas();
+        }
+
+        Map<Ubicacion, Integer> aristaDeRefugio = new LinkedHashMap<>();
+        for (Ubicacion refugio : refugios) {
+            int nodo = compacto.indiceDe(refugio);
+            if (nodo < 0 || aristaDeRefugio.containsKey(refugio)) continue;
+            long capacidad = refugio.getCapacidadAlojamiento() == Integer.MAX_VALUE
+                    ? FlujoCostoMinimo.CAPACIDAD_INFINITA
+                    : refugio.getCapacidadAlojamiento();
+            aristaDeRefugio.put(refugio, red.agregarArista(nodo, sumidero, capacidad, 0.0));
+        }
+
+        long evacuados = red.resolver(fuente, sumidero, demanda);
+
+        Map<Ruta, Long> flujos = new LinkedHashMap<>();
+        for (int e = 0; e < m; e++) {
+            if (aristaDeRuta[e] < 0) continue;
+            long flujo = red.getFlujo(aristaDeRuta[e]);
+            if (flujo > 0) flujos.put(compacto.getRuta(e), flujo);
+        }
+        Map<Ubicacion, Long> porZona = new LinkedHashMap<>();
+        aristaDeZona.forEach((zona, arista) -> porZona.put(zona, red.getFlujo(arista)));
+        Map<Ubicacion, Long> porRefugio = new LinkedHashMap<>();
+        aristaDeRefugio.forEach((refugio, arista) -> porRefugio.put(refugio, red.getFlujo(arista)));
+
+        return new PlanEvacuacion(flujos, porZona, porRefugio, demanda - evacuados, red.getCostoTotal());
+    }
+
+    /** Ciudades con personas afectadas, que son las zonas de origen cuando no se indican otras. */
+    static List<Ubicacion> obtenerCiudadesAfectadas(List<Ubicacion> ubicaciones) {
+        return ubicaciones.stream()
+                .filter(u -> u.getTipo().equalsIgnoreCase(TIPO_CIUDAD) && u.getPersonasAfectadas() > 0)
+                .collect(Collectors.toList());
+    }
+
+    /** Ubicaciones de tipo refugio. */
+    static List<Ubicacion> obtenerRefugios(List<Ubicacion> ubicaciones) {
+        return ubicaciones.stream()
+                .filter(u -> u.getTipo().equalsIgnoreCase(TIPO_REFUGIO))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Devuelve el grafo de rutas usado por el planificador.
+     *
+     * @return el grafo de rutas
+     */
+    public GrafoRutas getGrafo() {
+        return grafo;
+    }
+}
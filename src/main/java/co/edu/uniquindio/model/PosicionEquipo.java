@@ -0,0 +1,53 @@
+package co.edu.uniquindio.model;
+
+/**
+ * Posición reportada por un equipo en campo, registrada por {@link RastreadorEquipos}.
+ */
+public class PosicionEquipo {
+
+    private final Equipo equipo;
+    private final double latitud;
+    private final double longitud;
+    private final long marcaTiempo;
+    private final Ubicacion ubicacionCercana;
+    private final double distanciaKm;
+
+    /**
+     * @param equipo           equipo que reportó la posición
+     * @param latitud          latitud reportada
+     * @param longitud         longitud reportada
+     * @param marcaTiempo      instante del reporte, en milisegundos desde la época
+     * @param ubicacionCercana ubicación conocida más cercana, o null si no se calculó
+     * @param distanciaKm      distancia en línea recta hasta esa ubicación
+     */
+    public PosicionEquipo(Equipo equipo, double latitud, double longitud, long marcaTiempo,
+                          Ubicacion ubicacionCercana, double distanciaKm) {
+        this.equipo = equipo;
+        this.latitud = latitud;
+        this.longitud = longitud;
+        this.marcaTiempo = marcaTiempo;
+        this.ubicacionCercana = ubicacionCercana;
+        this.distanciaKm = distanciaKm;
+    }
+
+    public Equipo getEquipo() { return equipo; }
+
+    public double getLatitud() { return latitud; }
+
+    public double getLongitud() { return longitud; }
+
+    /** @return instante del reporte, en milisegundos desde la época */
+    public long getMarcaTiempo() { return marcaTiempo; }
+
+    /** @return ubicación conocida más cercana, o null si no se calculó */
+    public Ubicacion getUbicacionCercana() { return ubicacionCercana; }
+
+    /** @return distancia en línea recta hasta la ubicación más cercana, en kilómetros */
+    public double getDistanciaKm() { return distanciaKm; }
+
+    @Override
+    public String toString() {
+        return String.format("PosicionEquipo{%s: (%.5f, %.5f)%s}", equipo.getNombre(), latitud, longitud,
+                ubicacionCercana != null ? String.format(" cerca de %s a %.2f km", ubicacionCercana.getNombre(), distanciaKm) : "");
+    }
+}
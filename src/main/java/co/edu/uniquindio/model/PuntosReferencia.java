@@ -0,0 +1,115 @@
+package co.edu.uniquindio.model;
+
+import java.util.Arrays;
+
+/**
+ * Distancias precalculadas hacia y desde un conjunto pequeño de puntos de referencia
+ * (landmarks) del grafo, usadas por la variante ALT de A*. Por la desigualdad triangular,
+ * para un punto de referencia L se cumple d(v, t) >= d(L, t) - d(L, v) y d(v, t) >= d(v, L) - d(t, L),
+ * lo que da una cota inferior válida aunque las coordenadas de las ubicaciones no sean fiables.
+ */
+public final class PuntosReferencia {
+
+    private final GrafoCompacto grafo;
+    private final int[] referencias;
+    private final double[][] desde;
+    private final double[][] hacia;
+    private final int reducciones;
+
+    /**
+     * Selecciona los puntos de referencia con la estrategia del más lejano: cada nuevo punto es el
+     * nodo alcanzable más distante de los ya elegidos, y calcula sus distancias hacia y desde todos los nodos.
+     *
+     * @param grafo    grafo compilado
+     * @param cantidad cantidad de puntos de referencia deseada
+     */
+    public PuntosReferencia(GrafoCompacto grafo, int cantidad) {
+        int n = grafo.getNumeroNodos();
+        int k = Math.max(0, Math.min(cantidad, n));
+        this.grafo = grafo;
+        this.reducciones = grafo.getReducciones();
+        this.referencias = new int[k];
+        this.desde = new double[k][];
+        this.hacia = new double[k][];
+
+        EspacioBusqueda espacio = new EspacioBusqueda();
+        double[] cercania = new double[n];
+        Arrays.fill(cercania, Double.POSITIVE_INFINITY);
+        int siguiente = 0;
+
+        for (int i = 0; i < k; i++) {
+            referencias[i] = siguiente;
+
+            grafo.dijkstra(siguiente, -1, espacio);
+            desde[i] = copiarDistancias(espacio, n);
+            grafo.dijkstraInverso(siguiente, espacio);
+            hacia[i] = copiarDistancias(espacio, n);
+
+            double mayor = -1;
+            for (int v = 0; v < n; v++) {
+                double d = Math.min(desde[i][v], hacia[i][v]);
+                if (d < cercania[v]) cercania[v] = d;
+                if (cercania[v] != Double.POSITIVE_INFINITY && cercania[v] > mayor) {
+                    mayor = cercania[v];
+                    siguiente = v;
+                }
+            }
+            if (mayor <= 0) {
+                // todo lo alcanzable ya es un punto de referencia; se continúa por otra componente
+                for (int v = 0; v < n; v++) {
+                    if (cercania[v] == Double.POSITIVE_INFINITY) { siguiente = v; break; }
+                }
+            }
+        }
+    }
+
+    private static double[] copiarDistancias(EspacioBusqueda espacio, int n) {
+        double[] distancias = new double[n];
+        for (int v = 0; v < n; v++) distancias[v] = espacio.getDistancia(v);
+        return distancias;
+    }
+
+    /**
+     * Indica si las distancias precalculadas siguen siendo válidas para el grafo dado. Los
+     * cierres y los alargamientos de rutas no las invalidan: las distancias viejas no superan a
+     * las nuevas, así que las cotas siguen siendo inferiores y consistentes. Solo un cambio que
+     * acorte una ruta o reabra una cerrada obliga a recalcularlas.
+     *
+     * @param actual grafo compilado vigente
+     * @return true si corresponde al mismo grafo y ninguna ruta se acortó desde entonces
+     */
+    public boolean esVigente(GrafoCompacto actual) {
+        return actual == grafo && actual.getReducciones() == reducciones;
+    }
+
+    /** @return cantidad de puntos de referencia */
+    public int getCantidad() { return referencias.length; }
+
+    /**
+     * Crea la heurística ALT hacia un destino.
+     *
+     * @param destino nodo objetivo
+     * @return heurística consistente basada en los puntos de referencia
+     */
+    public Heuristica heuristicaHacia(int destino) {
+        int k = referencias.length;
+        double[] desdeAlDestino = new double[k];
+        double[] destinoHacia = new double[k];
+        for (int i = 0; i < k; i++) {
+            desdeAlDestino[i] = desde[i][destino];
+            destinoHacia[i] = hacia[i][destino];
+        }
+
+        return nodo -> {
+            double cota = 0.0;
+            for (int i = 0; i < k; i++) {
+                double a = desdeAlDestino[i] - desde[i][nodo];
+                double b = hacia[i][nodo] - destinoHacia[i];
+                // una cota infinita indica que el destino es inalcanzable desde el nodo
+                if (a > cota) cota = a;
+                if (b > cota) cota = b;
+            }
+            return cota;
+        };
+    }
+}
@@ -0,0 +1,325 @@
+package co.edu.uniquindio.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Seguimiento de las posiciones GPS que reportan los equipos en campo.
+ * <p>
+ * Los reportes entran por un buffer circular acotado sin candados: cada productor reserva una
+ * celda con una operación CAS sobre la cabeza, escribe el reporte en arreglos primitivos y lo
+ * publica con el número de secuencia de la celda; un único hilo de fondo los consume. Si el buffer
+ * está lleno el reporte se descarta y se cuenta, en lugar de bloquear al productor.
+ * <p>
+ * En cada intervalo de publicación el hilo de fondo vacía el buffer: guarda cada reporte en el
+ * historial de tamaño fijo de su equipo, se queda solo con la última posición de cada equipo que
+ * se movió, la ajusta a la ubicación conocida más cercana con el índice espacial del grafo y avisa
+ * a los oyentes una sola vez con todas las posiciones nuevas.
+ */
+public final class RastreadorEquipos implements AutoCloseable {
+
+    /** Cantidad de reportes que caben en el buffer entre dos publicaciones. */
+    public static final int CAPACIDAD_BUFFER = 1 << 16;
+    /** Cantidad de posiciones que se conservan por equipo. */
+    public static final int TAMANO_HISTORIAL = 32;
+    /** Intervalo con que se procesan los reportes y se avisa a los oyentes. */
+    public static final Duration INTERVALO_PUBLICACION = Duration.ofMillis(100);
+
+    private final GrafoRutas grafo;
+    private final int tamanoHistorial;
+    private final Map<Equipo, Rastro> rastros;
+    private final List<Consumer<List<PosicionEquipo>>> oyentes;
+
+    // buffer circular: la celda i está libre para la posición p cuando secuencias[i] == p y
+    // publicada cuando secuencias[i] == p + 1
+    private final int capacidad;
+    private final int mascara;
+    private final AtomicLongArray secuencias;
+    private final Rastro[] celdaRastro;
+    private final double[] celdaLatitud;
+    private final double[] celdaLongitud;
+    private final long[] celdaTiempo;
+    private final AtomicLong cabeza;
+    private final LongAdder descartados;
+
+    // estado del hilo consumidor
+    private long cola;
+    private volatile long procesados;
+    private final List<Rastro> modificados;
+
+    private final ScheduledExecutorService publicador;
+
+    /** Posiciones recientes de un equipo. */
+    private static final class Rastro {
+        final Equipo equipo;
+        final double[] latitudes;
+        final double[] longitudes;
+        final long[] tiempos;
+        long escritos;
+
+        // solo los usa el hilo consumidor
+        double ultimaLatitud;
+        double ultimaLongitud;
+        long ultimoTiempo = Long.MIN_VALUE;
+        boolean modificado;
+
+        Rastro(Equipo equipo, int tamano) {
+            this.equipo = equipo;
+            this.latitudes = new double[tamano];
+            this.longitudes = new double[tamano];
+            this.tiempos = new long[tamano];
+        }
+
+        synchronized void registrar(double latitud, double longitud, long tiempo) {
+            int i = (int) (escritos % tiempos.length);
+            latitudes[i] = latitud;
+            longitudes[i] = longitud;
+            tiempos[i] = tiempo;
+            escritos++;
+        }
+
+        synchronized List<PosicionEquipo> historial() {
+            int n = (int) Math.min(escritos, tiempos.length);
+            List<PosicionEquipo> posiciones = new ArrayList<>(n);
+            for (long k = escritos - n; k < escritos; k++) {
+                int i = (int) (k % tiempos.length);
+                posiciones.add(new PosicionEquipo(equipo, latitudes[i], longitudes[i], tiempos[i], null, Double.NaN));
+            }
+            return posiciones;
+        }
+    }
+
+    /**
+     * Crea un rastreador con la capacidad, el historial y el intervalo por defecto.
+     *
+     * @param grafo grafo con el índice espacial de las ubicaciones
+     */
+    public RastreadorEquipos(GrafoRutas grafo) {
+        this(grafo, CAPACIDAD_BUFFER, TAMANO_HISTORIAL, INTERVALO_PUBLICACION);
+    }
+
+    /**
+     * @param grafo           grafo con el índice espacial de las ubicaciones
+     * @param capacidadBuffer reportes que caben en el buffer (se redondea a potencia de dos)
+     * @param tamanoHistorial posiciones que se conservan por equipo
+     * @param intervalo       intervalo con que se procesan los reportes y se avisa a los oyentes
+     */
+    public RastreadorEquipos(GrafoRutas grafo, int capacidadBuffer, int tamanoHistorial, Duration intervalo) {
+        if (grafo == null) throw new IllegalArgumentException("El grafo de rutas no puede ser nulo.");
+        if (capacidadBuffer <= 0 || capacidadBuffer > 1 << 30)
+            throw new IllegalArgumentException("La capacidad del buffer debe estar entre 1 y 2^30.");
+        if (tamanoHistorial <= 0) throw new IllegalArgumentException("El historial debe guardar al menos una posición.");
+        if (intervalo.isNegative() || intervalo.isZero())
+            throw new IllegalArgumentException("El intervalo de publicación debe ser positivo.");
+        this.grafo = grafo;
+        this.tamanoHistorial = tamanoHistorial;
+        this.rastros = new ConcurrentHashMap<>();
+        this.oyentes = new CopyOnWriteArrayList<>();
+
+        int potencia = 1;
+        while (potencia < capacidadBuffer) potencia <<= 1;
+        this.capacidad = potencia;
+        this.mascara = capacidad - 1;
+        this.secuencias = new AtomicLongArray(capacidad);
+        for (int i = 0; i < capacidad; i++) secuencias.set(i, i);
+        this.celdaRastro = new Rastro[capacidad];
+        this.celdaLatitud = new double[capacidad];
+        this.celdaLongitud = new double[capacidad];
+        this.celdaTiempo = new long[capacidad];
+        this.cabeza = new AtomicLong();
+        this.descartados = new LongAdder();
+        this.modificados = new ArrayList<>();
+
+        this.publicador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rastreador-equipos");
+            t.setDaemon(true);
+            return t;
+        });
+        long nanos = intervalo.toNanos();
+        publicador.scheduleWithFixedDelay(this::procesar, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra un reporte de posición sin bloquear; puede llamarse desde cualquier hilo.
+     *
+     * @param equipo      equipo que reporta
+     * @param latitud     latitud en grados
+     * @param longitud    longitud en grados
+     * @param marcaTiempo instante del reporte, en milisegundos desde la época
+     * @return true si el reporte entró al buffer; false si estaba lleno y se descartó
+     */
+    public boolean reportarPosicion(Equipo equipo, double latitud, double longitud, long marcaTiempo) {
+        if (equipo == null) throw new IllegalArgumentException("El equipo no puede ser nulo.");
+        if (!(latitud >= -90 && latitud <= 90 && longitud >= -180 && longitud <= 180))
+            throw new IllegalArgumentException("Coordenadas fuera de rango: " + latitud + ", " + longitud);
+        Rastro rastro = rastros.get(equipo);
+        if (rastro == null) rastro = rastros.computeIfAbsent(equipo, e -> new Rastro(e, tamanoHistorial));
+
+        long posicion = cabeza.get();
+        int i;
+        while (true) {
+            i = (int) (posicion & mascara);
+            long diferencia = secuencias.get(i) - posicion;
+            if (diferencia == 0) {
+                if (cabeza.compareAndSet(posicion, posicion + 1)) break;
+                posicion = cabeza.get();
+            } else if (diferencia < 0) {
+                // la celda todavía guarda un reporte de la vuelta anterior: el buffer está lleno
+                descartados.increment();
+                return false;
+            } else {
+                posicion = cabeza.get();
+            }
+        }
+        celdaRastro[i] = rastro;
+        celdaLatitud[i] = latitud;
+        celdaLongitud[i] = longitud;
+        celdaTiempo[i] = marcaTiempo;
+        secuencias.lazySet(i, posicion + 1);
+        return true;
+    }
+
+    /**
+     * Procesa ya los reportes pendientes y avisa a los oyentes, sin esperar al próximo intervalo.
+     */
+    public void publicarPendientes() {
+        try {
+            publicador.submit(this::procesar).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No se pudieron procesar las posiciones.", e.getCause());
+        }
+    }
+
+    /** Vacía el buffer, ajusta la última posición de cada equipo que se movió y la publica. */
+    private void procesar() {
+        try {
+            long leidos = 0;
+            // a lo sumo una vuelta del buffer por pasada, para publicar aunque no dejen de llegar
+            while (leidos < capacidad) {
+                int i = (int) (cola & mascara);
+                if (secuencias.get(i) != cola + 1) break;
+                Rastro rastro = celdaRastro[i];
+                double latitud = celdaLatitud[i];
+                double longitud = celdaLongitud[i];
+                long tiempo = celdaTiempo[i];
+                celdaRastro[i] = null;
+                secuencias.lazySet(i, cola + capacidad);
+                cola++;
+                leidos++;
+
+                rastro.registrar(latitud, longitud, tiempo);
+                if (tiempo >= rastro.ultimoTiempo) {
+                    rastro.ultimaLatitud = latitud;
+                    rastro.ultimaLongitud = longitud;
+                    rastro.ultimoTiempo = tiempo;
+                    if (!rastro.modificado) {
+                        rastro.modificado = true;
+                        modificados.add(rastro);
+                    }
+                }
+            }
+            procesados += leidos;
+            if (modificados.isEmpty()) return;
+
+            List<PosicionEquipo> nuevas = new ArrayList<>(modificados.size());
+            for (Rastro rastro : modificados) {
+                List<UbicacionCercana> cercana = grafo.buscarCercanasAlPunto(rastro.ultimaLatitud, rastro.ultimaLongitud, 1, null);
+                PosicionEquipo posicion = new PosicionEquipo(rastro.equipo, rastro.ultimaLatitud, rastro.ultimaLongitud,
+                        rastro.ultimoTiempo,
+                        cercana.isEmpty() ? null : cercana.get(0).getUbicacion(),
+                        cercana.isEmpty() ? Double.NaN : cercana.get(0).getDistancia());
+                rastro.equipo.setPosicion(posicion);
+                rastro.modificado = false;
+                nuevas.add(posicion);
+            }
+            modificados.clear();
+
+            List<PosicionEquipo> publicadas = Collections.unmodifiableList(nuevas);
+            for (Consumer<List<PosicionEquipo>> oyente : oyentes) {
+                try {
+                    oyente.accept(publicadas);
+                } catch (RuntimeException e) {
+                    System.out.println("Error al publicar posiciones de equipos: " + e.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            // una excepción cancelaría las siguientes ejecuciones programadas
+            System.out.println("Error al procesar posiciones de equipos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Suscribe un oyente que recibe, en cada intervalo, la última posición de los equipos que se
+     * movieron. Se llama desde el hilo del rastreador.
+     *
+     * @param oyente oyente de posiciones
+     */
+    public void agregarOyente(Consumer<List<PosicionEquipo>> oyente) {
+        if (oyente == null) throw new IllegalArgumentException("El oyente no puede ser nulo.");
+        oyentes.add(oyente);
+    }
+
+    /**
+     * @param oyente oyente suscrito con {@link #agregarOyente(Consumer)}
+     * @return true si estaba suscrito
+     */
+    public boolean quitarOyente(Consumer<List<PosicionEquipo>> oyente) {
+        return oyentes.remove(oyente);
+    }
+
+    /**
+     * @param equipo equipo consultado
+     * @return últimas posiciones reportadas, de la más antigua a la más reciente, sin ajustar a
+     * ubicaciones; vacía si el equipo nunca reportó
+     */
+    public List<PosicionEquipo> getHistorial(Equipo equipo) {
+        Rastro rastro = rastros.get(equipo);
+        return rastro != null ? rastro.historial() : Collections.emptyList();
+    }
+
+    /** @return equipos que reportaron al menos una posición */
+    public List<Equipo> getEquiposRastreados() {
+        return new ArrayList<>(rastros.keySet());
+    }
+
+    /** @return reportes que entraron al buffer */
+    public long getReportesRecibidos() {
+        return cabeza.get();
+    }
+
+    /** @return reportes descartados por encontrar el buffer lleno */
+    public long getReportesDescartados() {
+        return descartados.sum();
+    }
+
+    /** @return reportes ya procesados por el hilo de fondo */
+    public long getReportesProcesados() {
+        return procesados;
+    }
+
+    /** Detiene el hilo de fondo; los reportes que no alcanzaron a procesarse se pierden. */
+    @Override
+    public void close() {
+        publicador.shutdown();
+        try {
+            publicador.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
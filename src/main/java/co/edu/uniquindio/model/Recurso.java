@@ -1,12 +1,22 @@
 package co.edu.uniquindio.model;
 
 import java.util.Objects;
-
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recurso del inventario con su cantidad disponible. La cantidad se modifica con operaciones
+ * atómicas, por lo que varios operadores pueden descontar unidades a la vez sin sobreasignar;
+ * las unidades reservadas y aún no confirmadas dejan de estar disponibles hasta que la reserva
+ * se confirma o se libera.
+ */
 public class Recurso {
 
     private String nombre;
-    private TipoRecurso tipo;
-    private int cantidadDisponible;
+    private volatile TipoRecurso tipo;
+    private final AtomicInteger cantidadDisponible;
+    private final AtomicInteger cantidadReservada;
+    private GestorRecursos gestor;
+    private Ubicacion ubicacion;
 
     public Recurso(String nombre, TipoRecurso tipo, int cantidadDisponible) {
         if(nombre == null || nombre.isBlank()){
@@ -23,7 +33,8 @@ public class Recurso {
 
         this.nombre = nombre;
         this.tipo = tipo;
-        this.cantidadDisponible = cantidadDisponible;
+        this.cantidadDisponible = new AtomicInteger(cantidadDisponible);
+        this.cantidadReservada = new AtomicInteger();
     }
 
     public String getNombre() {
@@ -45,18 +56,26 @@ public class Recurso {
         if(tipo == null){
             throw new IllegalArgumentException("El tipo de recurso no puede ser nulo");
         }
+        TipoRecurso anterior = this.tipo;
         this.tipo = tipo;
+        if (gestor != null && anterior != tipo) gestor.tipoModificado(this, anterior);
     }
 
     public int getCantidadDisponible() {
-        return cantidadDisponible;
+        return cantidadDisponible.get();
+    }
+
+    /** @return unidades reservadas que aún no se confirman ni se liberan */
+    public int getCantidadReservada() {
+        return cantidadReservada.get();
     }
 
     public void setCantidadDisponible(int cantidadDisponible) {
         if(cantidadDisponible < 0){
             throw new IllegalArgumentException("La cantidad no puede ser negativa");
         }
-        this.cantidadDisponible = cantidadDisponible;
+        int anterior = this.cantidadDisponible.getAndSet(cantidadDisponible);
+        notificarCambio(anterior, cantidadDisponible);
     }
 
     /**
@@ -72,7 +91,8 @@ public class Recurso {
         if (cantidad <= 0){
             throw new IllegalArgumentException("La cantidad a incrementar debe ser mayor que 0");
         }
-        this.cantidadDisponible += cantidad;
+        int actual = cantidadDisponible.addAndGet(cantidad);
+        notificarCambio(actual - cantidad, actual);
     }
 
     /**
@@ -91,15 +111,87 @@ public class Recurso {
             System.out.println("La cantidad debe ser mayor a 0");
             return false;
         }
-        if(cantidad > cantidadDisponible){
+        if(!descontar(cantidad)){
             System.out.println("No hay unidades suficientes disponibles");
             return false;
         }
+        return true;
+    }
 
-        cantidadDisponible -= cantidad;
+    /**
+     * Aparta unidades para una reserva: dejan de estar disponibles, pero no salen del recurso
+     * hasta que la reserva se confirma.
+     *
+     * @param cantidad unidades a reservar, mayor que cero
+     * @return true si había unidades suficientes y quedaron reservadas
+     */
+    boolean reservar(int cantidad) {
+        if (!descontar(cantidad)) return false;
+        cantidadReservada.addAndGet(cantidad);
+        if (gestor != null) gestor.reservaModificada(this, cantidad);
         return true;
     }
 
+    /**
+     * Entrega unidades reservadas, que salen definitivamente del recurso.
+     *
+     * @param cantidad unidades reservadas con {@link #reservar(int)}
+     */
+    void consumirReserva(int cantidad) {
+        cantidadReservada.addAndGet(-cantidad);
+        if (gestor != null) gestor.reservaModificada(this, -cantidad);
+    }
+
+    /**
+     * Devuelve unidades reservadas a la cantidad disponible.
+     *
+     * @param cantidad unidades reservadas con {@link #reservar(int)}
+     */
+    void liberarReserva(int cantidad) {
+        cantidadReservada.addAndGet(-cantidad);
+        if (gestor != null) gestor.reservaModificada(this, -cantidad);
+        int actual = cantidadDisponible.addAndGet(cantidad);
+        notificarCambio(actual - cantidad, actual);
+    }
+
+    /** Descuenta unidades solo si alcanzan, comparando e intercambiando la cantidad disponible. */
+    private boolean descontar(int cantidad) {
+        while (true) {
+            int anterior = cantidadDisponible.get();
+            if (cantidad > anterior) return false;
+            if (cantidadDisponible.compareAndSet(anterior, anterior - cantidad)) {
+                notificarCambio(anterior, anterior - cantidad);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Enlaza el recurso con el gestor que lo indexa para notificarle sus cambios de cantidad
+     * y de tipo.
+     *
+     * @param gestor    gestor propietario
+     * @param ubicacion ubicación donde está el recurso, o null si es del inventario global
+     */
+    void vincular(GestorRecursos gestor, Ubicacion ubicacion) {
+        this.gestor = gestor;
+        this.ubicacion = ubicacion;
+    }
+
+    /** @return gestor que indexa el recurso, o null si no está registrado */
+    GestorRecursos getGestor() {
+        return gestor;
+    }
+
+    /** @return ubicación donde está el recurso, o null si es del inventario global */
+    Ubicacion getUbicacion() {
+        return ubicacion;
+    }
+
+    private void notificarCambio(int anterior, int actual) {
+        if (gestor != null && anterior != actual) gestor.cantidadModificada(this, anterior, actual);
+    }
+
     /**
      * Verifica si el recurso está agotado
      *
@@ -108,7 +200,7 @@ public class Recurso {
      * @return true si ya  no hay unidades disponibles, false si es el caso contrario.
      */
     public boolean estaAgotado(){
-        return cantidadDisponible <= 0;
+        return cantidadDisponible.get() <= 0;
     }
 
     /**
@@ -120,7 +212,7 @@ public class Recurso {
      * @return Una cadena con la iformación del recurso en el formato: "nombre (tipo): canttidad"
      */
     public String resumen(){
-        return String.format("%s (%s): %d unidades", nombre, tipo, cantidadDisponible);
+        return String.format("%s (%s): %d unidades", nombre, tipo, cantidadDisponible.get());
     }
 
     /**
@@ -158,6 +250,6 @@ public class Recurso {
 
     @Override
     public String toString(){
-        return String.format("Recurso{nombre='%s', tipo='%s', disponible='%s'", nombre, tipo, cantidadDisponible);
+        return String.format("Recurso{nombre='%s', tipo='%s', disponible='%s'", nombre, tipo, cantidadDisponible.get());
     }
 }
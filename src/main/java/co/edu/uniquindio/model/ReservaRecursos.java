@@ -0,0 +1,77 @@
+package co.edu.uniquindio.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserva de una o varias cantidades de recursos para una ubicación, creada por
+ * {@link GestorRecursos#reservarRecursos(Ubicacion, Map)}. Mientras está pendiente, las unidades
+ * no están disponibles para nadie más; se cierra una sola vez, al confirmarla (las unidades
+ * llegan al destino) o al liberarla (vuelven a su recurso).
+ */
+public final class ReservaRecursos {
+
+    private static final int PENDIENTE = 0;
+    private static final int CONFIRMADA = 1;
+    private static final int LIBERADA = 2;
+
+    private final Ubicacion destino;
+    private final Recurso[] recursos;
+    private final int[] cantidades;
+    private final AtomicInteger estado;
+
+    /**
+     * @param destino    ubicación que recibirá los recursos
+     * @param recursos   recursos reservados
+     * @param cantidades unidades reservadas de cada recurso, en el mismo orden
+     */
+    ReservaRecursos(Ubicacion destino, Recurso[] recursos, int[] cantidades) {
+        this.destino = destino;
+        this.recursos = recursos;
+        this.cantidades = cantidades;
+        this.estado = new AtomicInteger(PENDIENTE);
+    }
+
+    /**
+     * Cierra la reserva si seguía pendiente.
+     *
+     * @param confirmar true para confirmarla, false para liberarla
+     * @return true si esta llamada la cerró
+     */
+    boolean cerrar(boolean confirmar) {
+        return estado.compareAndSet(PENDIENTE, confirmar ? CONFIRMADA : LIBERADA);
+    }
+
+    /** @return cantidad de recursos distintos reservados */
+    int getTamano() { return recursos.length; }
+
+    /** @return recurso reservado en la posición dada */
+    Recurso getRecurso(int i) { return recursos[i]; }
+
+    /** @return unidades reservadas del recurso en la posición dada */
+    int getCantidad(int i) { return cantidades[i]; }
+
+    /** @return ubicación que recibirá los recursos */
+    public Ubicacion getDestino() { return destino; }
+
+    /** @return copia de las unidades reservadas por recurso */
+    public Map<Recurso, Integer> getCantidades() {
+        Map<Recurso, Integer> copia = new LinkedHashMap<>();
+        for (int i = 0; i < recursos.length; i++) copia.put(recursos[i], cantidades[i]);
+        return copia;
+    }
+
+    /** @return true si la reserva aún no se confirma ni se libera */
+    public boolean estaPendiente() { return estado.get() == PENDIENTE; }
+
+    /** @return true si la reserva se confirmó */
+    public boolean estaConfirmada() { return estado.get() == CONFIRMADA; }
+
+    @Override
+    public String toString() {
+        String[] nombres = {"pendiente", "confirmada", "liberada"};
+        return String.format("ReservaRecursos{destino='%s', recursos=%d, estado=%s}",
+                destino.getNombre(), recursos.length, nombres[estado.get()]);
+    }
+}
@@ -0,0 +1,117 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resultado de una consulta de alcance: las ubicaciones que están dentro de un presupuesto de
+ * distancia desde (o hacia) un conjunto de orígenes, con sus distancias en arreglos primitivos
+ * ordenados de menor a mayor distancia.
+ */
+public class ResultadoAlcance {
+
+    private final GrafoCompacto grafo;
+    private final int[] nodos;
+    private final double[] distancias;
+
+    /**
+     * Crea el resultado de una consulta de alcance.
+     *
+     * @param grafo      grafo compilado sobre el que se hizo la consulta
+     * @param nodos      nodos alcanzados en orden de distancia
+     * @param distancias distancia de cada nodo alcanzado, en la misma posición
+     */
+    ResultadoAlcance(GrafoCompacto grafo, int[] nodos, double[] distancias) {
+        this.grafo = grafo;
+        this.nodos = nodos;
+        this.distancias = distancias;
+    }
+
+    /** @return cantidad de ubicaciones alcanzadas, incluidos los orígenes */
+    public int getCantidad() { return nodos.length; }
+
+    /** @return identificadores compactos de los nodos alcanzados */
+    public int[] getNodos() { return nodos; }
+
+    /** @return distancias en kilómetros, alineadas con {@link #getNodos()} */
+    public double[] getDistancias() { return distancias; }
+
+    /**
+     * @param posicion posición dentro del resultado
+     * @return ubicación alcanzada en esa posición
+     */
+    public Ubicacion getUbicacion(int posicion) { return grafo.getUbicacion(nodos[posicion]); }
+
+    /**
+     * @param posicion posición dentro del resultado
+     * @return distancia en kilómetros de la ubicación en esa posición
+     */
+    public double getDistancia(int posicion) { return distancias[posicion]; }
+
+    /**
+     * Devuelve las ubicaciones alcanzadas en orden de distancia.
+     *
+     * @return lista de ubicaciones
+     */
+    public List<Ubicacion> getUbicaciones() {
+        List<Ubicacion> lista = new ArrayList<>(nodos.length);
+        for (int nodo : nodos) lista.add(grafo.getUbicacion(nodo));
+        return lista;
+    }
+
+    /**
+     * Calcula el polígono de la isócrona como la envolvente convexa de las coordenadas de las
+     * ubicaciones alcanzadas (algoritmo de cadena monótona de Andrew).
+     *
+     * @return vértices del polígono como pares {latitud, longitud} en sentido antihorario
+     */
+    public List<double[]> generarPoligono() {
+        int n = nodos.length;
+        double[][] puntos = new double[n][];
+        for (int i = 0; i < n; i++) {
+            Ubicacion u = grafo.getUbicacion(nodos[i]);
+            puntos[i] = new double[]{u.getLatitud(), u.getLongitud()};
+        }
+        Arrays.sort(puntos, (a, b) -> a[1] != b[1] ? Double.compare(a[1], b[1]) : Double.compare(a[0], b[0]));
+        if (n < 3) return new ArrayList<>(Arrays.asList(puntos));
+
+        double[][] envolvente = new double[2 * n][];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            while (k >= 2 && giro(envolvente[k - 2], envolvente[k - 1], puntos[i]) <= 0) k--;
+            envolvente[k++] = puntos[i];
+        }
+        for (int i = n - 2, inferior = k + 1; i >= 0; i--) {
+            while (k >= inferior && giro(envolvente[k - 2], envolvente[k - 1], puntos[i]) <= 0) k--;
+            envolvente[k++] = puntos[i];
+        }
+        return new ArrayList<>(Arrays.asList(envolvente).subList(0, k - 1));
+    }
+
+    /** Producto cruz en el plano (longitud, latitud): positivo si o → a → b gira a la izquierda. */
+    private static double giro(double[] o, double[] a, double[] b) {
+        return (a[1] - o[1]) * (b[0] - o[0]) - (a[0] - o[0]) * (b[1] - o[1]);
+    }
+
+    /**
+     * Exporta el polígono de la isócrona como arreglo JSON de pares [lat, lon],
+     * el formato que recibe la función mostrarIsocrona de mapa.html.
+     *
+     * @return texto JSON con los vértices del polígono
+     */
+    public String poligonoComoJson() {
+        StringBuilder json = new StringBuilder("[");
+        for (double[] punto : generarPoligono()) {
+            if (json.length() > 1) json.append(',');
+            json.append(String.format(Locale.US, "[%.6f,%.6f]", punto[0], punto[1]));
+        }
+        return json.append(']').toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultadoAlcance{ubicaciones=%d}", nodos.length);
+    }
+}
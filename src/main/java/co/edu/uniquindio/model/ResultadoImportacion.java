@@ -0,0 +1,65 @@
+package co.edu.uniquindio.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen de una importación de red vial hecha con {@link ImportadorRedVial}.
+ */
+public class ResultadoImportacion {
+
+    private final int ubicacionesAgregadas;
+    private final int ubicacionesRepetidas;
+    private final int rutasAgregadas;
+    private final int rutasRepetidas;
+    private final int registrosInvalidos;
+    private final List<String> errores;
+    private final long milisegundos;
+
+    /**
+     * @param ubicacionesAgregadas ubicaciones nuevas en el grafo
+     * @param ubicacionesRepetidas ubicaciones omitidas porque su nombre ya existía
+     * @param rutasAgregadas       rutas nuevas en el grafo
+     * @param rutasRepetidas       rutas omitidas porque su origen y destino ya estaban unidos
+     * @param registrosInvalidos   registros que no se pudieron interpretar
+     * @param errores              descripción de los primeros registros inválidos
+     * @param milisegundos         duración de la importación
+     */
+    public ResultadoImportacion(int ubicacionesAgregadas, int ubicacionesRepetidas, int rutasAgregadas, int rutasRepetidas,
+                                int registrosInvalidos, List<String> errores, long milisegundos) {
+        this.ubicacionesAgregadas = ubicacionesAgregadas;
+        this.ubicacionesRepetidas = ubicacionesRepetidas;
+        this.rutasAgregadas = rutasAgregadas;
+        this.rutasRepetidas = rutasRepetidas;
+        this.registrosInvalidos = registrosInvalidos;
+        this.errores = Collections.unmodifiableList(errores);
+        this.milisegundos = milisegundos;
+    }
+
+    /** @return ubicaciones nuevas en el grafo */
+    public int getUbicacionesAgregadas() { return ubicacionesAgregadas; }
+
+    /** @return ubicaciones omitidas porque su nombre ya existía */
+    public int getUbicacionesRepetidas() { return ubicacionesRepetidas; }
+
+    /** @return rutas nuevas en el grafo */
+    public int getRutasAgregadas() { return rutasAgregadas; }
+
+    /** @return rutas omitidas porque su origen y destino ya estaban unidos */
+    public int getRutasRepetidas() { return rutasRepetidas; }
+
+    /** @return registros que no se pudieron interpretar */
+    public int getRegistrosInvalidos() { return registrosInvalidos; }
+
+    /** @return descripción de los primeros registros inválidos */
+    public List<String> getErrores() { return errores; }
+
+    /** @return duración de la importación, en milisegundos */
+    public long getMilisegundos() { return milisegundos; }
+
+    @Override
+    public String toString() {
+        return String.format("Importación: %d ubicaciones y %d rutas agregadas (%d y %d repetidas, %d registros inválidos) en %d ms",
+                ubicacionesAgregadas, rutasAgregadas, ubicacionesRepetidas, rutasRepetidas, registrosInvalidos, milisegundos);
+    }
+}
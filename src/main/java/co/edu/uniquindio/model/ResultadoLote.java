@@ -0,0 +1,57 @@
+package co.edu.uniquindio.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una consulta de rutas por lotes: una distancia por cada par solicitado,
+ * en el mismo orden, y opcionalmente el camino correspondiente.
+ */
+public class ResultadoLote {
+
+    private final List<ParOrigenDestino> pares;
+    private final double[] distancias;
+    private final List<List<Ubicacion>> caminos;
+
+    /**
+     * Crea el resultado de un lote.
+     *
+     * @param pares      pares consultados
+     * @param distancias distancia de cada par (infinito si no hay ruta)
+     * @param caminos    camino de cada par, o null si no se solicitaron
+     */
+    public ResultadoLote(List<ParOrigenDestino> pares, double[] distancias, List<List<Ubicacion>> caminos) {
+        this.pares = pares;
+        this.distancias = distancias;
+        this.caminos = caminos;
+    }
+
+    /** @return cantidad de pares del lote */
+    public int getTamano() { return distancias.length; }
+
+    /**
+     * @param i posición del par en el lote
+     * @return par consultado
+     */
+    public ParOrigenDestino getPar(int i) { return pares.get(i); }
+
+    /**
+     * @param i posición del par en el lote
+     * @return distancia más corta, o infinito si no existe ruta
+     */
+    public double getDistancia(int i) { return distancias[i]; }
+
+    /** @return arreglo de distancias en el orden de los pares */
+    public double[] getDistancias() { return distancias; }
+
+    /**
+     * @param i posición del par en el lote
+     * @return camino del par, o lista vacía si no hay ruta o no se solicitaron caminos
+     */
+    public List<Ubicacion> getCamino(int i) {
+        return caminos != null ? caminos.get(i) : Collections.emptyList();
+    }
+
+    /** @return true si el lote incluye los caminos además de las distancias */
+    public boolean incluyeCaminos() { return caminos != null; }
+}
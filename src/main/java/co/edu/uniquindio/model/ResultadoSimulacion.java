@@ -0,0 +1,50 @@
+package co.edu.uniquindio.model;
+
+/**
+ * Resultado de una réplica de la simulación de evacuación.
+ */
+public class ResultadoSimulacion {
+
+    private final double tiempoTotalHoras;
+    private final double tiempoPromedioHoras;
+    private final long personasEvacuadas;
+    private final long personasSinRuta;
+    private final long eventosProcesados;
+
+    /**
+     * @param tiempoTotalHoras    instante en que llega al refugio el último grupo
+     * @param tiempoPromedioHoras instante medio de llegada por persona evacuada
+     * @param personasEvacuadas   personas que llegaron a un refugio
+     * @param personasSinRuta     personas de zonas sin camino a ningún refugio
+     * @param eventosProcesados   eventos atendidos por el simulador
+     */
+    public ResultadoSimulacion(double tiempoTotalHoras, double tiempoPromedioHoras, long personasEvacuadas,
+                               long personasSinRuta, long eventosProcesados) {
+        this.tiempoTotalHoras = tiempoTotalHoras;
+        this.tiempoPromedioHoras = tiempoPromedioHoras;
+        this.personasEvacuadas = personasEvacuadas;
+        this.personasSinRuta = personasSinRuta;
+        this.eventosProcesados = eventosProcesados;
+    }
+
+    /** @return horas hasta que el último grupo llega a un refugio */
+    public double getTiempoTotalHoras() { return tiempoTotalHoras; }
+
+    /** @return horas medias de llegada por persona evacuada */
+    public double getTiempoPromedioHoras() { return tiempoPromedioHoras; }
+
+    /** @return personas que llegaron a un refugio */
+    public long getPersonasEvacuadas() { return personasEvacuadas; }
+
+    /** @return personas de zonas sin camino a ningún refugio */
+    public long getPersonasSinRuta() { return personasSinRuta; }
+
+    /** @return eventos atendidos por el simulador */
+    public long getEventosProcesados() { return eventosProcesados; }
+
+    @Override
+    public String toString() {
+        return String.format("ResultadoSimulacion{total=%.2fh, promedio=%.2fh, evacuadas=%d, sinRuta=%d, eventos=%d}",
+                tiempoTotalHoras, tiempoPromedioHoras, personasEvacuadas, personasSinRuta, eventosProcesados);
+    }
+}
@@ -2,16 +2,23 @@ package co.edu.uniquindio.model;
 
 public class Ruta {
 
+    /** Capacidad usada cuando la ruta no tiene un límite de personas por hora. */
+    public static final int CAPACIDAD_ILIMITADA = Integer.MAX_VALUE;
+
     private Ubicacion origen;
     private Ubicacion destino;
     private double distancia;
     private boolean disponible;
+    private int capacidad;
+    private GrafoRutas grafo;
+    private int indiceCompacto = -1;
 
     public Ruta(Ubicacion origen, Ubicacion destino, double distancia, boolean disponible) {
         this.origen = origen;
         this.destino = destino;
         this.distancia = distancia;
         this.disponible = disponible;
+        this.capacidad = CAPACIDAD_ILIMITADA;
     }
 
     public Ubicacion getOrigen() {
@@ -20,6 +27,7 @@ public class Ruta {
 
     public void setOrigen(Ubicacion origen) {
         this.origen = origen;
+        if (grafo != null) grafo.invalidarCompilacion();
     }
 
     public Ubicacion getDestino() {
@@ -28,6 +36,7 @@ public class Ruta {
 
     public void setDestino(Ubicacion destino) {
         this.destino = destino;
+        if (grafo != null) grafo.invalidarCompilacion();
     }
 
     public double getDistancia() {
@@ -36,6 +45,7 @@ public class Ruta {
 
     public void setDistancia(double distancia) {
         this.distancia = distancia;
+        if (grafo != null) grafo.rutaModificada(this);
     }
 
     public boolean isDisponible() {
@@ -44,6 +54,43 @@ public class Ruta {
 
     public void setDisponible(boolean disponible) {
         this.disponible = disponible;
+        if (grafo != null) grafo.rutaModificada(this);
+    }
+
+    /**
+     * @return personas por hora que pueden circular por la ruta, o {@link #CAPACIDAD_ILIMITADA}
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Establece cuántas personas por hora pueden circular por la ruta.
+     *
+     * @param capacidad personas por hora (>= 0)
+     */
+    public void setCapacidad(int capacidad) {
+        if (capacidad < 0)
+            throw new IllegalArgumentException("La capacidad de la ruta no puede ser negativa.");
+        this.capacidad = capacidad;
+        if (grafo != null) grafo.capacidadModificada(this);
+    }
+
+    /**
+     * Enlaza la ruta con el grafo que la contiene para notificarle sus cambios.
+     *
+     * @param grafo grafo propietario
+     */
+    void vincular(GrafoRutas grafo) {
+        this.grafo = grafo;
+    }
+
+    int getIndiceCompacto() {
+        return indiceCompacto;
+    }
+
+    void setIndiceCompacto(int indiceCompacto) {
+        this.indiceCompacto = indiceCompacto;
     }
 
     @Override
@@ -53,6 +100,7 @@ public class Ruta {
                 ", destino=" + destino +
                 ", distancia=" + distancia +
                 ", disponible=" + disponible +
+                ", capacidad=" + (capacidad == CAPACIDAD_ILIMITADA ? "ilimitada" : capacidad) +
                 '}';
     }
 }
@@ -0,0 +1,381 @@
+package co.edu.uniquindio.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Simulación de tiempo discreto de una evacuación por la red de rutas.
+ * <p>
+ * Una flota de vehículos parte de los refugios; cada vehículo libre toma un grupo de la zona
+ * pendiente más prioritaria (mayor urgencia y luego más personas por evacuar) a la que puede
+ * llegar desde su refugio, lo lleva al refugio y queda libre de nuevo. El viaje de ida, vacío,
+ * dura el camino más corto por la red a velocidad de flujo libre. En cada cruce el vehículo
+ * elige, entre las rutas que lo acercan a algún refugio, la de menor tiempo actual más tiempo
+ * restante, y el tiempo de cada ruta crece con su ocupación según la función BPR; las rutas
+ * cerradas o con capacidad 0 no se usan. Las zonas que siguen esperando suben un nivel de
+ * urgencia en cada intervalo de escalamiento; ese escalamiento se aplica a copias internas y no
+ * modifica las ubicaciones del modelo.
+ * <p>
+ * La red, las zonas y los parámetros se preparan una sola vez y no cambian después, de modo que
+ * varias réplicas pueden ejecutarse a la vez en hilos distintos: cada {@link #ejecutar(long)}
+ * crea su propio estado, su {@link ColaEventos} y su generador aleatorio.
+ */
+public class SimulacionEvacuacion {
+
+    private static final int LIBRE = 0;
+    private static final int LLEGADA = 1;
+    private static final int ESCALAR = 2;
+    private static final int BITS_TIPO = 2;
+    private static final int URGENCIA_MAXIMA = 10;
+    /** Separa en la clave de prioridad el nivel de urgencia de las personas pendientes. */
+    private static final double PESO_URGENCIA = 4294967296.0;
+
+    private final GrafoCompacto grafo;
+    private final int[] inicioBajada;
+    private final int[] aristasBajada;
+    private final double[] horasRestantes;
+    private final double[] horasLibres;
+    private final double[] capacidadHora;
+    private final boolean[] esRefugio;
+    private final int[] nodosRefugio;
+    /** Ruta por la que sale cada nodo en el árbol de caminos hacia el refugio más cercano. */
+    private final int[] haciaRefugio;
+    /** Posición de cada nodo en {@link #nodosRefugio}, o -1 si no es refugio. */
+    private final int[] indiceRefugio;
+    /** Horas de flujo libre por la red desde cada refugio hasta cada zona. */
+    private final double[][] horasHaciaZona;
+
+    private final int[] nodoZona;
+    private final int[] personasZona;
+    private final int[] urgenciaZona;
+    private final long personasSinRuta;
+
+    private final int vehiculos;
+    private final int capacidadVehiculo;
+    private final double velocidad;
+    private final double tiempoCarga;
+    private final double tiempoDescarga;
+    private final double intervaloEscalamiento;
+    private final double variabilidad;
+    private final double alfa;
+    private final double beta;
+
+    /**
+     * Prepara una simulación.
+     *
+     * @param grafo      representación compilada del grafo de rutas
+     * @param zonas      zonas por evacuar; cada una aporta sus personas afectadas y su urgencia
+     * @param refugios   refugios de destino, que también sirven de base a la flota
+     * @param parametros parámetros de la simulación (se copian)
+     */
+    public SimulacionEvacuacion(GrafoCompacto grafo, List<Ubicacion> zonas, List<Ubicacion> refugios,
+                                ParametrosSimulacion parametros) {
+        if (parametros.getVehiculos() >= 1 << (Integer.SIZE - 1 - BITS_TIPO))
+            throw new IllegalArgumentException("La flota es demasiado grande para la simulación.");
+        this.grafo = grafo;
+        this.vehiculos = parametros.getVehiculos();
+        this.capacidadVehiculo = parametros.getCapacidadVehiculo();
+        this.velocidad = parametros.getVelocidadKmH();
+        this.tiempoCarga = parametros.getTiempoCargaHoras();
+        this.tiempoDescarga = parametros.getTiempoDescargaHoras();
+        this.intervaloEscalamiento = parametros.getIntervaloEscalamientoHoras();
+        this.variabilidad = parametros.getVariabilidad();
+        this.alfa = parametros.getBprAlfa();
+        this.beta = parametros.getBprBeta();
+
+        int n = grafo.getNumeroNodos();
+        int m = grafo.getNumeroAristas();
+        this.esRefugio = new boolean[n];
+        this.indiceRefugio = new int[n];
+        Arrays.fill(indiceRefugio, -1);
+        int[] bases = new int[refugios.size()];
+        int cantidadRefugios = 0;
+        for (Ubicacion refugio : refugios) {
+            int nodo = grafo.indiceDe(refugio);
+            if (nodo < 0 || esRefugio[nodo]) continue;
+            esRefugio[nodo] = true;
+            indiceRefugio[nodo] = cantidadRefugios;
+            bases[cantidadRefugios++] = nodo;
+        }
+        this.nodosRefugio = Arrays.copyOf(bases, cantidadRefugios);
+
+        // una ruta cerrada o sin capacidad no deja pasar a nadie: su tiempo libre es infinito
+        this.horasLibres = new double[m];
+        this.capacidadHora = new double[m];
+        for (int e = 0; e < m; e++) {
+            int capacidad = grafo.getRuta(e).getCapacidad();
+            boolean transitable = grafo.estaDisponible(e) && capacidad != 0;
+            horasLibres[e] = transitable ? grafo.getPeso(e) / velocidad : Double.POSITIVE_INFINITY;
+            capacidadHora[e] = capacidad == Ruta.CAPACIDAD_ILIMITADA ? Double.POSITIVE_INFINITY : capacidad;
+        }
+
+        // tiempo de flujo libre desde cada nodo hasta el refugio más cercano
+        this.horasRestantes = new double[n];
+        this.haciaRefugio = new int[n];
+        recorrer(nodosRefugio, true, horasRestantes, haciaRefugio);
+
+        // rutas de bajada: las que acercan estrictamente a un refugio más la del árbol de caminos,
+        // que cubre los empates; juntas no forman ciclos
+        this.inicioBajada = new int[n + 1];
+        int[] bajada = new int[m];
+        int total = 0;
+        for (int u = 0; u < n; u++) {
+            inicioBajada[u] = total;
+            if (esRefugio[u] || horasRestantes[u] == Double.POSITIVE_INFINITY) continue;
+            for (int e = grafo.inicioAristas(u); e < grafo.finAristas(u); e++) {
+                if (horasLibres[e] == Double.POSITIVE_INFINITY) continue;
+                if (e == haciaRefugio[u] || horasRestantes[grafo.getDestino(e)] < horasRestantes[u]) bajada[total++] = e;
+            }
+        }
+        inicioBajada[n] = total;
+        this.aristasBajada = Arrays.copyOf(bajada, total);
+
+        boolean[] vista = new boolean[n];
+        int[] nodos = new int[zonas.size()];
+        int[] personas = new int[zonas.size()];
+        int[] urgencias = new int[zonas.size()];
+        int cantidad = 0;
+        long sinRuta = 0;
+        for (Ubicacion zona : zonas) {
+            int nodo = grafo.indiceDe(zona);
+            if (nodo < 0 || vista[nodo] || esRefugio[nodo] || zona.getPersonasAfectadas() <= 0) continue;
+            vista[nodo] = true;
+            if (horasRestantes[nodo] == Double.POSITIVE_INFINITY) {
+                sinRuta += zona.getPersonasAfectadas();
+                continue;
+            }
+            nodos[cantidad] = nodo;
+            personas[cantidad] = zona.getPersonasAfectadas();
+            urgencias[cantidad++] = zona.getNivelUrgencia();
+        }
+        this.nodoZona = Arrays.copyOf(nodos, cantidad);
+        this.personasZona = Arrays.copyOf(personas, cantidad);
+        this.urgenciaZona = Arrays.copyOf(urgencias, cantidad);
+        this.personasSinRuta = sinRuta;
+
+        // los vehículos solo quedan libres en un refugio: basta un árbol de caminos por refugio
+        this.horasHaciaZona = new double[nodosRefugio.length][cantidad];
+        if (cantidad > 0) {
+            double[] horas = new double[n];
+            int[] previa = new int[n];
+            for (int r = 0; r < nodosRefugio.length; r++) {
+                recorrer(new int[]{nodosRefugio[r]}, false, horas, previa);
+                for (int z = 0; z < cantidad; z++) horasHaciaZona[r][z] = horas[nodoZona[z]];
+            }
+        }
+    }
+
+    /**
+     * Dijkstra sobre los tiempos de flujo libre, que ya excluyen las rutas cerradas o sin
+     * capacidad.
+     *
+     * @param fuentes nodos de partida
+     * @param inverso true para medir el tiempo desde cada nodo hasta las fuentes
+     * @param horas   recibe el tiempo de cada nodo (infinito si no se alcanza)
+     * @param previa  recibe la ruta del árbol de cada nodo: la que sale hacia las fuentes si es
+     *                inverso, o la que llega desde ellas si no; -1 en las fuentes
+     */
+    private void recorrer(int[] fuentes, boolean inverso, double[] horas, int[] previa) {
+        Arrays.fill(horas, Double.POSITIVE_INFINITY);
+        Arrays.fill(previa, -1);
+        MonticuloMinimo cola = new MonticuloMinimo(horas.length);
+        for (int f : fuentes) {
+            horas[f] = 0.0;
+            cola.insertarODisminuir(f, 0.0);
+        }
+        while (!cola.estaVacio()) {
+            int actual = cola.extraerMinimo();
+            int inicio = inverso ? grafo.inicioEntrantes(actual) : grafo.inicioAristas(actual);
+            int fin = inverso ? grafo.finEntrantes(actual) : grafo.finAristas(actual);
+            for (int k = inicio; k < fin; k++) {
+                int e = inverso ? grafo.aristaEntrante(k) : k;
+                int vecino = inverso ? grafo.getOrigen(e) : grafo.getDestino(e);
+                double nuevas = horas[actual] + horasLibres[e];
+                if (nuevas < horas[vecino]) {
+                    horas[vecino] = nuevas;
+                    previa[vecino] = e;
+                    cola.insertarODisminuir(vecino, nuevas);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una réplica hasta que no queden personas por trasladar.
+     *
+     * @param semilla semilla del generador aleatorio de la réplica
+     * @return resultado de la réplica
+     */
+    public ResultadoSimulacion ejecutar(long semilla) {
+        SplittableRandom azar = new SplittableRandom(semilla);
+        int zonas = nodoZona.length;
+        int[] pendientes = personasZona.clone();
+        int[] urgencia = urgenciaZona.clone();
+        MonticuloMinimo prioridad = new MonticuloMinimo(zonas);
+        for (int z = 0; z < zonas; z++) prioridad.insertarODisminuir(z, clave(urgencia[z], pendientes[z]));
+
+        double[] ocupacion = new double[horasLibres.length];
+        int[] posicion = new int[vehiculos];
+        int[] arista = new int[vehiculos];
+        int[] carga = new int[vehiculos];
+        int[] apartadas = new int[zonas];
+
+        ColaEventos cola = new ColaEventos(2 * vehiculos + 1);
+        if (nodosRefugio.length > 0) {
+            for (int v = 0; v < vehiculos; v++) {
+                posicion[v] = nodosRefugio[v % nodosRefugio.length];
+                cola.programar(0.0, codificar(v, LIBRE));
+            }
+        }
+        if (zonas > 0) cola.programar(intervaloEscalamiento, codificar(0, ESCALAR));
+
+        long eventos = 0;
+        long evacuadas = 0;
+        double sumaLlegadas = 0.0;
+        double ultimaLlegada = 0.0;
+
+        while (!cola.estaVacia()) {
+            double ahora = cola.tiempoSiguiente();
+            int evento = cola.extraer();
+            eventos++;
+            int v = evento >>> BITS_TIPO;
+
+            switch (evento & ((1 << BITS_TIPO) - 1)) {
+                case LIBRE: {
+                    double[] horasDesde = horasHaciaZona[indiceRefugio[posicion[v]]];
+                    int z = tomarZona(prioridad, horasDesde, urgencia, pendientes, apartadas);
+                    if (z < 0) break;
+                    int grupo = Math.min(capacidadVehiculo, pendientes[z]);
+                    pendientes[z] -= grupo;
+                    if (pendientes[z] > 0) prioridad.insertarODisminuir(z, clave(urgencia[z], pendientes[z]));
+
+                    double traslado = horasDesde[z];
+                    double embarque = -tiempoCarga * Math.log(1.0 - azar.nextDouble());
+                    posicion[v] = nodoZona[z];
+                    arista[v] = -1;
+                    carga[v] = grupo;
+                    cola.programar(ahora + traslado + embarque, codificar(v, LLEGADA));
+                    break;
+                }
+                case LLEGADA: {
+                    if (arista[v] >= 0) ocupacion[arista[v]] -= carga[v];
+                    int u = posicion[v];
+                    if (esRefugio[u]) {
+                        evacuadas += carga[v];
+                        sumaLlegadas += carga[v] * ahora;
+                        ultimaLlegada = ahora;
+                        carga[v] = 0;
+                        arista[v] = -1;
+                        cola.programar(ahora + tiempoDescarga, codificar(v, LIBRE));
+                        break;
+                    }
+                    int mejor = -1;
+                    double mejorTiempo = Double.POSITIVE_INFINITY;
+                    double mejorTotal = Double.POSITIVE_INFINITY;
+                    for (int k = inicioBajada[u]; k < inicioBajada[u + 1]; k++) {
+                        int e = aristasBajada[k];
+                        double tiempo = tiempoViaje(e, ocupacion[e] + carga[v]);
+                        double total = tiempo + horasRestantes[grafo.getDestino(e)];
+                        if (total < mejorTotal) {
+                            mejor = e;
+                            mejorTiempo = tiempo;
+                            mejorTotal = total;
+                        }
+                    }
+                    if (mejor < 0) {
+                        // con la congestión ningún tiempo es finito; se sigue el árbol de caminos,
+                        // que existe porque el nodo tiene tiempo restante finito
+                        mejor = haciaRefugio[u];
+                        mejorTiempo = horasLibres[mejor];
+                    }
+                    ocupacion[mejor] += carga[v];
+                    arista[v] = mejor;
+                    posicion[v] = grafo.getDestino(mejor);
+                    double ruido = 1.0 + variabilidad * (2.0 * azar.nextDouble() - 1.0);
+                    cola.programar(ahora + mejorTiempo * ruido, codificar(v, LLEGADA));
+                    break;
+                }
+                case ESCALAR: {
+                    // las zonas que siguen esperando ganan urgencia; subir la urgencia solo disminuye la clave
+                    boolean pueden = false;
+                    for (int z = 0; z < zonas; z++) {
+                        if (pendientes[z] > 0 && urgencia[z] < URGENCIA_MAXIMA) {
+                            urgencia[z]++;
+                            prioridad.insertarODisminuir(z, clave(urgencia[z], pendientes[z]));
+                            pueden |= urgencia[z] < URGENCIA_MAXIMA;
+                        }
+                    }
+                    if (pueden) cola.programar(ahora + intervaloEscalamiento, evento);
+                    break;
+                }
+            }
+        }
+
+        long sinTrasladar = 0;
+        for (int p : pendientes) sinTrasladar += p;
+        double promedio = evacuadas > 0 ? sumaLlegadas / evacuadas : 0.0;
+        return new ResultadoSimulacion(ultimaLlegada, promedio, evacuadas, personasSinRuta + sinTrasladar, eventos);
+    }
+
+    /**
+     * Tiempo de una ruta con la ocupación dada según la función BPR; las personas que circulan
+     * por la ruta hacen de volumen frente a su capacidad por hora.
+     */
+    private double tiempoViaje(int e, double personas) {
+        double libre = horasLibres[e];
+        if (capacidadHora[e] == Double.POSITIVE_INFINITY) return libre;
+        double saturacion = personas / capacidadHora[e];
+        double factor;
+        if (beta == 4.0) {
+            double cuadrado = saturacion * saturacion;
+            factor = cuadrado * cuadrado;
+        } else {
+            factor = Math.pow(saturacion, beta);
+        }
+        return libre * (1.0 + alfa * factor);
+    }
+
+    /**
+     * Extrae la zona más prioritaria a la que se puede llegar desde el refugio del vehículo; las
+     * que se saltan vuelven a la cola con su misma clave.
+     *
+     * @return zona tomada, o -1 si ninguna pendiente es alcanzable desde ese refugio
+     */
+    private static int tomarZona(MonticuloMinimo prioridad, double[] horasDesde, int[] urgencia, int[] pendientes,
+                                 int[] apartadas) {
+        int saltadas = 0;
+        int z = -1;
+        while (!prioridad.estaVacio()) {
+            int candidata = prioridad.extraerMinimo();
+            if (horasDesde[candidata] != Double.POSITIVE_INFINITY) {
+                z = candidata;
+                break;
+            }
+            apartadas[saltadas++] = candidata;
+        }
+        for (int i = 0; i < saltadas; i++) {
+            int a = apartadas[i];
+            prioridad.insertarODisminuir(a, clave(urgencia[a], pendientes[a]));
+        }
+        return z;
+    }
+
+    private static double clave(int urgencia, int pendientes) {
+        return -(urgencia * PESO_URGENCIA + pendientes);
+    }
+
+    private static int codificar(int entidad, int tipo) {
+        return (entidad << BITS_TIPO) | tipo;
+    }
+
+    /** @return cantidad de zonas con camino a algún refugio */
+    public int getCantidadZonas() {
+        return nodoZona.length;
+    }
+
+    /** @return personas de zonas sin camino a ningún refugio */
+    public long getPersonasSinRuta() {
+        return personasSinRuta;
+    }
+}
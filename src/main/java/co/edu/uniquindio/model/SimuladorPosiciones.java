@@ -0,0 +1,84 @@
+package co.edu.uniquindio.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fuente local de posiciones GPS para probar el rastreo sin equipos reales: cada equipo hace una
+ * caminata aleatoria alrededor de su base y los reportes se envían al {@link RastreadorEquipos}
+ * en ráfagas cada diez milisegundos hasta sumar la frecuencia pedida.
+ */
+public class SimuladorPosiciones implements AutoCloseable {
+
+    /** Desplazamiento máximo por reporte, en grados (unos 50 metros). */
+    private static final double PASO_GRADOS = 0.0005;
+    private static final long RAFAGA_MS = 10;
+
+    private final RastreadorEquipos rastreador;
+    private final List<Equipo> equipos;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int reportesPorRafaga;
+    private final ScheduledExecutorService hilo;
+    private int siguiente;
+    private volatile long enviados;
+
+    /**
+     * @param rastreador         rastreador que recibe los reportes
+     * @param equipos            equipos simulados
+     * @param reportesPorSegundo reportes que se envían por segundo entre todos los equipos
+     */
+    public SimuladorPosiciones(RastreadorEquipos rastreador, List<Equipo> equipos, int reportesPorSegundo) {
+        if (rastreador == null) throw new IllegalArgumentException("El rastreador no puede ser nulo.");
+        if (equipos == null || equipos.isEmpty()) throw new IllegalArgumentException("Debe simular al menos un equipo.");
+        if (reportesPorSegundo <= 0) throw new IllegalArgumentException("La frecuencia de reportes debe ser positiva.");
+        this.rastreador = rastreador;
+        this.equipos = new ArrayList<>(equipos);
+        this.latitudes = new double[equipos.size()];
+        this.longitudes = new double[equipos.size()];
+        for (int i = 0; i < equipos.size(); i++) {
+            Ubicacion base = this.equipos.get(i).getBase();
+            latitudes[i] = base != null ? base.getLatitud() : 0.0;
+            longitudes[i] = base != null ? base.getLongitud() : 0.0;
+        }
+        this.reportesPorRafaga = (int) Math.max(1, reportesPorSegundo * RAFAGA_MS / 1000);
+        this.hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "simulador-posiciones");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Empieza a enviar reportes. */
+    public void iniciar() {
+        hilo.scheduleAtFixedRate(this::enviarRafaga, 0, RAFAGA_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void enviarRafaga() {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        long ahora = System.currentTimeMillis();
+        for (int k = 0; k < reportesPorRafaga; k++) {
+            int i = siguiente;
+            siguiente = (siguiente + 1) % equipos.size();
+            latitudes[i] = Math.max(-90, Math.min(90, latitudes[i] + azar.nextDouble(-PASO_GRADOS, PASO_GRADOS)));
+            longitudes[i] = Math.max(-180, Math.min(180, longitudes[i] + azar.nextDouble(-PASO_GRADOS, PASO_GRADOS)));
+            rastreador.reportarPosicion(equipos.get(i), latitudes[i], longitudes[i], ahora);
+        }
+        enviados += reportesPorRafaga;
+    }
+
+    /** @return reportes enviados al rastreador, incluidos los que descartó por buffer lleno */
+    public long getReportesEnviados() {
+        return enviados;
+    }
+
+    /** Deja de enviar reportes. */
+    @Override
+    public void close() {
+        hilo.shutdownNow();
+    }
+}
@@ -1,12 +1,18 @@
 package co.edu.uniquindio.model;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 /**
  * Clase encargada de simular el transporte entre ubicaciones utilizando un grafo de rutas.
  */
 public class SimuladorRutas {
     private GrafoRutas grafo;
 
+    /** Fracción máxima de distancia que una ruta alternativa puede compartir con otra ya propuesta. */
+    private static final double SOLAPAMIENTO_MAXIMO = 0.5;
+
     /**
      * Constructor que inicializa el simulador con un grafo de rutas dado.
      *
@@ -18,12 +24,13 @@ public class SimuladorRutas {
 
     /**
      * Simula el transporte entre dos ubicaciones mostrando el camino más corto calculado.
+     * Usa el índice de jerarquías de contracción, pensado para muchas consultas seguidas.
      *
      * @param origen  ubicación de inicio del recorrido
      * @param destino ubicación de destino del recorrido
      */
     public void simularTransporte(Ubicacion origen, Ubicacion destino) {
-        List<Ubicacion> camino = grafo.obtenerCaminoMasCorto(origen, destino);
+        List<Ubicacion> camino = grafo.obtenerCaminoMasCorto(origen, destino, ModoBusqueda.CONTRACCION);
         System.out.println("Ruta simulada: " + camino);
     }
 
@@ -39,6 +46,98 @@ public class SimuladorRutas {
         simularTransporte(origen, destino);
     }
 
+    /**
+     * Obtiene rutas de respaldo entre dos ubicaciones, ordenadas de menor a mayor distancia,
+     * evitando que compartan más de la mitad de su recorrido con una ruta ya propuesta.
+     *
+     * @param origen   ubicación de inicio
+     * @param destino  ubicación de destino
+     * @param cantidad número máximo de rutas a proponer
+     * @return rutas alternativas ordenadas por distancia
+     */
+    public List<Camino> obtenerRutasAlternativas(Ubicacion origen, Ubicacion destino, int cantidad) {
+        return grafo.obtenerRutasAlternativas(origen, destino, cantidad, SOLAPAMIENTO_MAXIMO);
+    }
+
+    /**
+     * Prepara una simulación de evacuación de las ciudades con personas afectadas hacia los
+     * refugios del grafo. La simulación preparada puede ejecutarse muchas veces.
+     *
+     * @param parametros flota, velocidades y tiempos de la simulación
+     * @return simulación lista para ejecutar réplicas
+     */
+    public SimulacionEvacuacion prepararEvacuacion(ParametrosSimulacion parametros) {
+        List<Ubicacion> ubicaciones = grafo.getUbicaciones();
+        return new SimulacionEvacuacion(grafo.getGrafoCompacto(),
+                PlanificadorEvacuacion.obtenerCiudadesAfectadas(ubicaciones),
+                PlanificadorEvacuacion.obtenerRefugios(ubicaciones), parametros);
+    }
+
+    /**
+     * Prepara una simulación de evacuación de las zonas pendientes de un gestor de evacuación.
+     *
+     * @param gestor     gestor con las zonas por evacuar
+     * @param parametros flota, velocidades y tiempos de la simulación
+     * @return simulación lista para ejecutar réplicas
+     */
+    public SimulacionEvacuacion prepararEvacuacion(GestorEvacuacion gestor, ParametrosSimulacion parametros) {
+        return new SimulacionEvacuacion(grafo.getGrafoCompacto(), gestor.obtenerZonasPendientes(),
+                PlanificadorEvacuacion.obtenerRefugios(grafo.getUbicaciones()), parametros);
+    }
+
+    /**
+     * Simula una evacuación completa de las ciudades afectadas.
+     *
+     * @param parametros flota, velocidades y tiempos de la simulación
+     * @param semilla    semilla del generador aleatorio
+     * @return resultado de la simulación
+     */
+    public ResultadoSimulacion simularEvacuacion(ParametrosSimulacion parametros, long semilla) {
+        return prepararEvacuacion(parametros).ejecutar(semilla);
+    }
+
+    /**
+     * Estima el tiempo total de evacuación de las ciudades afectadas con varias réplicas
+     * independientes ejecutadas en paralelo.
+     *
+     * @param parametros flota, velocidades y tiempos de la simulación
+     * @param replicas   cantidad de réplicas
+     * @param semilla    semilla base; la réplica i usa semilla + i
+     * @return estadísticas del tiempo total de evacuación
+     */
+    public EstadisticasSimulacion simularReplicas(ParametrosSimulacion parametros, int replicas, long semilla) {
+        return simularReplicas(prepararEvacuacion(parametros), replicas, semilla);
+    }
+
+    /**
+     * Ejecuta en paralelo varias réplicas independientes de una simulación preparada.
+     *
+     * @param simulacion simulación preparada
+     * @param replicas   cantidad de réplicas
+     * @param semilla    semilla base; la réplica i usa semilla + i
+     * @return estadísticas del tiempo total de evacuación
+     */
+    public EstadisticasSimulacion simularReplicas(SimulacionEvacuacion simulacion, int replicas, long semilla) {
+        if (replicas <= 0) throw new IllegalArgumentException("Se requiere al menos una réplica.");
+        ResultadoSimulacion[] resultados = new ResultadoSimulacion[replicas];
+        long inicio = System.nanoTime();
+        IntStream.range(0, replicas).parallel().forEach(i -> resultados[i] = simulacion.ejecutar(semilla + i));
+        return new EstadisticasSimulacion(resultados, (System.nanoTime() - inicio) / 1e9);
+    }
+
+    /**
+     * Estima cuánto tarda en evacuarse cada zona si los grupos respetan la capacidad por hora de
+     * las rutas y el cupo de los refugios (planificación CCRP).
+     *
+     * @param zonas zonas a evacuar
+     * @return horas estimadas de finalización por zona
+     */
+    public Map<Ubicacion, Double> estimarTiemposEvacuacion(Collection<Ubicacion> zonas) {
+        PlanificadorCapacidadRutas planificador = new PlanificadorCapacidadRutas(grafo);
+        planificador.agregarZonas(zonas);
+        return planificador.getTiemposFinalizacion();
+    }
+
     /**
      * Devuelve el grafo de rutas utilizado por el simulador.
      *
@@ -14,6 +14,8 @@ public class Ubicacion {
     private final Map<Recurso, Integer> recursos;
     private double latitud;
     private double longitud;
+    private int capacidadAlojamiento;
+    private GrafoRutas grafo;
 
     /**
      * Crea una nueva instancia de Ubicacion con todos sus atributos.
@@ -46,6 +48,7 @@ public class Ubicacion {
         this.recursos = new HashMap<>();
         this.latitud = latitud;
         this.longitud = longitud;
+        this.capacidadAlojamiento = Integer.MAX_VALUE;
     }
 
     /** @return nombre de la ubicación */
@@ -96,7 +99,10 @@ public class Ubicacion {
      * Establece la latitud.
      * @param latitud coordenada geográfica
      */
-    public void setLatitud(double latitud) { this.latitud = latitud; }
+    public void setLatitud(double latitud) {
+        this.latitud = latitud;
+        if (grafo != null) grafo.ubicacionMovida(this);
+    }
 
     /** @return longitud geográfica */
     public double getLongitud() { return longitud; }
@@ -105,7 +111,34 @@ public class Ubicacion {
      * Establece la longitud.
      * @param longitud coordenada geográfica
      */
-    public void setLongitud(double longitud) { this.longitud = longitud; }
+    public void setLongitud(double longitud) {
+        this.longitud = longitud;
+        if (grafo != null) grafo.ubicacionMovida(this);
+    }
+
+    /**
+     * Enlaza la ubicación con el grafo que la contiene para notificarle sus cambios de coordenadas.
+     *
+     * @param grafo grafo propietario
+     */
+    void vincular(GrafoRutas grafo) {
+        this.grafo = grafo;
+    }
+
+    /** @return cantidad máxima de personas que puede alojar (Integer.MAX_VALUE si no tiene límite) */
+    public int getCapacidadAlojamiento() { return capacidadAlojamiento; }
+
+    /**
+     * Establece cuántas personas puede alojar la ubicación cuando funciona como refugio.
+     * @param capacidadAlojamiento número de personas (>= 0)
+     *
+     * @throws IllegalArgumentException si la capacidad es negativa
+     */
+    public void setCapacidadAlojamiento(int capacidadAlojamiento) {
+        if (capacidadAlojamiento < 0)
+            throw new IllegalArgumentException("La capacidad de alojamiento no puede ser negativa.");
+        this.capacidadAlojamiento = capacidadAlojamiento;
+    }
 
     /**
      * Agrega una cantidad específica de un recurso a la ubicación. Si el recurso
@@ -120,6 +153,7 @@ public class Ubicacion {
         if (recurso == null || cantidad <= 0)
             throw new IllegalArgumentException("Recurso nulo o cantidad inválida.");
         recursos.merge(recurso, cantidad, Integer::sum);
+        if (recurso.getGestor() != null) recurso.getGestor().recursoDeUbicacionModificado(this, recurso, cantidad);
     }
 
     /**
@@ -132,9 +166,12 @@ public class Ubicacion {
     public void consumirRecurso(Recurso recurso, int cantidad) {
         if (recurso == null || cantidad <= 0 || !recursos.containsKey(recurso)) return;
 
-        int restante = recursos.get(recurso) - cantidad;
+        int actual = recursos.get(recurso);
+        int restante = actual - cantidad;
         if (restante <= 0) recursos.remove(recurso);
         else recursos.put(recurso, restante);
+        if (recurso.getGestor() != null)
+            recurso.getGestor().recursoDeUbicacionModificado(this, recurso, Math.max(restante, 0) - actual);
     }
 
     /**
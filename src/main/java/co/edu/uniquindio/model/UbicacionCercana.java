@@ -0,0 +1,33 @@
+package co.edu.uniquindio.model;
+
+/**
+ * Resultado de una búsqueda de cercanía: una ubicación y su distancia, por carretera o en línea
+ * recta según la consulta.
+ */
+public class UbicacionCercana {
+
+    private final Ubicacion ubicacion;
+    private final double distancia;
+
+    /**
+     * Crea el resultado de una búsqueda de cercanía.
+     *
+     * @param ubicacion ubicación encontrada
+     * @param distancia distancia en kilómetros
+     */
+    public UbicacionCercana(Ubicacion ubicacion, double distancia) {
+        this.ubicacion = ubicacion;
+        this.distancia = distancia;
+    }
+
+    /** @return ubicación encontrada */
+    public Ubicacion getUbicacion() { return ubicacion; }
+
+    /** @return distancia en kilómetros */
+    public double getDistancia() { return distancia; }
+
+    @Override
+    public String toString() {
+        return String.format("UbicacionCercana{ubicacion='%s', distancia=%.2f}", ubicacion.getNombre(), distancia);
+    }
+}
@@ -0,0 +1,83 @@
+package co.edu.uniquindio.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara los árboles de los centros, reparados de forma incremental, con un Dijkstra completo
+ * tras cada cambio de una secuencia aleatoria de cierres, reaperturas y cambios de distancia.
+ */
+class ArbolDinamicoTest {
+
+    private static final int NODOS = 300;
+    private static final int RUTAS_POR_NODO = 4;
+    private static final int CAMBIOS = 200;
+    private static final double TOLERANCIA = 1e-9;
+
+    @Test
+    void reparacionCoincideConRecalculoCompleto() {
+        Random azar = new Random(6);
+        for (int prueba = 0; prueba < 10; prueba++) {
+            GrafoRutas grafo = new GrafoRutas();
+            Ubicacion[] ubicaciones = new Ubicacion[NODOS];
+            for (int i = 0; i < NODOS; i++) {
+                ubicaciones[i] = new Ubicacion("U" + i, "Ciudad", 0, 1, 0, 0);
+                grafo.agregarUbicacion(ubicaciones[i]);
+            }
+            for (int i = 0; i < NODOS * RUTAS_POR_NODO; i++) {
+                grafo.agregarRuta(ubicaciones[azar.nextInt(NODOS)], ubicaciones[azar.nextInt(NODOS)], 1 + azar.nextInt(10));
+            }
+            List<Ruta> rutas = new ArrayList<>();
+            for (List<Ruta> salientes : grafo.getAdyacencias().values()) rutas.addAll(salientes);
+
+            Ubicacion[] centros = {ubicaciones[0], ubicaciones[1], ubicaciones[2]};
+            for (Ubicacion centro : centros) {
+                grafo.registrarCentro(centro);
+                grafo.obtenerArbolCentro(centro);
+            }
+
+            EspacioBusqueda espacio = new EspacioBusqueda();
+            for (int paso = 0; paso < CAMBIOS; paso++) {
+                Ruta ruta = rutas.get(azar.nextInt(rutas.size()));
+                if (azar.nextInt(3) == 0) ruta.setDisponible(!ruta.isDisponible());
+                else ruta.setDistancia(1 + azar.nextInt(10));
+
+                GrafoCompacto compacto = grafo.getGrafoCompacto();
+                for (Ubicacion centro : centros) {
+                    ArbolDinamico arbol = grafo.obtenerArbolCentro(centro);
+                    compacto.dijkstra(compacto.indiceDe(centro), -1, espacio);
+                    for (int v = 0; v < NODOS; v++) {
+                        String caso = "prueba " + prueba + ", paso " + paso + ", centro " + centro.getNombre() + ", nodo " + v;
+                        double esperada = espacio.getDistancia(v);
+                        double reparada = arbol.getDistancia(ubicaciones[v]);
+                        if (Double.isInfinite(esperada)) {
+                            assertTrue(Double.isInfinite(reparada), caso);
+                            continue;
+                        }
+                        assertEquals(esperada, reparada, TOLERANCIA, caso);
+                        assertEquals(esperada, longitud(grafo, arbol.getCamino(ubicaciones[v])), TOLERANCIA, caso);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Suma las rutas disponibles más cortas entre ubicaciones consecutivas del camino. */
+    private static double longitud(GrafoRutas grafo, List<Ubicacion> camino) {
+        double total = 0;
+        for (int i = 0; i + 1 < camino.size(); i++) {
+            double mejor = Double.POSITIVE_INFINITY;
+            for (Ruta r : grafo.getAdyacencias().get(camino.get(i))) {
+                if (r.isDisponible() && r.getDestino().equals(camino.get(i + 1))) mejor = Math.min(mejor, r.getDistancia());
+            }
+            total += mejor;
+        }
+        return total;
+    }
+}
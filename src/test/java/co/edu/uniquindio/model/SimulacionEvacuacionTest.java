@@ -0,0 +1,52 @@
+package co.edu.uniquindio.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rutas con capacidad 0: la simulación debe tratarlas como cerradas en lugar de fallar al no
+ * encontrar ninguna ruta con tiempo finito.
+ */
+class SimulacionEvacuacionTest {
+
+    private static final int PERSONAS = 120;
+
+    @Test
+    void rutasSinCapacidadDejanLaZonaSinRuta() {
+        GrafoRutas grafo = new GrafoRutas();
+        Ubicacion ciudad = new Ubicacion("C", "Ciudad", PERSONAS, 8, 4.5, -75.6);
+        Ubicacion refugio = new Ubicacion("R", "Refugio", 0, 1, 4.6, -75.7);
+        grafo.agregarUbicacion(ciudad);
+        grafo.agregarUbicacion(refugio);
+        grafo.agregarRuta(ciudad, refugio, 10.0, 0);
+        grafo.agregarRuta(refugio, ciudad, 10.0, 0);
+
+        ResultadoSimulacion resultado = new SimuladorRutas(grafo).simularEvacuacion(new ParametrosSimulacion(), 1);
+        assertEquals(0L, resultado.getPersonasEvacuadas());
+        assertEquals((long) PERSONAS, resultado.getPersonasSinRuta());
+    }
+
+    @Test
+    void rutasSinCapacidadSeEvitanSiHayAlternativa() {
+        GrafoRutas grafo = new GrafoRutas();
+        Ubicacion ciudad = new Ubicacion("C", "Ciudad", PERSONAS, 8, 4.5, -75.6);
+        Ubicacion cruce = new Ubicacion("X", "Intersección", 0, 1, 4.55, -75.65);
+        Ubicacion refugio = new Ubicacion("R", "Refugio", 0, 1, 4.6, -75.7);
+        grafo.agregarUbicacion(ciudad);
+        grafo.agregarUbicacion(cruce);
+        grafo.agregarUbicacion(refugio);
+        grafo.agregarRuta(ciudad, refugio, 10.0, 0);
+        grafo.agregarRuta(refugio, ciudad, 10.0, 0);
+        grafo.agregarRuta(ciudad, cruce, 8.0);
+        grafo.agregarRuta(cruce, refugio, 8.0);
+        grafo.agregarRuta(refugio, cruce, 8.0);
+        grafo.agregarRuta(cruce, ciudad, 8.0);
+
+        ParametrosSimulacion parametros = new ParametrosSimulacion();
+        parametros.setCongestion(0.0, 4.0);
+        ResultadoSimulacion resultado = new SimuladorRutas(grafo).simularEvacuacion(parametros, 1);
+        assertEquals((long) PERSONAS, resultado.getPersonasEvacuadas());
+        assertEquals(0L, resultado.getPersonasSinRuta());
+    }
+}